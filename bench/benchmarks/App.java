@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Η εφαρμογή είναι στο default package και ο JMH δεν δέχεται benchmarks σε default package,
+ * οπότε τα benchmarks φτάνουν τις κλάσεις της με MethodHandles.
+ *
+ * Τα handles κρατιούνται σε static final πεδία ώστε ο JIT να τα κάνει inline
+ * (το κόστος της κλήσης είναι ίδιο με μια κανονική κλήση).
+ */
+final class App {
+
+    private App() {
+    }
+
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Application classes not on the classpath: " + name, e);
+        }
+    }
+
+    /** Static ή instance method (και package-private). Για instance method το πρώτο όρισμα είναι το this. */
+    static MethodHandle method(String owner, String name, Class<?>... params) {
+        try {
+            Method m = type(owner).getDeclaredMethod(name, params);
+            m.setAccessible(true);
+            return MethodHandles.lookup().unreflect(m);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(owner + "." + name, e);
+        }
+    }
+
+    static MethodHandle constructor(String owner, Class<?>... params) {
+        try {
+            Constructor<?> c = type(owner).getDeclaredConstructor(params);
+            c.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(c);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(owner + ".<init>", e);
+        }
+    }
+
+    /** Τα handles πετάνε Throwable· στα benchmarks θέλουμε απλώς να αποτύχει το run. */
+    static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Συνθετικοί πίνακες για τα benchmarks που χρειάζονται MySQL (τη βάση του config.properties).
+ *
+ * bench_w{width}_r{rows}: id BIGINT AUTO_INCREMENT PK και width-1 στήλες που κυκλώνουν σε
+ * INT, BIGINT, DOUBLE, DATETIME, ENUM και VARCHAR. Αν ο πίνακας υπάρχει ήδη με σωστό πλήθος
+ * γραμμών ξαναχρησιμοποιείται, ώστε τα επόμενα runs να μη ξαναγεμίζουν.
+ */
+final class BenchTables {
+
+    private static final MethodHandle DB_GET = App.method("DB", "get");
+    private static final String[] TYPES = {
+            "INT", "BIGINT", "DOUBLE", "DATETIME", "ENUM('ACTIVE','INACTIVE','PENDING','DELETED')", "VARCHAR(64)"};
+    private static final String[] STATUS = {"ACTIVE", "INACTIVE", "PENDING", "DELETED"};
+
+    private BenchTables() {
+    }
+
+    static Connection connection() throws SQLException {
+        try {
+            return (Connection) DB_GET.invoke();
+        } catch (SQLException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw App.rethrow(t);
+        }
+    }
+
+    static String name(int width, int rows) {
+        return "bench_w" + width + "_r" + rows;
+    }
+
+    /** Δημιουργεί (ή ξαναχρησιμοποιεί) τον πίνακα και επιστρέφει το όνομά του. */
+    static String ensure(int width, int rows) throws SQLException {
+        String table = name(width, rows);
+        try (Connection con = connection(); Statement st = con.createStatement()) {
+            st.execute(createSql(table, width));
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM `" + table + "`")) {
+                rs.next();
+                if (rs.getLong(1) == rows) return table;
+            }
+            st.execute("TRUNCATE TABLE `" + table + "`");
+            seed(con, table, width, rows);
+        }
+        return table;
+    }
+
+    /** Άδειος πίνακας για τα benchmarks εγγραφής. */
+    static String ensureEmpty(int width) throws SQLException {
+        String table = "bench_writes_w" + width;
+        try (Connection con = connection(); Statement st = con.createStatement()) {
+            st.execute(createSql(table, width));
+            st.execute("TRUNCATE TABLE `" + table + "`");
+        }
+        return table;
+    }
+
+    static void truncate(String table) throws SQLException {
+        try (Connection con = connection(); Statement st = con.createStatement()) {
+            st.execute("TRUNCATE TABLE `" + table + "`");
+        }
+    }
+
+    static String column(int i) {
+        return "c" + i;
+    }
+
+    /** Τιμή για τη στήλη c{i} (i >= 1) στη γραμμή r, συμβατή με τον τύπο της. */
+    static Object value(int i, long r) {
+        switch ((i - 1) % TYPES.length) {
+            case 0: return (int) (r * 31 + i);
+            case 1: return r * 1_000_003L + i;
+            case 2: return r * 0.25 + i;
+            case 3: return new Timestamp(1_700_000_000_000L + r * 1000L);
+            case 4: return STATUS[(int) (r % STATUS.length)];
+            default: return "user" + r + "." + i + "@example.com";
+        }
+    }
+
+    private static String createSql(String table, int width) {
+        StringBuilder sb = new StringBuilder("CREATE TABLE IF NOT EXISTS `").append(table)
+                .append("` (id BIGINT AUTO_INCREMENT PRIMARY KEY");
+        for (int i = 1; i < width; i++) {
+            sb.append(", ").append(column(i)).append(' ').append(TYPES[(i - 1) % TYPES.length]).append(" NULL");
+        }
+        return sb.append(") ENGINE=InnoDB").toString();
+    }
+
+    private static void seed(Connection con, String table, int width, int rows) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO `").append(table).append("` (");
+        for (int i = 1; i < width; i++) sql.append(i > 1 ? "," : "").append(column(i));
+        sql.append(") VALUES (");
+        for (int i = 1; i < width; i++) sql.append(i > 1 ? "," : "").append('?');
+        sql.append(')');
+
+        boolean auto = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            for (int r = 0; r < rows; r++) {
+                for (int i = 1; i < width; i++) ps.setObject(i, value(i, r));
+                ps.addBatch();
+                if ((r + 1) % 1000 == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+            con.commit();
+        } finally {
+            con.setAutoCommit(auto);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package benchmarks;
+
+import java.io.Writer;
+
+/** Writer που μόνο μετράει χαρακτήρες, για να μετράμε το CSV encoding χωρίς I/O. */
+final class CountingWriter extends Writer {
+
+    long chars;
+
+    @Override public void write(int c) {
+        chars++;
+    }
+
+    @Override public void write(char[] buf, int off, int len) {
+        chars += len;
+    }
+
+    @Override public void write(String s, int off, int len) {
+        chars += len;
+    }
+
+    @Override public void flush() {
+    }
+
+    @Override public void close() {
+    }
+}
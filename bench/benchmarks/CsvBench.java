@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * CSV encoding (CsvWriter) από columnar TableData και από boxed Object[] γραμμές.
+ * Το aux counter chars δίνει throughput σε χαρακτήρες/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBench {
+
+    private static final Class<?> TABLE_DATA = App.type("TableService$TableData");
+    private static final MethodHandle READ = App.method("TableService$TableData", "read", ResultSet.class);
+    private static final MethodHandle ROW_COUNT = App.method("TableService$TableData", "rowCount");
+    private static final MethodHandle NEW_WRITER = App.constructor("CsvWriter", Writer.class);
+    private static final MethodHandle WRITE_DATA_ROW = App.method("CsvWriter", "writeRow", TABLE_DATA, int.class);
+    private static final MethodHandle WRITE_ROW = App.method("CsvWriter", "writeRow", Object[].class);
+
+    @Param({"10", "40"})
+    int width;
+
+    @Param({"10000"})
+    int rows;
+
+    private Object data;
+    private int rowCount;
+    private List<Object[]> boxed;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Chars {
+        public long chars;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            chars = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws Throwable {
+        data = READ.invoke((ResultSet) new SyntheticResultSet(width, rows));
+        rowCount = (int) ROW_COUNT.invoke(data);
+
+        ResultSet rs = new SyntheticResultSet(width, rows);
+        ResultSetMetaData md = rs.getMetaData();
+        boxed = new ArrayList<>();
+        while (rs.next()) {
+            Object[] r = new Object[md.getColumnCount()];
+            for (int i = 1; i <= r.length; i++) r[i - 1] = rs.getObject(i);
+            boxed.add(r);
+        }
+    }
+
+    @Benchmark
+    public void columnar(Chars counter) {
+        CountingWriter out = new CountingWriter();
+        try {
+            Object csv = NEW_WRITER.invoke((Writer) out);
+            for (int r = 0; r < rowCount; r++) WRITE_DATA_ROW.invoke(csv, data, r);
+        } catch (Throwable t) {
+            throw App.rethrow(t);
+        }
+        counter.chars += out.chars;
+    }
+
+    @Benchmark
+    public void boxedRows(Chars counter) {
+        CountingWriter out = new CountingWriter();
+        try {
+            Object csv = NEW_WRITER.invoke((Writer) out);
+            for (Object[] row : boxed) WRITE_ROW.invoke(csv, row);
+        } catch (Throwable t) {
+            throw App.rethrow(t);
+        }
+        counter.chars += out.chars;
+    }
+}
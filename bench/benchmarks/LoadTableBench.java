@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Φόρτωση από MySQL (χρειάζεται τη βάση του config.properties): loadTable, η πρώτη σελίδα
+ * του keyset paging και το streaming CSV export, σε πίνακες width x rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadTableBench {
+
+    private static final MethodHandle NEW_SERVICE = App.constructor("TableService");
+    private static final MethodHandle LOAD_TABLE = App.method("TableService", "loadTable", String.class, int.class);
+    private static final MethodHandle LOAD_PAGE = App.method("TableService", "loadPage",
+            String.class, List.class, Object[].class, int.class);
+    private static final MethodHandle EXPORT = App.method("TableService", "exportCsv",
+            String.class, Writer.class, App.type("TableService$RowProgress"));
+    private static final MethodHandle SHUTDOWN = App.method("DB", "shutdown");
+
+    @Param({"10", "40"})
+    int width;
+
+    @Param({"10000"})
+    int rows;
+
+    @Param({"500"})
+    int pageSize;
+
+    private Object service;
+    private String table;
+
+    @Setup
+    public void setup() throws Throwable {
+        table = BenchTables.ensure(width, rows);
+        service = NEW_SERVICE.invoke();
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        SHUTDOWN.invoke();
+    }
+
+    @Benchmark
+    public Object loadTable() throws Throwable {
+        return LOAD_TABLE.invoke(service, table, rows);
+    }
+
+    @Benchmark
+    public Object firstPage() throws Throwable {
+        return LOAD_PAGE.invoke(service, table, List.of("id"), (Object[]) null, pageSize);
+    }
+
+    @Benchmark
+    public long exportCsv() throws Throwable {
+        CountingWriter out = new CountingWriter();
+        EXPORT.invoke(service, table, (Writer) out, null);
+        return out.chars;
+    }
+}
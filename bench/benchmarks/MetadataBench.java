@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Metadata lookups όπως τα κάνει η αλλαγή πίνακα στο UI (PK, FK, enum, auto_increment):
+ * ζεστό SchemaCache απέναντι σε πλήρες reload μετά από invalidate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataBench {
+
+    private static final MethodHandle NEW_SERVICE = App.constructor("TableService");
+    private static final MethodHandle PK = App.method("TableService", "getPrimaryKeyColumns", String.class);
+    private static final MethodHandle FK = App.method("TableService", "getForeignKeys", String.class);
+    private static final MethodHandle ENUMS = App.method("TableService", "getEnumColumns", String.class);
+    private static final MethodHandle AUTO = App.method("TableService", "getAutoIncrementColumns", String.class);
+    private static final MethodHandle REFRESH = App.method("TableService", "refreshSchema");
+    private static final MethodHandle LIST = App.method("TableService", "listTables");
+    private static final MethodHandle SHUTDOWN = App.method("DB", "shutdown");
+
+    @Param({"40"})
+    int width;
+
+    private Object service;
+    private String table;
+
+    @Setup
+    public void setup() throws Throwable {
+        table = BenchTables.ensure(width, 1000);
+        service = NEW_SERVICE.invoke();
+        LIST.invoke(service); // γέμισμα του cache
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        SHUTDOWN.invoke();
+    }
+
+    @Benchmark
+    public void cachedTableSwitch(Blackhole bh) throws Throwable {
+        bh.consume(PK.invoke(service, table));
+        bh.consume(AUTO.invoke(service, table));
+        bh.consume(FK.invoke(service, table));
+        bh.consume(ENUMS.invoke(service, table));
+    }
+
+    @Benchmark
+    public Object coldSchemaReload() throws Throwable {
+        REFRESH.invoke(service);
+        return PK.invoke(service, table);
+    }
+}
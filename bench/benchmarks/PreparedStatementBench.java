@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Επαναλαμβανόμενα UPDATE/DELETE+INSERT στον ίδιο πίνακα, με και χωρίς server-side prepared
+ * statement cache του driver (useServerPrepStmts + cachePrepStmts). Κάθε τιμή του @Param τρέχει
+ * σε δικό της fork, οπότε το -Ddb.prop.* μπαίνει πριν φτιαχτεί το pool του DB.
+ *
+ * Ο χρόνος είναι ανά εντολή (round trip στον server του config.properties).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreparedStatementBench {
+
+    private static final int ROWS = 1000;
+    private static final int OPS = 100;
+
+    private static final MethodHandle NEW_SERVICE = App.constructor("TableService");
+    private static final MethodHandle UPDATE_ROW = App.method("TableService", "updateRowByPk",
+            String.class, List.class, Map.class, Map.class);
+    private static final MethodHandle SHUTDOWN = App.method("DB", "shutdown");
+
+    @Param({"true", "false"})
+    String serverPrepCache;
+
+    @Param({"10", "40"})
+    int width;
+
+    private Object service;
+    private String table;
+    private final List<String> pkCols = Collections.singletonList("id");
+    private final List<Map<String, Object>> values = new ArrayList<>();
+    private final List<Map<String, Object>> keys = new ArrayList<>();
+    private long round;
+
+    @Setup
+    public void setup() throws Throwable {
+        System.setProperty("db.prop.useServerPrepStmts", serverPrepCache);
+        System.setProperty("db.prop.cachePrepStmts", serverPrepCache);
+
+        table = BenchTables.ensure(width, ROWS);
+        service = NEW_SERVICE.invoke();
+
+        for (int r = 0; r < OPS; r++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i < width; i++) row.put(BenchTables.column(i), BenchTables.value(i, r));
+            values.add(row);
+            Map<String, Object> pk = new LinkedHashMap<>();
+            pk.put("id", (long) (r * 7 % ROWS) + 1);
+            keys.add(pk);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        SHUTDOWN.invoke();
+    }
+
+    /** Το ίδιο σχήμα UPDATE (όλες οι στήλες) σε διαφορετικές γραμμές, όπως το bulk edit του UI. */
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void repeatedUpdates() throws Throwable {
+        round++;
+        for (int r = 0; r < OPS; r++) {
+            Map<String, Object> row = values.get(r);
+            row.put(BenchTables.column(1), (int) (round + r)); // αλλάζει τιμή ώστε το UPDATE να γράφει
+            UPDATE_ROW.invoke(service, table, pkCols, row, keys.get(r));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Τα SQL builders των CRUD (από το cache του SqlTemplates και χωρίς cache), το parse των enum
+ * literals και το WHERE/ORDER BY του TableQuery.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementBuilderBench {
+
+    private static final MethodHandle PARSE_ENUM = App.method("TableService", "parseEnumLiterals", String.class);
+    private static final MethodHandle INSERT_SQL = App.method("TableService", "insertSql", String.class, List.class);
+    private static final MethodHandle UPDATE_SQL = App.method("TableService", "updateSql", String.class, List.class, List.class);
+    private static final MethodHandle DELETE_SQL = App.method("TableService", "deleteSql", String.class, List.class);
+    private static final MethodHandle UPDATABLE = App.method("TableService", "updatableColumns", List.class, Map.class);
+    private static final MethodHandle BUILD_UPDATE = App.method("SqlTemplates", "buildUpdate", String.class, List.class, List.class);
+    private static final MethodHandle QUERY_OF = App.method("TableQuery", "of", String.class, List.class);
+    private static final MethodHandle FILTER = App.method("TableQuery", "filter", String.class, String.class);
+    private static final MethodHandle SORT = App.method("TableQuery", "sort", String.class, App.type("TableQuery$Direction"));
+    private static final MethodHandle WHERE_AFTER = App.method("TableQuery", "whereAfter", Object[].class);
+    private static final MethodHandle ORDER_BY = App.method("TableQuery", "orderBy");
+
+    @Param({"10", "40"})
+    int width;
+
+    private String enumType;
+    private List<String> columns;
+    private List<String> pkCols;
+    private Map<String, Object> rowValues;
+    private Object direction;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setup() {
+        StringBuilder sb = new StringBuilder("enum(");
+        for (int i = 0; i < width; i++) sb.append(i > 0 ? "," : "").append("'VALUE_").append(i).append("''s'");
+        enumType = sb.append(")").toString();
+
+        columns = new ArrayList<>();
+        rowValues = new LinkedHashMap<>();
+        for (int i = 0; i < width; i++) {
+            columns.add("col_" + i);
+            rowValues.put("col_" + i, i);
+        }
+        pkCols = Collections.singletonList("col_0");
+        direction = Enum.valueOf((Class) App.type("TableQuery$Direction"), "DESC");
+    }
+
+    @Benchmark
+    public Object parseEnumLiterals() throws Throwable {
+        return PARSE_ENUM.invoke(enumType);
+    }
+
+    @Benchmark
+    public Object insertSql() throws Throwable {
+        return INSERT_SQL.invoke("bench", columns);
+    }
+
+    @Benchmark
+    public Object updateSql() throws Throwable {
+        Object setCols = UPDATABLE.invoke(pkCols, rowValues);
+        return UPDATE_SQL.invoke("bench", setCols, pkCols);
+    }
+
+    /** Το ίδιο UPDATE χτισμένο κάθε φορά (όπως πριν το SqlTemplates). */
+    @Benchmark
+    public Object updateSqlUncached() throws Throwable {
+        Object setCols = UPDATABLE.invoke(pkCols, rowValues);
+        return BUILD_UPDATE.invoke("bench", setCols, pkCols);
+    }
+
+    @Benchmark
+    public Object deleteSql() throws Throwable {
+        return DELETE_SQL.invoke("bench", pkCols);
+    }
+
+    /** Το WHERE μιας σελίδας με φίλτρο και ταξινόμηση (NULL-aware keyset). */
+    @Benchmark
+    public void filteredKeysetWhere(Blackhole bh) throws Throwable {
+        Object q = QUERY_OF.invoke("bench", pkCols);
+        FILTER.invoke(q, "col_1", "abc");
+        SORT.invoke(q, "col_2", direction);
+        bh.consume(WHERE_AFTER.invoke(q, new Object[]{"x", 42}));
+        bh.consume(ORDER_BY.invoke(q));
+    }
+}
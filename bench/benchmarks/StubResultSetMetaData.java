@@ -0,0 +1,35 @@
+package benchmarks;
+
+import java.sql.*;
+
+/** ResultSetMetaData όπου κάθε μέθοδος πετάει· βλ. {@link StubResultSet}. */
+abstract class StubResultSetMetaData implements ResultSetMetaData {
+
+    static SQLException unsupported(String method) {
+        return new SQLFeatureNotSupportedException(method);
+    }
+
+    @Override public String getCatalogName(int a0) throws SQLException { throw unsupported("getCatalogName"); }
+    @Override public String getColumnClassName(int a0) throws SQLException { throw unsupported("getColumnClassName"); }
+    @Override public int getColumnCount() throws SQLException { throw unsupported("getColumnCount"); }
+    @Override public int getColumnDisplaySize(int a0) throws SQLException { throw unsupported("getColumnDisplaySize"); }
+    @Override public String getColumnLabel(int a0) throws SQLException { throw unsupported("getColumnLabel"); }
+    @Override public String getColumnName(int a0) throws SQLException { throw unsupported("getColumnName"); }
+    @Override public int getColumnType(int a0) throws SQLException { throw unsupported("getColumnType"); }
+    @Override public String getColumnTypeName(int a0) throws SQLException { throw unsupported("getColumnTypeName"); }
+    @Override public int getPrecision(int a0) throws SQLException { throw unsupported("getPrecision"); }
+    @Override public int getScale(int a0) throws SQLException { throw unsupported("getScale"); }
+    @Override public String getSchemaName(int a0) throws SQLException { throw unsupported("getSchemaName"); }
+    @Override public String getTableName(int a0) throws SQLException { throw unsupported("getTableName"); }
+    @Override public boolean isAutoIncrement(int a0) throws SQLException { throw unsupported("isAutoIncrement"); }
+    @Override public boolean isCaseSensitive(int a0) throws SQLException { throw unsupported("isCaseSensitive"); }
+    @Override public boolean isCurrency(int a0) throws SQLException { throw unsupported("isCurrency"); }
+    @Override public boolean isDefinitelyWritable(int a0) throws SQLException { throw unsupported("isDefinitelyWritable"); }
+    @Override public int isNullable(int a0) throws SQLException { throw unsupported("isNullable"); }
+    @Override public boolean isReadOnly(int a0) throws SQLException { throw unsupported("isReadOnly"); }
+    @Override public boolean isSearchable(int a0) throws SQLException { throw unsupported("isSearchable"); }
+    @Override public boolean isSigned(int a0) throws SQLException { throw unsupported("isSigned"); }
+    @Override public boolean isWrapperFor(Class<?> a0) throws SQLException { throw unsupported("isWrapperFor"); }
+    @Override public boolean isWritable(int a0) throws SQLException { throw unsupported("isWritable"); }
+    @Override public <T> T unwrap(Class<T> a0) throws SQLException { throw unsupported("unwrap"); }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * ResultSet χωρίς βάση για τα benchmarks που μετράνε μόνο τη μεριά της εφαρμογής
+ * (materialization, CSV). Οι στήλες κυκλώνουν σε INT, BIGINT, DOUBLE, TIMESTAMP,
+ * χαμηλής πληθικότητας CHAR (σαν enum) και μοναδικό VARCHAR· μετά τις 6 πρώτες στήλες
+ * κάθε 10η γραμμή είναι NULL.
+ *
+ * Όπως ο driver, το getObject φτιάχνει νέο object σε κάθε κλήση ενώ τα getInt/getLong/getDouble όχι.
+ */
+final class SyntheticResultSet extends StubResultSet {
+
+    private static final int[] TYPES = {Types.INTEGER, Types.BIGINT, Types.DOUBLE, Types.TIMESTAMP, Types.CHAR, Types.VARCHAR};
+    private static final String[] CLASSES = {"java.lang.Integer", "java.lang.Long", "java.lang.Double",
+            "java.sql.Timestamp", "java.lang.String", "java.lang.String"};
+    private static final String[] STATUS = {"ACTIVE", "INACTIVE", "PENDING", "DELETED"};
+
+    private final int width;
+    private final int rows;
+    private int row = -1;
+    private boolean wasNull;
+
+    SyntheticResultSet(int width, int rows) {
+        this.width = width;
+        this.rows = rows;
+    }
+
+    @Override public boolean next() {
+        return ++row < rows;
+    }
+
+    @Override public boolean wasNull() {
+        return wasNull;
+    }
+
+    @Override public void close() {
+    }
+
+    @Override public ResultSetMetaData getMetaData() {
+        return new StubResultSetMetaData() {
+            @Override public int getColumnCount() { return width; }
+            @Override public String getColumnLabel(int c) { return "c" + c; }
+            @Override public String getColumnName(int c) { return "c" + c; }
+            @Override public int getColumnType(int c) { return TYPES[(c - 1) % TYPES.length]; }
+            @Override public String getColumnClassName(int c) { return CLASSES[(c - 1) % CLASSES.length]; }
+        };
+    }
+
+    @Override public Object getObject(int col) {
+        int c = col - 1;
+        wasNull = isNull(c);
+        if (wasNull) return null;
+        switch (c % TYPES.length) {
+            case 0: return row * 31 + c;
+            case 1: return row * 1_000_003L + c;
+            case 2: return row * 0.25 + c;
+            case 3: return new Timestamp(1_700_000_000_000L + row * 1000L);
+            case 4: return new String(STATUS[row % STATUS.length]);
+            default: return "user" + row + "." + c + "@example.com";
+        }
+    }
+
+    @Override public String getString(int col) {
+        Object v = getObject(col);
+        return v == null ? null : v.toString();
+    }
+
+    @Override public int getInt(int col) {
+        wasNull = isNull(col - 1);
+        return wasNull ? 0 : row * 31 + col - 1;
+    }
+
+    @Override public long getLong(int col) {
+        wasNull = isNull(col - 1);
+        return wasNull ? 0L : row * 1_000_003L + col - 1;
+    }
+
+    @Override public double getDouble(int col) {
+        wasNull = isNull(col - 1);
+        return wasNull ? 0d : row * 0.25 + col - 1;
+    }
+
+    private boolean isNull(int c) {
+        return c >= TYPES.length && row % 10 == 0;
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * INSERT γραμμή-γραμμή (insertRow, autocommit) απέναντι σε UnitOfWork (ένα transaction,
+ * executeBatch, rewriteBatchedStatements από το config.properties). Ο χρόνος είναι ανά γραμμή.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteBench {
+
+    private static final int BATCH = 500;
+
+    private static final MethodHandle NEW_SERVICE = App.constructor("TableService");
+    private static final MethodHandle INSERT_ROW = App.method("TableService", "insertRow", String.class, Map.class);
+    private static final MethodHandle UNIT_OF_WORK = App.method("TableService", "unitOfWork");
+    private static final MethodHandle UOW_INSERT = App.method("UnitOfWork", "insert", String.class, Map.class);
+    private static final MethodHandle UOW_FLUSH = App.method("UnitOfWork", "flush");
+    private static final MethodHandle SHUTDOWN = App.method("DB", "shutdown");
+
+    @Param({"10", "40"})
+    int width;
+
+    private Object service;
+    private String table;
+    private List<Map<String, Object>> batch;
+
+    @Setup
+    public void setup() throws Throwable {
+        table = BenchTables.ensureEmpty(width);
+        service = NEW_SERVICE.invoke();
+
+        batch = new ArrayList<>(BATCH);
+        for (int r = 0; r < BATCH; r++) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 1; i < width; i++) values.put(BenchTables.column(i), BenchTables.value(i, r));
+            batch.add(values);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws Exception {
+        BenchTables.truncate(table);
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        SHUTDOWN.invoke();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void singleRowInserts() throws Throwable {
+        for (Map<String, Object> values : batch) INSERT_ROW.invoke(service, table, values);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long unitOfWorkInserts() throws Throwable {
+        Object uow = UNIT_OF_WORK.invoke(service);
+        for (Map<String, Object> values : batch) UOW_INSERT.invoke(uow, table, values);
+        return (long) UOW_FLUSH.invoke(uow);
+    }
+}
@@ -0,0 +1,151 @@
+import javax.swing.SwingUtilities;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Τρέχει τη δουλειά του TableService σε virtual threads, έξω από το EDT.
+ *
+ * Κάθε task ανήκει προαιρετικά σε ένα channel (π.χ. "load"): ένα νέο task στο ίδιο channel
+ * ακυρώνει το προηγούμενο με Statement.cancel() και το αποτέλεσμα του παλιού δεν φτάνει ποτέ στο UI.
+ * Έτσι το γρήγορο άλμα από πίνακα σε πίνακα δεν κολλάει και δεν δείχνει λάθος δεδομένα.
+ * Τα callbacks (onSuccess/onError/progress) τρέχουν πάντα στο EDT.
+ */
+public class AsyncTableService {
+
+    public interface Job<T> {
+        T run(Progress progress) throws Exception;
+    }
+
+    public interface Progress {
+        /** total < 0 σημαίνει άγνωστο σύνολο (indeterminate). */
+        void update(long done, long total, String message);
+    }
+
+    public interface ProgressListener {
+        void onProgress(long done, long total, String message);
+    }
+
+    public static class Task<T> {
+        public final String channel;
+        public final CompletableFuture<T> future = new CompletableFuture<>();
+        private final CancelScope scope = new CancelScope();
+
+        Task(String channel) {
+            this.channel = channel;
+        }
+
+        public void cancel() {
+            scope.cancel();
+            future.cancel(false);
+        }
+
+        public boolean isCancelled() {
+            return scope.isCancelled();
+        }
+    }
+
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L; // ~10 ενημερώσεις/sec
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Task<?>> latest = new ConcurrentHashMap<>();
+    private final Map<Task<?>, Boolean> running = new ConcurrentHashMap<>();
+    private final AtomicInteger runningCount = new AtomicInteger();
+
+    private IntConsumer activityListener = n -> { };
+    private ProgressListener progressListener = (d, t, m) -> { };
+
+    /** Καλείται στο EDT με το πλήθος των tasks που τρέχουν (για busy indicator). */
+    public void setActivityListener(IntConsumer activityListener) {
+        this.activityListener = activityListener;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * @param channel null = ανεξάρτητο task (π.χ. εγγραφές, που δεν πρέπει να ακυρώνονται από το επόμενο)
+     */
+    public <T> Task<T> submit(String channel, Job<T> job, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        Task<T> task = new Task<>(channel);
+        if (channel != null) {
+            Task<?> previous = latest.put(channel, task);
+            if (previous != null) previous.cancel();
+        }
+
+        running.put(task, Boolean.TRUE);
+        fireActivity(runningCount.incrementAndGet());
+
+        Progress progress = new Progress() {
+            private long lastNanos = 0;
+
+            @Override public void update(long done, long total, String message) {
+                long now = System.nanoTime();
+                if (now - lastNanos < PROGRESS_INTERVAL_NANOS && done != total) return;
+                lastNanos = now;
+                SwingUtilities.invokeLater(() -> {
+                    if (isCurrent(task)) progressListener.onProgress(done, total, message);
+                });
+            }
+        };
+
+        executor.execute(() -> {
+            T result = null;
+            Exception error = null;
+            try {
+                result = task.scope.run(() -> job.run(progress));
+                task.future.complete(result);
+            } catch (Exception e) {
+                error = e;
+                task.future.completeExceptionally(e);
+            }
+
+            T r = result;
+            Exception err = error;
+            SwingUtilities.invokeLater(() -> {
+                running.remove(task);
+                fireActivity(runningCount.decrementAndGet());
+                if (channel != null) latest.remove(channel, task);
+
+                // stale ή ακυρωμένο: το πετάμε σιωπηλά
+                if (task.isCancelled()) return;
+                if (err == null) {
+                    if (onSuccess != null) onSuccess.accept(r);
+                } else if (onError != null) {
+                    onError.accept(err);
+                }
+            });
+        });
+        return task;
+    }
+
+    public void cancel(String channel) {
+        Task<?> t = latest.get(channel);
+        if (t != null) t.cancel();
+    }
+
+    public void cancelAll() {
+        for (Task<?> t : running.keySet()) t.cancel();
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private boolean isCurrent(Task<?> task) {
+        return !task.isCancelled() && (task.channel == null || latest.get(task.channel) == task);
+    }
+
+    private void fireActivity(int n) {
+        if (SwingUtilities.isEventDispatchThread()) activityListener.accept(n);
+        else SwingUtilities.invokeLater(() -> activityListener.accept(n));
+    }
+}
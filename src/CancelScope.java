@@ -0,0 +1,106 @@
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Κρατάει τα Statements που ανοίγει ένα background task, ώστε το {@link #cancel()}
+ * να στείλει Statement.cancel() (KILL QUERY στον MySQL) αντί να περιμένουμε να τελειώσει το query.
+ *
+ * Ο TableService τυλίγει κάθε statement με {@link #track}· εκτός scope το track δεν κάνει τίποτα.
+ */
+public final class CancelScope {
+
+    private static final ThreadLocal<CancelScope> CURRENT = new ThreadLocal<>();
+    // κάθε τόσα register πετάμε όσα έκλεισαν: ένα μακρύ task (export, parallel load) ανοίγει ένα ανά σελίδα
+    private static final int PRUNE_EVERY = 64;
+
+    private final Set<Statement> live = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> onCancel = new CopyOnWriteArrayList<>();
+    // πόσα threads τρέχουν μέσα στο scope (ένα task μπορεί να μοιράσει δουλειά σε workers)
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger registered = new AtomicInteger();
+    private volatile boolean cancelled = false;
+
+    public static <S extends Statement> S track(S st) throws SQLException {
+        CancelScope scope = CURRENT.get();
+        if (scope != null) scope.register(st);
+        return st;
+    }
+
+    /** Για μακριά loops (π.χ. export) που θέλουν να σταματήσουν ανάμεσα σε γραμμές. */
+    public static void checkCancelled() throws SQLException {
+        CancelScope scope = CURRENT.get();
+        if (scope != null && scope.cancelled) throw cancelledException();
+    }
+
+    /** Το scope του τρέχοντος thread, ή null. */
+    public static CancelScope current() {
+        return CURRENT.get();
+    }
+
+    /** Μπορεί να καλείται από πολλά threads μαζί· όλα ακυρώνονται με ένα {@link #cancel()}. */
+    public <T> T run(Callable<T> body) throws Exception {
+        CancelScope previous = CURRENT.get();
+        CURRENT.set(this);
+        active.incrementAndGet();
+        try {
+            if (cancelled) throw cancelledException();
+            return body.call();
+        } finally {
+            if (active.decrementAndGet() == 0) live.clear();
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    /** Τρέχει στο cancel() (αμέσως αν έχει ήδη ακυρωθεί), π.χ. για να ακυρώσει ένα εσωτερικό scope. */
+    public void onCancel(Runnable action) {
+        onCancel.add(action);
+        if (cancelled) action.run();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        for (Runnable r : onCancel) r.run();
+        for (Statement st : live) {
+            try {
+                if (!st.isClosed()) st.cancel();
+            } catch (SQLException ignored) {
+                // το statement έκλεισε στο μεταξύ
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void register(Statement st) throws SQLException {
+        if (registered.incrementAndGet() % PRUNE_EVERY == 0) live.removeIf(CancelScope::isClosed);
+        live.add(st);
+        // έλεγχος μετά το add: ένα cancel() που έτρεξε ανάμεσα δεν θα το είχε δει
+        if (cancelled) {
+            live.remove(st);
+            st.close();
+            throw cancelledException();
+        }
+    }
+
+    private static boolean isClosed(Statement st) {
+        try {
+            return st.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static SQLException cancelledException() {
+        // 70100 = το SQLState που δίνει ο MySQL για query interrupted
+        return new SQLException("Query cancelled.", "70100");
+    }
+}
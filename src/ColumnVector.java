@@ -0,0 +1,521 @@
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Μία στήλη του {@link TableService.TableData} σε columnar μορφή.
+ *
+ * Ο τύπος επιλέγεται από το ResultSetMetaData (getColumnType + getColumnClassName, ώστε το
+ * {@link #get(int)} να επιστρέφει ακριβώς την ίδια κλάση με το rs.getObject):
+ * int/long/double/boolean σε primitive arrays, ημερομηνίες ως long (+ int nanos),
+ * strings με dictionary encoding όσο η στήλη έχει λίγες διαφορετικές τιμές.
+ * Ό,τι άλλο (DECIMAL, BLOB, BigInteger, ...) μένει Object[].
+ *
+ * Τα NULL κρατιούνται σε bitmap (ένα bit ανά γραμμή), όχι ως sentinel τιμές.
+ */
+abstract class ColumnVector {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] nulls = new long[1];
+    protected int size;
+    private long fetchedBytes;
+
+    static ColumnVector forColumn(ResultSetMetaData md, int col) throws SQLException {
+        String cls = md.getColumnClassName(col);
+        switch (md.getColumnType(col)) {
+            case Types.TINYINT: case Types.SMALLINT: case Types.INTEGER: case Types.BIGINT:
+                if ("java.lang.Integer".equals(cls)) return new IntVector();
+                if ("java.lang.Long".equals(cls)) return new LongVector();
+                break;
+            case Types.DOUBLE: case Types.FLOAT: case Types.REAL:
+                if ("java.lang.Double".equals(cls)) return new DoubleVector();
+                break;
+            case Types.BIT: case Types.BOOLEAN:
+                if ("java.lang.Boolean".equals(cls)) return new BooleanVector();
+                break;
+            case Types.TIMESTAMP: case Types.DATE: case Types.TIME:
+                TemporalVector.Kind kind = TemporalVector.kindOf(cls);
+                if (kind != null) return new TemporalVector(kind);
+                break;
+            case Types.CHAR: case Types.VARCHAR: case Types.LONGVARCHAR:
+                if ("java.lang.String".equals(cls)) return new StringVector();
+                break;
+            default:
+                break;
+        }
+        return new ObjectVector();
+    }
+
+    // ===== ανά τύπο =====
+    abstract int capacity();
+
+    abstract void resize(int capacity);
+
+    abstract boolean accepts(Object v);
+
+    /** Διαβάζει την τιμή της στήλης στη θέση row· false αν ήταν NULL. */
+    abstract boolean readAt(int row, ResultSet rs, int col) throws SQLException;
+
+    /** Η τιμή (όχι null) στη θέση row. */
+    abstract Object valueAt(int row);
+
+    /** Γράφει μια τιμή (όχι null) που ο {@link #accepts} έχει δεχτεί. */
+    abstract void storeAt(int row, Object v);
+
+    /** System.arraycopy των δεδομένων (όχι του null bitmap). */
+    abstract void move(int from, int to, int len);
+
+    /** Bytes των arrays (και των objects που κρατάει), χωρίς το bitmap. */
+    abstract long payloadBytes();
+
+    /** Περίπου πόσα bytes ήταν η τιμή στο αποτέλεσμα (για τα metrics). */
+    abstract long valueBytes(int row);
+
+    /** Κείμενο για CSV χωρίς boxing όπου γίνεται. */
+    String textAt(int row) {
+        return CsvWriter.format(valueAt(row));
+    }
+
+    // ===== κοινά =====
+    final int size() {
+        return size;
+    }
+
+    final boolean isNull(int row) {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    final Object get(int row) {
+        return isNull(row) ? null : valueAt(row);
+    }
+
+    final String text(int row) {
+        return isNull(row) ? null : textAt(row);
+    }
+
+    /** Νέα γραμμή από το τρέχον row του ResultSet. */
+    final void read(ResultSet rs, int col) throws SQLException {
+        ensureCapacity(size + 1);
+        boolean present = readAt(size, rs, col);
+        setNull(size, !present);
+        if (present) fetchedBytes += valueBytes(size);
+        size++;
+    }
+
+    /** Bytes δεδομένων που διαβάστηκαν από το ResultSet (όχι το μέγεθος στο heap). */
+    final long fetchedBytes() {
+        return fetchedBytes;
+    }
+
+    /** Ο caller έχει ελέγξει με {@link #accepts} (ή η τιμή είναι null). */
+    final void set(int row, Object v) {
+        if (v == null) {
+            setNull(row, true);
+        } else {
+            storeAt(row, v);
+            setNull(row, false);
+        }
+    }
+
+    final void insert(int row, Object v) {
+        ensureCapacity(size + 1);
+        move(row, row + 1, size - row);
+        moveNulls(row, row + 1, size - row);
+        size++;
+        set(row, v);
+    }
+
+    final void remove(int row) {
+        move(row + 1, row, size - row - 1);
+        moveNulls(row + 1, row, size - row - 1);
+        size--;
+        setNull(size, false);
+    }
+
+    final long footprintBytes() {
+        return 16 + 16 + 8L * nulls.length + payloadBytes();
+    }
+
+    /** Η ίδια στήλη ως Object[] - όταν έρθει τιμή που ο εξειδικευμένος τύπος δεν χωράει. */
+    final ObjectVector toObjects() {
+        ObjectVector o = new ObjectVector();
+        o.ensureCapacity(Math.max(size, 1));
+        for (int i = 0; i < size; i++) o.set(i, get(i));
+        o.size = size;
+        return o;
+    }
+
+    /** Πετάει το περιθώριο του διπλασιασμού όταν το αποτέλεσμα έχει διαβαστεί όλο. */
+    final void trimToSize() {
+        if (capacity() == size) return;
+        resize(size);
+        nulls = Arrays.copyOf(nulls, Math.max(1, (size + 63) >>> 6));
+    }
+
+    final void ensureCapacity(int n) {
+        int cap = capacity();
+        if (n <= cap) return;
+        int newCap = Math.max(n, Math.max(cap * 2, INITIAL_CAPACITY));
+        resize(newCap);
+        nulls = Arrays.copyOf(nulls, (newCap + 63) >>> 6);
+    }
+
+    private void setNull(int row, boolean isNull) {
+        if (isNull) nulls[row >>> 6] |= 1L << row;
+        else nulls[row >>> 6] &= ~(1L << row);
+    }
+
+    private void moveNulls(int from, int to, int len) {
+        if (to > from) {
+            for (int i = len - 1; i >= 0; i--) setNull(to + i, isNull(from + i));
+        } else {
+            for (int i = 0; i < len; i++) setNull(to + i, isNull(from + i));
+        }
+    }
+
+    static long stringBytes(String s) {
+        // String (24) + byte[] header (16) + Latin1/UTF16 payload, 8-byte aligned
+        int payload = s.chars().allMatch(c -> c < 256) ? s.length() : s.length() * 2;
+        return 24 + align(16 + payload);
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // ===== υλοποιήσεις =====
+    static final class IntVector extends ColumnVector {
+        private int[] values = new int[0];
+
+        @Override int capacity() { return values.length; }
+        @Override void resize(int capacity) { values = Arrays.copyOf(values, capacity); }
+        @Override boolean accepts(Object v) { return v instanceof Integer; }
+        @Override Object valueAt(int row) { return values[row]; }
+        @Override void storeAt(int row, Object v) { values[row] = (Integer) v; }
+        @Override String textAt(int row) { return Integer.toString(values[row]); }
+        @Override void move(int from, int to, int len) { System.arraycopy(values, from, values, to, len); }
+        @Override long payloadBytes() { return align(16 + 4L * values.length); }
+        @Override long valueBytes(int row) { return 4; }
+
+        @Override boolean readAt(int row, ResultSet rs, int col) throws SQLException {
+            values[row] = rs.getInt(col);
+            return !rs.wasNull();
+        }
+    }
+
+    static final class LongVector extends ColumnVector {
+        private long[] values = new long[0];
+
+        @Override int capacity() { return values.length; }
+        @Override void resize(int capacity) { values = Arrays.copyOf(values, capacity); }
+        @Override boolean accepts(Object v) { return v instanceof Long; }
+        @Override Object valueAt(int row) { return values[row]; }
+        @Override void storeAt(int row, Object v) { values[row] = (Long) v; }
+        @Override String textAt(int row) { return Long.toString(values[row]); }
+        @Override void move(int from, int to, int len) { System.arraycopy(values, from, values, to, len); }
+        @Override long payloadBytes() { return 16 + 8L * values.length; }
+        @Override long valueBytes(int row) { return 8; }
+
+        @Override boolean readAt(int row, ResultSet rs, int col) throws SQLException {
+            values[row] = rs.getLong(col);
+            return !rs.wasNull();
+        }
+    }
+
+    static final class DoubleVector extends ColumnVector {
+        private double[] values = new double[0];
+
+        @Override int capacity() { return values.length; }
+        @Override void resize(int capacity) { values = Arrays.copyOf(values, capacity); }
+        @Override boolean accepts(Object v) { return v instanceof Double; }
+        @Override Object valueAt(int row) { return values[row]; }
+        @Override void storeAt(int row, Object v) { values[row] = (Double) v; }
+        @Override String textAt(int row) { return Double.toString(values[row]); }
+        @Override void move(int from, int to, int len) { System.arraycopy(values, from, values, to, len); }
+        @Override long payloadBytes() { return 16 + 8L * values.length; }
+        @Override long valueBytes(int row) { return 8; }
+
+        @Override boolean readAt(int row, ResultSet rs, int col) throws SQLException {
+            values[row] = rs.getDouble(col);
+            return !rs.wasNull();
+        }
+    }
+
+    static final class BooleanVector extends ColumnVector {
+        private long[] bits = new long[0];
+        private int capacity;
+
+        @Override int capacity() { return capacity; }
+        @Override boolean accepts(Object v) { return v instanceof Boolean; }
+        @Override Object valueAt(int row) { return bit(row); }
+        @Override void storeAt(int row, Object v) { setBit(row, (Boolean) v); }
+        @Override long payloadBytes() { return 16 + 8L * bits.length; }
+        @Override long valueBytes(int row) { return 1; }
+
+        @Override void resize(int capacity) {
+            this.capacity = capacity;
+            bits = Arrays.copyOf(bits, (capacity + 63) >>> 6);
+        }
+
+        @Override void move(int from, int to, int len) {
+            if (to > from) {
+                for (int i = len - 1; i >= 0; i--) setBit(to + i, bit(from + i));
+            } else {
+                for (int i = 0; i < len; i++) setBit(to + i, bit(from + i));
+            }
+        }
+
+        @Override boolean readAt(int row, ResultSet rs, int col) throws SQLException {
+            setBit(row, rs.getBoolean(col));
+            return !rs.wasNull();
+        }
+
+        private boolean bit(int row) {
+            return (bits[row >>> 6] & (1L << row)) != 0;
+        }
+
+        private void setBit(int row, boolean v) {
+            if (v) bits[row >>> 6] |= 1L << row;
+            else bits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    /** Timestamp / LocalDateTime / Date / Time / LocalDate ως long (+ nanos όπου υπάρχουν). */
+    static final class TemporalVector extends ColumnVector {
+
+        enum Kind { TIMESTAMP, LOCAL_DATE_TIME, DATE, LOCAL_DATE, TIME }
+
+        static Kind kindOf(String className) {
+            if (className == null) return null;
+            switch (className) {
+                case "java.sql.Timestamp": return Kind.TIMESTAMP;
+                case "java.time.LocalDateTime": return Kind.LOCAL_DATE_TIME;
+                case "java.sql.Date": return Kind.DATE;
+                case "java.time.LocalDate": return Kind.LOCAL_DATE;
+                case "java.sql.Time": return Kind.TIME;
+                default: return null;
+            }
+        }
+
+        private final Kind kind;
+        private long[] values = new long[0];
+        private int[] nanos; // μόνο για TIMESTAMP / LOCAL_DATE_TIME
+
+        TemporalVector(Kind kind) {
+            this.kind = kind;
+            if (kind == Kind.TIMESTAMP || kind == Kind.LOCAL_DATE_TIME) nanos = new int[0];
+        }
+
+        @Override int capacity() { return values.length; }
+
+        @Override void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            if (nanos != null) nanos = Arrays.copyOf(nanos, capacity);
+        }
+
+        @Override boolean accepts(Object v) {
+            switch (kind) {
+                case TIMESTAMP: return v instanceof Timestamp;
+                case LOCAL_DATE_TIME: return v instanceof LocalDateTime;
+                case DATE: return v instanceof java.sql.Date;
+                case LOCAL_DATE: return v instanceof LocalDate;
+                default: return v instanceof Time;
+            }
+        }
+
+        @Override boolean readAt(int row, ResultSet rs, int col) throws SQLException {
+            Object v = rs.getObject(col);
+            if (v == null) return false;
+            if (!accepts(v)) throw new SQLException("Unexpected " + v.getClass().getName() + " in " + kind + " column");
+            storeAt(row, v);
+            return true;
+        }
+
+        @Override void storeAt(int row, Object v) {
+            switch (kind) {
+                case TIMESTAMP:
+                    values[row] = ((Timestamp) v).getTime();
+                    nanos[row] = ((Timestamp) v).getNanos();
+                    break;
+                case LOCAL_DATE_TIME:
+                    values[row] = ((LocalDateTime) v).toEpochSecond(ZoneOffset.UTC);
+                    nanos[row] = ((LocalDateTime) v).getNano();
+                    break;
+                case LOCAL_DATE:
+                    values[row] = ((LocalDate) v).toEpochDay();
+                    break;
+                default: // java.sql.Date, Time
+                    values[row] = ((java.util.Date) v).getTime();
+                    break;
+            }
+        }
+
+        @Override Object valueAt(int row) {
+            switch (kind) {
+                case TIMESTAMP:
+                    Timestamp ts = new Timestamp(values[row]);
+                    ts.setNanos(nanos[row]);
+                    return ts;
+                case LOCAL_DATE_TIME:
+                    return LocalDateTime.ofEpochSecond(values[row], nanos[row], ZoneOffset.UTC);
+                case DATE:
+                    return new java.sql.Date(values[row]);
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(values[row]);
+                default:
+                    return new Time(values[row]);
+            }
+        }
+
+        @Override void move(int from, int to, int len) {
+            System.arraycopy(values, from, values, to, len);
+            if (nanos != null) System.arraycopy(nanos, from, nanos, to, len);
+        }
+
+        @Override long payloadBytes() {
+            return 16 + 8L * values.length + (nanos == null ? 0 : align(16 + 4L * nanos.length));
+        }
+
+        @Override long valueBytes(int row) {
+            return nanos == null ? 4 : 8;
+        }
+    }
+
+    /**
+     * Strings με dictionary encoding: κάθε διαφορετική τιμή κρατιέται μία φορά και η στήλη
+     * είναι int codes. Αν η στήλη αποδειχτεί high-cardinality (π.χ. email, σχόλια) γυρνάει σε String[].
+     */
+    static final class StringVector extends ColumnVector {
+        private static final int MAX_DICTIONARY = 4096;
+
+        private int[] codes = new int[0];
+        private List<String> dictionary = new ArrayList<>();
+        private Map<String, Integer> ids = new HashMap<>();
+        private String[] plain; // != null μετά την έξοδο από το dictionary mode
+
+        @Override int capacity() { return plain != null ? plain.length : codes.length; }
+
+        @Override void resize(int capacity) {
+            if (plain != null) plain = Arrays.copyOf(plain, capacity);
+            else codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override boolean accepts(Object v) { return v instanceof String; }
+
+        @Override boolean readAt(int row, ResultSet rs, int col) throws SQLException {
+            String s = rs.getString(col);
+            if (s == null) return false;
+            storeAt(row, s);
+            return true;
+        }
+
+        @Override void storeAt(int row, Object v) {
+            String s = (String) v;
+            if (plain != null) {
+                plain[row] = s;
+                return;
+            }
+            Integer id = ids.get(s);
+            if (id == null) {
+                if (dictionary.size() >= MAX_DICTIONARY || (size >= 1024 && dictionary.size() > size / 2)) {
+                    toPlain();
+                    plain[row] = s;
+                    return;
+                }
+                id = dictionary.size();
+                dictionary.add(s);
+                ids.put(s, id);
+            }
+            codes[row] = id;
+        }
+
+        @Override Object valueAt(int row) {
+            return plain != null ? plain[row] : dictionary.get(codes[row]);
+        }
+
+        @Override String textAt(int row) {
+            return (String) valueAt(row);
+        }
+
+        @Override long valueBytes(int row) {
+            return ((String) valueAt(row)).length();
+        }
+
+        @Override void move(int from, int to, int len) {
+            if (plain != null) System.arraycopy(plain, from, plain, to, len);
+            else System.arraycopy(codes, from, codes, to, len);
+        }
+
+        @Override long payloadBytes() {
+            if (plain != null) {
+                long bytes = align(16 + 4L * plain.length);
+                for (int i = 0; i < size; i++) if (plain[i] != null) bytes += stringBytes(plain[i]);
+                return bytes;
+            }
+            long bytes = align(16 + 4L * codes.length) + align(16 + 4L * dictionary.size()) + 48L * ids.size();
+            for (String s : dictionary) bytes += stringBytes(s);
+            return bytes;
+        }
+
+        private void toPlain() {
+            String[] p = new String[codes.length];
+            // και οι NULL θέσεις έχουν code 0 - η τιμή τους δεν διαβάζεται ποτέ
+            for (int i = 0; i < size; i++) if (!dictionary.isEmpty()) p[i] = dictionary.get(codes[i]);
+            plain = p;
+            codes = null;
+            dictionary = null;
+            ids = null;
+        }
+    }
+
+    static final class ObjectVector extends ColumnVector {
+        private Object[] values = new Object[0];
+
+        @Override int capacity() { return values.length; }
+        @Override void resize(int capacity) { values = Arrays.copyOf(values, capacity); }
+        @Override boolean accepts(Object v) { return true; }
+        @Override Object valueAt(int row) { return values[row]; }
+        @Override void storeAt(int row, Object v) { values[row] = v; }
+        @Override void move(int from, int to, int len) { System.arraycopy(values, from, values, to, len); }
+
+        @Override boolean readAt(int row, ResultSet rs, int col) throws SQLException {
+            values[row] = rs.getObject(col);
+            return values[row] != null;
+        }
+
+        @Override long valueBytes(int row) {
+            Object v = values[row];
+            if (v instanceof byte[] b) return b.length;
+            if (v instanceof String s) return s.length();
+            return 8;
+        }
+
+        @Override long payloadBytes() {
+            long bytes = align(16 + 4L * values.length);
+            for (int i = 0; i < size; i++) if (values[i] != null) bytes += objectBytes(values[i]);
+            return bytes;
+        }
+    }
+
+    /** Εκτίμηση του shallow+payload μεγέθους ενός boxed value (compressed oops, 64-bit JVM). */
+    static long objectBytes(Object v) {
+        if (v instanceof String s) return stringBytes(s);
+        if (v instanceof byte[] b) return align(16 + b.length);
+        if (v instanceof Integer || v instanceof Short || v instanceof Byte || v instanceof Boolean || v instanceof Float) return 16;
+        if (v instanceof Long || v instanceof Double) return 24;
+        if (v instanceof Timestamp) return 32;
+        if (v instanceof java.util.Date) return 24;
+        if (v instanceof LocalDateTime) return 24 + 24 + 24;
+        if (v instanceof LocalDate) return 24;
+        if (v instanceof java.math.BigDecimal) return 40 + 24;
+        return 32;
+    }
+}
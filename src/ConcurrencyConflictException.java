@@ -0,0 +1,55 @@
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optimistic UPDATE/DELETE που δεν βρήκε τη γραμμή όπως την είδε ο χρήστης: κάποιος άλλος
+ * την άλλαξε (ή τη διέγραψε) από τότε που φορτώθηκε. Τίποτα δεν γράφτηκε.
+ *
+ * Κρατάει ό,τι χρειάζεται το UI για σύγκριση δίπλα-δίπλα και για "overwrite" / "reload".
+ */
+public class ConcurrencyConflictException extends SQLException {
+
+    public final String table;
+    public final List<String> pkCols;
+    /** Η γραμμή όπως τη φόρτωσε ο χρήστης. */
+    public final Map<String, Object> original;
+    /** Η γραμμή τώρα στη βάση, ή null αν διαγράφηκε. */
+    public final Map<String, Object> current;
+    /** Οι νέες τιμές του UPDATE, ή null για DELETE. */
+    public final Map<String, Object> attempted;
+    /** Μέρος batch: έγινε rollback όλου του transaction, όχι μόνο αυτής της γραμμής. */
+    public final boolean batch;
+
+    public ConcurrencyConflictException(String table, List<String> pkCols, Map<String, Object> original,
+                                        Map<String, Object> current, Map<String, Object> attempted, boolean batch) {
+        super(message(table, pkCols, original, current, batch));
+        this.table = table;
+        this.pkCols = pkCols;
+        this.original = Collections.unmodifiableMap(new LinkedHashMap<>(original));
+        this.current = current == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(current));
+        this.attempted = attempted == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(attempted));
+        this.batch = batch;
+    }
+
+    public boolean isDeleted() {
+        return current == null;
+    }
+
+    /** Οι τιμές του PK της γραμμής. */
+    public Map<String, Object> pkValues() {
+        Map<String, Object> pk = new LinkedHashMap<>();
+        for (String c : pkCols) pk.put(c, original.get(c));
+        return pk;
+    }
+
+    private static String message(String table, List<String> pkCols, Map<String, Object> original,
+                                  Map<String, Object> current, boolean batch) {
+        StringBuilder key = new StringBuilder();
+        for (String c : pkCols) key.append(key.length() > 0 ? ", " : "").append(c).append('=').append(original.get(c));
+        return "Row (" + key + ") of " + table + " was " + (current == null ? "deleted" : "changed")
+                + " by someone else since it was loaded." + (batch ? " No rows were changed." : "");
+    }
+}
@@ -0,0 +1,367 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded connection pool πάνω από τον DriverManager.
+ *
+ * Το {@link #borrow()} επιστρέφει ένα proxy Connection: το close() το γυρίζει στο pool
+ * αντί να κλείσει το socket, οπότε ο υπάρχων κώδικας με try-with-resources δουλεύει όπως πριν.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    // ===== Config =====
+    public static class Config {
+        public final String url;
+        public final Properties connectionProps;
+        public final int maxSize;
+        public final int minIdle;
+        public final long borrowTimeoutMs;
+        public final long idleTimeoutMs;
+        public final long maxLifetimeMs;
+        public final long validateAfterIdleMs;
+        public final int validationTimeoutSec;
+
+        public Config(String url, Properties connectionProps, int maxSize, int minIdle,
+                      long borrowTimeoutMs, long idleTimeoutMs, long maxLifetimeMs,
+                      long validateAfterIdleMs, int validationTimeoutSec) {
+            this.url = url;
+            this.connectionProps = connectionProps;
+            this.maxSize = maxSize;
+            this.minIdle = Math.min(minIdle, maxSize);
+            this.borrowTimeoutMs = borrowTimeoutMs;
+            this.idleTimeoutMs = idleTimeoutMs;
+            this.maxLifetimeMs = maxLifetimeMs;
+            this.validateAfterIdleMs = validateAfterIdleMs;
+            this.validationTimeoutSec = validationTimeoutSec;
+        }
+
+        /**
+         * Διαβάζει τα db.* keys του config.properties.
+         * Ό,τι είναι κάτω από db.prop.* περνάει αυτούσιο στον driver (π.χ. db.prop.useSSL=false).
+         * Ένα -Ddb.prop.x=y στη JVM υπερισχύει του αρχείου (π.χ. για σύγκριση ρυθμίσεων σε benchmark).
+         */
+        public static Config from(Properties p) {
+            Properties conn = new Properties();
+            if (p.getProperty("db.user") != null) conn.setProperty("user", p.getProperty("db.user"));
+            if (p.getProperty("db.password") != null) conn.setProperty("password", p.getProperty("db.password"));
+            for (Properties source : new Properties[]{p, System.getProperties()}) {
+                for (String key : source.stringPropertyNames()) {
+                    if (key.startsWith("db.prop.")) conn.setProperty(key.substring("db.prop.".length()), source.getProperty(key));
+                }
+            }
+
+            return new Config(
+                p.getProperty("db.url"),
+                conn,
+                intProp(p, "db.pool.maxSize", 8),
+                intProp(p, "db.pool.minIdle", 1),
+                longProp(p, "db.pool.borrowTimeoutMs", 10_000),
+                longProp(p, "db.pool.idleTimeoutMs", 300_000),
+                longProp(p, "db.pool.maxLifetimeMs", 1_800_000),
+                longProp(p, "db.pool.validateAfterIdleMs", 500),
+                intProp(p, "db.pool.validationTimeoutSec", 2)
+            );
+        }
+
+        private static int intProp(Properties p, String key, int def) {
+            String v = p.getProperty(key);
+            return (v == null || v.isBlank()) ? def : Integer.parseInt(v.trim());
+        }
+
+        private static long longProp(Properties p, String key, long def) {
+            String v = p.getProperty(key);
+            return (v == null || v.isBlank()) ? def : Long.parseLong(v.trim());
+        }
+    }
+
+    // ===== Metrics =====
+    public static class Stats {
+        public final int active;
+        public final int idle;
+        public final int waiting;
+        public final int maxSize;
+        public final long borrows;
+        public final long timeouts;
+        public final long created;
+        public final long destroyed;
+        public final double avgWaitMs;
+        public final double maxWaitMs;
+
+        public Stats(int active, int idle, int waiting, int maxSize, long borrows, long timeouts,
+                     long created, long destroyed, double avgWaitMs, double maxWaitMs) {
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.maxSize = maxSize;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.avgWaitMs = avgWaitMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        @Override public String toString() {
+            return String.format("Pool: active %d / idle %d / max %d, waiting %d, avg wait %.1f ms (max %.1f ms)",
+                    active, idle, maxSize, waiting, avgWaitMs, maxWaitMs);
+        }
+    }
+
+    private static class PooledConnection {
+        final Connection raw;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastReturnedAt = createdAt;
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+        }
+    }
+
+    private final Config cfg;
+    private final Semaphore permits;
+    // LIFO: παίρνουμε από την αρχή (ζεστές συνδέσεις), το eviction κοιτάει από το τέλος
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(Config cfg) {
+        if (cfg.url == null || cfg.url.isBlank()) throw new IllegalArgumentException("db.url is not set.");
+        if (cfg.maxSize < 1) throw new IllegalArgumentException("db.pool.maxSize must be >= 1.");
+        this.cfg = cfg;
+        this.permits = new Semaphore(cfg.maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1_000, Math.min(30_000, cfg.idleTimeoutMs / 2));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // ===== Borrow / return =====
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is shut down.");
+
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(cfg.borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException(
+                "Timed out after " + cfg.borrowTimeoutMs + " ms waiting for a database connection ("
+                + active.get() + "/" + cfg.maxSize + " in use).");
+        }
+
+        try {
+            PooledConnection pc = takeValidIdle();
+            if (pc == null) pc = create();
+            active.incrementAndGet();
+            borrows.increment();
+            return wrap(pc);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (isExpired(pc, now)) {
+                destroy(pc);
+                continue;
+            }
+            // validation-on-borrow: μόνο αν έμεινε idle αρκετά, για να μην πληρώνουμε ping σε κάθε κλήση
+            if (now - pc.lastReturnedAt >= cfg.validateAfterIdleMs && !isValid(pc)) {
+                destroy(pc);
+                continue;
+            }
+            return pc;
+        }
+        return null;
+    }
+
+    private void giveBack(PooledConnection pc, boolean broken) {
+        try {
+            if (broken || closed || isExpired(pc, System.currentTimeMillis()) || !reset(pc)) {
+                destroy(pc);
+            } else {
+                pc.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pc);
+            }
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    /** Επαναφέρει τη σύνδεση σε καθαρή κατάσταση πριν ξαναμπεί στο pool. */
+    private boolean reset(PooledConnection pc) {
+        try {
+            if (pc.raw.isClosed()) return false;
+            if (!pc.raw.getAutoCommit()) {
+                pc.raw.rollback();
+                pc.raw.setAutoCommit(true);
+            }
+            if (pc.raw.isReadOnly()) pc.raw.setReadOnly(false);
+            pc.raw.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection wrap(PooledConnection pc) {
+        InvocationHandler h = new InvocationHandler() {
+            private boolean returned = false;
+            private boolean broken = false;
+
+            @Override
+            public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+                switch (m.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            giveBack(pc, broken);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || pc.raw.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled[" + pc.raw + "]";
+                    default:
+                        break;
+                }
+                if (returned) throw new SQLException("Connection has already been returned to the pool.");
+                try {
+                    return m.invoke(pc.raw, args);
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    // SQLState 08xxx = connection exception: δεν την ξαναδίνουμε σε κανέναν
+                    if (cause instanceof SQLException se && se.getSQLState() != null && se.getSQLState().startsWith("08")) {
+                        broken = true;
+                    }
+                    throw cause;
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, h);
+    }
+
+    // ===== Lifecycle =====
+    private PooledConnection create() throws SQLException {
+        Connection raw = DriverManager.getConnection(cfg.url, cfg.connectionProps);
+        created.increment();
+        return new PooledConnection(raw);
+    }
+
+    private void destroy(PooledConnection pc) {
+        destroyed.increment();
+        try {
+            pc.raw.close();
+        } catch (SQLException ignored) {
+            // η σύνδεση ήταν ήδη χαλασμένη
+        }
+    }
+
+    private boolean isExpired(PooledConnection pc, long now) {
+        return cfg.maxLifetimeMs > 0 && now - pc.createdAt >= cfg.maxLifetimeMs;
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return pc.raw.isValid(cfg.validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /** Idle eviction + max lifetime + κράτημα minIdle ζεστών συνδέσεων. */
+    private void housekeep() {
+        if (closed) return;
+        long now = System.currentTimeMillis();
+
+        for (PooledConnection pc : idle.toArray(new PooledConnection[0])) {
+            boolean idleTooLong = cfg.idleTimeoutMs > 0
+                    && now - pc.lastReturnedAt >= cfg.idleTimeoutMs
+                    && idle.size() > cfg.minIdle;
+            if ((idleTooLong || isExpired(pc, now)) && idle.remove(pc)) destroy(pc);
+        }
+
+        while (!closed && idle.size() < cfg.minIdle && permits.tryAcquire()) {
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                break; // θα ξαναπροσπαθήσουμε στον επόμενο κύκλο
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Stats stats() {
+        long b = borrows.sum();
+        return new Stats(
+            active.get(), idle.size(), waiting.get(), cfg.maxSize,
+            b, timeouts.sum(), created.sum(), destroyed.sum(),
+            b == 0 ? 0 : totalWaitNanos.sum() / 1e6 / b,
+            maxWaitNanos.get() / 1e6
+        );
+    }
+
+    /** Κλείνει τις idle συνδέσεις. Όσες είναι δανεισμένες κλείνουν μόλις επιστραφούν. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) destroy(pc);
+    }
+}
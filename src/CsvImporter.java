@@ -0,0 +1,601 @@
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming import CSV σε πίνακα: το αρχείο διαβάζεται εγγραφή-εγγραφή ({@link CsvReader}) και
+ * φορτώνεται σε chunks των chunkRows γραμμών, ένα transaction ανά chunk.
+ *
+ * Ανά chunk:
+ * 1. οι επικεφαλίδες αντιστοιχίζονται σε στήλες από το SchemaCache και κάθε τιμή ελέγχεται
+ *    (NULL σε NOT NULL, enum literal, μήκος, hex για binary),
+ * 2. οι τιμές των FK ελέγχονται μαζικά με ένα IN (...) query ανά referenced πίνακα,
+ * 3. οι έγκυρες γραμμές φορτώνονται με {@link Mode#BATCH} (executeBatch, που με
+ *    rewriteBatchedStatements γίνεται multi-row INSERT) ή {@link Mode#LOAD_DATA}
+ *    (LOAD DATA LOCAL INFILE από buffer στη μνήμη· θέλει allowLoadLocalInfile στον driver
+ *    και local_infile στον server).
+ *
+ * Οι γραμμές που απορρίπτονται γράφονται στο &lt;αρχείο&gt;.errors.csv με τον αριθμό γραμμής και
+ * την αιτία. Μετά από κάθε commit γράφεται η θέση στο &lt;αρχείο&gt;.import, ώστε ένα import που
+ * κόπηκε (σφάλμα σύνδεσης, cancel) να συνεχίζει από το επόμενο chunk αντί από την αρχή.
+ */
+public class CsvImporter {
+
+    public enum Mode { BATCH, LOAD_DATA }
+
+    public interface Progress {
+        void update(long bytesRead, long totalBytes, long imported, long rejected);
+    }
+
+    public static class Result {
+        public final long imported;
+        public final long rejected;
+        public final long warnings;  // γραμμές που μπήκαν αλλά ο server έβγαλε warning (LOAD_DATA)
+        public final long skipped;   // duplicates που το LOAD DATA LOCAL παρέλειψε χωρίς warning (LOAD_DATA)
+        public final Path errorFile; // null αν δεν γράφτηκε τίποτα
+
+        Result(long imported, long rejected, long warnings, long skipped, Path errorFile) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.warnings = warnings;
+            this.skipped = skipped;
+            this.errorFile = errorFile;
+        }
+    }
+
+    private static final int FK_LOOKUP_CHUNK = 1000;
+    private static final int MAX_KNOWN_KEYS = 100_000;
+    private static final Pattern WARNING_ROW = Pattern.compile("at row (\\d+)");
+    private static final Set<String> BINARY_TYPES = Set.of(
+            "binary", "varbinary", "tinyblob", "blob", "mediumblob", "longblob");
+    private static final Set<String> NUMERIC_TYPES = Set.of(
+            "tinyint", "smallint", "mediumint", "int", "integer", "bigint", "decimal", "numeric");
+
+    /** Μια στήλη του αρχείου και ό,τι χρειάζεται για τον έλεγχό της. */
+    private static class Target {
+        final String column;
+        final SchemaCache.ColumnInfo info;
+        final TableService.EnumInfo enumInfo;
+        final TableService.FK fk;
+        final boolean autoIncrement;
+        final boolean binary;
+        final Set<String> knownKeys = new HashSet<>();
+        boolean numericKey;
+
+        Target(String column, SchemaCache.ColumnInfo info, TableService.EnumInfo enumInfo,
+               TableService.FK fk, boolean autoIncrement) {
+            this.column = column;
+            this.info = info;
+            this.enumInfo = enumInfo;
+            this.fk = fk;
+            this.autoIncrement = autoIncrement;
+            this.binary = BINARY_TYPES.contains(info.dataType.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static class Row {
+        final long line;
+        final String[] raw;
+        Object[] values;
+        String error;
+        String warning;
+
+        Row(long line, String[] raw) {
+            this.line = line;
+            this.raw = raw;
+        }
+    }
+
+    private final TableService service;
+    private final int chunkRows;
+
+    private String[] header;
+    private Target[] targets;
+    private CsvWriter errors;
+    private Writer errorsOut;
+    private Path errorFile;
+
+    CsvImporter(TableService service, int chunkRows) {
+        this.service = service;
+        this.chunkRows = chunkRows;
+    }
+
+    public static Path resumeFile(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".import");
+    }
+
+    public static Path errorFile(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".errors.csv");
+    }
+
+    /** Πόσες εγγραφές έχει ήδη περάσει ένα προηγούμενο import του ίδιου αρχείου, ή -1. */
+    public static long resumePoint(Path csv, String table) throws IOException {
+        Properties p = readResume(csv);
+        if (p == null || !table.equals(p.getProperty("table"))) return -1;
+        if (Files.size(csv) != Long.parseLong(p.getProperty("size", "-1"))) return -1; // το αρχείο άλλαξε
+        return Long.parseLong(p.getProperty("records", "0"));
+    }
+
+    /**
+     * @param resume true = συνέχεια από το {@link #resumePoint}, false = από την αρχή
+     *               (σβήνει προηγούμενο .import και .errors.csv)
+     */
+    public Result importCsv(String table, Path file, Mode mode, boolean resume, Progress progress)
+            throws SQLException, IOException {
+        long total = Files.size(file);
+        long skip = 0, imported = 0, rejected = 0, warnings = 0, skipped = 0;
+
+        Properties saved = resume ? readResume(file) : null;
+        if (saved != null && resumePoint(file, table) >= 0) {
+            skip = Long.parseLong(saved.getProperty("records"));
+            imported = Long.parseLong(saved.getProperty("imported", "0"));
+            rejected = Long.parseLong(saved.getProperty("rejected", "0"));
+            skipped = Long.parseLong(saved.getProperty("skipped", "0"));
+        } else {
+            Files.deleteIfExists(resumeFile(file));
+            Files.deleteIfExists(errorFile(file));
+        }
+        errorFile = errorFile(file);
+
+        try (Metrics.Span span = Metrics.span("import.csv");
+             CountingInputStream counted = new CountingInputStream(Files.newInputStream(file));
+             CsvReader reader = new CsvReader(new InputStreamReader(
+                     file.getFileName().toString().endsWith(".gz")
+                             ? new GZIPInputStream(counted, 1 << 16) : new BufferedInputStream(counted, 1 << 16),
+                     StandardCharsets.UTF_8))) {
+
+            header = reader.next();
+            if (header == null) throw new IOException("Empty file.");
+            if (header.length > 0 && header[0] != null && header[0].startsWith("\uFEFF")) {
+                header[0] = header[0].substring(1); // UTF-8 BOM (Excel)
+            }
+            targets = mapHeader(table, header);
+
+            long records = 0;
+            for (; records < skip && reader.next() != null; records++) {
+                if (records % 10_000 == 0) CancelScope.checkCancelled();
+            }
+
+            String insertSql = TableService.insertSql(table, columnNames());
+            List<Row> chunk = new ArrayList<>(chunkRows);
+            boolean more = true;
+            while (more) {
+                chunk.clear();
+                String[] raw;
+                while (chunk.size() < chunkRows && (raw = reader.next()) != null) {
+                    if (raw.length == 1 && raw[0] == null && header.length > 1) { // κενή γραμμή
+                        records++;
+                        continue;
+                    }
+                    chunk.add(new Row(reader.recordLine(), raw));
+                }
+                more = chunk.size() == chunkRows;
+                if (chunk.isEmpty()) break;
+
+                CancelScope.checkCancelled();
+                for (Row row : chunk) convert(row);
+                checkForeignKeys(chunk);
+
+                long valid = 0;
+                for (Row row : chunk) if (row.error == null) valid++;
+                long loaded = mode == Mode.LOAD_DATA ? loadData(table, chunk) : insertBatch(insertSql, chunk);
+                records += chunk.size();
+                imported += loaded;
+                // στο BATCH κάθε γραμμή που δεν μπήκε έχει error· στο LOAD_DATA τα duplicates απλώς λείπουν
+                if (mode == Mode.LOAD_DATA) skipped += Math.max(0, valid - loaded);
+                for (Row row : chunk) {
+                    if (row.error != null) {
+                        rejected++;
+                        reportError(row, row.error);
+                    } else if (row.warning != null) {
+                        warnings++;
+                        reportError(row, "warning: " + row.warning);
+                    }
+                }
+                if (errorsOut != null) errorsOut.flush();
+                writeResume(file, table, records, imported, rejected, skipped);
+                span.rows(loaded);
+                if (progress != null) progress.update(counted.count, total, imported, rejected);
+            }
+        } finally {
+            if (errorsOut != null) errorsOut.close();
+            errorsOut = null;
+            errors = null;
+            service.rowCounts().invalidate(table);
+            service.written(table);
+        }
+
+        // ολοκληρώθηκε: δεν υπάρχει κάτι να συνεχιστεί
+        Files.deleteIfExists(resumeFile(file));
+        return new Result(imported, rejected, warnings, skipped, Files.exists(errorFile) ? errorFile : null);
+    }
+
+    // ===== header / values =====
+    private Target[] mapHeader(String table, String[] header) throws SQLException {
+        SchemaCache.TableMeta meta = service.schema().table(table);
+        Map<String, TableService.EnumInfo> enums = service.getEnumColumns(table);
+        Map<String, TableService.FK> fks = service.getForeignKeys(table);
+
+        Map<String, String> byLower = new HashMap<>();
+        for (String c : meta.columns.keySet()) byLower.put(c.toLowerCase(Locale.ROOT), c);
+
+        Target[] result = new Target[header.length];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < header.length; i++) {
+            String h = header[i] == null ? "" : header[i].trim();
+            String col = meta.columns.containsKey(h) ? h : byLower.get(h.toLowerCase(Locale.ROOT));
+            if (col == null) throw new SQLException("CSV column '" + h + "' does not exist in " + table + ".");
+            if (!seen.add(col)) throw new SQLException("CSV column '" + col + "' appears twice.");
+
+            result[i] = new Target(col, meta.columns.get(col), enums.get(col), fks.get(col),
+                    meta.autoIncrementCols.contains(col));
+            if (result[i].fk != null) {
+                SchemaCache.ColumnInfo key = service.schema().table(result[i].fk.pkTable).columns.get(result[i].fk.pkColumn);
+                result[i].numericKey = key != null && NUMERIC_TYPES.contains(key.dataType.toLowerCase(Locale.ROOT));
+            }
+        }
+        return result;
+    }
+
+    private List<String> columnNames() {
+        List<String> cols = new ArrayList<>(targets.length);
+        for (Target t : targets) cols.add(t.column);
+        return cols;
+    }
+
+    /** Μετατρέπει/ελέγχει τις τιμές μιας γραμμής· σε πρόβλημα γεμίζει το row.error. */
+    private void convert(Row row) {
+        if (row.raw.length != targets.length) {
+            row.error = "Expected " + targets.length + " fields, found " + row.raw.length;
+            return;
+        }
+        Object[] values = new Object[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            Target t = targets[i];
+            String v = row.raw[i];
+
+            if (v == null) {
+                if (!t.info.nullable && !t.autoIncrement) {
+                    row.error = "NULL not allowed in " + t.column;
+                    return;
+                }
+                continue;
+            }
+            if (t.enumInfo != null && !containsIgnoreCase(t.enumInfo.values, v)) {
+                row.error = "'" + v + "' is not a value of " + t.column + " " + t.enumInfo.values;
+                return;
+            }
+            if (t.binary && v.startsWith("0x")) {
+                byte[] bytes = unhex(v);
+                if (bytes == null) {
+                    row.error = "Invalid hex value in " + t.column;
+                    return;
+                }
+                values[i] = bytes;
+                continue;
+            }
+            if (!t.binary && t.info.maxLength >= 0 && v.codePointCount(0, v.length()) > t.info.maxLength) {
+                row.error = t.column + " longer than " + t.info.maxLength + " characters";
+                return;
+            }
+            values[i] = v;
+        }
+        row.values = values;
+    }
+
+    /**
+     * Ένα SELECT ... WHERE key IN (...) ανά FK στήλη για τις διαφορετικές τιμές του chunk.
+     * Τα keys που βρέθηκαν κρατιούνται, ώστε οι επαναλαμβανόμενες τιμές (π.χ. customer_id)
+     * να μη ρωτιούνται σε κάθε chunk.
+     */
+    private void checkForeignKeys(List<Row> chunk) throws SQLException {
+        for (int i = 0; i < targets.length; i++) {
+            Target t = targets[i];
+            if (t.fk == null) continue;
+
+            Map<String, Object> wanted = new LinkedHashMap<>();
+            for (Row row : chunk) {
+                if (row.error != null || row.values[i] == null) continue;
+                String key = normalizeKey(t, row.values[i]);
+                if (key == null) {
+                    row.error = "'" + row.values[i] + "' is not a valid key for " + t.column;
+                } else if (!t.knownKeys.contains(key)) {
+                    wanted.put(key, row.values[i]);
+                }
+            }
+            if (wanted.isEmpty()) continue;
+
+            if (t.knownKeys.size() + wanted.size() > MAX_KNOWN_KEYS) t.knownKeys.clear();
+            try (Metrics.Span span = Metrics.span("import.fkCheck")) {
+                lookupKeys(t, new ArrayList<>(wanted.values()));
+                span.rows(wanted.size());
+            }
+
+            for (Row row : chunk) {
+                if (row.error != null || row.values[i] == null) continue;
+                if (!t.knownKeys.contains(normalizeKey(t, row.values[i]))) {
+                    row.error = t.column + " = " + row.raw[i] + " not found in " + t.fk.pkTable + "." + t.fk.pkColumn;
+                }
+            }
+        }
+    }
+
+    private void lookupKeys(Target t, List<Object> keys) throws SQLException {
+        String col = TableService.q(t.fk.pkColumn);
+        try (Connection con = DB.get()) {
+            for (int from = 0; from < keys.size(); from += FK_LOOKUP_CHUNK) {
+                List<Object> part = keys.subList(from, Math.min(keys.size(), from + FK_LOOKUP_CHUNK));
+                String sql = "SELECT " + col + " FROM " + TableService.q(t.fk.pkTable)
+                        + " WHERE " + col + " IN (" + TableService.placeholders(part.size()) + ")";
+                try (PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+                    TableService.bind(ps, part, 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String key = normalizeKey(t, rs.getObject(1));
+                            if (key != null) t.knownKeys.add(key);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // ===== load =====
+    /**
+     * Όλο το chunk σε ένα executeBatch. Αν αποτύχει (π.χ. duplicate key σε μία γραμμή), rollback
+     * και ξανά γραμμή-γραμμή στο ίδιο transaction: ο MySQL ακυρώνει μόνο το statement που απέτυχε,
+     * οπότε οι σωστές γραμμές μπαίνουν και οι λάθος πάνε στο report.
+     */
+    private long insertBatch(String sql, List<Row> chunk) throws SQLException {
+        try (Metrics.Span span = Metrics.span("import.batch");
+             Connection con = DB.get()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+                long n = 0;
+                for (Row row : chunk) {
+                    if (row.error != null) continue;
+                    bindRow(ps, row);
+                    ps.addBatch();
+                    n++;
+                }
+                if (n > 0) ps.executeBatch();
+                con.commit();
+                span.rows(n);
+                return n;
+            } catch (SQLException e) {
+                con.rollback();
+                if (isFatal(e)) throw e;
+            }
+
+            long n = 0;
+            try (PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+                for (Row row : chunk) {
+                    if (row.error != null) continue;
+                    bindRow(ps, row);
+                    try {
+                        ps.executeUpdate();
+                        n++;
+                    } catch (SQLException e) {
+                        if (isFatal(e)) throw e;
+                        row.error = e.getMessage();
+                    }
+                }
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+            span.rows(n);
+            return n;
+        }
+    }
+
+    /**
+     * Το chunk γράφεται σε buffer στο default format του LOAD DATA (tab, \N για NULL, \-escapes)
+     * και στέλνεται με setLocalInfileInputStream, χωρίς προσωρινό αρχείο. Τα binary πάνε ως hex
+     * σε @μεταβλητή και UNHEX(), ώστε να μη περάσουν από μετατροπή charset.
+     *
+     * Με LOCAL ο server δεν σταματάει σε λάθος τιμή: η γραμμή μπαίνει με warning ή (duplicate)
+     * παραλείπεται χωρίς warning. Τα warnings με "at row N" πάνε στο report· τα duplicates μετράει ο
+     * caller ως skipped (έγκυρες γραμμές του chunk μείον affected rows).
+     */
+    private long loadData(String table, List<Row> chunk) throws SQLException {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(chunk.size() * 128);
+        StringBuilder line = new StringBuilder();
+        for (Row row : chunk) {
+            if (row.error != null) continue;
+            valid.add(row);
+            line.setLength(0);
+            for (int i = 0; i < row.values.length; i++) {
+                if (i > 0) line.append('\t');
+                Object v = row.values[i];
+                if (v == null) line.append("\\N");
+                else if (v instanceof byte[] b) line.append(hex(b));
+                else if (targets[i].binary) line.append(hex(v.toString().getBytes(StandardCharsets.UTF_8)));
+                else escapeLoadData(v.toString(), line);
+            }
+            line.append('\n');
+            buf.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (valid.isEmpty()) return 0;
+
+        StringBuilder cols = new StringBuilder();
+        StringBuilder set = new StringBuilder();
+        for (int i = 0; i < targets.length; i++) {
+            if (i > 0) cols.append(',');
+            if (targets[i].binary) {
+                cols.append("@v").append(i);
+                set.append(set.length() == 0 ? " SET " : ", ")
+                        .append(TableService.q(targets[i].column)).append("=UNHEX(@v").append(i).append(")");
+            } else {
+                cols.append(TableService.q(targets[i].column));
+            }
+        }
+        String sql = "LOAD DATA LOCAL INFILE 'csv-import' INTO TABLE " + TableService.q(table)
+                + " CHARACTER SET utf8mb4 (" + cols + ")" + set;
+
+        try (Metrics.Span span = Metrics.span("import.loadData");
+             Connection con = DB.get()) {
+            con.setAutoCommit(false);
+            try (Statement st = CancelScope.track(con.createStatement())) {
+                st.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(buf.toByteArray()));
+                long n = st.executeLargeUpdate(sql);
+
+                for (SQLWarning w = st.getWarnings(); w != null; w = w.getNextWarning()) {
+                    Matcher m = WARNING_ROW.matcher(String.valueOf(w.getMessage()));
+                    if (!m.find()) continue;
+                    int idx = Integer.parseInt(m.group(1)) - 1;
+                    if (idx >= 0 && idx < valid.size() && valid.get(idx).warning == null) valid.get(idx).warning = w.getMessage();
+                }
+                con.commit();
+                span.rows(n).bytes(buf.size());
+                return n;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void bindRow(PreparedStatement ps, Row row) throws SQLException {
+        for (int i = 0; i < row.values.length; i++) ps.setObject(i + 1, row.values[i]);
+    }
+
+    /** Σφάλματα που δεν αφορούν μία γραμμή: σύνδεση (08), deadlock/rollback (40), cancel (70100). */
+    private static boolean isFatal(SQLException e) {
+        String state = e.getSQLState();
+        return state == null || state.startsWith("08") || state.startsWith("40") || state.startsWith("70");
+    }
+
+    // ===== error report / resume =====
+    private void reportError(Row row, String message) throws IOException {
+        if (errors == null) {
+            boolean append = Files.exists(errorFile);
+            errorsOut = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            errors = new CsvWriter(errorsOut);
+            if (!append) {
+                List<String> cols = new ArrayList<>(Arrays.asList(header));
+                cols.add("_line");
+                cols.add("_error");
+                errors.writeHeader(cols);
+            }
+        }
+        Object[] out = Arrays.copyOf(row.raw, row.raw.length + 2, Object[].class);
+        out[row.raw.length] = row.line;
+        out[row.raw.length + 1] = message;
+        errors.writeRow(out);
+    }
+
+    private static Properties readResume(Path csv) throws IOException {
+        Path f = resumeFile(csv);
+        if (!Files.exists(f)) return null;
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+            p.load(r);
+        }
+        return p;
+    }
+
+    private static void writeResume(Path csv, String table, long records, long imported, long rejected, long skipped)
+            throws IOException {
+        Properties p = new Properties();
+        p.setProperty("table", table);
+        p.setProperty("size", String.valueOf(Files.size(csv)));
+        p.setProperty("records", String.valueOf(records));
+        p.setProperty("imported", String.valueOf(imported));
+        p.setProperty("rejected", String.valueOf(rejected));
+        p.setProperty("skipped", String.valueOf(skipped));
+
+        Path f = resumeFile(csv);
+        Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            p.store(w, "CSV import position (records = εγγραφές μετά το header που έχουν γίνει commit)");
+        }
+        Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ===== helpers =====
+    /** Κοινή μορφή για σύγκριση keys: αριθμοί χωρίς μηδενικά/δεκαδικά που δεν μετράνε, κείμενο lower case. */
+    private static String normalizeKey(Target t, Object v) {
+        if (v instanceof byte[] b) return hex(b);
+        String s = v.toString();
+        if (!t.numericKey) return s.toLowerCase(Locale.ROOT);
+        try {
+            return new BigDecimal(s.trim()).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean containsIgnoreCase(List<String> values, String v) {
+        for (String s : values) if (s.equalsIgnoreCase(v)) return true;
+        return false;
+    }
+
+    private static void escapeLoadData(String s, StringBuilder out) {
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '\\': out.append("\\\\"); break;
+                case '\t': out.append("\\t"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\0': out.append("\\0"); break;
+                default: out.append(ch);
+            }
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+
+    private static byte[] unhex(String s) {
+        int len = s.length() - 2;
+        if (len % 2 != 0) return null;
+        byte[] out = new byte[len / 2];
+        for (int i = 0; i < out.length; i++) {
+            int hi = Character.digit(s.charAt(2 + 2 * i), 16);
+            int lo = Character.digit(s.charAt(3 + 2 * i), 16);
+            if (hi < 0 || lo < 0) return null;
+            out[i] = (byte) ((hi << 4) | lo);
+        }
+        return out;
+    }
+
+    /** Μετράει τα bytes του αρχείου (πριν το gunzip), για progress ως προς το μέγεθός του. */
+    private static class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
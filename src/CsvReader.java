@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 parser, το αντίστροφο του {@link CsvWriter}: διαβάζει μία εγγραφή τη φορά
+ * με δικό του buffer, οπότε η μνήμη δεν εξαρτάται από το μέγεθος του αρχείου.
+ *
+ * Δέχεται CRLF ή σκέτο LF, πεδία σε "..." με "" για εισαγωγικό και αλλαγές γραμμής μέσα σε αυτά.
+ * Κενό πεδίο χωρίς εισαγωγικά επιστρέφεται ως null (έτσι γράφει το NULL ο CsvWriter),
+ * ενώ το "" ως κενό string.
+ */
+public class CsvReader implements AutoCloseable {
+
+    private final Reader in;
+    private final char[] buf = new char[1 << 16];
+    private int pos;
+    private int len;
+    private boolean eof;
+
+    private final StringBuilder field = new StringBuilder();
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Η επόμενη εγγραφή ή null στο τέλος του αρχείου. */
+    public String[] next() throws IOException {
+        if (peek() < 0) return null;
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            field.setLength(0);
+            boolean quoted = false;
+            int ch = peek();
+
+            if (ch == '"') {
+                quoted = true;
+                pos++;
+                while (true) {
+                    ch = read();
+                    if (ch < 0) throw new IOException("Unterminated quoted field starting at line " + recordLine);
+                    if (ch == '"') {
+                        if (peek() == '"') {
+                            pos++;
+                            field.append('"');
+                        } else {
+                            break;
+                        }
+                    } else {
+                        if (ch == '\n') line++;
+                        field.append((char) ch);
+                    }
+                }
+                ch = peek();
+                if (ch >= 0 && ch != ',' && ch != '\r' && ch != '\n') {
+                    throw new IOException("Unexpected character after quoted field at line " + line);
+                }
+            } else {
+                while ((ch = peek()) >= 0 && ch != ',' && ch != '\r' && ch != '\n') {
+                    field.append((char) ch);
+                    pos++;
+                }
+            }
+
+            fields.add(!quoted && field.length() == 0 ? null : field.toString());
+
+            ch = read();
+            if (ch == ',') continue;
+            if (ch == '\r' && peek() == '\n') pos++;
+            if (ch >= 0) line++;
+            return fields.toArray(new String[0]);
+        }
+    }
+
+    /** Η γραμμή του αρχείου (από 1) όπου ξεκίνησε η τελευταία εγγραφή του {@link #next()}. */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    @Override public void close() throws IOException {
+        in.close();
+    }
+
+    private int peek() throws IOException {
+        if (pos == len && !fill()) return -1;
+        return buf[pos];
+    }
+
+    private int read() throws IOException {
+        if (pos == len && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) return false;
+        int n = in.read(buf);
+        if (n <= 0) {
+            eof = true;
+            return false;
+        }
+        pos = 0;
+        len = n;
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV: CRLF στο τέλος κάθε γραμμής, πεδία με κόμμα, εισαγωγικά ή αλλαγή γραμμής
+ * μπαίνουν σε "..." και τα εσωτερικά " γίνονται "".
+ *
+ * Γράφει κατευθείαν στον Writer (χωρίς ενδιάμεσο String για όλο το αρχείο).
+ *
+ * NULL γράφεται ως κενό πεδίο και το κενό string ως "", ώστε ο {@link CsvReader} να τα ξεχωρίζει.
+ */
+public class CsvWriter {
+
+    private final Writer out;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void writeHeader(List<String> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) out.write(',');
+            writeField(columns.get(i));
+        }
+        out.write("\r\n");
+    }
+
+    public void writeRow(Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) out.write(',');
+            // NULL -> κενό πεδίο, '' -> ""
+            if (row[i] != null) writeValue(format(row[i]));
+        }
+        out.write("\r\n");
+    }
+
+    /** Γραμμή απευθείας από το columnar TableData (χωρίς Object[] και boxing). */
+    public void writeRow(TableService.TableData data, int row) throws IOException {
+        for (int c = 0; c < data.columns.size(); c++) {
+            if (c > 0) out.write(',');
+            String text = data.text(row, c);
+            if (text != null) writeValue(text);
+        }
+        out.write("\r\n");
+    }
+
+    public void writeField(String val) throws IOException {
+        if (!needsQuotes(val)) {
+            out.write(val);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < val.length(); i++) {
+            char ch = val.charAt(i);
+            if (ch == '"') out.write('"');
+            out.write(ch);
+        }
+        out.write('"');
+    }
+
+    /** Τιμή γραμμής: όπως το {@link #writeField}, αλλά το κενό string σε εισαγωγικά (όχι NULL). */
+    private void writeValue(String val) throws IOException {
+        if (val.isEmpty()) out.write("\"\"");
+        else writeField(val);
+    }
+
+    public static String escape(String val) {
+        if (!needsQuotes(val)) return val;
+        return "\"" + val.replace("\"", "\"\"") + "\"";
+    }
+
+    /** byte[] (BLOB/BINARY) ως hex, όλα τα άλλα με toString(). */
+    public static String format(Object v) {
+        if (v instanceof byte[] bytes) {
+            StringBuilder sb = new StringBuilder(2 + bytes.length * 2).append("0x");
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        }
+        return v.toString();
+    }
+
+    private static boolean needsQuotes(String val) {
+        for (int i = 0; i < val.length(); i++) {
+            char ch = val.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r') return true;
+        }
+        return false;
+    }
+}
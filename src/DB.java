@@ -1,29 +1,181 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
+/**
+ * Συνδέσεις και config του ενεργού profile.
+ *
+ * Profiles: {@code profiles=prod,staging} στο config και {@code profile.<name>.<key>=...} για ό,τι αλλάζει
+ * (db.url, db.user, db.replicas, ...)· τα υπόλοιπα keys ισχύουν για όλα. Το "default" είναι τα σκέτα keys.
+ *
+ * {@link #get()} δίνει πάντα τον primary (εγγραφές και ό,τι πρέπει να δει την τελευταία εγγραφή),
+ * {@link #read()} ένα read replica του profile (βλ. {@link ReplicaSet}) ή τον primary αν δεν υπάρχει
+ * διαθέσιμο. Μετά από εγγραφή της εφαρμογής ({@link #wrote()}) και για db.replica.readYourWritesMs
+ * τα reads μένουν στον primary, ώστε ένα reload να δείχνει αυτό που μόλις γράφτηκε.
+ */
 public class DB {
-    private static final Properties props = new Properties();
+    private static final Properties base = new Properties();
 
     static {
+        // -Dtablemanager.config=... για άλλο αρχείο (π.χ. το TableCli από cron/container)
+        String file = System.getProperty("tablemanager.config", "config.properties");
         // Χρήση try-with-resources για αυτόματο κλείσιμο του αρχείου
-        try (FileInputStream in = new FileInputStream("config.properties")) {
-            props.load(in);
+        try (FileInputStream in = new FileInputStream(file)) {
+            base.load(in);
         } catch (IOException e) {
             // Fail Fast: Αν δεν βρεθεί το αρχείο, σταματάμε εδώ την εφαρμογή
-            throw new RuntimeException("CRITICAL: Could not load config.properties. Check file path.", e);
+            throw new RuntimeException("CRITICAL: Could not load " + file + ". Check file path.", e);
         }
     }
 
+    public static final String DEFAULT_PROFILE = "default";
+
+    /** Πηγή συνδέσεων (ο primary ή ένα συγκεκριμένο replica). */
+    public interface Source {
+        Connection get() throws SQLException;
+    }
+
+    private static volatile String profile = System.getProperty("tablemanager.profile",
+            base.getProperty("profile", DEFAULT_PROFILE)).trim();
+    private static volatile Properties props = effective(profile);
+
+    // Το pool (και ο driver, στο πρώτο getConnection) φτιάχνεται στην πρώτη σύνδεση, όχι όταν
+    // κάποιος διαβάσει ένα property: ένα CLI command που δεν πάει στη βάση δεν ανοίγει τίποτα.
+    private static volatile ConnectionPool pool;
+    private static volatile ReplicaSet replicas;
+    private static volatile long lastWriteAt;
+
+    private static ConnectionPool pool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DB.class) {
+                if (pool == null) pool = new ConnectionPool(ConnectionPool.Config.from(props));
+                p = pool;
+            }
+        }
+        return p;
+    }
+
+    private static ReplicaSet replicas() {
+        ReplicaSet r = replicas;
+        if (r == null) {
+            synchronized (DB.class) {
+                if (replicas == null) replicas = new ReplicaSet(props);
+                r = replicas;
+            }
+        }
+        return r;
+    }
+
+    /** Δανείζει σύνδεση από το pool του primary. Το close() την επιστρέφει, δεν την κλείνει. */
     public static Connection get() throws SQLException {
-        
-        return DriverManager.getConnection(
-            props.getProperty("db.url"),
-            props.getProperty("db.user"),
-            props.getProperty("db.password")
-        );
-    }
-}
\ No newline at end of file
+        try (Metrics.Span span = Metrics.span("db.get")) {
+            return pool().borrow();
+        }
+    }
+
+    /** Σύνδεση για διάβασμα: replica με μικρό lag αν υπάρχει, αλλιώς ο primary. */
+    public static Connection read() throws SQLException {
+        if (!readFromReplica()) return get();
+        try (Metrics.Span span = Metrics.span("db.read")) {
+            Connection con = replicas().borrow();
+            if (con != null) return con;
+        }
+        return get();
+    }
+
+    /** Σαν το {@link #read()}, αλλά όλες οι συνδέσεις από τον ίδιο server (consistent snapshots σε πολλές συνδέσεις). */
+    public static Source readSource() {
+        Source s = readFromReplica() ? replicas().pin() : null;
+        return s != null ? s : DB::get;
+    }
+
+    /** Η εφαρμογή έγραψε στον primary: τα reads μένουν εκεί για λίγο (read-your-writes). */
+    public static void wrote() {
+        lastWriteAt = System.currentTimeMillis();
+    }
+
+    private static boolean readFromReplica() {
+        if (props.getProperty("db.replicas", "").isBlank()) return false;
+        long window = Long.parseLong(props.getProperty("db.replica.readYourWritesMs", "5000").trim());
+        return System.currentTimeMillis() - lastWriteAt >= window;
+    }
+
+    public static String property(String key, String def) {
+        return props.getProperty(key, def);
+    }
+
+    // ===== profiles =====
+    /** "default" και όσα δίνει το profiles= του config. */
+    public static List<String> profiles() {
+        List<String> list = new ArrayList<>();
+        list.add(DEFAULT_PROFILE);
+        for (String p : base.getProperty("profiles", "").split(",")) {
+            if (!p.isBlank() && !list.contains(p.trim())) list.add(p.trim());
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    public static String profile() {
+        return profile;
+    }
+
+    /**
+     * Κλείνει τα pools του τρέχοντος profile και περνάει στο νέο· οι επόμενες συνδέσεις ανοίγουν εκεί.
+     * Όσες συνδέσεις είναι δανεισμένες κλείνουν όταν επιστραφούν. Ό,τι κρατάει config ή metadata του
+     * παλιού (TableService, caches) πρέπει να ξαναφτιαχτεί από τον caller.
+     */
+    public static void switchProfile(String name) {
+        if (!profiles().contains(name)) throw new IllegalArgumentException("Unknown profile: " + name);
+        synchronized (DB.class) {
+            shutdown();
+            pool = null;
+            replicas = null;
+            lastWriteAt = 0;
+            props = effective(name);
+            profile = name;
+        }
+    }
+
+    /**
+     * Ξεχωριστό pool προς τον primary ενός άλλου profile (π.χ. για σύγκριση πινάκων μεταξύ βάσεων),
+     * χωρίς να αλλάξει το ενεργό. Το κλείνει ο caller.
+     */
+    public static ConnectionPool openPool(String name) {
+        if (!profiles().contains(name)) throw new IllegalArgumentException("Unknown profile: " + name);
+        return new ConnectionPool(ConnectionPool.Config.from(effective(name)));
+    }
+
+    // τα keys του profile.<name>.* πάνω από τα κοινά
+    private static Properties effective(String name) {
+        Properties p = new Properties();
+        p.putAll(base);
+        String prefix = "profile." + name + ".";
+        for (String key : base.stringPropertyNames()) {
+            if (key.startsWith(prefix)) p.setProperty(key.substring(prefix.length()), base.getProperty(key));
+        }
+        return p;
+    }
+
+    public static ConnectionPool.Stats stats() {
+        return pool().stats();
+    }
+
+    /** Η κατάσταση των replicas του profile (κενή λίστα αν δεν έχει). */
+    public static List<ReplicaSet.Status> replicaStatus() {
+        if (props.getProperty("db.replicas", "").isBlank()) return Collections.emptyList();
+        return replicas().status();
+    }
+
+    public static void shutdown() {
+        synchronized (DB.class) {
+            if (pool != null) pool.close();
+            if (replicas != null) replicas.close();
+        }
+    }
+}
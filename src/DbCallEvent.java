@@ -0,0 +1,28 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event για κάθε μέτρηση του {@link Metrics}. Γράφεται μόνο όταν υπάρχει ενεργό recording
+ * (π.χ. -XX:StartFlightRecording ή jcmd &lt;pid&gt; JFR.start), αλλιώς κοστίζει ελάχιστα.
+ */
+@Name("tablemanager.DbCall")
+@Label("Table Manager Call")
+@Category({"Table Manager"})
+@Description("A timed database, metadata or UI operation")
+@StackTrace(false)
+class DbCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
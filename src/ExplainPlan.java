@@ -0,0 +1,178 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Το plan ενός query για την κονσόλα: το κείμενο του EXPLAIN FORMAT=TREE / EXPLAIN ANALYZE της MySQL 8
+ * σε δέντρο, ένας κόμβος ανά γραμμή "-> ..." (το βάθος από τη στοίχιση):
+ *
+ * <pre>
+ *   -> Filter: (o.total > 100)  (cost=1.15 rows=3) (actual time=0.046..0.060 rows=2 loops=1)
+ *       -> Table scan on o  (cost=1.15 rows=9) (actual time=0.040..0.052 rows=9 loops=1)
+ * </pre>
+ *
+ * Οι εκτιμήσεις (cost, rows) και οι πραγματικές τιμές (χρόνος της τελευταίας γραμμής και rows ανά loop)
+ * κρατιούνται χωριστά ώστε το UI να δείχνει πού η εκτίμηση του optimizer απέχει από την πραγματικότητα.
+ * Σε server χωρίς FORMAT=TREE μένει ο πίνακας του κλασικού EXPLAIN ({@link #table}).
+ */
+public final class ExplainPlan {
+
+    private static final String NUM = "(\\d+(?:\\.\\d+)?(?:e[+-]?\\d+)?)";
+    // "cost=1.15" ή "cost=0.35..0.35" (κόστος πρώτης..τελευταίας γραμμής)
+    private static final Pattern COST = Pattern.compile("\\(cost=" + NUM + "(?:\\.\\." + NUM + ")? rows=" + NUM + "\\)");
+    private static final Pattern ACTUAL = Pattern.compile(
+            "\\(actual time=" + NUM + "\\.\\." + NUM + " rows=" + NUM + " loops=(\\d+)\\)");
+    private static final String NEVER = "(never executed)";
+
+    public static final class Node {
+        public final String operation;
+        /** Εκτίμηση του optimizer· NaN αν δεν δόθηκε. */
+        public final double cost;
+        public final double estimatedRows;
+        /** ms μέχρι την πρώτη / την τελευταία γραμμή, ανά loop· NaN χωρίς ANALYZE. */
+        public final double firstMs;
+        public final double lastMs;
+        /** Γραμμές ανά loop (μέσος όρος). */
+        public final double actualRows;
+        public final long loops;
+        public final boolean neverExecuted;
+        public final List<Node> children = new ArrayList<>();
+
+        Node(String operation, double cost, double estimatedRows, double firstMs, double lastMs,
+             double actualRows, long loops, boolean neverExecuted) {
+            this.operation = operation;
+            this.cost = cost;
+            this.estimatedRows = estimatedRows;
+            this.firstMs = firstMs;
+            this.lastMs = lastMs;
+            this.actualRows = actualRows;
+            this.loops = loops;
+            this.neverExecuted = neverExecuted;
+        }
+
+        public boolean hasActual() {
+            return !Double.isNaN(lastMs);
+        }
+
+        /** Συνολικός χρόνος του κόμβου μαζί με τα παιδιά του (όλα τα loops). */
+        public double totalMs() {
+            return hasActual() ? lastMs * loops : 0;
+        }
+
+        /** Ο χρόνος του ίδιου του κόμβου, χωρίς τα παιδιά. */
+        public double selfMs() {
+            double children = 0;
+            for (Node c : this.children) children += c.totalMs();
+            return Math.max(0, totalMs() - children);
+        }
+
+        /** Πόσες φορές απέχει η εκτίμηση γραμμών από τις πραγματικές (1 = ακριβής, NaN χωρίς ANALYZE). */
+        public double misestimate() {
+            if (!hasActual() || Double.isNaN(estimatedRows)) return Double.NaN;
+            double est = Math.max(1, estimatedRows);
+            double act = Math.max(1, actualRows);
+            return Math.max(est, act) / Math.min(est, act);
+        }
+
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder(operation);
+            if (!Double.isNaN(estimatedRows)) {
+                sb.append("   [est ").append(number(estimatedRows)).append(" rows");
+                if (!Double.isNaN(cost)) sb.append(", cost ").append(number(cost));
+                sb.append(']');
+            }
+            if (neverExecuted) {
+                sb.append("   [never executed]");
+            } else if (hasActual()) {
+                sb.append("   [actual ").append(number(actualRows)).append(" rows");
+                if (loops != 1) sb.append(" × ").append(loops).append(" loops");
+                sb.append(", ").append(String.format(Locale.ROOT, "%.3f", totalMs())).append(" ms]");
+            }
+            return sb.toString();
+        }
+
+        private static String number(double v) {
+            return v == Math.rint(v) && Math.abs(v) < 1e15 ? String.format("%,d", (long) v) : String.format(Locale.ROOT, "%.2f", v);
+        }
+    }
+
+    /** Ρίζα του δέντρου (συνθετικός κόμβος αν το plan έχει πολλές κορυφές), ή null για {@link #table}. */
+    public final Node root;
+    /** Το κείμενο όπως ήρθε από τον server. */
+    public final String text;
+    /** Το κλασικό EXPLAIN όταν δεν υπάρχει δέντρο. */
+    public final TableService.TableData table;
+
+    private ExplainPlan(Node root, String text, TableService.TableData table) {
+        this.root = root;
+        this.text = text;
+        this.table = table;
+    }
+
+    static ExplainPlan table(TableService.TableData table) {
+        return new ExplainPlan(null, "", table);
+    }
+
+    static ExplainPlan parse(String text) {
+        Node root = new Node("Plan", Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, 1, false);
+        List<Node> stack = new ArrayList<>();
+        List<Integer> indents = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            int arrow = line.indexOf("-> ");
+            if (arrow < 0 || !line.substring(0, arrow).isBlank()) {
+                // συνέχεια της προηγούμενης γραμμής (μεγάλη συνθήκη) ή κενή
+                continue;
+            }
+            Node node = node(line.substring(arrow + 3));
+            while (!indents.isEmpty() && indents.get(indents.size() - 1) >= arrow) {
+                indents.remove(indents.size() - 1);
+                stack.remove(stack.size() - 1);
+            }
+            (stack.isEmpty() ? root : stack.get(stack.size() - 1)).children.add(node);
+            stack.add(node);
+            indents.add(arrow);
+        }
+        Node top = root.children.size() == 1 ? root.children.get(0) : root;
+        return new ExplainPlan(top, text, null);
+    }
+
+    private static Node node(String s) {
+        double cost = Double.NaN, est = Double.NaN, first = Double.NaN, lastMs = Double.NaN, rows = Double.NaN;
+        long loops = 1;
+        int cut = s.length();
+
+        Matcher m = COST.matcher(s);
+        if (m.find()) {
+            cut = Math.min(cut, m.start());
+            cost = Double.parseDouble(m.group(2) != null ? m.group(2) : m.group(1));
+            est = Double.parseDouble(m.group(3));
+        }
+        m = ACTUAL.matcher(s);
+        if (m.find()) {
+            cut = Math.min(cut, m.start());
+            first = Double.parseDouble(m.group(1));
+            lastMs = Double.parseDouble(m.group(2));
+            rows = Double.parseDouble(m.group(3));
+            loops = Long.parseLong(m.group(4));
+        }
+        boolean never = s.contains(NEVER);
+        if (never) cut = Math.min(cut, s.indexOf(NEVER));
+        return new Node(s.substring(0, cut).trim(), cost, est, first, lastMs, rows, loops, never);
+    }
+
+    /** Όλοι οι κόμβοι (preorder), π.χ. για να βρεθεί ο πιο αργός. */
+    public List<Node> nodes() {
+        if (root == null) return Collections.emptyList();
+        List<Node> all = new ArrayList<>();
+        collect(root, all);
+        return all;
+    }
+
+    private static void collect(Node n, List<Node> out) {
+        out.add(n);
+        for (Node c : n.children) collect(c, out);
+    }
+}
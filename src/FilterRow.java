@@ -0,0 +1,170 @@
+import javax.swing.*;
+import javax.swing.event.*;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableColumnModel;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Μια γραμμή από JTextField κάτω από το header του JTable, ένα ανά στήλη, ευθυγραμμισμένα
+ * με τα πλάτη των στηλών. Επιπλέον κάνει τα headers clickable για ταξινόμηση
+ * (κανένα -> ASC -> DESC -> κανένα).
+ *
+ * Οι αλλαγές περνάνε από debounce ώστε το πληκτρολόγημα να μη στέλνει ένα query ανά χαρακτήρα.
+ */
+public class FilterRow extends JPanel {
+
+    private static final int DEBOUNCE_MS = 400;
+
+    private final JTable table;
+    private final List<JTextField> fields = new ArrayList<>();
+    private final javax.swing.Timer debounce;
+    private String tableName;
+    private List<String> columns = Collections.emptyList();
+    private String sortColumn;
+    private TableQuery.Direction direction = TableQuery.Direction.ASC;
+    private Consumer<FilterRow> onChange = f -> { };
+
+    private final TableColumnModelListener columnListener = new TableColumnModelListener() {
+        @Override public void columnAdded(TableColumnModelEvent e) { revalidate(); }
+        @Override public void columnRemoved(TableColumnModelEvent e) { revalidate(); }
+        @Override public void columnMoved(TableColumnModelEvent e) { revalidate(); }
+        @Override public void columnMarginChanged(ChangeEvent e) { revalidate(); }
+        @Override public void columnSelectionChanged(ListSelectionEvent e) { }
+    };
+
+    public FilterRow(JTable table) {
+        super(null);
+        this.table = table;
+        this.debounce = new javax.swing.Timer(DEBOUNCE_MS, e -> onChange.accept(this));
+        this.debounce.setRepeats(false);
+
+        table.getColumnModel().addColumnModelListener(columnListener);
+        table.addPropertyChangeListener("columnModel", e -> {
+            ((TableColumnModel) e.getOldValue()).removeColumnModelListener(columnListener);
+            ((TableColumnModel) e.getNewValue()).addColumnModelListener(columnListener);
+            revalidate();
+        });
+
+        JTableHeader header = table.getTableHeader();
+        header.setDefaultRenderer(new SortRenderer(header.getDefaultRenderer()));
+        header.addMouseListener(new MouseAdapter() {
+            @Override public void mouseClicked(MouseEvent e) {
+                int viewCol = header.columnAtPoint(e.getPoint());
+                if (viewCol < 0 || columns.isEmpty()) return;
+                cycleSort(table.getColumnName(viewCol));
+            }
+        });
+    }
+
+    public void setOnChange(Consumer<FilterRow> onChange) {
+        this.onChange = onChange;
+    }
+
+    /** Νέος πίνακας: καθαρίζει φίλτρα και ταξινόμηση. Ο ίδιος πίνακας (reload) τα κρατάει. */
+    public void setTable(String tableName, List<String> columns) {
+        if (tableName.equals(this.tableName) && columns.equals(this.columns)) return;
+        this.tableName = tableName;
+        this.columns = new ArrayList<>(columns);
+        sortColumn = null;
+        direction = TableQuery.Direction.ASC;
+
+        removeAll();
+        fields.clear();
+        for (String col : columns) {
+            JTextField tf = new JTextField();
+            tf.setToolTipText("Filter " + col + ": abc, =abc, >10, <=10, !=x, *abc*, NULL, !NULL");
+            tf.getDocument().addDocumentListener(new DocumentListener() {
+                @Override public void insertUpdate(DocumentEvent e) { debounce.restart(); }
+                @Override public void removeUpdate(DocumentEvent e) { debounce.restart(); }
+                @Override public void changedUpdate(DocumentEvent e) { debounce.restart(); }
+            });
+            // Enter: εφαρμογή αμέσως
+            tf.addActionListener(e -> {
+                debounce.stop();
+                onChange.accept(this);
+            });
+            fields.add(tf);
+            add(tf);
+        }
+        revalidate();
+        repaint();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /** Snapshot των φίλτρων (στο EDT), για να εφαρμοστεί στο query από background thread. */
+    public Map<String, String> filterValues() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) map.put(columns.get(i), fields.get(i).getText());
+        return map;
+    }
+
+    public String sortColumn() {
+        return sortColumn;
+    }
+
+    public TableQuery.Direction direction() {
+        return direction;
+    }
+
+    private void cycleSort(String col) {
+        if (!col.equals(sortColumn)) {
+            sortColumn = col;
+            direction = TableQuery.Direction.ASC;
+        } else if (direction == TableQuery.Direction.ASC) {
+            direction = TableQuery.Direction.DESC;
+        } else {
+            sortColumn = null;
+            direction = TableQuery.Direction.ASC;
+        }
+        table.getTableHeader().repaint();
+        debounce.stop();
+        onChange.accept(this);
+    }
+
+    // ===== layout: κάθε πεδίο στο x/πλάτος της στήλης του =====
+    @Override public void doLayout() {
+        TableColumnModel cm = table.getColumnModel();
+        int h = getHeight();
+        int x = 0;
+        for (int v = 0; v < cm.getColumnCount(); v++) {
+            int w = cm.getColumn(v).getWidth();
+            int modelIdx = cm.getColumn(v).getModelIndex();
+            if (modelIdx < fields.size()) fields.get(modelIdx).setBounds(x, 0, w, h);
+            x += w;
+        }
+    }
+
+    @Override public Dimension getPreferredSize() {
+        int h = fields.isEmpty() ? 0 : fields.get(0).getPreferredSize().height;
+        return new Dimension(table.getColumnModel().getTotalColumnWidth(), h);
+    }
+
+    /** Τυλίγει τον default renderer και προσθέτει ▲/▼ στη στήλη ταξινόμησης. */
+    private class SortRenderer implements TableCellRenderer {
+        private final TableCellRenderer delegate;
+
+        SortRenderer(TableCellRenderer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable t, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            Object label = value;
+            if (value != null && value.equals(sortColumn)) {
+                label = value + (direction == TableQuery.Direction.ASC ? " ▲" : " ▼");
+            }
+            return delegate.getTableCellRendererComponent(t, label, isSelected, hasFocus, row, column);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dialog;
+import java.awt.Font;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.*;
+
+/**
+ * Πεδίο για FK στήλη στο dialog του INSERT/UPDATE: δείχνει την επιλεγμένη τιμή (key — ετικέτα)
+ * και ανοίγει ένα dialog αναζήτησης που ρωτάει τον server με πρόθεμα και LIMIT.
+ *
+ * Δεν φορτώνεται ποτέ ολόκληρη η referenced στήλη: τα αποτελέσματα έρχονται σε σελίδες
+ * των {@value #PAGE} όσο ο χρήστης κάνει scroll. Οι τιμές που διαλέχτηκαν πρόσφατα κρατιούνται
+ * σε LRU ανά referenced πίνακα και εμφανίζονται πρώτες.
+ */
+public class FkPicker extends JPanel {
+
+    private static final int PAGE = 50;
+    private static final int RECENT_PER_TABLE = 20;
+    private static final int DEBOUNCE_MS = 250;
+
+    // referenced table.column -> πρόσφατες τιμές (access order, η πιο πρόσφατη τελευταία)
+    private static final Map<String, LinkedHashMap<Object, TableService.RefValue>> RECENT = new HashMap<>();
+
+    private final TableService service;
+    private final AsyncTableService async;
+    private final TableService.FK fk;
+    private final JTextField field = new JTextField(20);
+
+    private Object value;
+    private boolean keep;
+    private boolean touched;
+
+    public FkPicker(TableService service, AsyncTableService async, TableService.FK fk) {
+        super(new BorderLayout(4, 0));
+        this.service = service;
+        this.async = async;
+        this.fk = fk;
+
+        field.setEditable(false);
+        JButton pick = new JButton("...");
+        pick.setToolTipText("Search " + fk.pkTable + "." + fk.pkColumn);
+        pick.addActionListener(e -> openSearch());
+        JButton clear = new JButton("NULL");
+        clear.addActionListener(e -> select(null));
+
+        JPanel buttons = new JPanel(new BorderLayout(2, 0));
+        buttons.add(pick, BorderLayout.WEST);
+        buttons.add(clear, BorderLayout.EAST);
+        add(field, BorderLayout.CENTER);
+        add(buttons, BorderLayout.EAST);
+        field.addMouseListener(new MouseAdapter() {
+            @Override public void mouseClicked(MouseEvent e) {
+                if (isEnabled()) openSearch();
+            }
+        });
+    }
+
+    /** Bulk UPDATE: ξεκινάει ως "(unchanged)" μέχρι να διαλέξει κάτι ο χρήστης. */
+    public void setKeep(String keepText) {
+        keep = true;
+        field.setText(keepText);
+    }
+
+    /** Η τρέχουσα τιμή στο UPDATE· η ετικέτα έρχεται από το LRU ή με ένα query by key. */
+    public void setInitialValue(Object key) {
+        value = key;
+        if (key == null) {
+            field.setText("(NULL)");
+            return;
+        }
+        TableService.RefValue cached = recent().get(key);
+        field.setText(String.valueOf(cached != null ? cached : key));
+        if (cached != null) return;
+
+        async.submit(null, p -> service.lookupReferenceValue(fk, key), rv -> {
+            if (!touched && Objects.equals(value, key)) field.setText(rv.toString());
+        }, ex -> { /* κρατάμε σκέτο το key */ });
+    }
+
+    public boolean isKeep() {
+        return keep;
+    }
+
+    /** true αν ο χρήστης διάλεξε κάτι (ή πάτησε NULL). */
+    public boolean isTouched() {
+        return touched;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        for (Component c : getComponents()) c.setEnabled(enabled);
+        for (Component c : ((JPanel) getComponent(1)).getComponents()) c.setEnabled(enabled);
+    }
+
+    private void select(TableService.RefValue rv) {
+        keep = false;
+        touched = true;
+        value = rv == null ? null : rv.key;
+        field.setText(rv == null ? "(NULL)" : rv.toString());
+        if (rv != null) remember(rv);
+    }
+
+    // ===== LRU =====
+    private LinkedHashMap<Object, TableService.RefValue> recent() {
+        synchronized (RECENT) {
+            return RECENT.computeIfAbsent(fk.pkTable + "." + fk.pkColumn,
+                    k -> new LinkedHashMap<Object, TableService.RefValue>(16, 0.75f, true) {
+                        @Override protected boolean removeEldestEntry(Map.Entry<Object, TableService.RefValue> e) {
+                            return size() > RECENT_PER_TABLE;
+                        }
+                    });
+        }
+    }
+
+    private void remember(TableService.RefValue rv) {
+        recent().put(rv.key, rv);
+    }
+
+    private List<TableService.RefValue> recentValues() {
+        List<TableService.RefValue> list = new ArrayList<>(recent().values());
+        Collections.reverse(list);
+        return list;
+    }
+
+    // ===== search dialog =====
+    private void openSearch() {
+        new SearchDialog().setVisible(true);
+    }
+
+    private class SearchDialog extends JDialog {
+        private final String channel = "fk-search";
+        private final JTextField search = new JTextField(24);
+        private final DefaultListModel<TableService.RefValue> listModel = new DefaultListModel<>();
+        private final JList<TableService.RefValue> list = new JList<>(listModel);
+        private final JLabel status = new JLabel(" ");
+        private final javax.swing.Timer debounce = new javax.swing.Timer(DEBOUNCE_MS, e -> restart());
+        private final Set<Object> recentKeys = new HashSet<>();
+
+        private int generation;
+        private String currentSearch = "";
+        private Object lastKey;
+        private boolean loading;
+        private boolean exhausted;
+
+        SearchDialog() {
+            super(SwingUtilities.getWindowAncestor(FkPicker.this),
+                    "Select " + fk.pkTable + "." + fk.pkColumn, Dialog.ModalityType.APPLICATION_MODAL);
+            debounce.setRepeats(false);
+
+            list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            list.setCellRenderer(new DefaultListCellRenderer() {
+                @Override public Component getListCellRendererComponent(JList<?> l, Object v, int i, boolean s, boolean f) {
+                    Component c = super.getListCellRendererComponent(l, v, i, s, f);
+                    if (v instanceof TableService.RefValue && recentKeys.contains(((TableService.RefValue) v).key)) {
+                        c.setFont(c.getFont().deriveFont(Font.ITALIC));
+                    }
+                    return c;
+                }
+            });
+            list.addMouseListener(new MouseAdapter() {
+                @Override public void mouseClicked(MouseEvent e) {
+                    if (e.getClickCount() == 2) choose();
+                }
+            });
+            list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "choose");
+            list.getActionMap().put("choose", new AbstractAction() {
+                @Override public void actionPerformed(java.awt.event.ActionEvent e) { choose(); }
+            });
+
+            search.getDocument().addDocumentListener(new DocumentListener() {
+                @Override public void insertUpdate(DocumentEvent e) { debounce.restart(); }
+                @Override public void removeUpdate(DocumentEvent e) { debounce.restart(); }
+                @Override public void changedUpdate(DocumentEvent e) { debounce.restart(); }
+            });
+            search.addActionListener(e -> {
+                if (debounce.isRunning()) {
+                    debounce.stop();
+                    restart();
+                } else if (!listModel.isEmpty()) {
+                    if (list.getSelectedIndex() < 0) list.setSelectedIndex(0);
+                    choose();
+                }
+            });
+            // ↓ από το search πάει στη λίστα
+            search.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "toList");
+            search.getActionMap().put("toList", new AbstractAction() {
+                @Override public void actionPerformed(java.awt.event.ActionEvent e) {
+                    if (listModel.isEmpty()) return;
+                    list.requestFocusInWindow();
+                    if (list.getSelectedIndex() < 0) list.setSelectedIndex(0);
+                }
+            });
+
+            JScrollPane scroll = new JScrollPane(list);
+            // lazy paging: όταν φτάσουμε κοντά στο τέλος φέρνουμε την επόμενη σελίδα
+            scroll.getVerticalScrollBar().addAdjustmentListener(e -> {
+                BoundedRangeModel m = scroll.getVerticalScrollBar().getModel();
+                if (m.getValue() + m.getExtent() >= m.getMaximum() - list.getFixedCellHeight() * 5) loadMore();
+            });
+            list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 4);
+            list.setVisibleRowCount(15);
+
+            JPanel north = new JPanel(new BorderLayout(4, 0));
+            north.add(new JLabel("Search:"), BorderLayout.WEST);
+            north.add(search, BorderLayout.CENTER);
+
+            JPanel content = new JPanel(new BorderLayout(4, 4));
+            content.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+            content.add(north, BorderLayout.NORTH);
+            content.add(scroll, BorderLayout.CENTER);
+            content.add(status, BorderLayout.SOUTH);
+            setContentPane(content);
+
+            getRootPane().registerKeyboardAction(e -> dispose(),
+                    KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
+
+            pack();
+            setLocationRelativeTo(FkPicker.this);
+            restart();
+        }
+
+        @Override public void dispose() {
+            debounce.stop();
+            async.cancel(channel);
+            super.dispose();
+        }
+
+        private void choose() {
+            TableService.RefValue rv = list.getSelectedValue();
+            if (rv == null) return;
+            select(rv);
+            dispose();
+        }
+
+        /** Νέο search: καθαρίζει τη λίστα, με κενό search βάζει πρώτα τις πρόσφατες τιμές. */
+        private void restart() {
+            generation++;
+            currentSearch = search.getText().trim();
+            lastKey = null;
+            loading = false;
+            exhausted = false;
+            listModel.clear();
+            recentKeys.clear();
+
+            if (currentSearch.isEmpty()) {
+                for (TableService.RefValue rv : recentValues()) {
+                    listModel.addElement(rv);
+                    recentKeys.add(rv.key);
+                }
+            }
+            loadMore();
+        }
+
+        private void loadMore() {
+            if (loading || exhausted) return;
+            loading = true;
+            int gen = generation;
+            String s = currentSearch;
+            Object after = lastKey;
+            status.setText("Searching...");
+
+            async.submit(channel, p -> service.searchReferenceValues(fk, s, after, PAGE), page -> {
+                if (gen != generation) return;
+                loading = false;
+                for (TableService.RefValue rv : page) {
+                    if (!recentKeys.contains(rv.key)) listModel.addElement(rv);
+                }
+                if (!page.isEmpty()) lastKey = page.get(page.size() - 1).key;
+                exhausted = page.size() < PAGE;
+                status.setText(listModel.size() + (exhausted ? " values" : "+ values, scroll for more"));
+                if (list.getSelectedIndex() < 0 && !listModel.isEmpty()) list.setSelectedIndex(0);
+
+                // η λίστα δεν γέμισε το viewport: δεν θα έρθει scroll event, φέρνουμε κι άλλη σελίδα
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generation && !exhausted && list.getLastVisibleIndex() >= listModel.size() - 1) loadMore();
+                });
+            }, ex -> {
+                if (gen != generation) return;
+                loading = false;
+                status.setText("Error: " + ex.getMessage());
+            });
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram για latencies σε nanos, στο στυλ του HdrHistogram: οι τιμές μέχρι 128 έχουν δικό τους
+ * bucket και πάνω από εκεί κάθε δύναμη του 2 χωρίζεται σε 64 ίσα buckets, άρα το σφάλμα
+ * ενός percentile είναι κάτω από 1/64 (~1.6%) σε όλο το εύρος, με σταθερή μνήμη (~30KB).
+ *
+ * Το record είναι lock-free (ένα AtomicLongArray increment), ώστε να μπορεί να καλείται
+ * από όλα τα threads που κάνουν JDBC.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB = 1 << SUB_BITS;   // 128
+    private static final int HALF = SUB / 2;        // 64 buckets ανά δύναμη του 2
+    private static final int BUCKETS = SUB + (64 - SUB_BITS) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(index(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        long m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value)) {
+            // retry
+        }
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /** Η τιμή κάτω από την οποία είναι το p% των μετρήσεων (p σε 0..100). */
+    public long percentile(double p) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(n * p / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestEquivalent(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS + 1; // v >>> shift σε [64, 128)
+        return SUB + (shift - 1) * HALF + (int) ((v >>> shift) - HALF);
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < SUB) return index;
+        int k = index - SUB;
+        int shift = k / HALF + 1;
+        long lower = (long) (k % HALF + HALF) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,323 @@
+import javax.swing.SwingUtilities;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Live mode για τον τρέχοντα πίνακα: incremental polling με high-water mark και merge κατά PK
+ * στο model, χωρίς reload.
+ *
+ * - Watermark: στήλη TIMESTAMP/DATETIME με ON UPDATE CURRENT_TIMESTAMP (ή με όνομα updated_at κ.λπ.)
+ *   που πιάνει inserts και updates, αλλιώς η AUTO_INCREMENT στήλη (μόνο inserts).
+ *   Τα deletes δεν φαίνονται (δεν αφήνουν γραμμή να διαβαστεί)· αυτά τα δείχνει το reload.
+ * - Κάθε poll διαβάζει column >= mark - lookback κατά (column, pk) σε batches των live.batchRows.
+ *   Το παράθυρο πίσω από το mark ξαναδιαβάζεται κάθε φορά: η τιμή του watermark (CURRENT_TIMESTAMP,
+ *   AUTO_INCREMENT) δίνεται πριν το commit, οπότε ταυτόχρονα inserts γίνονται ορατά εκτός σειράς
+ *   (και μια γραμμή μπορεί να αλλάξει μέσα στο ίδιο δευτερόλεπτο). Όσες γραμμές του παραθύρου δεν
+ *   άλλαξαν από το προηγούμενο πέρασμα δεν ξαναστέλνονται.
+ * - Όριο: γραμμή που γίνεται commit περισσότερο από live.lookbackSeconds (timestamp) ή
+ *   live.lookbackIds (AUTO_INCREMENT) πίσω από το mark δεν φαίνεται· αυτή τη δείχνει το reload.
+ * - Χωρίς mark (άδειος πίνακας ή watermark παντού NULL) το poll ψάχνει column IS NOT NULL: γραμμές
+ *   με NULL watermark δεν φαίνονται ποτέ, και κανένα poll δεν ξαναδιαβάζει όλο τον πίνακα.
+ * - Οι αλλαγές μαζεύονται ανά PK (η τελευταία τιμή κερδίζει) και περνάνε στο EDT το πολύ μία φορά
+ *   ανά frame, οπότε ένας πίνακας με πολλές εγγραφές δεν πνίγει το EDT. Όσο το EDT δεν έχει
+ *   πάρει τις προηγούμενες, το polling περιμένει.
+ */
+public final class LiveTail {
+
+    /** Αλλαγές ενός frame. inserted: σίγουρα νέες (AUTO_INCREMENT μετά το αρχικό MAX). */
+    public static final class Batch {
+        public final String table;
+        public final List<Object[]> changed;
+        public final List<Object[]> inserted;
+
+        Batch(String table, List<Object[]> changed, List<Object[]> inserted) {
+            this.table = table;
+            this.changed = changed;
+            this.inserted = inserted;
+        }
+    }
+
+    private static final long FRAME_MS = 1000 / 30;
+    // batches ανά poll· ό,τι μένει συνεχίζει στο επόμενο, χωρίς αναμονή
+    private static final int MAX_BATCHES_PER_POLL = 10;
+    // γραμμές που περιμένουν το EDT πάνω από αυτό = backpressure στο polling
+    private static final int MAX_PENDING = 50_000;
+    // γραμμές του παραθύρου που θυμόμαστε για να μην ξαναστέλνονται (πάνω από αυτό απλώς ξαναστέλνονται)
+    private static final int MAX_SEEN = 50_000;
+    private static final Set<String> WATERMARK_NAMES = new HashSet<>(Arrays.asList(
+            "updated_at", "updated", "modified_at", "modified", "last_modified", "last_update", "mtime"));
+
+    private final TableService service;
+    private final String table;
+    private final List<String> pkCols;
+    private final long pollMs;
+    private final int batchRows;
+    private final long lookbackMs;
+    private final long lookbackIds;
+    private final Consumer<Batch> onBatch;
+    private final Consumer<Exception> onError;
+    private final ScheduledExecutorService executor;
+    private final CancelScope scope = new CancelScope();
+    private volatile boolean stopped = false;
+
+    // ---- μόνο στο thread του polling ----
+    private TableQuery query;
+    private String watermark;
+    private int watermarkIdx;
+    private int[] pkIdx;
+    private int autoIdx = -1;
+    private Object mark;
+    private Object autoMark;
+    private Object[] resumeAfter;
+    // αρχή του τρέχοντος περάσματος (null = από την αρχή του πίνακα) και οι γραμμές του προηγούμενου/τρέχοντος
+    private Object passFrom;
+    private boolean firstPass = true;
+    private Map<List<Object>, Object[]> seenLastPass = new HashMap<>();
+    private Map<List<Object>, Object[]> seenThisPass = new HashMap<>();
+
+    // ---- κοινά με το EDT (synchronized στο pending) ----
+    private final Map<List<Object>, Object[]> pending = new LinkedHashMap<>();
+    private final Set<List<Object>> pendingInserts = new HashSet<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile long lastFlush;
+
+    LiveTail(TableService service, String table, List<String> pkCols, long pollMs, int batchRows,
+             long lookbackMs, long lookbackIds, Consumer<Batch> onBatch, Consumer<Exception> onError) {
+        this.service = service;
+        this.table = table;
+        this.pkCols = pkCols;
+        this.pollMs = Math.max(100, pollMs);
+        this.batchRows = Math.max(10, batchRows);
+        this.lookbackMs = Math.max(0, lookbackMs);
+        this.lookbackIds = Math.max(0, lookbackIds);
+        this.onBatch = onBatch;
+        this.onError = onError;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "live-tail-" + table);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public String getTableName() {
+        return table;
+    }
+
+    /** Το watermark που διαλέχτηκε (null πριν το πρώτο poll). */
+    public String watermarkColumn() {
+        return watermark;
+    }
+
+    public void start() {
+        executor.execute(this::pollSafely);
+    }
+
+    public void stop() {
+        stopped = true;
+        scope.cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Η στήλη που αλλάζει σε κάθε εγγραφή, ή null. Προτιμάται αυτή με ON UPDATE CURRENT_TIMESTAMP,
+     * μετά μια TIMESTAMP/DATETIME με γνωστό όνομα, μετά η AUTO_INCREMENT.
+     */
+    static String chooseWatermark(SchemaCache.TableMeta meta) {
+        String named = null;
+        for (SchemaCache.ColumnInfo c : meta.columns.values()) {
+            String type = c.dataType.toLowerCase(Locale.ROOT);
+            if (!type.equals("timestamp") && !type.equals("datetime")) continue;
+            String extra = c.extra == null ? "" : c.extra.toLowerCase(Locale.ROOT);
+            if (extra.contains("on update")) return c.name;
+            if (named == null && WATERMARK_NAMES.contains(c.name.toLowerCase(Locale.ROOT))) named = c.name;
+        }
+        if (named != null) return named;
+        return meta.autoIncrementCols.isEmpty() ? null : meta.autoIncrementCols.iterator().next();
+    }
+
+    // ===== polling =====
+    private void pollSafely() {
+        if (stopped) return;
+        boolean more;
+        try {
+            more = scope.run(() -> {
+                if (query == null) init();
+                return pendingSize() < MAX_PENDING && poll();
+            });
+        } catch (Exception e) {
+            if (stopped) return;
+            stopped = true;
+            SwingUtilities.invokeLater(() -> onError.accept(e));
+            executor.shutdown();
+            return;
+        }
+        if (stopped) return;
+        // έμειναν γραμμές: συνέχεια αμέσως (catch-up), αλλιώς στο επόμενο διάστημα
+        executor.schedule(this::pollSafely, more ? 0 : pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void init() throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Live mode needs a PRIMARY KEY.");
+        SchemaCache.TableMeta meta = service.schema().table(table);
+        String col = chooseWatermark(meta);
+        if (col == null) {
+            throw new SQLException("Live mode needs an AUTO_INCREMENT column or a TIMESTAMP/DATETIME column"
+                    + " with ON UPDATE CURRENT_TIMESTAMP in " + table + ".");
+        }
+        // οι στήλες του SchemaCache είναι κατά ORDINAL_POSITION, όπως τις δίνει το SELECT *
+        List<String> columns = new ArrayList<>(meta.columns.keySet());
+        watermarkIdx = columns.indexOf(col);
+        pkIdx = new int[pkCols.size()];
+        for (int i = 0; i < pkIdx.length; i++) pkIdx[i] = columns.indexOf(pkCols.get(i));
+
+        // από εδώ και πέρα: ό,τι υπάρχει ήδη το έχει δείξει το model
+        mark = service.maxValue(table, col);
+        if (!meta.autoIncrementCols.isEmpty()) {
+            String auto = meta.autoIncrementCols.iterator().next();
+            autoIdx = columns.indexOf(auto);
+            autoMark = auto.equals(col) ? mark : service.maxValue(table, auto);
+        }
+        watermark = col;
+        query = TableQuery.of(table, pkCols).sort(col, TableQuery.Direction.ASC);
+    }
+
+    /** @return true αν σταμάτησε σε γεμάτο batch (υπάρχουν κι άλλες γραμμές) */
+    private boolean poll() throws SQLException {
+        Object[] after = resumeAfter;
+        resumeAfter = null;
+        if (after == null) {
+            // νέο πέρασμα: το πρώτο από το MAX του init (τα προηγούμενα τα έχει το model), μετά με lookback
+            passFrom = firstPass ? mark : lookbackFrom(mark);
+            firstPass = false;
+        }
+        for (int b = 0; b < MAX_BATCHES_PER_POLL && !stopped; b++) {
+            TableService.TableData page = service.loadChangedSince(query, passFrom, after, batchRows);
+            if (page.isEmpty()) {
+                endPass();
+                return false;
+            }
+
+            List<Object[]> changed = new ArrayList<>();
+            Set<List<Object>> inserted = new HashSet<>();
+            for (int r = 0; r < page.rowCount(); r++) {
+                Object[] row = page.row(r);
+                if (!isNew(row)) continue;
+                List<Object> key = keyOf(row);
+                changed.add(row);
+                if (isInsert(row)) inserted.add(key);
+            }
+            Object[] last = page.row(page.rowCount() - 1);
+            advance(page);
+            if (!changed.isEmpty()) offer(changed, inserted);
+
+            if (page.rowCount() < batchRows) {
+                endPass();
+                return false;
+            }
+            after = new Object[1 + pkIdx.length];
+            after[0] = last[watermarkIdx];
+            for (int i = 0; i < pkIdx.length; i++) after[i + 1] = last[pkIdx[i]];
+        }
+        resumeAfter = after;
+        return true;
+    }
+
+    /** false για γραμμή του παραθύρου που τη στείλαμε ήδη ίδια (σε αυτό ή στο προηγούμενο πέρασμα). */
+    private boolean isNew(Object[] row) {
+        List<Object> key = keyOf(row);
+        Object[] seen = seenThisPass.get(key);
+        if (seen == null) seen = seenLastPass.get(key);
+        return seen == null || !Arrays.deepEquals(seen, row);
+    }
+
+    // ό,τι δεν ξαναδιαβάστηκε σε αυτό το πέρασμα βγήκε από το παράθυρο
+    private void endPass() {
+        seenLastPass = seenThisPass;
+        seenThisPass = new HashMap<>();
+    }
+
+    /** mark - lookback στον τύπο της στήλης· για άλλους τύπους σκέτο το mark, null (IS NOT NULL) χωρίς mark. */
+    private Object lookbackFrom(Object mark) {
+        if (mark instanceof Timestamp ts) return new Timestamp(ts.getTime() - lookbackMs);
+        if (mark instanceof LocalDateTime t) return t.minusNanos(lookbackMs * 1_000_000);
+        if (mark instanceof Number n) return new BigDecimal(n.toString()).subtract(BigDecimal.valueOf(lookbackIds));
+        return mark;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean isInsert(Object[] row) {
+        if (autoIdx < 0) return false;
+        Object v = row[autoIdx];
+        if (v == null) return false;
+        if (autoMark == null) return true; // ο πίνακας ήταν άδειος
+        if (v instanceof Number && autoMark instanceof Number) {
+            return new BigDecimal(v.toString()).compareTo(new BigDecimal(autoMark.toString())) > 0;
+        }
+        return v instanceof Comparable && ((Comparable) v).compareTo(autoMark) > 0;
+    }
+
+    /** Νέο mark = η μεγαλύτερη τιμή watermark που διαβάστηκε (οι γραμμές έρχονται ταξινομημένες). */
+    private void advance(TableService.TableData page) {
+        for (int r = 0; r < page.rowCount(); r++) {
+            Object[] row = page.row(r);
+            if (isInsert(row)) autoMark = row[autoIdx];
+            Object w = row[watermarkIdx];
+            if (w == null) continue;
+            mark = w;
+            if (seenThisPass.size() < MAX_SEEN) seenThisPass.put(keyOf(row), row);
+        }
+    }
+
+    private List<Object> keyOf(Object[] row) {
+        Object[] key = new Object[pkIdx.length];
+        for (int i = 0; i < key.length; i++) key[i] = row[pkIdx[i]];
+        return Arrays.asList(key);
+    }
+
+    // ===== coalescing προς το EDT =====
+    private int pendingSize() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private void offer(List<Object[]> rows, Set<List<Object>> inserted) {
+        synchronized (pending) {
+            for (Object[] row : rows) {
+                List<Object> key = keyOf(row);
+                pending.put(key, row);
+                if (inserted.contains(key)) pendingInserts.add(key);
+            }
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            long wait = Math.max(0, lastFlush + FRAME_MS - System.currentTimeMillis());
+            executor.schedule(() -> SwingUtilities.invokeLater(this::flush), wait, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Στο EDT: ό,τι μαζεύτηκε από το προηγούμενο frame, σε ένα Batch. */
+    private void flush() {
+        List<Object[]> changed = new ArrayList<>();
+        List<Object[]> inserted = new ArrayList<>();
+        synchronized (pending) {
+            flushScheduled.set(false);
+            for (Map.Entry<List<Object>, Object[]> e : pending.entrySet()) {
+                (pendingInserts.contains(e.getKey()) ? inserted : changed).add(e.getValue());
+            }
+            pending.clear();
+            pendingInserts.clear();
+        }
+        lastFlush = System.currentTimeMillis();
+        if (stopped || (changed.isEmpty() && inserted.isEmpty())) return;
+        onBatch.accept(new Batch(table, changed, inserted));
+    }
+}
@@ -0,0 +1,81 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Τιμή TEXT/BLOB στο grid όταν είναι μεγαλύτερη από το preview: η αρχή της και το πλήθος
+ * (χαρακτήρες για TEXT, bytes για BLOB). Η πλήρης τιμή διαβάζεται με το PK μόνο όταν ανοίξει
+ * το κελί ({@link TableService#readText} / {@link TableService#readBlob}). Οι τιμές που χωράνε στο preview μένουν String/byte[].
+ *
+ * Δεν γράφεται ποτέ πίσω στη βάση: το UPDATE dialog παραλείπει αυτές τις στήλες.
+ */
+public final class LobPreview {
+
+    public final String column;
+    public final boolean binary;
+    /** CHAR_LENGTH για TEXT, LENGTH για BLOB. */
+    public final long length;
+    /** Η αρχή της τιμής: String για TEXT, byte[] για BLOB. */
+    private final Object head;
+
+    LobPreview(String column, boolean binary, long length, Object head) {
+        this.column = column;
+        this.binary = binary;
+        this.length = length;
+        this.head = head;
+    }
+
+    /**
+     * Από το "length:head" του select list (βλ. TableService.selectList): η πλήρης τιμή
+     * (String/byte[]) αν χωράει στο head, αλλιώς LobPreview.
+     */
+    static Object parse(String column, boolean binary, Object v) {
+        if (binary) {
+            byte[] b = v instanceof byte[] ? (byte[]) v : v.toString().getBytes(StandardCharsets.ISO_8859_1);
+            int colon = 0;
+            long length = 0;
+            while (colon < b.length && b[colon] != ':') length = length * 10 + (b[colon++] - '0');
+            byte[] head = Arrays.copyOfRange(b, Math.min(colon + 1, b.length), b.length);
+            return head.length >= length ? head : new LobPreview(column, true, length, head);
+        }
+        String s = v instanceof byte[] ? new String((byte[]) v, StandardCharsets.UTF_8) : v.toString();
+        int colon = s.indexOf(':');
+        long length = Long.parseLong(s.substring(0, colon));
+        String head = s.substring(colon + 1);
+        return head.codePointCount(0, head.length()) >= length ? head : new LobPreview(column, false, length, head);
+    }
+
+    public String text() {
+        return binary ? null : (String) head;
+    }
+
+    public byte[] bytes() {
+        return binary ? (byte[]) head : null;
+    }
+
+    @Override public String toString() {
+        if (!binary) return head + "… [" + size(length, "chars") + "]";
+        StringBuilder sb = new StringBuilder("[BLOB ").append(size(length, "bytes")).append("]");
+        byte[] b = (byte[]) head;
+        for (int i = 0; i < Math.min(16, b.length); i++) sb.append(i == 0 ? " " : "").append(String.format("%02X", b[i] & 0xFF));
+        return sb.toString();
+    }
+
+    static String size(long n, String unit) {
+        boolean bytes = unit.equals("bytes");
+        if (n < 1024) return n + " " + unit;
+        if (n < 1024 * 1024) return String.format("%.1f %s", n / 1024.0, bytes ? "KB" : "K " + unit);
+        return String.format("%.1f %s", n / (1024.0 * 1024), bytes ? "MB" : "M " + unit);
+    }
+
+    // το live tail και ο διάλογος conflict συγκρίνουν γραμμές με equals
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof LobPreview p)) return false;
+        return binary == p.binary && length == p.length && column.equals(p.column)
+                && (binary ? Arrays.equals((byte[]) head, (byte[]) p.head) : head.equals(p.head));
+    }
+
+    @Override public int hashCode() {
+        return Objects.hash(column, length, binary ? Arrays.hashCode((byte[]) head) : head.hashCode());
+    }
+}
@@ -0,0 +1,269 @@
+import javax.swing.*;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Η πλήρης τιμή ενός TEXT/BLOB κελιού που στο grid ήρθε ως {@link LobPreview}.
+ *
+ * TEXT: οι χαρακτήρες μπαίνουν στο editor σε κομμάτια όσο έρχονται (έως {@code lob.viewChars});
+ * αν χωράει όλη η τιμή γίνεται και επεξεργασία. BLOB: hex dump των πρώτων {@value #HEX_BYTES} bytes.
+ * Save to file / Load from file περνάνε όλη την τιμή ως stream, χωρίς να τη φέρουν στη μνήμη του UI.
+ * Με write.optimistic οι εγγραφές γίνονται μόνο αν η γραμμή και η τιμή δεν άλλαξαν από τότε που
+ * φορτώθηκαν ({@link TableService#writeTextIfUnchanged}).
+ */
+public class LobViewer extends JPanel {
+
+    private static final int HEX_BYTES = 64 * 1024;
+    private static final long VIEW_CHARS = Long.parseLong(DB.property("lob.viewChars", "1000000").trim());
+
+    private final TableService service;
+    private final AsyncTableService async;
+    private final String table;
+    private final List<String> pkCols;
+    private final Map<String, Object> pk;
+    // η γραμμή όπως στο grid (μετά από κάθε εγγραφή όπως είναι τώρα)· null = εγγραφές χωρίς έλεγχο
+    private volatile Map<String, Object> original;
+    private final LobPreview preview;
+    private final Runnable onSaved;
+
+    private final JTextArea area = new JTextArea();
+    private final JLabel status = new JLabel(" ");
+    private final JButton saveBtn = new JButton("Save");
+    private final JButton exportBtn = new JButton("Save to file...");
+    private final JButton importBtn = new JButton("Load from file...");
+    private AsyncTableService.Task<?> loading;
+    private boolean complete;
+    // MD5 της τιμής όταν φορτώθηκε (το γράφει το thread του load)
+    private volatile String loadedHash;
+    // code points που ήρθαν (το LEFT του server μετράει χαρακτήρες, όχι UTF-16 units)
+    private long codePoints;
+
+    private LobViewer(TableService service, AsyncTableService async, String table, List<String> pkCols,
+                      Map<String, Object> pk, Map<String, Object> original, LobPreview preview, Runnable onSaved) {
+        super(new BorderLayout(4, 4));
+        this.service = service;
+        this.async = async;
+        this.table = table;
+        this.pkCols = pkCols;
+        this.pk = pk;
+        this.original = original;
+        this.preview = preview;
+        this.onSaved = onSaved;
+
+        area.setEditable(false);
+        area.setLineWrap(!preview.binary);
+        if (preview.binary) area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        add(status, BorderLayout.NORTH);
+        add(new JScrollPane(area), BorderLayout.CENTER);
+
+        saveBtn.setEnabled(false);
+        saveBtn.setVisible(!preview.binary);
+        saveBtn.addActionListener(e -> save());
+        exportBtn.addActionListener(e -> exportToFile());
+        importBtn.addActionListener(e -> importFromFile());
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(saveBtn);
+        buttons.add(exportBtn);
+        buttons.add(importBtn);
+        add(buttons, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Μη-modal παράθυρο· το onSaved τρέχει στο EDT μετά από κάθε εγγραφή (για reload της γραμμής).
+     * original: η γραμμή όπως τη βλέπει ο χρήστης για optimistic εγγραφές, ή null.
+     */
+    public static void showDialog(JFrame owner, TableService service, AsyncTableService async, String table,
+                                  List<String> pkCols, Map<String, Object> pk, Map<String, Object> original,
+                                  LobPreview preview, Runnable onSaved) {
+        LobViewer viewer = new LobViewer(service, async, table, pkCols, pk, original, preview, onSaved);
+        JDialog dlg = new JDialog(owner, table + "." + preview.column + " " + pk.values(), false);
+        dlg.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dlg.add(viewer);
+        dlg.setSize(760, 520);
+        dlg.setLocationRelativeTo(owner);
+        dlg.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent e) {
+                if (viewer.loading != null) viewer.loading.cancel();
+            }
+        });
+        dlg.setVisible(true);
+        viewer.load();
+    }
+
+    private void load() {
+        area.setText("");
+        complete = false;
+        saveBtn.setEnabled(false);
+        status.setText("Loading " + LobPreview.size(preview.length, preview.binary ? "bytes" : "chars") + "...");
+
+        if (preview.binary) {
+            loading = async.submit(null, p -> {
+                loadHash();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                service.readBlob(table, pkCols, pk, preview.column, HEX_BYTES, out);
+                return hexDump(out.toByteArray());
+            }, hex -> {
+                area.setText(hex);
+                area.setCaretPosition(0);
+                status.setText(LobPreview.size(preview.length, "bytes")
+                        + (preview.length > HEX_BYTES ? ", first " + LobPreview.size(HEX_BYTES, "bytes") + " shown" : ""));
+            }, this::showError);
+            return;
+        }
+
+        // κάθε κομμάτι του Clob stream μπαίνει στο editor μόλις έρθει
+        codePoints = 0;
+        Writer toArea = new Writer() {
+            @Override public void write(char[] buf, int off, int len) {
+                // ένα surrogate pair μπορεί να σπάσει ανάμεσα σε δύο κομμάτια: μετράμε μόνο τα high/BMP
+                for (int i = off; i < off + len; i++) if (!Character.isLowSurrogate(buf[i])) codePoints++;
+                String chunk = new String(buf, off, len);
+                SwingUtilities.invokeLater(() -> {
+                    area.append(chunk);
+                    status.setText("Loading... " + area.getDocument().getLength() + " / " + preview.length + " chars");
+                });
+            }
+
+            @Override public void flush() {
+            }
+
+            @Override public void close() {
+            }
+        };
+        // ένας χαρακτήρας παραπάνω: αν έρθει, η τιμή δεν χωράει (το preview.length μπορεί να είναι παλιό)
+        long max = VIEW_CHARS < 0 ? -1 : VIEW_CHARS + 1;
+        loading = async.submit(null, p -> {
+            loadHash();
+            return service.readText(table, pkCols, pk, preview.column, max, toArea);
+        }, n -> {
+            area.setCaretPosition(0);
+            complete = n >= 0 && (VIEW_CHARS < 0 || codePoints <= VIEW_CHARS);
+            area.setEditable(complete);
+            saveBtn.setEnabled(complete);
+            status.setText(LobPreview.size(preview.length, "chars") + (complete ? ""
+                    : ", first " + area.getDocument().getLength() + " shown (read-only; use Save to file to get all of it)"));
+        }, this::showError);
+    }
+
+    // πριν από την ανάγνωση: αν η τιμή αλλάξει ανάμεσα, το save βγάζει conflict αντί να γράψει από πάνω
+    private void loadHash() throws SQLException {
+        if (original != null) loadedHash = service.lobHash(table, pkCols, pk, preview.column);
+    }
+
+    private void save() {
+        if (!complete) return;
+        String text = area.getText();
+        write("Saving " + preview.column + "...", () -> writeText(new StringReader(text), text.length()));
+    }
+
+    private void writeText(Reader in, long length) throws SQLException {
+        if (original == null) service.writeText(table, pkCols, pk, preview.column, in, length);
+        else service.writeTextIfUnchanged(table, pkCols, original, preview.column, loadedHash, in, length);
+    }
+
+    private void writeBlob(InputStream in, long length) throws SQLException {
+        if (original == null) service.writeBlob(table, pkCols, pk, preview.column, in, length);
+        else service.writeBlobIfUnchanged(table, pkCols, original, preview.column, loadedHash, in, length);
+    }
+
+    private void exportToFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(table + "." + preview.column + (preview.binary ? ".bin" : ".txt")));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+
+        async.submit(null, p -> {
+            p.update(0, preview.length, "Saving " + preview.column + " to " + file.getFileName() + "...");
+            if (preview.binary) {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    return service.readBlob(table, pkCols, pk, preview.column, -1, out);
+                }
+            }
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                return service.readText(table, pkCols, pk, preview.column, -1, out);
+            }
+        }, n -> status.setText("Saved " + LobPreview.size(Math.max(n, 0), preview.binary ? "bytes" : "chars")
+                + " to " + file), this::showError);
+    }
+
+    private void importFromFile() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        int ans = JOptionPane.showConfirmDialog(this, "Replace " + preview.column + " with the contents of "
+                + file.getFileName() + "?", "Confirm", JOptionPane.YES_NO_OPTION);
+        if (ans != JOptionPane.YES_OPTION) return;
+
+        write("Loading " + file.getFileName() + " into " + preview.column + "...", () -> {
+            if (preview.binary) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                    writeBlob(in, Files.size(file));
+                }
+            } else {
+                try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    writeText(in, -1);
+                }
+            }
+        });
+    }
+
+    private interface Write {
+        void run() throws Exception;
+    }
+
+    // χωρίς channel, όπως όλες οι εγγραφές: δεν τις ακυρώνει το επόμενο task
+    private void write(String message, Write write) {
+        async.submit(null, p -> {
+            p.update(0, -1, message);
+            write.run();
+            // η επόμενη εγγραφή ελέγχει τη γραμμή όπως την άφησε αυτή (π.χ. νέο version)
+            if (original != null) {
+                TableService.TableData now = service.loadRowsByPk(table, pkCols, Collections.singletonList(pk));
+                if (!now.isEmpty()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int c = 0; c < now.columns.size(); c++) row.put(now.columns.get(c), now.get(0, c));
+                    original = row;
+                }
+            }
+            return null;
+        }, r -> {
+            onSaved.run();
+            load();
+        }, this::showError);
+    }
+
+    static String hexDump(byte[] b) {
+        StringBuilder sb = new StringBuilder(b.length * 4 + b.length / 16 * 12);
+        for (int off = 0; off < b.length; off += 16) {
+            sb.append(String.format("%08X  ", off));
+            for (int i = 0; i < 16; i++) {
+                if (off + i < b.length) sb.append(String.format("%02X ", b[off + i] & 0xFF));
+                else sb.append("   ");
+            }
+            sb.append(' ');
+            for (int i = off; i < Math.min(off + 16, b.length); i++) {
+                int c = b[i] & 0xFF;
+                sb.append(c >= 0x20 && c < 0x7F ? (char) c : '.');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void showError(Exception ex) {
+        ex.printStackTrace();
+        status.setText("Error: " + ex.getMessage());
+        JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+}
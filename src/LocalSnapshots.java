@@ -0,0 +1,373 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Τοπικά αντίγραφα ({@link TableSnapshot}) για πίνακες αναφοράς που ανοίγουμε όλη μέρα
+ * (snapshot.* στο config): ένα αρχείο ανά βάση + πίνακα + fingerprint του schema στο snapshot.dir.
+ *
+ * Στο {@link #open} ο πίνακας σερβίρεται αμέσως από το αρχείο (TableService.loadPage/seekKey/countRows
+ * για το default query) και στο background γίνεται έλεγχος σε ένα consistent snapshot:
+ *
+ * 1. UPDATE_TIME του πίνακα πριν από το takenAt του αρχείου: τίποτα δεν άλλαξε, τέλος.
+ * 2. αλλιώς COUNT + BIT_XOR(hash γραμμής) ανά row group (περιοχή του PK) στον server: όσα groups
+ *    διαφέρουν ξαναφέρνονται, τα υπόλοιπα αντιγράφονται αυτούσια στο νέο αρχείο.
+ *
+ * Μια εγγραφή από την εφαρμογή στον πίνακα σταματάει το σερβίρισμα μέχρι τον επόμενο έλεγχο,
+ * ώστε μια σελίδα που ξαναφορτώνεται να μη δείξει την παλιά τιμή.
+ * Μόνο πίνακες με αριθμητικό/χρονικό PK: η σειρά τους στη Java είναι ίδια με του ORDER BY.
+ */
+public class LocalSnapshots {
+
+    /** Καλείται από το background thread όταν ο έλεγχος ενός πίνακα που ανοίχτηκε βρήκε αλλαγές. */
+    public interface Listener {
+        void changed(String table, int changedGroups);
+
+        /** Ο έλεγχος/δημιουργία του αρχείου απέτυχε· ο πίνακας σερβίρεται από τον server. */
+        default void failed(String table, Exception e) {
+        }
+    }
+
+    private static final Set<String> ORDERED_TYPES = Set.of(
+            "tinyint", "smallint", "mediumint", "int", "integer", "bigint", "decimal",
+            "date", "datetime", "timestamp", "year");
+    private static final String EXTENSION = ".tms";
+
+    private final TableService service;
+    private final boolean enabled;
+    private final Path dir;
+    private final Set<String> tables;
+    private final long maxRows;
+    private final int groupRows;
+
+    private final Map<String, TableSnapshot> serving = new ConcurrentHashMap<>();
+    // αυξάνεται σε κάθε εγγραφή: ένα sync που ξεκίνησε πριν από αυτήν δεν ξαναρχίζει το σερβίρισμα
+    private final Map<String, Long> writes = new ConcurrentHashMap<>();
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+    private volatile Listener listener = (t, n) -> { };
+
+    LocalSnapshots(TableService service) {
+        this.service = service;
+        this.enabled = Boolean.parseBoolean(DB.property("snapshot.enabled", "false").trim());
+        String base = DB.property("snapshot.dir", "").trim();
+        Path root = base.isEmpty() ? Paths.get(System.getProperty("user.home"), ".tablemanager", "snapshots") : Paths.get(base);
+        this.dir = root.resolve(safeName(DB.property("db.url", "") + "@" + DB.property("db.user", "")));
+        this.tables = new HashSet<>();
+        for (String t : DB.property("snapshot.tables", "").split(",")) if (!t.isBlank()) tables.add(t.trim());
+        this.maxRows = Long.parseLong(DB.property("snapshot.maxRows", "2000000").trim());
+        this.groupRows = Integer.parseInt(DB.property("snapshot.groupRows", "10000").trim());
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ανοίγει το τοπικό αντίγραφο του πίνακα (αν υπάρχει) και βάζει τον έλεγχό του στην ουρά·
+     * αν δεν υπάρχει, το φτιάχνει στο background για την επόμενη φορά. null = σερβίρει ο server.
+     */
+    public TableSnapshot open(String table) throws SQLException {
+        SchemaCache.TableMeta meta = service.schema().table(table);
+        if (!eligible(meta)) return null;
+
+        TableSnapshot s = serving.get(table);
+        if (s == null) {
+            Path file = latestFile(table, fingerprint(meta));
+            try {
+                s = file == null ? null : TableSnapshot.open(file);
+            } catch (IOException e) {
+                s = null; // χαλασμένο/μισό αρχείο: ξαναφτιάχνεται
+            }
+            if (s != null) serving.put(table, s);
+        }
+        schedule(table, s != null);
+        return s;
+    }
+
+    /** Το snapshot που σερβίρει τον πίνακα, ή null. */
+    TableSnapshot serving(String table) {
+        return serving.isEmpty() ? null : serving.get(table);
+    }
+
+    /** Η εφαρμογή έγραψε στον πίνακα: από τον server μέχρι να ξαναελεγχθεί το αρχείο. */
+    void written(String table) {
+        if (!enabled) return;
+        writes.merge(table, 1L, Long::sum);
+        if (serving.remove(table) != null) schedule(table, false);
+    }
+
+    public synchronized void shutdown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private boolean eligible(SchemaCache.TableMeta meta) {
+        if (!enabled || meta.pkCols.isEmpty()) return false;
+        if (!tables.isEmpty() && !tables.contains(meta.name)) return false;
+        if (meta.estimatedRows > maxRows) return false;
+        for (String c : meta.pkCols) {
+            if (!ORDERED_TYPES.contains(meta.columns.get(c).dataType.toLowerCase(Locale.ROOT))) return false;
+        }
+        return true;
+    }
+
+    private synchronized void schedule(String table, boolean notify) {
+        if (!queued.add(table)) return;
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "snapshot-sync");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        executor.execute(() -> {
+            queued.remove(table);
+            try {
+                int changed = sync(table);
+                if (notify && changed > 0) listener.changed(table, changed);
+            } catch (Exception e) {
+                // το snapshot είναι βελτιστοποίηση: σε σφάλμα απλώς σερβίρει ο server
+                serving.remove(table);
+                listener.failed(table, e);
+            }
+        });
+    }
+
+    // ===== sync =====
+    /**
+     * Φτιάχνει ή ελέγχει το αρχείο του πίνακα· επιστρέφει πόσα groups ξαναφέρθηκαν
+     * (0 = το αρχείο ήταν ενημερωμένο).
+     */
+    private int sync(String table) throws SQLException, IOException {
+        SchemaCache.TableMeta meta = service.schema().table(table);
+        String fingerprint = fingerprint(meta);
+        long writesBefore = writes.getOrDefault(table, 0L);
+        TableSnapshot old = serving.get(table);
+        if (old == null) {
+            Path file = latestFile(table, fingerprint);
+            try {
+                old = file == null ? null : TableSnapshot.open(file);
+            } catch (IOException e) {
+                old = null;
+            }
+        }
+
+        List<String> columns = new ArrayList<>(meta.columns.keySet());
+        int[] pkIndexes = meta.pkCols.stream().mapToInt(columns::indexOf).toArray();
+        if (old != null && !old.columns.equals(columns)) old = null;
+
+        Path tmp = null;
+        Path file;
+        int changed;
+        try (Metrics.Span span = Metrics.span("snapshot.sync");
+             Connection con = DB.get()) {
+            try (Statement st = con.createStatement()) {
+                st.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+                st.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+            }
+            try {
+                long takenAt = serverTime(con);
+                if (old != null && unchangedSince(con, table, old.takenAt)) {
+                    commit(con);
+                    finishUnchanged(table, old, writesBefore);
+                    return 0;
+                }
+
+                // ακόμα κι αν δεν άλλαξε κανένα group γράφεται νέο αρχείο (αντίγραφο), για να προχωρήσει το takenAt
+                Files.createDirectories(dir);
+                tmp = Files.createTempFile(dir, safeName(table), ".tmp");
+                file = dir.resolve(fileName(table, fingerprint, takenAt));
+                try (TableSnapshot.Writer w = new TableSnapshot.Writer(tmp, takenAt, table, fingerprint, columns, pkIndexes)) {
+                    changed = old == null ? build(con, table, meta.pkCols, w) : revalidate(con, table, meta.pkCols, old, w);
+                    commit(con);
+                    w.finish();
+                    span.rows(w.rows());
+                }
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (SQLException | IOException | RuntimeException e) {
+                // START TRANSACTION με autocommit: το pool δεν κάνει rollback μόνο του
+                try (Statement st = con.createStatement()) {
+                    st.execute("ROLLBACK");
+                } catch (SQLException ignored) {
+                    // η σύνδεση χάθηκε
+                }
+                throw e;
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            if (tmp != null) Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        TableSnapshot fresh = TableSnapshot.open(file);
+        if (writes.getOrDefault(table, 0L) == writesBefore) serving.put(table, fresh);
+        else schedule(table, false);
+        deleteOlder(table, file);
+        return old == null ? 0 : changed;
+    }
+
+    // το αρχείο μένει· ξαναρχίζει το σερβίρισμα αν δεν έγραψε κανείς όσο ελέγχαμε
+    private void finishUnchanged(String table, TableSnapshot old, long writesBefore) {
+        if (writes.getOrDefault(table, 0L) == writesBefore) serving.put(table, old);
+        else schedule(table, false);
+    }
+
+    /** Πρώτη φορά: όλος ο πίνακας σε groups των groupRows κατά PK. */
+    private int build(Connection con, String table, List<String> pkCols, TableSnapshot.Writer w)
+            throws SQLException, IOException {
+        Object[] after = null;
+        int groups = 0;
+        while (true) {
+            TableService.HashedRows part = service.loadHashedRange(con, table, pkCols, after, false, null, groupRows);
+            if (part.rows.isEmpty() && groups > 0) break;
+            w.addGroup(part.rows, part.hash(0, part.rows.rowCount()), groups == 0 ? null : part.key(0));
+            groups++;
+            if (part.rows.rowCount() < groupRows) break;
+            after = part.key(part.rows.rowCount() - 1);
+        }
+        return groups;
+    }
+
+    /** Hash κάθε group στον server· όσα διαφέρουν ξαναφέρνονται (και σπάνε αν μεγάλωσαν). */
+    private int revalidate(Connection con, String table, List<String> pkCols, TableSnapshot old, TableSnapshot.Writer w)
+            throws SQLException, IOException {
+        int changed = 0;
+        for (int i = 0; i < old.groups.size(); i++) {
+            CancelScope.checkCancelled();
+            TableSnapshot.Group g = old.groups.get(i);
+            Object[] to = i + 1 < old.groups.size() ? old.groups.get(i + 1).startKey : null;
+            long[] server = service.rangeHash(con, table, pkCols, g.startKey, to);
+            if (server[0] == g.rows && server[1] == g.hash) {
+                w.copyGroup(g);
+                continue;
+            }
+            changed++;
+            TableService.HashedRows part = service.loadHashedRange(con, table, pkCols, g.startKey, true, to, 0);
+            int n = part.rows.rowCount();
+            if (n == 0) {
+                // άδεια περιοχή: μένει ένα κενό group ώστε τα όρια των επόμενων να μην αλλάξουν
+                w.addGroup(part.rows, 0, g.startKey);
+                continue;
+            }
+            for (int from = 0; from < n; from += groupRows) {
+                int end = Math.min(n, from + groupRows);
+                w.addGroup(part.slice(from, end), part.hash(from, end), from == 0 ? g.startKey : part.key(from));
+            }
+        }
+        return changed;
+    }
+
+    private static long serverTime(Connection con) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT CURRENT_TIMESTAMP(3)")) {
+            rs.next();
+            return rs.getTimestamp(1).getTime();
+        }
+    }
+
+    /**
+     * UPDATE_TIME < takenAt. Το InnoDB το κρατάει μόνο στη μνήμη (NULL μετά από restart) και στη
+     * MySQL 8 το information_schema το κάνει cache, εκτός αν information_schema_stats_expiry=0.
+     * Το UPDATE_TIME έχει ακρίβεια δευτερολέπτου ενώ το takenAt millis: ένα commit στο ίδιο
+     * δευτερόλεπτο με το snapshot φαίνεται σαν πριν από αυτό, γι' αυτό συγκρίνουμε με την αρχή του.
+     */
+    private static boolean unchangedSince(Connection con, String table, long takenAt) throws SQLException {
+        boolean expirySet;
+        try (Statement st = con.createStatement()) {
+            st.execute("SET SESSION information_schema_stats_expiry = 0");
+            expirySet = true;
+        } catch (SQLException e) {
+            expirySet = false; // MySQL 5.7 / MariaDB: δεν υπάρχει, και δεν χρειάζεται
+        }
+        try (PreparedStatement ps = con.prepareStatement("SELECT UPDATE_TIME FROM INFORMATION_SCHEMA.TABLES"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                Timestamp updated = rs.next() ? rs.getTimestamp(1) : null;
+                return updated != null && updated.getTime() < takenAt - takenAt % 1000;
+            }
+        } finally {
+            // η σύνδεση γυρίζει στο pool: ο επόμενος δεν πρέπει να βρει uncached στατιστικά
+            if (expirySet) {
+                try (Statement st = con.createStatement()) {
+                    st.execute("SET SESSION information_schema_stats_expiry = DEFAULT");
+                }
+            }
+        }
+    }
+
+    private static void commit(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("COMMIT");
+        }
+    }
+
+    // ===== αρχεία =====
+    // στήλες, τύποι, PK και μήκος των LOB previews: αν αλλάξει κάτι, τα παλιά αρχεία δεν ταιριάζουν
+    private static String fingerprint(SchemaCache.TableMeta meta) {
+        CRC32 crc = new CRC32();
+        StringBuilder sb = new StringBuilder(meta.name).append('|').append(meta.pkCols);
+        for (SchemaCache.ColumnInfo c : meta.columns.values()) sb.append('|').append(c.name).append(' ').append(c.columnType);
+        sb.append('|').append(DB.property("lob.previewChars", "256").trim());
+        crc.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+
+    private static String fileName(String table, String fingerprint, long takenAt) {
+        return safeName(table) + "-" + fingerprint + "-" + takenAt + EXTENSION;
+    }
+
+    private Path latestFile(String table, String fingerprint) {
+        String prefix = safeName(table) + "-" + fingerprint + "-";
+        Path latest = null;
+        long latestAt = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*" + EXTENSION)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                try {
+                    long at = Long.parseLong(name.substring(prefix.length(), name.length() - EXTENSION.length()));
+                    if (at > latestAt) {
+                        latestAt = at;
+                        latest = f;
+                    }
+                } catch (NumberFormatException e) {
+                    // άλλος πίνακας με το ίδιο πρόθεμα
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+        return latest;
+    }
+
+    // τα παλιά αρχεία (και άλλου fingerprint) του πίνακα· σε Windows ένα mapped αρχείο δεν σβήνεται, μένει για την επόμενη φορά
+    private void deleteOlder(String table, Path keep) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, safeName(table) + "-*" + EXTENSION)) {
+            for (Path f : files) {
+                if (f.equals(keep)) continue;
+                try {
+                    Files.deleteIfExists(f);
+                } catch (IOException e) {
+                    // ακόμα mapped
+                }
+            }
+        } catch (IOException e) {
+            // δεν πειράζει
+        }
+    }
+
+    private static String safeName(String s) {
+        return s.replaceAll("[^A-Za-z0-9._]", "_");
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Χρονομετρήσεις ανά λειτουργία (DB.get, queries του TableService, metadata, UI) με percentiles,
+ * γραμμές και bytes, ώστε ένα αργό click να σπάει σε σύνδεση / metadata / fetch / Swing.
+ *
+ * <pre>
+ *   try (Metrics.Span span = Metrics.span("query.loadPage")) {
+ *       ...
+ *       span.rows(n).bytes(b);
+ *   }
+ * </pre>
+ *
+ * Κάθε span γράφεται στο histogram του ονόματός του και ως JFR event ({@link DbCallEvent}).
+ * Τα ονόματα είναι "κατηγορία.λειτουργία": db, meta, query, write, export, ui.
+ */
+public final class Metrics {
+
+    /** Ένα τρέχον μέτρημα· το close() το καταγράφει. */
+    public static final class Span implements AutoCloseable {
+        private final String name;
+        private final long start = System.nanoTime();
+        private final DbCallEvent event = new DbCallEvent();
+        private long rows;
+        private long bytes;
+
+        private Span(String name) {
+            this.name = name;
+            event.begin();
+        }
+
+        public Span rows(long rows) {
+            this.rows += rows;
+            return this;
+        }
+
+        public Span bytes(long bytes) {
+            this.bytes += bytes;
+            return this;
+        }
+
+        @Override public void close() {
+            long nanos = System.nanoTime() - start;
+            stat(name).record(nanos, rows, bytes);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = name;
+                event.rows = rows;
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+    }
+
+    /** Στατιστικά μιας λειτουργίας (τιμές σε ms). */
+    public static final class Snapshot {
+        public final String name;
+        public final long count;
+        public final double meanMs;
+        public final double p50Ms;
+        public final double p90Ms;
+        public final double p99Ms;
+        public final double maxMs;
+        public final long rows;
+        public final long bytes;
+
+        Snapshot(String name, Stat s) {
+            this.name = name;
+            this.count = s.latency.count();
+            this.meanMs = s.latency.mean() / 1e6;
+            this.p50Ms = s.latency.percentile(50) / 1e6;
+            this.p90Ms = s.latency.percentile(90) / 1e6;
+            this.p99Ms = s.latency.percentile(99) / 1e6;
+            this.maxMs = s.latency.max() / 1e6;
+            this.rows = s.rows.sum();
+            this.bytes = s.bytes.sum();
+        }
+    }
+
+    private static final class Stat {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        void record(long nanos, long r, long b) {
+            latency.record(nanos);
+            rows.add(r);
+            bytes.add(b);
+        }
+
+        void reset() {
+            latency.reset();
+            rows.reset();
+            bytes.reset();
+        }
+    }
+
+    private static final Map<String, Stat> stats = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService logger;
+    private static Path logFile;
+    private static boolean hookInstalled;
+
+    private Metrics() {
+    }
+
+    public static Span span(String name) {
+        return new Span(name);
+    }
+
+    /** Για μετρήσεις που δεν χωράνε σε try-with-resources (π.χ. από το click μέχρι το paint). */
+    public static void record(String name, long nanos, long rows) {
+        stat(name).record(nanos, rows, 0);
+    }
+
+    public static List<Snapshot> snapshot() {
+        List<Snapshot> list = new ArrayList<>();
+        for (Map.Entry<String, Stat> e : new TreeMap<>(stats).entrySet()) list.add(new Snapshot(e.getKey(), e.getValue()));
+        return list;
+    }
+
+    public static void reset() {
+        for (Stat s : stats.values()) s.reset();
+    }
+
+    public static void writeTo(Writer out) {
+        PrintWriter pw = new PrintWriter(out);
+        pw.printf("# %s%n", LocalDateTime.now());
+        pw.printf("%-28s %8s %9s %9s %9s %9s %9s %10s %12s%n",
+                "operation", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms", "rows", "bytes");
+        for (Snapshot s : snapshot()) {
+            pw.printf(Locale.ROOT, "%-28s %8d %9.2f %9.2f %9.2f %9.2f %9.2f %10d %12d%n",
+                    s.name, s.count, s.meanMs, s.p50Ms, s.p90Ms, s.p99Ms, s.maxMs, s.rows, s.bytes);
+        }
+        pw.flush();
+    }
+
+    /** Προσθέτει ένα snapshot στο τέλος του αρχείου. */
+    public static void appendTo(Path file) throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writeTo(w);
+            w.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Γράφει snapshot στο αρχείο κάθε intervalSeconds (και ένα τελευταίο στο {@link #stopLog()}),
+     * ώστε ένα production session να αφήνει ίχνος χωρίς profiler.
+     */
+    public static synchronized void startLog(Path file, long intervalSeconds) {
+        stopLog();
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-log");
+            t.setDaemon(true);
+            return t;
+        });
+        logger.scheduleAtFixedRate(() -> {
+            try {
+                appendTo(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        logFile = file;
+        if (!hookInstalled) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Metrics::stopLog, "metrics-log-final"));
+            hookInstalled = true;
+        }
+    }
+
+    public static synchronized void stopLog() {
+        if (logger == null) return;
+        logger.shutdownNow();
+        logger = null;
+        try {
+            appendTo(logFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Stat stat(String name) {
+        return stats.computeIfAbsent(name, k -> new Stat());
+    }
+}
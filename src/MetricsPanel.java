@@ -0,0 +1,129 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Διαγνωστικά: ένας πίνακας με τα {@link Metrics.Snapshot} (count, percentiles, γραμμές, bytes)
+ * που ανανεώνεται κάθε δευτερόλεπτο όσο είναι ανοιχτός.
+ */
+public class MetricsPanel extends JPanel {
+
+    private static final String[] COLUMNS = {
+            "Operation", "Count", "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms", "Rows", "Bytes"
+    };
+
+    private final SnapshotModel model = new SnapshotModel();
+    private final javax.swing.Timer timer = new javax.swing.Timer(1000, e -> refresh());
+
+    public MetricsPanel() {
+        super(new BorderLayout());
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton resetBtn = new JButton("Reset");
+        JButton dumpBtn = new JButton("Dump to file...");
+        resetBtn.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+        dumpBtn.addActionListener(e -> dump());
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(resetBtn);
+        buttons.add(dumpBtn);
+        add(buttons, BorderLayout.SOUTH);
+
+        refresh();
+    }
+
+    /** Μη-modal παράθυρο με το panel· το timer σταματάει όταν κλείσει. */
+    public static void showDialog(JFrame owner) {
+        MetricsPanel panel = new MetricsPanel();
+        JDialog dlg = new JDialog(owner, "Diagnostics", false);
+        dlg.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dlg.add(panel);
+        dlg.setSize(820, 400);
+        dlg.setLocationRelativeTo(owner);
+        dlg.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent e) {
+                panel.timer.stop();
+            }
+        });
+        panel.timer.start();
+        dlg.setVisible(true);
+    }
+
+    private void refresh() {
+        model.setRows(Metrics.snapshot());
+    }
+
+    private void dump() {
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new java.io.File("metrics.txt"));
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = fc.getSelectedFile().toPath();
+        try {
+            Metrics.appendTo(file);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static class SnapshotModel extends AbstractTableModel {
+        private List<Metrics.Snapshot> rows = Collections.emptyList();
+
+        void setRows(List<Metrics.Snapshot> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override public Class<?> getColumnClass(int column) {
+            switch (column) {
+                case 0: return String.class;
+                case 1: case 7: case 8: return Long.class;
+                default: return Double.class;
+            }
+        }
+
+        @Override public Object getValueAt(int row, int column) {
+            Metrics.Snapshot s = rows.get(row);
+            switch (column) {
+                case 0: return s.name;
+                case 1: return s.count;
+                case 2: return ms(s.meanMs);
+                case 3: return ms(s.p50Ms);
+                case 4: return ms(s.p90Ms);
+                case 5: return ms(s.p99Ms);
+                case 6: return ms(s.maxMs);
+                case 7: return s.rows;
+                case 8: return s.bytes;
+                default: return null;
+            }
+        }
+
+        // 2 δεκαδικά, αριθμός ώστε να ταξινομείται σωστά
+        private static Double ms(double v) {
+            return Math.round(v * 100) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized table model: ξέρει μόνο το πλήθος γραμμών και φέρνει σελίδες on demand
+ * με keyset pagination (WHERE pk > ? ORDER BY pk LIMIT n) καθώς ο χρήστης κάνει scroll.
+ * Με φίλτρα/ταξινόμηση (TableQuery) το keyset είναι (sortColumn, pk).
+ *
+ * - Οι σελίδες μένουν σε bounded LRU cache, άρα η μνήμη δεν εξαρτάται από το μέγεθος του πίνακα.
+ * - Γίνεται prefetch της επόμενης σελίδας προς την κατεύθυνση του scroll.
+ * - Όλο το state (pages, pageEndKeys) αλλάζει μόνο στο EDT· ο loader thread κάνει μόνο JDBC.
+ */
+public class PagedTableModel extends AbstractTableModel {
+
+    private final TableService service;
+    private final TableQuery query;
+    private final String table;
+    private final List<String> columns;
+    private final List<String> pkCols;
+    private final int[] pkIndexes;
+    private final int[] keysetIndexes;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private int rowCount;
+    // false όσο το rowCount είναι εκτίμηση (TABLE_ROWS): μεγαλώνει αν βρούμε γραμμές μετά το τέλος
+    private boolean exactCount = true;
+
+    // LRU: access-order LinkedHashMap που πετάει την παλαιότερη σελίδα
+    // columnar σελίδες (TableData): primitive arrays αντί για boxed Object[] ανά γραμμή
+    private final LinkedHashMap<Integer, TableService.TableData> pages;
+    // keyset της τελευταίας γραμμής κάθε σελίδας = αφετηρία της επόμενης
+    private final Map<Integer, Object[]> pageEndKeys = new HashMap<>();
+    private final Set<Integer> inFlight = new HashSet<>();
+    private final Set<Integer> failed = new HashSet<>();
+    // γραμμές που μετρήθηκαν στο rowCount χωρίς να είναι σε cached σελίδα (insertNew)
+    private static final int MAX_COUNTED_KEYS = 1000;
+    private final LinkedHashSet<List<Object>> countedKeys = new LinkedHashSet<>();
+
+    private final LinkedBlockingDeque<Runnable> queue = new LinkedBlockingDeque<>();
+    private final Thread loader;
+    private volatile boolean disposed = false;
+
+    private volatile int lastPage = -1;
+    // αυξάνεται σε κάθε invalidate· σελίδες που φορτώθηκαν πριν από αυτό πετιούνται
+    private int generation = 0;
+    private int direction = 1;
+    private Consumer<Exception> errorHandler = Throwable::printStackTrace;
+
+    public PagedTableModel(TableService service, TableQuery query, List<String> columns,
+                           int rowCount, int pageSize, int maxCachedPages) {
+        this.service = service;
+        this.query = query;
+        this.table = query.table;
+        this.columns = columns;
+        this.pkCols = query.pkCols;
+        this.rowCount = rowCount;
+        this.pageSize = pageSize;
+        this.maxCachedPages = Math.max(3, maxCachedPages);
+
+        this.pkIndexes = new int[pkCols.size()];
+        for (int i = 0; i < pkIndexes.length; i++) pkIndexes[i] = columns.indexOf(pkCols.get(i));
+        List<String> keyCols = query.orderColumns();
+        this.keysetIndexes = new int[keyCols.size()];
+        for (int i = 0; i < keysetIndexes.length; i++) keysetIndexes[i] = columns.indexOf(keyCols.get(i));
+
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Integer, TableService.TableData> eldest) {
+                return size() > PagedTableModel.this.maxCachedPages;
+            }
+        };
+
+        this.loader = new Thread(this::loaderLoop, "page-loader-" + table);
+        this.loader.setDaemon(true);
+        this.loader.start();
+    }
+
+    /**
+     * Δέχεται την πρώτη σελίδα έτοιμη (την έχει ήδη φέρει όποιος έφτιαξε το model)
+     * ώστε το πρώτο paint να μη χρειαστεί δεύτερο round trip.
+     */
+    public void setFirstPage(TableService.TableData rows) {
+        storePage(0, rows);
+    }
+
+    /**
+     * Νέο πλήθος γραμμών (π.χ. το ακριβές COUNT(*) που ήρθε μετά την εκτίμηση).
+     * Οι σελίδες που έχουμε μένουν· όσες πέφτουν έξω από το νέο τέλος πετιούνται.
+     */
+    public void setRowCount(int count, boolean exact) {
+        exactCount = exact;
+        int old = rowCount;
+        if (count == old) return;
+        rowCount = count;
+        if (count > old) {
+            fireTableRowsInserted(old, count - 1);
+        } else {
+            int lastPage = count == 0 ? 0 : (count - 1) / pageSize;
+            pages.keySet().removeIf(p -> p > lastPage);
+            pageEndKeys.keySet().removeIf(p -> p > lastPage);
+            fireTableRowsDeleted(count, old - 1);
+        }
+    }
+
+    public boolean isRowCountExact() {
+        return exactCount;
+    }
+
+    public void setErrorHandler(Consumer<Exception> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public String getTableName() {
+        return table;
+    }
+
+    public TableQuery getQuery() {
+        return query;
+    }
+
+    public void dispose() {
+        disposed = true;
+        loader.interrupt();
+    }
+
+    // ===== TableModel =====
+    @Override public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override public String getColumnName(int col) {
+        return columns.get(col);
+    }
+
+    @Override public boolean isCellEditable(int row, int col) {
+        return false;
+    }
+
+    /** Αν η σελίδα δεν έχει έρθει ακόμα επιστρέφει null και ζητάει τη φόρτωσή της. */
+    @Override public Object getValueAt(int row, int col) {
+        TableService.TableData data = pageOf(row);
+        return data == null ? null : data.get(row % pageSize, col);
+    }
+
+    /** Η γραμμή ως Object[] (νέος πίνακας), ή null αν η σελίδα της δεν έχει έρθει ακόμα. */
+    public Object[] getRow(int row) {
+        TableService.TableData data = pageOf(row);
+        return data == null ? null : data.row(row % pageSize);
+    }
+
+    private TableService.TableData pageOf(int row) {
+        int page = row / pageSize;
+        int offset = row % pageSize;
+        touch(page);
+
+        TableService.TableData data = pages.get(page);
+        if (data == null || offset >= data.rowCount()) {
+            request(page);
+            return null;
+        }
+        return data;
+    }
+
+    // ===== Incremental updates (μετά από CRUD, χωρίς reload) =====
+
+    /** Αντικαθιστά τη γραμμή με το ίδιο PK, αν είναι σε cached σελίδα. */
+    public void replaceRow(Object[] row) {
+        int idx = indexOfKey(keyOf(row));
+        if (idx < 0) return; // δεν φαίνεται· θα έρθει φρέσκια όταν φορτωθεί η σελίδα της
+        pages.get(idx / pageSize).set(idx % pageSize, row);
+        fireTableRowsUpdated(idx, idx);
+    }
+
+    public void removeRowByKey(Object[] key) {
+        int idx = indexOfKey(key);
+        if (idx < 0) {
+            // η γραμμή δεν είναι cached: ξέρουμε μόνο ότι κάπου λιγότερη γραμμή υπάρχει
+            rowCount = Math.max(0, rowCount - 1);
+            invalidateFrom(0);
+            fireTableDataChanged();
+            return;
+        }
+        int page = idx / pageSize;
+        pages.get(page).remove(idx % pageSize);
+        rowCount--;
+        // οι επόμενες σελίδες μετατοπίστηκαν κατά μία γραμμή· η τρέχουσα έμεινε κοντή
+        // και η τελευταία της θέση θα ξαναζητηθεί από το ίδιο keyset όταν χρειαστεί
+        invalidateFrom(page + 1);
+        pageEndKeys.remove(page);
+        fireTableRowsDeleted(idx, idx);
+    }
+
+    /**
+     * Βάζει νέα γραμμή στη θέση της κατά PK.
+     * @return false αν το view έχει φίλτρα/ταξινόμηση (η θέση και το αν περνάει τα φίλτρα
+     *         τα ξέρει μόνο ο server) - τότε ο caller κάνει reload.
+     */
+    public boolean insertRowSorted(Object[] row) {
+        if (!query.isDefault()) return false;
+        Object[] key = keyOf(row);
+        int idx = indexOfKey(key);
+        if (idx >= 0) {
+            // ήδη εδώ (π.χ. την έφερε πρώτα το live tail)
+            pages.get(idx / pageSize).set(idx % pageSize, row);
+            fireTableRowsUpdated(idx, idx);
+            return true;
+        }
+        insertNew(row, key);
+        return true;
+    }
+
+    /**
+     * Live tail: γραμμές που άλλαξαν ή μπήκαν από άλλους clients, ένα batch ανά frame.
+     * Οι αλλαγμένες αντικαθίστανται όπου είναι cached (ένα index των cached PK για όλο το batch)·
+     * μια "αλλαγμένη" που λείπει από cached σελίδα στην οποία θα ανήκε είναι στην πραγματικότητα νέα.
+     * Με φίλτρα/ταξινόμηση γίνεται μόνο αντικατάσταση στη θέση της.
+     *
+     * @return πόσες νέες γραμμές δεν μπήκαν στο view (φίλτρα/ταξινόμηση: θέλουν reload)
+     */
+    public int mergeRows(List<Object[]> changed, List<Object[]> inserted) {
+        Map<List<Object>, Integer> index = new HashMap<>();
+        for (Map.Entry<Integer, TableService.TableData> e : pages.entrySet()) {
+            TableService.TableData rows = e.getValue();
+            for (int i = 0; i < rows.rowCount(); i++) index.put(Arrays.asList(keyAt(rows, i)), e.getKey() * pageSize + i);
+        }
+
+        int first = Integer.MAX_VALUE, last = -1, missed = 0;
+        List<Object[]> added = new ArrayList<>();
+        for (Object[] row : changed) {
+            Integer idx = index.get(Arrays.asList(keyOf(row)));
+            if (idx != null) {
+                pages.get(idx / pageSize).set(idx % pageSize, row);
+                first = Math.min(first, idx);
+                last = Math.max(last, idx);
+            } else if (query.isDefault() && pageCovering(keyOf(row)) >= 0) {
+                added.add(row);
+            }
+        }
+        for (Object[] row : inserted) {
+            Integer idx = index.get(Arrays.asList(keyOf(row)));
+            if (idx != null) {
+                pages.get(idx / pageSize).set(idx % pageSize, row);
+                first = Math.min(first, idx);
+                last = Math.max(last, idx);
+            } else if (query.isDefault()) {
+                added.add(row);
+            } else {
+                missed++;
+            }
+        }
+        if (last >= 0) fireTableRowsUpdated(first, last);
+
+        // κατά PK: τα appends στο τέλος μπαίνουν με τη σειρά τους
+        added.sort((a, b) -> compareKeys(keyOf(a), keyOf(b)));
+        for (Object[] row : added) insertNew(row, keyOf(row));
+        return missed;
+    }
+
+    private void insertNew(Object[] row, Object[] key) {
+        int page = pageCovering(key);
+        if (page >= 0) {
+            TableService.TableData rows = pages.get(page);
+            int offset = 0;
+            while (offset < rows.rowCount() && compareKeys(keyAt(rows, offset), key) < 0) offset++;
+            rows.insert(offset, row);
+            if (rows.rowCount() > pageSize) rows.remove(rows.rowCount() - 1); // η τελευταία ανήκει πλέον στην επόμενη σελίδα
+            pageEndKeys.put(page, keysetAt(rows, rows.rowCount() - 1));
+            rowCount++;
+            invalidateFrom(page + 1);
+
+            int idx = page * pageSize + offset;
+            fireTableRowsInserted(idx, idx);
+            return;
+        }
+
+        // η θέση πέφτει σε σελίδα που δεν έχουμε. Η ίδια γραμμή μπορεί να έρθει δύο φορές
+        // (δικό μας INSERT και live tail): μετράμε μόνο την πρώτη.
+        if (!countedKeys.add(Arrays.asList(key))) return;
+        if (countedKeys.size() > MAX_COUNTED_KEYS) countedKeys.remove(countedKeys.iterator().next());
+        rowCount++;
+        int affected = firstPageEndingAtOrAfter(key);
+        if (affected < 0) {
+            // μετά από ό,τι έχουμε δει (συνήθως append): καμία cached σελίδα δεν μετακινείται
+            fireTableRowsInserted(rowCount - 1, rowCount - 1);
+        } else {
+            invalidateFrom(affected);
+            fireTableDataChanged();
+        }
+    }
+
+    /** Η cached σελίδα στην οποία ανήκει το key (default query), ή -1. */
+    private int pageCovering(Object[] key) {
+        for (Map.Entry<Integer, TableService.TableData> e : new TreeMap<>(pages).entrySet()) {
+            int page = e.getKey();
+            TableService.TableData rows = e.getValue();
+            if (rows.isEmpty()) continue;
+
+            boolean afterPrev = page == 0
+                    || (pageEndKeys.containsKey(page - 1) && compareKeys(key, pageEndKeys.get(page - 1)) > 0);
+            boolean isLastPage = (long) (page + 1) * pageSize >= rowCount;
+            boolean beforeEnd = compareKeys(key, keyAt(rows, rows.rowCount() - 1)) <= 0;
+            if (afterPrev && (beforeEnd || isLastPage)) return page;
+        }
+        return -1;
+    }
+
+    /** Η πρώτη σελίδα (cached ή όχι, αρκεί να ξέρουμε το τέλος της) που τη μετακινεί ένα insert του key. */
+    private int firstPageEndingAtOrAfter(Object[] key) {
+        int first = -1;
+        for (Map.Entry<Integer, Object[]> e : pageEndKeys.entrySet()) {
+            if (compareKeys(e.getValue(), key) >= 0 && (first < 0 || e.getKey() < first)) first = e.getKey();
+        }
+        return first;
+    }
+
+    public Object[] keyOf(Object[] row) {
+        Object[] key = new Object[pkIndexes.length];
+        for (int i = 0; i < key.length; i++) key[i] = row[pkIndexes[i]];
+        return key;
+    }
+
+    private Object[] keyAt(TableService.TableData rows, int row) {
+        Object[] key = new Object[pkIndexes.length];
+        for (int i = 0; i < key.length; i++) key[i] = rows.get(row, pkIndexes[i]);
+        return key;
+    }
+
+    private Object[] keysetAt(TableService.TableData rows, int row) {
+        Object[] key = new Object[keysetIndexes.length];
+        for (int i = 0; i < key.length; i++) key[i] = rows.get(row, keysetIndexes[i]);
+        return key;
+    }
+
+    private int indexOfKey(Object[] key) {
+        for (Map.Entry<Integer, TableService.TableData> e : pages.entrySet()) {
+            TableService.TableData rows = e.getValue();
+            for (int i = 0; i < rows.rowCount(); i++) {
+                if (Arrays.equals(keyAt(rows, i), key)) return e.getKey() * pageSize + i;
+            }
+        }
+        return -1;
+    }
+
+    private void invalidateFrom(int page) {
+        generation++;
+        pages.keySet().removeIf(p -> p >= page);
+        pageEndKeys.keySet().removeIf(p -> p >= page);
+        inFlight.removeIf(p -> p >= page);
+        failed.clear();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Object[] a, Object[] b) {
+        for (int i = 0; i < a.length; i++) {
+            Object x = a[i], y = b[i];
+            if (x == null || y == null) {
+                if (x != y) return x == null ? -1 : 1;
+                continue;
+            }
+            int c;
+            if (x instanceof Number && y instanceof Number && x.getClass() != y.getClass()) {
+                c = new java.math.BigDecimal(x.toString()).compareTo(new java.math.BigDecimal(y.toString()));
+            } else if (x instanceof Comparable) {
+                c = ((Comparable) x).compareTo(y);
+            } else {
+                c = String.valueOf(x).compareTo(String.valueOf(y));
+            }
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    // ===== Paging =====
+    private void touch(int page) {
+        if (page == lastPage) return;
+        if (lastPage >= 0) direction = page > lastPage ? 1 : -1;
+        lastPage = page;
+
+        // prefetch προς την κατεύθυνση του scroll
+        int next = page + direction;
+        if (next >= 0 && (long) next * pageSize < rowCount && !pages.containsKey(next)) request(next);
+    }
+
+    private void request(int page) {
+        if (disposed || inFlight.contains(page) || failed.contains(page)) return;
+        inFlight.add(page);
+
+        // Το afterKey το ξέρουμε αν έχουμε δει την προηγούμενη σελίδα· αλλιώς ο loader κάνει seek.
+        Object[] afterKey = page == 0 ? null : pageEndKeys.get(page - 1);
+        boolean needSeek = page > 0 && afterKey == null;
+        int gen = generation;
+
+        // LIFO: στο γρήγορο scroll η πιο πρόσφατη αίτηση είναι αυτή που φαίνεται στην οθόνη
+        queue.offerFirst(() -> {
+            if (Math.abs(page - lastPage) > maxCachedPages) {
+                // ο χρήστης έχει ήδη προσπεράσει αυτή τη σελίδα
+                SwingUtilities.invokeLater(() -> inFlight.remove(page));
+                return;
+            }
+            try {
+                TableService.TableData rows = fetch(page, afterKey, needSeek);
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generation) storePage(page, rows);
+                    else inFlight.remove(page);
+                });
+            } catch (SQLException ex) {
+                SwingUtilities.invokeLater(() -> {
+                    inFlight.remove(page);
+                    failed.add(page);
+                    errorHandler.accept(ex);
+                });
+            }
+        });
+    }
+
+    private TableService.TableData fetch(int page, Object[] afterKey, boolean needSeek) throws SQLException {
+        long start = (long) page * pageSize;
+        if (pkCols.isEmpty()) return service.loadPageByOffset(query, start, pageSize);
+
+        Object[] key = afterKey;
+        if (needSeek) {
+            key = service.seekKey(query, start - 1);
+            if (key == null) return new TableService.TableData(columns);
+        }
+        return service.loadPage(query, key, pageSize);
+    }
+
+    private void storePage(int page, TableService.TableData rows) {
+        inFlight.remove(page);
+        if (disposed) return;
+
+        pages.put(page, rows);
+        if (!rows.isEmpty() && pkIndexes.length > 0) pageEndKeys.put(page, keysetAt(rows, rows.rowCount() - 1));
+
+        int first = page * pageSize;
+        int actualEnd = first + rows.rowCount();
+        if (rows.rowCount() < pageSize && actualEnd != rowCount) {
+            // κοντή σελίδα = το τέλος του πίνακα: άλλαξε από τότε που μετρήσαμε ή η εκτίμηση έπεσε έξω
+            rowCount = actualEnd;
+            exactCount = true;
+            fireTableDataChanged();
+            return;
+        }
+        if (!exactCount && rows.rowCount() == pageSize && actualEnd >= rowCount) {
+            // η εκτίμηση ήταν μικρή: μία γραμμή ακόμα ώστε το scroll να ζητήσει την επόμενη σελίδα
+            int old = rowCount;
+            rowCount = actualEnd + 1;
+            fireTableRowsInserted(old, rowCount - 1);
+        }
+        if (rows.isEmpty()) return;
+        fireTableRowsUpdated(first, actualEnd - 1);
+    }
+
+    private void loaderLoop() {
+        while (!disposed) {
+            try {
+                queue.takeFirst().run();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
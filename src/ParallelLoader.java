@@ -0,0 +1,261 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Φόρτωμα ολόκληρου πίνακα από πολλές συνδέσεις μαζί, για μεγάλα διαβάσματα (export, ανάλυση): ένα query
+ * σε μία σύνδεση περιορίζεται σε ένα thread του server και ένα socket.
+ *
+ * 1. Ο πίνακας χωρίζεται σε περιοχές του PK των ~rangeRows γραμμών: με ακέραιο μονό PK ισομερώς από
+ *    MIN/MAX (όπως ο SnapshotExporter), αλλιώς με seeks στο index (όπως ο TableDiff).
+ * 2. threads workers (virtual threads, ο καθένας με δική του σύνδεση από τον ίδιο server) παίρνουν τις
+ *    περιοχές με τη σειρά και τις διαβάζουν σε σελίδες των batchRows με keyset (WHERE pk > τελευταίο LIMIT n).
+ * 3. Ο caller παίρνει τις σελίδες με τη σειρά του PK: όλη η πρώτη περιοχή, μετά η δεύτερη, ...
+ *
+ * Backpressure: κάθε περιοχή έχει ουρά queueBatches σελίδων και ένας worker ξεκινάει περιοχή μόνο αν
+ * απέχει λιγότερο από 2 * threads από αυτή που διαβάζει ο caller. Όταν ο caller αργεί (δίσκος, δίκτυο),
+ * οι workers περιμένουν χωρίς ανοιχτό query στον server, και στη μνήμη μένουν το πολύ
+ * 2 * threads * queueBatches σελίδες. Οι περιοχές δεν διαβάζονται από κοινό snapshot: σε πίνακα που
+ * αλλάζει, το αποτέλεσμα είναι όπως ενός SELECT ανά περιοχή.
+ */
+public class ParallelLoader {
+
+    /** Δέχεται τις γραμμές με τη σειρά του PK, από το thread του caller. */
+    public interface Sink {
+        void columns(List<String> columns) throws IOException;
+
+        void rows(TableService.TableData batch) throws IOException;
+    }
+
+    private static final Set<String> INTEGER_TYPES = Set.of(
+            "tinyint", "smallint", "mediumint", "int", "integer", "bigint");
+    private static final int MAX_RANGES = 10_000;
+    // τέλος περιοχής στην ουρά της
+    private static final TableService.TableData END = new TableService.TableData(Collections.emptyList());
+
+    /** Μια περιοχή [from, to) του PK (null = ανοιχτό άκρο) και οι σελίδες της που δεν έχει πάρει ο caller. */
+    private static final class Range {
+        final Object[] from;
+        final Object[] to;
+        final BlockingQueue<TableService.TableData> queue;
+
+        Range(Object[] from, Object[] to, int queueBatches) {
+            this.from = from;
+            this.to = to;
+            this.queue = new ArrayBlockingQueue<>(queueBatches + 1); // +1 για το END
+        }
+    }
+
+    private final TableService service;
+    private final int threads;
+    private final long minRows;
+    private final long rangeRows;
+    private final int batchRows;
+    private final int queueBatches;
+
+    ParallelLoader(TableService service, int threads, long minRows, long rangeRows, int batchRows, int queueBatches) {
+        this.service = service;
+        this.threads = threads;
+        this.minRows = minRows;
+        this.rangeRows = rangeRows;
+        this.batchRows = batchRows;
+        this.queueBatches = queueBatches;
+    }
+
+    /** Αξίζει το παράλληλο φόρτωμα: έχει PK και (κατά την εκτίμηση) πάνω από load.minRows γραμμές. */
+    public boolean applies(String table) throws SQLException {
+        SchemaCache.TableMeta meta = service.schema().table(table);
+        return threads > 1 && !meta.pkCols.isEmpty() && meta.estimatedRows >= minRows;
+    }
+
+    /** Όλος ο πίνακας στη μνήμη, ταξινομημένος κατά PK. */
+    public TableService.TableData loadAll(String table) throws SQLException {
+        TableService.TableData[] all = {null};
+        try {
+            load(table, new Sink() {
+                @Override public void columns(List<String> columns) {
+                    all[0] = new TableService.TableData(columns);
+                }
+
+                @Override public void rows(TableService.TableData batch) {
+                    for (int r = 0; r < batch.rowCount(); r++) all[0].append(batch.row(r));
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // το sink δεν κάνει I/O
+        }
+        return all[0];
+    }
+
+    /** Όλος ο πίνακας στο sink, σε σελίδες και με τη σειρά του PK. @return οι γραμμές */
+    public long load(String table, Sink sink) throws SQLException, IOException {
+        SchemaCache.TableMeta meta = service.schema().table(table);
+        List<String> pkCols = meta.pkCols;
+        if (pkCols.isEmpty()) throw new SQLException("Table " + table + " has no primary key.");
+
+        // όρια και σελίδες όλα από τον ίδιο server (ένα replica αν υπάρχει)
+        DB.Source source = DB.readSource();
+        List<Range> ranges = ranges(source, table, meta);
+        int workers = Math.max(1, Math.min(threads, ranges.size()));
+
+        // οι workers τρέχουν σε δικό τους scope· ένα cancel του task (ή ένα σφάλμα) τους σταματάει όλους
+        CancelScope scope = new CancelScope();
+        CancelScope outer = CancelScope.current();
+        if (outer != null) outer.onCancel(scope::cancel);
+
+        Semaphore ahead = new Semaphore(2 * workers);
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        try (Metrics.Span span = Metrics.span("load.parallel")) {
+            for (int w = 0; w < workers; w++) {
+                pool.submit(() -> scope.run(() -> {
+                    try (Connection con = source.get()) {
+                        while (failure.get() == null && !scope.isCancelled()) {
+                            if (!ahead.tryAcquire(100, TimeUnit.MILLISECONDS)) continue;
+                            int i = next.getAndIncrement();
+                            if (i >= ranges.size()) break;
+                            loadRange(con, table, pkCols, ranges.get(i), scope, failure);
+                        }
+                    } catch (Exception e) {
+                        if (failure.compareAndSet(null, e)) scope.cancel();
+                    }
+                    return null;
+                }));
+            }
+
+            long n = 0;
+            boolean header = false;
+            for (Range r : ranges) {
+                TableService.TableData batch;
+                while ((batch = take(r, scope, failure)) != END) {
+                    if (!header) {
+                        sink.columns(batch.columns);
+                        header = true;
+                    }
+                    sink.rows(batch);
+                    n += batch.rowCount();
+                }
+                ahead.release();
+            }
+            if (!header) sink.columns(new ArrayList<>(meta.columns.keySet()));
+            span.rows(n);
+            return n;
+        } finally {
+            scope.cancel();
+            pool.shutdownNow();
+        }
+    }
+
+    // η επόμενη σελίδα της περιοχής για τον caller· σταματάει σε σφάλμα worker ή cancel
+    private static TableService.TableData take(Range r, CancelScope scope, AtomicReference<Exception> failure)
+            throws SQLException {
+        try {
+            while (true) {
+                Exception e = failure.get();
+                if (e instanceof SQLException se) throw se;
+                if (e != null) throw new SQLException(e.getMessage(), e);
+                CancelScope.checkCancelled();
+                if (scope.isCancelled()) throw new SQLException("Query cancelled.", "70100");
+                TableService.TableData batch = r.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (batch != null) return batch;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Query cancelled.", "70100");
+        }
+    }
+
+    // μια περιοχή σε σελίδες με keyset: κάθε query είναι σύντομο range scan στο PK
+    private void loadRange(Connection con, String table, List<String> pkCols, Range r, CancelScope scope,
+                           AtomicReference<Exception> failure) throws SQLException, InterruptedException {
+        Object[] after = null;
+        while (true) {
+            String sql = "SELECT * FROM " + TableService.q(table)
+                    + TableService.rangeWhere(pkCols, after != null ? after : r.from, after == null, r.to)
+                    + " ORDER BY " + TableService.joinCols(pkCols) + " LIMIT " + batchRows;
+            TableService.TableData batch;
+            try (Metrics.Span span = Metrics.span("load.page");
+                 PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+                TableService.bindRange(ps, after != null ? after : r.from, r.to);
+                try (ResultSet rs = ps.executeQuery()) {
+                    batch = TableService.TableData.read(rs);
+                }
+                span.rows(batch.rowCount()).bytes(batch.fetchedBytes());
+            }
+            if (!batch.isEmpty() && !put(r, batch, scope, failure)) return;
+            if (batch.rowCount() < batchRows) {
+                put(r, END, scope, failure);
+                return;
+            }
+            after = new Object[pkCols.size()];
+            for (int i = 0; i < after.length; i++) {
+                after[i] = batch.get(batch.rowCount() - 1, batch.columns.indexOf(pkCols.get(i)));
+            }
+        }
+    }
+
+    // περιμένει θέση στην ουρά (backpressure)· false αν σταμάτησε το load
+    private static boolean put(Range r, TableService.TableData batch, CancelScope scope,
+                               AtomicReference<Exception> failure) throws InterruptedException {
+        while (failure.get() == null && !scope.isCancelled()) {
+            if (r.queue.offer(batch, 100, TimeUnit.MILLISECONDS)) return true;
+        }
+        return false;
+    }
+
+    // ===== ranges =====
+    private List<Range> ranges(DB.Source source, String table, SchemaCache.TableMeta meta) throws SQLException {
+        List<String> pkCols = meta.pkCols;
+        long estimate = Math.max(1, meta.estimatedRows);
+        int count = (int) Math.min(MAX_RANGES, Math.max(2L * threads, (estimate + rangeRows - 1) / rangeRows));
+        List<Range> ranges = new ArrayList<>();
+        try (Metrics.Span span = Metrics.span("load.ranges");
+             Connection con = source.get()) {
+            String pk = pkCols.get(0);
+            if (pkCols.size() == 1 && INTEGER_TYPES.contains(meta.columns.get(pk).dataType.toLowerCase(Locale.ROOT))) {
+                // τα άκρα μένουν ανοιχτά (< πρώτο, >= τελευταίο): δεν χάνονται γραμμές που μπήκαν στο μεταξύ
+                // σε BigInteger: το MAX - MIN ενός BIGINT ξεπερνάει το long και το BIGINT UNSIGNED δεν χωράει σε long
+                BigInteger min, max;
+                try (Statement st = CancelScope.track(con.createStatement());
+                     ResultSet rs = st.executeQuery("SELECT MIN(" + TableService.q(pk) + "), MAX(" + TableService.q(pk)
+                             + ") FROM " + TableService.q(table))) {
+                    rs.next();
+                    BigDecimal lo = rs.getBigDecimal(1), hi = rs.getBigDecimal(2);
+                    min = lo == null ? BigInteger.ZERO : lo.toBigInteger();
+                    max = hi == null ? BigInteger.ZERO : hi.toBigInteger();
+                }
+                BigInteger width = max.subtract(min);
+                BigInteger step = width.divide(BigInteger.valueOf(count)).add(BigInteger.ONE);
+                count = width.divide(step).add(BigInteger.ONE).min(BigInteger.valueOf(count)).intValue();
+                for (int i = 0; i < count; i++) {
+                    Object[] from = i == 0 ? null : new Object[]{key(min.add(step.multiply(BigInteger.valueOf(i))))};
+                    Object[] to = i == count - 1 ? null : new Object[]{key(min.add(step.multiply(BigInteger.valueOf(i + 1))))};
+                    ranges.add(new Range(from, to, queueBatches));
+                }
+            } else {
+                long step = (estimate + count - 1) / count;
+                Object[] from = null;
+                while (true) {
+                    CancelScope.checkCancelled();
+                    Object[] to = TableService.seekPk(con, table, pkCols, from, null, step);
+                    ranges.add(new Range(from, to, queueBatches));
+                    if (to == null) break;
+                    from = to;
+                }
+            }
+            span.rows(ranges.size());
+        }
+        return ranges;
+    }
+
+    // Long όταν χωράει (το συνηθισμένο), αλλιώς BigDecimal για το setObject
+    private static Object key(BigInteger v) {
+        return v.bitLength() < Long.SIZE ? (Object) v.longValue() : new BigDecimal(v);
+    }
+}
@@ -0,0 +1,280 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeCellRenderer;
+import javax.swing.tree.DefaultTreeModel;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Tab με ad-hoc SQL: το αποτέλεσμα έρχεται ως stream (TableService.runSql) και μπαίνει στο grid
+ * κομμάτι-κομμάτι όσο διαβάζεται, έως {@code console.maxRows} γραμμές. Cancel = Statement.cancel()
+ * (KILL QUERY) μέσω του CancelScope του task.
+ *
+ * Explain / Explain analyze δείχνουν το plan ως δέντρο (ExplainPlan) με εκτιμήσεις και πραγματικές
+ * γραμμές/χρόνους ανά κόμβο· με κόκκινο ο κόμβος με τον περισσότερο δικό του χρόνο, με πορτοκαλί όπου
+ * η εκτίμηση γραμμών απέχει πάνω από 10x από την πραγματικότητα.
+ */
+public class QueryConsole extends JPanel {
+
+    private static final int MAX_ROWS = Integer.parseInt(DB.property("console.maxRows", "100000").trim());
+    private static final int BATCH_ROWS = Integer.parseInt(DB.property("console.batchRows", "500").trim());
+
+    private final Supplier<TableService> service;
+    private final AsyncTableService async;
+
+    private final JTextArea editor = new JTextArea(8, 80);
+    private final JButton runBtn = new JButton("Run");
+    private final JButton explainBtn = new JButton("Explain");
+    private final JButton analyzeBtn = new JButton("Explain analyze");
+    private final JButton cancelBtn = new JButton("Cancel");
+    private final JLabel status = new JLabel(" ");
+
+    private final ResultModel results = new ResultModel();
+    private final JTable grid = new JTable(results);
+    private final JTree planTree = new JTree(new DefaultMutableTreeNode());
+    private final JTextArea planText = new JTextArea();
+    private final JTabbedPane output = new JTabbedPane();
+    private AsyncTableService.Task<?> running;
+    private ExplainPlan.Node slowest;
+
+    /** @param service ο τρέχων TableService (αλλάζει με το profile) */
+    public QueryConsole(Supplier<TableService> service, AsyncTableService async) {
+        super(new BorderLayout(4, 4));
+        this.service = service;
+        this.async = async;
+
+        editor.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        editor.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, InputEvent.CTRL_DOWN_MASK), "run");
+        editor.getActionMap().put("run", new AbstractAction() {
+            @Override public void actionPerformed(java.awt.event.ActionEvent e) {
+                run();
+            }
+        });
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        runBtn.setToolTipText("Ctrl+Enter");
+        buttons.add(runBtn);
+        buttons.add(explainBtn);
+        analyzeBtn.setToolTipText("Runs the query and shows actual rows and time per plan step (MySQL 8.0.18+)");
+        buttons.add(analyzeBtn);
+        buttons.add(cancelBtn);
+        buttons.add(status);
+        cancelBtn.setEnabled(false);
+        runBtn.addActionListener(e -> run());
+        explainBtn.addActionListener(e -> explain(false));
+        analyzeBtn.addActionListener(e -> explain(true));
+        cancelBtn.addActionListener(e -> cancel());
+
+        JPanel top = new JPanel(new BorderLayout());
+        top.add(new JScrollPane(editor), BorderLayout.CENTER);
+        top.add(buttons, BorderLayout.SOUTH);
+
+        grid.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        grid.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override public Component getTableCellRendererComponent(
+                    JTable t, Object value, boolean selected, boolean focus, int row, int col) {
+                return super.getTableCellRendererComponent(t, value == null ? "NULL" : value, selected, focus, row, col);
+            }
+        });
+        planTree.setRootVisible(true);
+        planTree.setCellRenderer(new DefaultTreeCellRenderer() {
+            @Override public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected,
+                                                                    boolean expanded, boolean leaf, int row, boolean focus) {
+                super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, focus);
+                Object o = ((DefaultMutableTreeNode) value).getUserObject();
+                if (!selected && o instanceof ExplainPlan.Node n) {
+                    if (n == slowest) setForeground(new Color(0xC0, 0x00, 0x00));
+                    else if (n.misestimate() >= 10) setForeground(new Color(0xB0, 0x60, 0x00));
+                }
+                return this;
+            }
+        });
+        planText.setEditable(false);
+        planText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JSplitPane plan = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(planTree), new JScrollPane(planText));
+        plan.setResizeWeight(0.7);
+        output.addTab("Result", new JScrollPane(grid));
+        output.addTab("Plan", plan);
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, top, output);
+        split.setResizeWeight(0.25);
+        add(split, BorderLayout.CENTER);
+    }
+
+    // το επιλεγμένο κομμάτι, αλλιώς όλο το κείμενο (χωρίς το τελικό ;)
+    private String sql() {
+        String s = editor.getSelectedText();
+        if (s == null || s.isBlank()) s = editor.getText();
+        s = s.trim();
+        while (s.endsWith(";")) s = s.substring(0, s.length() - 1).trim();
+        return s;
+    }
+
+    private void run() {
+        String sql = sql();
+        if (sql.isEmpty()) return;
+        results.clear();
+        output.setSelectedIndex(0);
+        long started = System.nanoTime();
+        status.setText("Running...");
+
+        // το sink τρέχει στον worker· κάθε batch μπαίνει στο grid στο EDT
+        TableService.ResultSink sink = new TableService.ResultSink() {
+            private long received;
+
+            @Override public void columns(List<String> columns) {
+                SwingUtilities.invokeLater(() -> results.setColumns(columns));
+            }
+
+            @Override public void rows(TableService.TableData batch) {
+                received += batch.rowCount();
+                long n = received;
+                SwingUtilities.invokeLater(() -> {
+                    results.append(batch);
+                    status.setText(String.format("%,d rows...", n));
+                });
+            }
+        };
+        start(async.submit("console", p -> service.get().runSql(sql, MAX_ROWS, BATCH_ROWS, sink), r -> {
+            String time = String.format(" in %.1f s", (System.nanoTime() - started) / 1e9);
+            if (!r.query) status.setText(r.updateCount + " rows affected" + time);
+            else status.setText(String.format("%,d rows", r.rows) + time
+                    + (r.truncated ? " (stopped at console.maxRows)" : ""));
+        }, this::showError));
+    }
+
+    private void explain(boolean analyze) {
+        String sql = sql();
+        if (sql.isEmpty()) return;
+        status.setText(analyze ? "Running EXPLAIN ANALYZE..." : "Explaining...");
+        start(async.submit("console", p -> service.get().explain(sql, analyze), plan -> {
+            status.setText(" ");
+            showPlan(plan);
+        }, this::showError));
+    }
+
+    private void showPlan(ExplainPlan plan) {
+        if (plan.root == null) {
+            // κλασικό EXPLAIN σε πίνακα
+            results.setColumns(plan.table.columns);
+            results.append(plan.table);
+            output.setSelectedIndex(0);
+            status.setText("No tree plan on this server; showing EXPLAIN as a table.");
+            return;
+        }
+        slowest = null;
+        double max = 0;
+        for (ExplainPlan.Node n : plan.nodes()) {
+            if (n.selfMs() > max) {
+                max = n.selfMs();
+                slowest = n;
+            }
+        }
+        DefaultMutableTreeNode root = treeNode(plan.root);
+        planTree.setModel(new DefaultTreeModel(root));
+        for (int i = 0; i < planTree.getRowCount(); i++) planTree.expandRow(i);
+        planText.setText(plan.text);
+        planText.setCaretPosition(0);
+        output.setSelectedIndex(1);
+    }
+
+    private static DefaultMutableTreeNode treeNode(ExplainPlan.Node n) {
+        DefaultMutableTreeNode t = new DefaultMutableTreeNode(n);
+        for (ExplainPlan.Node c : n.children) t.add(treeNode(c));
+        return t;
+    }
+
+    private void start(AsyncTableService.Task<?> task) {
+        running = task;
+        runBtn.setEnabled(false);
+        explainBtn.setEnabled(false);
+        analyzeBtn.setEnabled(false);
+        cancelBtn.setEnabled(true);
+        task.future.whenComplete((r, ex) -> SwingUtilities.invokeLater(() -> {
+            if (running != task) return;
+            running = null;
+            runBtn.setEnabled(true);
+            explainBtn.setEnabled(true);
+            analyzeBtn.setEnabled(true);
+            cancelBtn.setEnabled(false);
+        }));
+    }
+
+    private void cancel() {
+        if (running == null) return;
+        running.cancel();
+        status.setText(String.format("Cancelled after %,d rows.", results.getRowCount()));
+    }
+
+    private void showError(Exception ex) {
+        ex.printStackTrace();
+        status.setText("Error");
+        JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Οι γραμμές όπως ήρθαν, σε batches (columnar TableData): τίποτα δεν αντιγράφεται όταν έρχεται
+     * νέο batch, μόνο προστίθεται η αρχή του στα offsets. Το JTable ζωγραφίζει μόνο τις ορατές γραμμές.
+     */
+    private static final class ResultModel extends AbstractTableModel {
+        private List<String> columns = Collections.emptyList();
+        private final List<TableService.TableData> batches = new ArrayList<>();
+        private final List<Integer> starts = new ArrayList<>();
+        private int rows;
+
+        void clear() {
+            columns = Collections.emptyList();
+            batches.clear();
+            starts.clear();
+            rows = 0;
+            fireTableStructureChanged();
+        }
+
+        void setColumns(List<String> columns) {
+            this.columns = columns;
+            batches.clear();
+            starts.clear();
+            rows = 0;
+            fireTableStructureChanged();
+        }
+
+        void append(TableService.TableData batch) {
+            if (batch.isEmpty()) return;
+            int from = rows;
+            batches.add(batch);
+            starts.add(from);
+            rows += batch.rowCount();
+            fireTableRowsInserted(from, rows - 1);
+        }
+
+        @Override public int getRowCount() {
+            return rows;
+        }
+
+        @Override public int getColumnCount() {
+            return columns.size();
+        }
+
+        @Override public String getColumnName(int col) {
+            return columns.get(col);
+        }
+
+        @Override public Object getValueAt(int row, int col) {
+            int b = Collections.binarySearch(starts, row);
+            if (b < 0) b = -b - 2;
+            return batches.get(b).get(row - starts.get(b), col);
+        }
+    }
+}
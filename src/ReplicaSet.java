@@ -0,0 +1,185 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read replicas ενός profile (db.replicas στο config), το καθένα με δικό του {@link ConnectionPool}.
+ *
+ * Ένα background thread μετράει κάθε checkSeconds το lag κάθε replica (SHOW REPLICA STATUS, ή
+ * SHOW SLAVE STATUS σε MySQL πριν την 8.0.22 / MariaDB πριν την 10.5). Για διάβασμα δίνεται round-robin ένα replica
+ * που απάντησε και έχει lag έως maxLagSeconds· αν κανένα δεν κάνει, null και ο {@link DB} πάει στον primary.
+ * Ο χρήστης του replica θέλει REPLICATION CLIENT: χωρίς μετρημένο lag (και σε server που δεν είναι
+ * replica) το replica δεν χρησιμοποιείται.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    /** Η κατάσταση ενός replica στον τελευταίο έλεγχο. */
+    public static class Status {
+        public final String url;
+        public final boolean usable;
+        /** Seconds_Behind_Source· -1 = άγνωστο (δεν έχει ελεγχθεί, σταματημένο replication ή σφάλμα). */
+        public final long lagSeconds;
+        public final String error;
+
+        Status(String url, boolean usable, long lagSeconds, String error) {
+            this.url = url;
+            this.usable = usable;
+            this.lagSeconds = lagSeconds;
+            this.error = error;
+        }
+
+        @Override public String toString() {
+            String host = url.replaceFirst("^jdbc:\\w+://", "").replaceFirst("[/?].*$", "");
+            if (usable) return host + " " + lagSeconds + "s";
+            return host + (lagSeconds >= 0 ? " " + lagSeconds + "s (lagging)" : error != null ? " down" : " ...");
+        }
+    }
+
+    private static class Replica {
+        final String url;
+        final ConnectionPool pool;
+        volatile Status status;
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+            this.status = new Status(url, false, -1, null);
+        }
+    }
+
+    // lag() σε server που δεν είναι replica: δεν χρησιμοποιείται, όπως και με σταματημένο replication
+    private static final long NOT_A_REPLICA = -2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService checker;
+
+    /** @param props το config του profile: db.replicas, db.replica.* και τα db.pool.* για κάθε pool */
+    ReplicaSet(Properties props) {
+        this.maxLagSeconds = Long.parseLong(props.getProperty("db.replica.maxLagSeconds", "5").trim());
+        long checkSeconds = Long.parseLong(props.getProperty("db.replica.checkSeconds", "5").trim());
+        for (String url : props.getProperty("db.replicas", "").split(",")) {
+            if (url.isBlank()) continue;
+            Properties p = new Properties();
+            p.putAll(props);
+            p.setProperty("db.url", url.trim());
+            // ίδια credentials με τον primary, εκτός αν δοθούν άλλα
+            String user = props.getProperty("db.replica.user", "").trim();
+            if (!user.isEmpty()) {
+                p.setProperty("db.user", user);
+                p.setProperty("db.password", props.getProperty("db.replica.password", ""));
+            }
+            replicas.add(new Replica(url.trim(), new ConnectionPool(ConnectionPool.Config.from(p))));
+        }
+
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-replica-check");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(this::checkAll, 0, Math.max(1, checkSeconds), TimeUnit.SECONDS);
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Σύνδεση από το επόμενο διαθέσιμο replica, ή null. Ένα replica που δεν δίνει σύνδεση
+     * βγαίνει εκτός μέχρι τον επόμενο έλεγχο και δοκιμάζεται το επόμενο.
+     */
+    Connection borrow() {
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, n));
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (!r.status.usable) continue;
+            try {
+                return r.pool.borrow();
+            } catch (SQLException e) {
+                r.status = new Status(r.url, false, -1, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Σταθερή πηγή για πολλές συνδέσεις που πρέπει να βλέπουν τον ίδιο server (π.χ. τα snapshots
+     * του SnapshotExporter): το επόμενο διαθέσιμο replica, ή null.
+     */
+    DB.Source pin() {
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, n));
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.status.usable) return r.pool::borrow;
+        }
+        return null;
+    }
+
+    public List<Status> status() {
+        List<Status> list = new ArrayList<>();
+        for (Replica r : replicas) list.add(r.status);
+        return list;
+    }
+
+    private void checkAll() {
+        for (Replica r : replicas) {
+            try (Connection con = r.pool.borrow()) {
+                long lag = lag(con);
+                r.status = new Status(r.url, lag >= 0 && lag <= maxLagSeconds, Math.max(-1, lag),
+                        lag == NOT_A_REPLICA ? "not a replica" : lag < 0 ? "replication is not running" : null);
+            } catch (SQLException e) {
+                r.status = new Status(r.url, false, -1, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Seconds_Behind_Source του replica· -1 αν το replication έχει σταματήσει (NULL), {@link #NOT_A_REPLICA}
+     * αν ο server δεν είναι replica (καμία γραμμή). Η στήλη βρίσκεται από το metadata: η MariaDB 10.5+
+     * δέχεται SHOW REPLICA STATUS αλλά δίνει Seconds_Behind_Master.
+     */
+    private static long lag(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.setQueryTimeout(5);
+            ResultSet rs;
+            try {
+                rs = st.executeQuery("SHOW REPLICA STATUS");
+            } catch (SQLException e) {
+                if (e.getErrorCode() != 1064) throw e; // 1064 = syntax: παλιότερος server
+                rs = st.executeQuery("SHOW SLAVE STATUS");
+            }
+            try (ResultSet r = rs) {
+                int column = lagColumn(r.getMetaData());
+                if (!r.next()) return NOT_A_REPLICA;
+                long lag = r.getLong(column);
+                return r.wasNull() ? -1 : lag;
+            }
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData md) throws SQLException {
+        for (int i = 1; i <= md.getColumnCount(); i++) {
+            String name = md.getColumnLabel(i);
+            if (name.equalsIgnoreCase("Seconds_Behind_Source") || name.equalsIgnoreCase("Seconds_Behind_Master")) return i;
+        }
+        throw new SQLException("Replica status has no Seconds_Behind_Source / Seconds_Behind_Master column.");
+    }
+
+    @Override
+    public void close() {
+        checker.shutdownNow();
+        for (Replica r : replicas) r.pool.close();
+    }
+}
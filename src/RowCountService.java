@@ -0,0 +1,254 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Πλήθος γραμμών ανά πίνακα χωρίς να περιμένει το UI ένα COUNT(*) (που στο InnoDB σαρώνει
+ * όλο τον πίνακα):
+ *
+ * - {@link #get} δίνει αμέσως ό,τι ξέρουμε: το ακριβές αν είναι cached και φρέσκο, αλλιώς την
+ *   εκτίμηση INFORMATION_SCHEMA.TABLES.TABLE_ROWS από το SchemaCache.
+ * - {@link #refresh} μετράει ακριβώς στο background, σε δικό του executor με ένα thread
+ *   (χαμηλή προτεραιότητα), ώστε οι μετρήσεις να μην πιάνουν connections από τα page loads.
+ *   Κάθε μέτρηση ακυρώνεται με KILL QUERY μέσω CancelScope.
+ * - Τα CRUD του TableService καλούν {@link #adjust} / {@link #invalidate}: ένα insert/delete
+ *   διορθώνει το ακριβές πλήθος χωρίς νέο COUNT, ένα batch το κάνει stale.
+ *
+ * Το ακριβές πλήθος θεωρείται φρέσκο για count.cacheSeconds (άλλοι clients γράφουν κι αυτοί).
+ */
+public class RowCountService {
+
+    public static final class Count {
+        public final long rows;
+        public final boolean exact;
+        final long countedAt;
+
+        Count(long rows, boolean exact) {
+            this.rows = rows;
+            this.exact = exact;
+            this.countedAt = System.currentTimeMillis();
+        }
+
+        /** "12,345" ή "~12,345" για εκτίμηση. */
+        @Override public String toString() {
+            return (exact ? "" : "~") + String.format("%,d", rows);
+        }
+    }
+
+    /**
+     * Η μέτρηση ενός caller: το cancel() αφορά μόνο τα δικά του callbacks (μετά από αυτό δεν καλείται
+     * κανένα). Το query στον server σταματάει όταν ακυρώσουν όλοι όσοι το περιμένουν.
+     */
+    public static final class Task {
+        // ορίζεται πριν το Task δοθεί στον caller
+        private Runnable onCancel;
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+            onCancel.run();
+        }
+    }
+
+    /** Ένα COUNT(*) πίνακα που τρέχει (ή περιμένει τον executor) και όσοι περιμένουν το αποτέλεσμά του. */
+    private static final class Counting {
+        final CancelScope scope = new CancelScope();
+        final List<Waiter> waiters = new ArrayList<>();
+    }
+
+    private static final class Waiter {
+        final Task task;
+        final Consumer<Count> onDone;
+        final Consumer<Exception> onError;
+
+        Waiter(Task task, Consumer<Count> onDone, Consumer<Exception> onError) {
+            this.task = task;
+            this.onDone = onDone;
+            this.onError = onError;
+        }
+    }
+
+    private static final int MAX_RETRIES = 3;
+
+    private final TableService service;
+    private final long ttlMs;
+    private final Map<String, Count> exact = new ConcurrentHashMap<>();
+    private final Map<String, Count> estimates = new ConcurrentHashMap<>();
+    // αλλάζει σε κάθε CRUD: μέτρηση που ξεκίνησε πριν από αυτό ίσως δεν το είδε
+    private final Map<String, Integer> generations = new ConcurrentHashMap<>();
+    // guarded by itself: ένα Counting ανά πίνακα, όσο έχει waiters
+    private final Map<String, Counting> running = new HashMap<>();
+    private final ExecutorService executor;
+
+    RowCountService(TableService service, long ttlMs) {
+        this.service = service;
+        this.ttlMs = ttlMs;
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "row-count");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /** Ακριβές (αν το ξέρουμε και είναι φρέσκο) ή η εκτίμηση του server. Δεν κάνει COUNT(*). */
+    public Count get(String table) throws SQLException {
+        Count c = fresh(table);
+        if (c != null) return c;
+        c = new Count(service.schema().table(table).estimatedRows, false);
+        estimates.put(table, c);
+        return c;
+    }
+
+    /**
+     * Χωρίς κανένα query, για renderers στο EDT: ακριβές, εκτίμηση ή null.
+     * Οι εκτιμήσεις γεμίζουν με {@link #loadEstimates}.
+     */
+    public Count peek(String table) {
+        Count c = exact.get(table);
+        return c != null ? c : estimates.get(table);
+    }
+
+    /** Οι εκτιμήσεις όλων των πινάκων από το SchemaCache (ένα bulk query, ήδη cached). */
+    public void loadEstimates() throws SQLException {
+        for (String t : service.schema().tableNames()) {
+            estimates.put(t, new Count(service.schema().table(t).estimatedRows, false));
+        }
+    }
+
+    /**
+     * Ακριβές COUNT(*) στο background. Αν υπάρχει ήδη μέτρηση για τον πίνακα δεν ξεκινάει δεύτερη:
+     * ο caller περιμένει την ίδια, με δικό του Task. Τα callbacks τρέχουν στο thread της μέτρησης·
+     * καλείται πάντα ένα από τα δύο, εκτός αν ο caller κάνει cancel.
+     */
+    public Task refresh(String table, Consumer<Count> onDone, Consumer<Exception> onError) {
+        Counting counting;
+        Waiter waiter;
+        boolean start;
+        synchronized (running) {
+            counting = running.get(table);
+            start = counting == null;
+            if (start) {
+                counting = new Counting();
+                running.put(table, counting);
+            }
+            waiter = new Waiter(new Task(), onDone, onError);
+            Counting joined = counting;
+            Waiter self = waiter;
+            waiter.task.onCancel = () -> leave(table, joined, self);
+            counting.waiters.add(waiter);
+        }
+        if (start) {
+            Counting c = counting;
+            executor.execute(() -> runCounting(table, c));
+        }
+        return waiter.task;
+    }
+
+    // ο τελευταίος που φεύγει σταματάει το query· μια νέα refresh() μετά από αυτό ξεκινάει νέα μέτρηση
+    private void leave(String table, Counting counting, Waiter waiter) {
+        synchronized (running) {
+            if (!counting.waiters.remove(waiter) || !counting.waiters.isEmpty()) return;
+            running.remove(table, counting);
+        }
+        counting.scope.cancel();
+    }
+
+    private void runCounting(String table, Counting counting) {
+        Count count = null;
+        Exception error = null;
+        try {
+            count = counting.scope.run(() -> countExact(table));
+        } catch (Exception e) {
+            error = e;
+        }
+        List<Waiter> waiters;
+        synchronized (running) {
+            running.remove(table, counting);
+            waiters = new ArrayList<>(counting.waiters);
+            counting.waiters.clear();
+        }
+        for (Waiter w : waiters) {
+            if (w.task.cancelled) continue;
+            if (error == null) w.onDone.accept(count);
+            else w.onError.accept(error);
+        }
+    }
+
+    /** Ακριβές πλήθος για query με φίλτρα (δεν γίνεται cache, εξαρτάται από τα φίλτρα). */
+    public Task count(TableQuery query, Consumer<Long> onDone, Consumer<Exception> onError) {
+        if (!query.isFiltered()) return refresh(query.table, c -> onDone.accept(c.rows), onError);
+
+        CancelScope scope = new CancelScope();
+        Task task = new Task();
+        task.onCancel = scope::cancel;
+        executor.execute(() -> {
+            try {
+                long n = scope.run(() -> service.countRows(query));
+                if (!task.cancelled) onDone.accept(n);
+            } catch (Exception e) {
+                if (!task.cancelled) onError.accept(e);
+            }
+        });
+        return task;
+    }
+
+    /** Πλήθος που ξέρουμε ήδη ακριβώς (π.χ. όλος ο πίνακας χώρεσε στην πρώτη σελίδα). */
+    public void put(String table, long rows) {
+        exact.put(table, new Count(rows, true));
+    }
+
+    /** Μετά από insert/delete γνωστού πλήθους: το ακριβές (αν το ξέρουμε) μένει ακριβές. */
+    public void adjust(String table, long delta) {
+        generations.merge(table, 1, Integer::sum);
+        exact.computeIfPresent(table, (t, c) -> new Count(Math.max(0, c.rows + delta), true));
+    }
+
+    /** Μετά από αλλαγές άγνωστου πλήθους (batch, import): το επόμενο get() δίνει εκτίμηση. */
+    public void invalidate(String table) {
+        generations.merge(table, 1, Integer::sum);
+        exact.remove(table);
+    }
+
+    public void cancelAll() {
+        List<Waiter> all = new ArrayList<>();
+        synchronized (running) {
+            for (Counting c : running.values()) all.addAll(c.waiters);
+        }
+        for (Waiter w : all) w.task.cancel();
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private Count fresh(String table) {
+        Count c = exact.get(table);
+        return c != null && System.currentTimeMillis() - c.countedAt < ttlMs ? c : null;
+    }
+
+    private Count countExact(String table) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            int gen = generations.getOrDefault(table, 0);
+            long n = service.countRows(table);
+            // ένα CRUD στο μεταξύ: το αποτέλεσμα μπορεί να το μέτρησε ή όχι, ξαναμετράμε
+            if (gen != generations.getOrDefault(table, 0) && attempt < MAX_RETRIES) continue;
+
+            Count c = new Count(n, true);
+            exact.put(table, c);
+            return c;
+        }
+    }
+}
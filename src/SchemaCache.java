@@ -0,0 +1,271 @@
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Cache για τα metadata όλου του schema (πίνακες, στήλες, PK, FK, enum, auto_increment).
+ *
+ * Φορτώνεται με τρία bulk queries στο INFORMATION_SCHEMA αντί για ένα DatabaseMetaData call
+ * ανά πίνακα και ανά είδος, οπότε η αλλαγή πίνακα στο UI δεν κοστίζει κανένα metadata query.
+ *
+ * Invalidation:
+ * - TTL: μετά το schema.cache.ttlSeconds τρέχει ένα φθηνό fingerprint query· αν δεν άλλαξε
+ *   τίποτα (DDL) κρατάμε το cache, αλλιώς ξαναφορτώνουμε. Τα στατιστικά (TABLE_ROWS, UPDATE_TIME)
+ *   αλλάζουν χωρίς DDL, οπότε σε κάθε έλεγχο ξαναδιαβάζονται και ενημερώνουν τα TableMeta επί τόπου.
+ * - χειροκίνητα με {@link #invalidate()}.
+ * - πίνακας που δεν υπάρχει στο cache (π.χ. μόλις δημιουργήθηκε) προκαλεί ένα reload.
+ */
+public class SchemaCache {
+
+    public static class ColumnInfo {
+        public final String name;
+        public final String dataType;    // π.χ. varchar, int, enum
+        public final String columnType;  // π.χ. varchar(40), enum('A','B')
+        public final boolean nullable;
+        public final String extra;       // π.χ. auto_increment, on update CURRENT_TIMESTAMP
+        public final long maxLength;     // CHARACTER_MAXIMUM_LENGTH, -1 αν δεν υπάρχει
+
+        public ColumnInfo(String name, String dataType, String columnType, boolean nullable, String extra, long maxLength) {
+            this.name = name;
+            this.dataType = dataType;
+            this.columnType = columnType;
+            this.nullable = nullable;
+            this.extra = extra;
+            this.maxLength = maxLength;
+        }
+    }
+
+    public static class TableMeta {
+        public final String name;
+        public final Map<String, ColumnInfo> columns = new LinkedHashMap<>();
+        public final List<String> pkCols = new ArrayList<>();
+        public final Set<String> autoIncrementCols = new HashSet<>();
+        public final Map<String, TableService.FK> fks = new HashMap<>();
+        public final Map<String, TableService.EnumInfo> enums = new HashMap<>();
+        // από το INFORMATION_SCHEMA.TABLES, ανανεώνονται σε κάθε έλεγχο TTL
+        public volatile long estimatedRows;
+        public volatile Timestamp updateTime;
+        // φορτώνεται lazily με DatabaseMetaData.getIndexInfo, μόνο για πίνακες που φιλτράρονται
+        volatile List<List<String>> indexes;
+
+        public TableMeta(String name, long estimatedRows, Timestamp updateTime) {
+            this.name = name;
+            this.estimatedRows = estimatedRows;
+            this.updateTime = updateTime;
+        }
+    }
+
+    private static class Snapshot {
+        final Map<String, TableMeta> tables;
+        final String fingerprint;
+        volatile long checkedAt;
+
+        Snapshot(Map<String, TableMeta> tables, String fingerprint) {
+            this.tables = tables;
+            this.fingerprint = fingerprint;
+            this.checkedAt = System.currentTimeMillis();
+        }
+    }
+
+    // Αλλάζει σε κάθε DDL που μας ενδιαφέρει: νέος/σβησμένος πίνακας, στήλη, τύπος, PK/FK, index.
+    private static final String FINGERPRINT_SQL =
+        "SELECT " +
+        " (SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = DATABASE()), " +
+        " (SELECT CONCAT(COUNT(*), ':', COALESCE(BIT_XOR(CRC32(CONCAT_WS('|', TABLE_NAME, COLUMN_NAME, " +
+        "      COLUMN_TYPE, IS_NULLABLE, EXTRA))), 0)) " +
+        "    FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = DATABASE()), " +
+        " (SELECT CONCAT(COUNT(*), ':', COALESCE(BIT_XOR(CRC32(CONCAT_WS('|', TABLE_NAME, CONSTRAINT_NAME, " +
+        "      COLUMN_NAME, REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME))), 0)) " +
+        "    FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = DATABASE()), " +
+        " (SELECT CONCAT(COUNT(*), ':', COALESCE(BIT_XOR(CRC32(CONCAT_WS('|', TABLE_NAME, INDEX_NAME, " +
+        "      SEQ_IN_INDEX, COLUMN_NAME, NON_UNIQUE))), 0)) " +
+        "    FROM INFORMATION_SCHEMA.STATISTICS WHERE TABLE_SCHEMA = DATABASE())";
+
+    private static final String TABLES_SQL =
+        "SELECT TABLE_NAME, TABLE_ROWS, UPDATE_TIME FROM INFORMATION_SCHEMA.TABLES " +
+        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_TYPE = 'BASE TABLE'";
+
+    private static final String COLUMNS_SQL =
+        "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, COLUMN_TYPE, IS_NULLABLE, EXTRA, CHARACTER_MAXIMUM_LENGTH " +
+        "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = DATABASE() " +
+        "ORDER BY TABLE_NAME, ORDINAL_POSITION";
+
+    private static final String KEYS_SQL =
+        "SELECT TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME, REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME " +
+        "FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE " +
+        "WHERE TABLE_SCHEMA = DATABASE() AND (CONSTRAINT_NAME = 'PRIMARY' OR REFERENCED_TABLE_NAME IS NOT NULL) " +
+        "ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION";
+
+    private final long ttlMs;
+    private volatile Snapshot snapshot;
+
+    public SchemaCache(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public List<String> tableNames() throws SQLException {
+        List<String> names = new ArrayList<>(current().tables.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    public TableMeta table(String name) throws SQLException {
+        TableMeta meta = current().tables.get(name);
+        if (meta != null) return meta;
+
+        // ίσως δημιουργήθηκε μετά το τελευταίο load
+        meta = reload().tables.get(name);
+        if (meta == null) throw new SQLException("Unknown table: " + name);
+        return meta;
+    }
+
+    /** Οι στήλες κάθε index του πίνακα, με τη σειρά τους (μέσω DatabaseMetaData.getIndexInfo). */
+    public List<List<String>> indexes(String table) throws SQLException {
+        TableMeta meta = table(table);
+        List<List<String>> cached = meta.indexes;
+        if (cached != null) return cached;
+
+        Map<String, SortedMap<Short, String>> byIndex = new LinkedHashMap<>();
+        try (Metrics.Span span = Metrics.span("meta.indexes");
+             Connection con = DB.read()) {
+            DatabaseMetaData md = con.getMetaData();
+            try (ResultSet rs = md.getIndexInfo(con.getCatalog(), null, table, false, true)) {
+                while (rs.next()) {
+                    String idx = rs.getString("INDEX_NAME");
+                    String col = rs.getString("COLUMN_NAME");
+                    if (idx == null || col == null) continue;
+                    byIndex.computeIfAbsent(idx, k -> new TreeMap<>()).put(rs.getShort("ORDINAL_POSITION"), col);
+                }
+            }
+        }
+        List<List<String>> result = new ArrayList<>();
+        for (SortedMap<Short, String> cols : byIndex.values()) result.add(new ArrayList<>(cols.values()));
+        meta.indexes = Collections.unmodifiableList(result);
+        return meta.indexes;
+    }
+
+    /** Χειροκίνητο refresh: το επόμενο lookup ξαναφορτώνει όλο το schema. */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    // ===== load / revalidate =====
+    private Snapshot current() throws SQLException {
+        Snapshot s = snapshot;
+        if (s == null) return reload();
+        if (System.currentTimeMillis() - s.checkedAt < ttlMs) return s;
+
+        synchronized (this) {
+            if (snapshot != s) return snapshot != null ? snapshot : reload();
+            try (Metrics.Span span = Metrics.span("meta.fingerprint");
+                 Connection con = DB.read()) {
+                String fp = fingerprint(con);
+                if (fp.equals(s.fingerprint)) {
+                    refreshStats(con, s.tables);
+                    s.checkedAt = System.currentTimeMillis();
+                    return s;
+                }
+            }
+            return reload();
+        }
+    }
+
+    private synchronized Snapshot reload() throws SQLException {
+        try (Metrics.Span span = Metrics.span("meta.reload");
+             Connection con = DB.read()) {
+            String fp = fingerprint(con);
+            Map<String, TableMeta> tables = new HashMap<>();
+
+            readTables(con, rs -> {
+                String name = rs.getString("TABLE_NAME");
+                tables.put(name, new TableMeta(name, rs.getLong("TABLE_ROWS"), rs.getTimestamp("UPDATE_TIME")));
+            });
+            try (Statement st = CancelScope.track(con.createStatement())) {
+                try (ResultSet rs = st.executeQuery(COLUMNS_SQL)) {
+                    while (rs.next()) {
+                        TableMeta t = tables.get(rs.getString("TABLE_NAME"));
+                        if (t == null) continue; // views
+
+                        String col = rs.getString("COLUMN_NAME");
+                        String dataType = rs.getString("DATA_TYPE");
+                        String colType = rs.getString("COLUMN_TYPE");
+                        boolean nullable = "YES".equalsIgnoreCase(rs.getString("IS_NULLABLE"));
+                        String extra = rs.getString("EXTRA");
+                        long maxLen = rs.getLong("CHARACTER_MAXIMUM_LENGTH");
+                        if (rs.wasNull()) maxLen = -1;
+
+                        t.columns.put(col, new ColumnInfo(col, dataType, colType, nullable, extra, maxLen));
+                        if (extra != null && extra.toLowerCase().contains("auto_increment")) t.autoIncrementCols.add(col);
+                        if ("enum".equalsIgnoreCase(dataType)) {
+                            t.enums.put(col, new TableService.EnumInfo(TableService.parseEnumLiterals(colType), nullable));
+                        }
+                    }
+                }
+
+                try (ResultSet rs = st.executeQuery(KEYS_SQL)) {
+                    while (rs.next()) {
+                        TableMeta t = tables.get(rs.getString("TABLE_NAME"));
+                        if (t == null) continue;
+
+                        String col = rs.getString("COLUMN_NAME");
+                        if ("PRIMARY".equals(rs.getString("CONSTRAINT_NAME"))) {
+                            t.pkCols.add(col); // ORDER BY ORDINAL_POSITION => σωστή σειρά για composite PK
+                        } else {
+                            t.fks.put(col, new TableService.FK(col,
+                                    rs.getString("REFERENCED_TABLE_NAME"), rs.getString("REFERENCED_COLUMN_NAME")));
+                        }
+                    }
+                }
+            }
+
+            Snapshot s = new Snapshot(tables, fp);
+            snapshot = s;
+            span.rows(tables.size());
+            return s;
+        }
+    }
+
+    // ίδιο σχήμα: μόνο οι αριθμοί του TABLES, ένα query για όλους τους πίνακες
+    private static void refreshStats(Connection con, Map<String, TableMeta> tables) throws SQLException {
+        readTables(con, rs -> {
+            TableMeta t = tables.get(rs.getString("TABLE_NAME"));
+            if (t == null) return;
+            t.estimatedRows = rs.getLong("TABLE_ROWS");
+            t.updateTime = rs.getTimestamp("UPDATE_TIME");
+        });
+    }
+
+    private interface RowHandler {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * TABLES_SQL με information_schema_stats_expiry = 0 (η MySQL 8 κάνει cache τα στατιστικά, default
+     * μία μέρα). Η μεταβλητή γυρίζει στο DEFAULT πριν η σύνδεση επιστρέψει στο pool.
+     */
+    private static void readTables(Connection con, RowHandler handler) throws SQLException {
+        boolean expirySet = statsExpiry(con, "0");
+        try (Statement st = CancelScope.track(con.createStatement());
+             ResultSet rs = st.executeQuery(TABLES_SQL)) {
+            while (rs.next()) handler.accept(rs);
+        } finally {
+            if (expirySet) statsExpiry(con, "DEFAULT");
+        }
+    }
+
+    private static boolean statsExpiry(Connection con, String value) {
+        try (Statement st = con.createStatement()) {
+            st.execute("SET SESSION information_schema_stats_expiry = " + value);
+            return true;
+        } catch (SQLException e) {
+            return false; // MySQL 5.7 / MariaDB: δεν υπάρχει, και δεν χρειάζεται
+        }
+    }
+
+    private String fingerprint(Connection con) throws SQLException {
+        try (Statement st = CancelScope.track(con.createStatement());
+             ResultSet rs = st.executeQuery(FINGERPRINT_SQL)) {
+            rs.next();
+            return rs.getString(1) + "/" + rs.getString(2) + "/" + rs.getString(3) + "/" + rs.getString(4);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export πολλών πινάκων σε έναν φάκελο, παράλληλα, από το ίδιο consistent snapshot
+ * (όπως το mysqldump --single-transaction / mydumper):
+ *
+ * 1. FLUSH TABLES WITH READ LOCK σε μια σύνδεση, αφού έχουν ήδη δανειστεί όλες οι συνδέσεις των
+ *    workers (θέλει RELOAD· αν δεν επιτρέπεται, συνεχίζει χωρίς και το manifest γράφει consistent=false),
+ * 2. κάθε worker ανοίγει START TRANSACTION WITH CONSISTENT SNAPSHOT στη δική του σύνδεση,
+ * 3. UNLOCK TABLES: το lock κρατάει μόνο όσο ανοίγουν τα snapshots, όχι όσο το export.
+ *
+ * Οι workers τραβάνε δουλειές από κοινή ουρά, τους μεγάλους πίνακες πρώτα. Πίνακας με ακέραιο
+ * μονό PK και πάνω από chunkRows εκτιμώμενες γραμμές σπάει σε περιοχές του PK που γράφονται
+ * σε ξεχωριστά αρχεία (table.0001.csv, ...), ώστε να μοιράζεται σε πολλούς workers.
+ * Στον φάκελο γράφονται επίσης schema.sql (SHOW CREATE TABLE) και manifest.txt.
+ * Αν το profile έχει read replicas, όλο το export γίνεται από ένα από αυτά (DB.readSource).
+ */
+public class SnapshotExporter {
+
+    public enum Format {
+        CSV(".csv"), CSV_GZIP(".csv.gz"), BINARY(".tmb");
+
+        final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    public interface Progress {
+        void update(long rowsDone, long rowsEstimated, int filesDone, int filesTotal);
+    }
+
+    public static class Result {
+        public final long rows;
+        public final int files;
+        public final boolean consistent;
+        public final Path manifest;
+
+        Result(long rows, int files, boolean consistent, Path manifest) {
+            this.rows = rows;
+            this.files = files;
+            this.consistent = consistent;
+            this.manifest = manifest;
+        }
+    }
+
+    /** Ένα αρχείο: όλος ο πίνακας ή μια περιοχή [from, to) του PK (null = ανοιχτό άκρο). */
+    private static class Job {
+        final String table;
+        final String file;
+        final String pkColumn;
+        final BigInteger from;
+        final BigInteger to;
+        final long estimatedRows;
+        long rows;
+
+        Job(String table, String file, String pkColumn, BigInteger from, BigInteger to, long estimatedRows) {
+            this.table = table;
+            this.file = file;
+            this.pkColumn = pkColumn;
+            this.from = from;
+            this.to = to;
+            this.estimatedRows = estimatedRows;
+        }
+    }
+
+    private static final Set<String> INTEGER_TYPES = Set.of(
+            "tinyint", "smallint", "mediumint", "int", "integer", "bigint");
+
+    private final TableService service;
+    private final int threads;
+    private final long chunkRows;
+
+    SnapshotExporter(TableService service, int threads, long chunkRows) {
+        this.service = service;
+        this.threads = threads;
+        this.chunkRows = chunkRows;
+    }
+
+    public Result export(List<String> tables, Path dir, Format format, Progress progress) throws Exception {
+        Files.createDirectories(dir);
+        // lock, snapshots και όρια των chunks όλα στον ίδιο server (ένα replica αν υπάρχει)
+        DB.Source source = DB.readSource();
+        List<Job> jobs = plan(source, tables, format);
+        long estimated = 0;
+        for (Job j : jobs) estimated += j.estimatedRows;
+
+        // οι workers τρέχουν σε δικό τους scope· ένα cancel του task (ή ένα σφάλμα) τους σταματάει όλους
+        CancelScope scope = new CancelScope();
+        CancelScope outer = CancelScope.current();
+        if (outer != null) outer.onCancel(scope::cancel);
+
+        int workers = Math.max(1, Math.min(threads, jobs.size()));
+        List<Connection> cons = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "export-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try (Metrics.Span span = Metrics.span("export.snapshot")) {
+            boolean consistent = openSnapshots(source, workers, cons);
+            writeSchema(cons.get(0), tables, dir.resolve("schema.sql"));
+
+            // μεγάλοι πρώτα: ο τελευταίος που τελειώνει να είναι μικρός
+            BlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+            jobs.stream().sorted(Comparator.comparingLong((Job j) -> j.estimatedRows).reversed()).forEach(queue::add);
+
+            AtomicLong done = new AtomicLong();
+            AtomicLong filesDone = new AtomicLong();
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            long estimateFinal = estimated;
+            List<Future<?>> futures = new ArrayList<>();
+            for (Connection con : cons) {
+                futures.add(pool.submit(() -> scope.run(() -> {
+                    Job job;
+                    while (failure.get() == null && (job = queue.poll()) != null) {
+                        try {
+                            long[] last = {0};
+                            exportJob(con, job, dir, format, n -> {
+                                done.addAndGet(n - last[0]);
+                                last[0] = n;
+                                if (progress != null) progress.update(done.get(), Math.max(estimateFinal, done.get()),
+                                        (int) filesDone.get(), jobs.size());
+                            });
+                            filesDone.incrementAndGet();
+                        } catch (Exception e) {
+                            if (failure.compareAndSet(null, e)) scope.cancel();
+                            throw e;
+                        }
+                    }
+                    return null;
+                })));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    // η πρώτη αιτία· οι υπόλοιποι workers απλώς ακυρώθηκαν εξαιτίας της
+                }
+            }
+            if (failure.get() != null) throw failure.get();
+            if (scope.isCancelled()) throw new SQLException("Query cancelled.", "70100");
+
+            Path manifest = writeManifest(dir, jobs, format, consistent);
+            span.rows(done.get());
+            return new Result(done.get(), jobs.size(), consistent, manifest);
+        } finally {
+            pool.shutdownNow();
+            for (Connection con : cons) {
+                try (Statement st = con.createStatement()) {
+                    st.execute("COMMIT");
+                } catch (SQLException ignored) {
+                    // η σύνδεση χάθηκε· το pool θα την πετάξει
+                }
+                con.close();
+            }
+        }
+    }
+
+    // ===== plan =====
+    private List<Job> plan(DB.Source source, List<String> tables, Format format) throws SQLException {
+        List<Job> jobs = new ArrayList<>();
+        for (String t : tables) {
+            SchemaCache.TableMeta meta = service.schema().table(t);
+            long estimate = Math.max(0, meta.estimatedRows);
+            String pk = meta.pkCols.size() == 1 ? meta.pkCols.get(0) : null;
+            boolean splittable = pk != null && estimate > chunkRows
+                    && INTEGER_TYPES.contains(meta.columns.get(pk).dataType.toLowerCase(Locale.ROOT));
+            if (!splittable) {
+                jobs.add(new Job(t, t + format.extension, null, null, null, estimate));
+                continue;
+            }
+
+            // Τα όρια βγαίνουν πριν το snapshot, αλλά τα άκρα είναι ανοιχτά (< πρώτο, >= τελευταίο),
+            // οπότε γραμμές που μπήκαν στο μεταξύ έξω από το [min, max] δεν χάνονται.
+            // σε BigInteger: το MAX - MIN ενός BIGINT ξεπερνάει το long και το BIGINT UNSIGNED δεν χωράει σε long
+            BigInteger min, max;
+            try (Connection con = source.get();
+                 Statement st = CancelScope.track(con.createStatement());
+                 ResultSet rs = st.executeQuery("SELECT MIN(" + TableService.q(pk) + "), MAX(" + TableService.q(pk)
+                         + ") FROM " + TableService.q(t))) {
+                rs.next();
+                BigDecimal lo = rs.getBigDecimal(1), hi = rs.getBigDecimal(2);
+                min = lo == null ? BigInteger.ZERO : lo.toBigInteger();
+                max = hi == null ? BigInteger.ZERO : hi.toBigInteger();
+            }
+            int chunks = (int) Math.min(9999, (estimate + chunkRows - 1) / chunkRows);
+            BigInteger step = max.subtract(min).divide(BigInteger.valueOf(chunks)).add(BigInteger.ONE);
+            for (int i = 0; i < chunks; i++) {
+                BigInteger from = i == 0 ? null : min.add(step.multiply(BigInteger.valueOf(i)));
+                BigInteger to = i == chunks - 1 ? null : min.add(step.multiply(BigInteger.valueOf(i + 1)));
+                String file = String.format("%s.%04d%s", t, i + 1, format.extension);
+                jobs.add(new Job(t, file, pk, from, to, estimate / chunks));
+            }
+        }
+        return jobs;
+    }
+
+    // ===== snapshot =====
+    /** @return true αν τα snapshots ανοίχτηκαν κάτω από FLUSH TABLES WITH READ LOCK (όλα στο ίδιο σημείο). */
+    private boolean openSnapshots(DB.Source source, int workers, List<Connection> cons) throws SQLException {
+        // όλες οι συνδέσεις πριν από το lock: αν το pool δεν φτάνει, το borrow περιμένει χωρίς να
+        // κρατάμε μπλοκαρισμένες όλες τις εγγραφές του server
+        for (int i = 0; i < workers; i++) {
+            Connection con = source.get();
+            cons.add(con);
+            try (Statement st = con.createStatement()) {
+                st.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+            }
+        }
+        try (Connection lock = source.get();
+             Statement ls = CancelScope.track(lock.createStatement())) {
+            boolean locked;
+            try {
+                ls.execute("FLUSH TABLES WITH READ LOCK");
+                locked = true;
+            } catch (SQLException e) {
+                locked = false; // χωρίς RELOAD privilege: κάθε worker έχει το δικό του (σχεδόν ταυτόχρονο) snapshot
+            }
+            try {
+                for (Connection con : cons) {
+                    try (Statement st = con.createStatement()) {
+                        st.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+                    }
+                }
+            } finally {
+                if (locked) ls.execute("UNLOCK TABLES");
+            }
+            return locked;
+        }
+    }
+
+    private void writeSchema(Connection con, List<String> tables, Path file) throws SQLException, IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             Statement st = CancelScope.track(con.createStatement())) {
+            w.write("-- schema dump " + LocalDateTime.now() + "\n\n");
+            for (String t : tables) {
+                try (ResultSet rs = st.executeQuery("SHOW CREATE TABLE " + TableService.q(t))) {
+                    if (rs.next()) w.write(rs.getString(2) + ";\n\n");
+                }
+            }
+        }
+    }
+
+    // ===== export =====
+    private void exportJob(Connection con, Job job, Path dir, Format format, TableService.RowProgress progress)
+            throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(TableService.q(job.table));
+        if (job.from != null || job.to != null) {
+            String pk = TableService.q(job.pkColumn);
+            sql.append(" WHERE ");
+            if (job.from != null) sql.append(pk).append(" >= ").append(job.from);
+            if (job.from != null && job.to != null) sql.append(" AND ");
+            if (job.to != null) sql.append(pk).append(" < ").append(job.to);
+        }
+
+        Path file = dir.resolve(job.file);
+        Path part = file.resolveSibling(job.file + ".part");
+        try (Metrics.Span span = Metrics.span("export.chunk");
+             Statement st = CancelScope.track(con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))) {
+            st.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = st.executeQuery(sql.toString());
+                 OutputStream fileOut = Files.newOutputStream(part);
+                 OutputStream raw = format == Format.CSV_GZIP ? new GZIPOutputStream(fileOut, 1 << 16)
+                         : new BufferedOutputStream(fileOut, 1 << 16)) {
+                if (format == Format.BINARY) {
+                    job.rows = BinaryRowFormat.write(rs, raw, progress);
+                } else {
+                    Writer w = new BufferedWriter(new OutputStreamWriter(raw, StandardCharsets.UTF_8), 1 << 16);
+                    job.rows = TableService.writeCsv(rs, w, true, progress);
+                }
+            }
+            span.rows(job.rows);
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path writeManifest(Path dir, List<Job> jobs, Format format, boolean consistent) throws IOException {
+        Path file = dir.resolve("manifest.txt");
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("# exported " + LocalDateTime.now() + "\n");
+            w.write("format=" + format + "\n");
+            w.write("consistent=" + consistent + "\n");
+            w.write("# table\tfile\trows\n");
+            for (Job j : jobs) w.write(j.table + "\t" + j.file + "\t" + j.rows + "\n");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache για το SQL των CRUD, με κλειδί (είδος, πίνακας, στήλες, PK).
+ *
+ * Το ίδιο κείμενο SQL για τις ίδιες στήλες σημαίνει και ότι ο driver (cachePrepStmts +
+ * useServerPrepStmts στο config) βρίσκει το server-side prepared statement στο cache της
+ * σύνδεσης: οι επαναλαμβανόμενες αλλαγές στον ίδιο πίνακα δεν ξαναχτίζουν SQL ούτε
+ * ξαναπερνάνε από τον parser του server.
+ *
+ * Οι λίστες του κλειδιού αντιγράφονται μόνο όταν μπαίνει νέο template, όχι σε κάθε lookup.
+ */
+final class SqlTemplates {
+
+    private static final int MAX_TEMPLATES = 1024;
+
+    private enum Kind { INSERT, UPDATE, DELETE, UPDATE_GUARDED, UPDATE_VERSIONED, DELETE_GUARDED }
+
+    private static final class Key {
+        final Kind kind;
+        final String table;
+        final List<String> cols;
+        final List<String> pkCols;
+        final List<String> guard;
+        final int hash;
+
+        Key(Kind kind, String table, List<String> cols, List<String> pkCols) {
+            this(kind, table, cols, pkCols, null);
+        }
+
+        Key(Kind kind, String table, List<String> cols, List<String> pkCols, List<String> guard) {
+            this.kind = kind;
+            this.table = table;
+            this.cols = cols;
+            this.pkCols = pkCols;
+            this.guard = guard;
+            this.hash = Objects.hash(kind, table, cols, pkCols, guard);
+        }
+
+        Key copy() {
+            return new Key(kind, table, copyOf(cols), copyOf(pkCols), copyOf(guard));
+        }
+
+        private static List<String> copyOf(List<String> list) {
+            return list == null ? null : List.copyOf(list);
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Key k)) return false;
+            return hash == k.hash && kind == k.kind && table.equals(k.table)
+                    && Objects.equals(cols, k.cols) && Objects.equals(pkCols, k.pkCols) && Objects.equals(guard, k.guard);
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final Map<Key, String> cache = new ConcurrentHashMap<>();
+
+    private SqlTemplates() {
+    }
+
+    static String insert(String table, List<String> cols) {
+        return lookup(new Key(Kind.INSERT, table, cols, null));
+    }
+
+    static String update(String table, List<String> setCols, List<String> pkCols) {
+        return lookup(new Key(Kind.UPDATE, table, setCols, pkCols));
+    }
+
+    static String delete(String table, List<String> pkCols) {
+        return lookup(new Key(Kind.DELETE, table, null, pkCols));
+    }
+
+    /**
+     * Optimistic UPDATE: WHERE pk AND κάθε στήλη του guard {@code <=>} την αρχική τιμή.
+     * versioned: το guard είναι μόνο η στήλη version, που γίνεται και version+1.
+     */
+    static String updateGuarded(String table, List<String> setCols, List<String> pkCols,
+                                List<String> guard, boolean versioned) {
+        return lookup(new Key(versioned ? Kind.UPDATE_VERSIONED : Kind.UPDATE_GUARDED, table, setCols, pkCols, guard));
+    }
+
+    static String deleteGuarded(String table, List<String> pkCols, List<String> guard) {
+        return lookup(new Key(Kind.DELETE_GUARDED, table, null, pkCols, guard));
+    }
+
+    static int size() {
+        return cache.size();
+    }
+
+    private static String lookup(Key key) {
+        String sql = cache.get(key);
+        if (sql != null) return sql;
+
+        sql = build(key);
+        // τα templates είναι λίγα (πίνακες x συνδυασμοί στηλών)· αν κάτι τα φουσκώσει, από την αρχή
+        if (cache.size() >= MAX_TEMPLATES) cache.clear();
+        cache.put(key.copy(), sql);
+        return sql;
+    }
+
+    private static String build(Key k) {
+        switch (k.kind) {
+            case INSERT: return buildInsert(k.table, k.cols);
+            case UPDATE: return buildUpdate(k.table, k.cols, k.pkCols);
+            case UPDATE_GUARDED: return buildUpdateGuarded(k.table, k.cols, k.pkCols, k.guard, false);
+            case UPDATE_VERSIONED: return buildUpdateGuarded(k.table, k.cols, k.pkCols, k.guard, true);
+            case DELETE_GUARDED: return buildDelete(k.table, k.pkCols) + guardPredicate(k.guard);
+            default: return buildDelete(k.table, k.pkCols);
+        }
+    }
+
+    // ===== builders (χωρίς cache) =====
+    static String buildInsert(String table, List<String> cols) {
+        return "INSERT INTO " + TableService.q(table) + " (" + TableService.joinCols(cols) + ") VALUES ("
+                + TableService.placeholders(cols.size()) + ")";
+    }
+
+    static String buildUpdate(String table, List<String> setCols, List<String> pkCols) {
+        StringBuilder sb = new StringBuilder("UPDATE ").append(TableService.q(table)).append(" SET ");
+        for (int i = 0; i < setCols.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(TableService.q(setCols.get(i))).append("=?");
+        }
+        return sb.append(" WHERE ").append(TableService.pkPredicate(pkCols)).toString();
+    }
+
+    static String buildDelete(String table, List<String> pkCols) {
+        return "DELETE FROM " + TableService.q(table) + " WHERE " + TableService.pkPredicate(pkCols);
+    }
+
+    static String buildUpdateGuarded(String table, List<String> setCols, List<String> pkCols,
+                                     List<String> guard, boolean versioned) {
+        StringBuilder sb = new StringBuilder("UPDATE ").append(TableService.q(table)).append(" SET ");
+        for (int i = 0; i < setCols.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(TableService.q(setCols.get(i))).append("=?");
+        }
+        if (versioned) {
+            String v = TableService.q(guard.get(0));
+            sb.append(setCols.isEmpty() ? "" : ", ").append(v).append('=').append(v).append("+1");
+        }
+        return sb.append(" WHERE ").append(TableService.pkPredicate(pkCols)).append(guardPredicate(guard)).toString();
+    }
+
+    // <=> ώστε μια στήλη που ήταν NULL να ταιριάζει με NULL
+    private static String guardPredicate(List<String> guard) {
+        StringBuilder sb = new StringBuilder();
+        for (String c : guard) sb.append(" AND ").append(TableService.q(c)).append(" <=> ?");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,347 @@
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Headless entry point (cron, containers, pipes) πάνω στον ίδιο TableService, χωρίς Swing/AWT:
+ *
+ * <pre>
+ *   java -cp ... TableCli [--config file] [--profile name] command ...
+ *
+ *   list                                   πίνακες και εκτίμηση γραμμών (TSV)
+ *   describe TABLE                         στήλες, PK, FK, indexes (TSV)
+ *   export TABLE [FILE|-] [--gzip]         CSV στο αρχείο ή στο stdout
+ *   export-all DIR [--format csv|csv.gz|binary] [TABLE...]
+ *                                          όλοι (ή οι δοσμένοι) πίνακες από κοινό snapshot
+ *   import TABLE FILE [--load-data] [--resume]
+ *   update TABLE --set COL=VALUE... (--where COL=FILTER... | --all) [--chunk N] [--dry-run]
+ *   diff TABLE [--to-profile NAME] [--to-table TABLE] [--sql FILE|-] [--apply]
+ *                                          σύγκριση με τον ίδιο/άλλο πίνακα σε άλλο profile (TableDiff)
+ * </pre>
+ *
+ * Τα φίλτρα του update έχουν τη σύνταξη της γραμμής φίλτρων του UI (TableQuery): {@code --where
+ * status==active}, {@code --where id=>1000}. Στο --set, {@code \N} σημαίνει NULL.
+ *
+ * Τα δεδομένα πάνε στο stdout, η πρόοδος και τα μηνύματα στο stderr. Exit code 0 / 1 (σφάλμα) / 2 (usage),
+ * και 3 από το diff όταν οι πίνακες διαφέρουν και δεν δόθηκε --apply.
+ * Config και pool φορτώνονται στην πρώτη χρήση τους, οπότε το usage δεν ανοίγει καμία σύνδεση.
+ */
+public final class TableCli {
+
+    private static final PrintStream err = System.err;
+    // πρόοδος με \r μόνο σε τερματικό, όχι σε log του cron
+    private static final boolean interactive = System.console() != null;
+
+    private final List<String> args;
+    private TableService service;
+
+    private TableCli(List<String> args) {
+        this.args = args;
+    }
+
+    public static void main(String[] argv) {
+        System.setProperty("java.awt.headless", "true");
+        List<String> args = new ArrayList<>(Arrays.asList(argv));
+        String config = option(args, "--config");
+        if (config != null) System.setProperty("tablemanager.config", config);
+        String profile = option(args, "--profile");
+        if (profile != null) System.setProperty("tablemanager.profile", profile);
+        if (args.isEmpty() || args.contains("-h") || args.contains("--help")) {
+            usage();
+            System.exit(args.isEmpty() ? 2 : 0);
+        }
+
+        int code;
+        try {
+            code = new TableCli(args).run();
+        } catch (UsageException e) {
+            err.println(e.getMessage());
+            usage();
+            code = 2;
+        } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            code = 1;
+        } finally {
+            DB.shutdown();
+        }
+        System.exit(code);
+    }
+
+    private int run() throws Exception {
+        String command = args.remove(0);
+        switch (command) {
+            case "list": return list();
+            case "describe": return describe();
+            case "export": return export();
+            case "export-all": return exportAll();
+            case "import": return importCsv();
+            case "update": return update();
+            case "diff": return diff();
+            default: throw new UsageException("Unknown command: " + command);
+        }
+    }
+
+    private TableService service() {
+        if (service == null) service = new TableService();
+        return service;
+    }
+
+    // ===== commands =====
+    private int list() throws Exception {
+        noMoreArgs();
+        try (Writer out = stdout()) {
+            for (String t : service().listTables()) {
+                out.write(t + "\t" + service().schema().table(t).estimatedRows + "\n");
+            }
+        }
+        return 0;
+    }
+
+    private int describe() throws Exception {
+        String table = positional("TABLE");
+        noMoreArgs();
+        SchemaCache.TableMeta meta = service().schema().table(table);
+        try (Writer out = stdout()) {
+            out.write("column\ttype\tnull\tkey\textra\treferences\n");
+            for (SchemaCache.ColumnInfo c : meta.columns.values()) {
+                TableService.FK fk = meta.fks.get(c.name);
+                out.write(c.name + "\t" + c.columnType + "\t" + (c.nullable ? "YES" : "NO") + "\t"
+                        + (meta.pkCols.contains(c.name) ? "PRI" : "") + "\t" + nz(c.extra) + "\t"
+                        + (fk == null ? "" : fk.pkTable + "." + fk.pkColumn) + "\n");
+            }
+            for (List<String> idx : service().getIndexes(table)) out.write("index\t" + String.join(",", idx) + "\n");
+        }
+        return 0;
+    }
+
+    private int export() throws Exception {
+        boolean gzip = flag("--gzip");
+        String table = positional("TABLE");
+        String file = args.isEmpty() ? "-" : args.remove(0);
+        noMoreArgs();
+
+        long rows;
+        if (file.equals("-")) {
+            try (Writer out = stdout()) {
+                rows = service().exportCsv(table, out, this::progressRows);
+            }
+        } else {
+            rows = service().exportCsv(table, Paths.get(file), gzip || file.endsWith(".gz"), this::progressRows);
+        }
+        done(rows + " rows exported.");
+        return 0;
+    }
+
+    private int exportAll() throws Exception {
+        String format = option(args, "--format");
+        Path dir = Paths.get(positional("DIR"));
+        List<String> tables = new ArrayList<>(args);
+        args.clear();
+        if (tables.isEmpty()) tables = service().listTables();
+
+        SnapshotExporter.Format f = format == null ? SnapshotExporter.Format.CSV_GZIP : parseFormat(format);
+        SnapshotExporter.Result r = service().snapshotExporter().export(tables, dir, f, (rows, total, files, totalFiles) ->
+                progress(files + "/" + totalFiles + " files, " + rows + " rows"));
+        done(r.rows + " rows in " + r.files + " files. See " + r.manifest);
+        if (!r.consistent) err.println("Warning: no FLUSH TABLES WITH READ LOCK privilege; tables were read from separate snapshots.");
+        return 0;
+    }
+
+    private int importCsv() throws Exception {
+        boolean loadData = flag("--load-data");
+        boolean resume = flag("--resume");
+        String table = positional("TABLE");
+        Path file = Paths.get(positional("FILE"));
+        noMoreArgs();
+
+        CsvImporter.Mode mode = loadData ? CsvImporter.Mode.LOAD_DATA : CsvImporter.Mode.BATCH;
+        CsvImporter.Result r = service().csvImporter().importCsv(table, file, mode, resume, (bytes, total, imported, rejected) ->
+                progress(imported + " rows, " + rejected + " rejected" + (total > 0 ? " (" + bytes * 100 / total + "%)" : "")));
+        done(r.imported + " rows imported, " + r.rejected + " rejected"
+                + (r.skipped > 0 ? ", " + r.skipped + " skipped as duplicates" : "")
+                + (r.warnings > 0 ? ", " + r.warnings + " with warnings" : "") + ".");
+        if (r.errorFile != null) err.println("See " + r.errorFile);
+        return r.rejected > 0 || r.skipped > 0 ? 1 : 0;
+    }
+
+    private int update() throws Exception {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String s : options(args, "--set")) {
+            String[] kv = split(s, "--set");
+            values.put(kv[0], kv[1].equals("\\N") ? null : kv[1]);
+        }
+        List<String> wheres = options(args, "--where");
+        boolean all = flag("--all");
+        boolean dryRun = flag("--dry-run");
+        String chunk = option(args, "--chunk");
+        String table = positional("TABLE");
+        noMoreArgs();
+        if (values.isEmpty()) throw new UsageException("update needs at least one --set COL=VALUE.");
+        if (wheres.isEmpty() && !all) throw new UsageException("update needs --where COL=FILTER, or --all for every row.");
+        int chunkRows = chunk == null ? Integer.parseInt(DB.property("import.chunkRows", "5000").trim())
+                : parsePositive(chunk, "--chunk");
+
+        TableQuery query = new TableQuery(table, service().getPrimaryKeyColumns(table), service().schema().table(table).columns);
+        for (String w : wheres) {
+            String[] kv = split(w, "--where");
+            query.filter(kv[0], kv[1]);
+        }
+        if (dryRun) {
+            System.out.println(service().countRows(query));
+            return 0;
+        }
+        long n = service().updateWhere(query, values, Math.max(1, chunkRows), this::progressRows);
+        done(n + " rows matched.");
+        return 0;
+    }
+
+    private int diff() throws Exception {
+        String profile = option(args, "--to-profile");
+        String toTable = option(args, "--to-table");
+        String sql = option(args, "--sql");
+        boolean apply = flag("--apply");
+        String table = positional("TABLE");
+        noMoreArgs();
+        if (profile == null && toTable == null) throw new UsageException("diff needs --to-profile and/or --to-table.");
+        if (toTable == null) toTable = table;
+
+        TableDiff diff = service().tableDiff();
+        ConnectionPool other = profile == null ? null : DB.openPool(profile);
+        try {
+            TableDiff.Side source = TableDiff.Side.local(table);
+            TableDiff.Side target = other == null ? TableDiff.Side.local(toTable)
+                    : TableDiff.Side.remote(profile + "." + toTable, other::borrow, toTable);
+            TableDiff.Result r = diff.compare(source, target, (chunks, total, rows) ->
+                    progress(chunks + "/" + total + " chunks, " + rows + " rows differ"));
+            done(r.toString());
+            if (sql != null) {
+                if (sql.equals("-")) {
+                    try (Writer out = stdout()) {
+                        diff.writeSql(r, out);
+                    }
+                } else {
+                    try (Writer out = java.nio.file.Files.newBufferedWriter(Paths.get(sql), StandardCharsets.UTF_8)) {
+                        diff.writeSql(r, out);
+                    }
+                }
+            }
+            if (r.isEmpty()) return 0;
+            if (!apply) return 3;
+            long n = diff.apply(r, rows -> progress(rows + "/" + r.changes.size() + " statements"));
+            done(n + " rows changed in " + target + ".");
+            return 0;
+        } finally {
+            if (other != null) other.close();
+        }
+    }
+
+    // ===== args =====
+    private static final class UsageException extends Exception {
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    /** Βγάζει το "--name value" από τα args (την τελευταία εμφάνιση), ή null. */
+    private static String option(List<String> args, String name) {
+        List<String> all = options(args, name);
+        return all.isEmpty() ? null : all.get(all.size() - 1);
+    }
+
+    private static List<String> options(List<String> args, String name) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < args.size(); ) {
+            if (args.get(i).equals(name) && i + 1 < args.size()) {
+                args.remove(i);
+                values.add(args.remove(i));
+            } else {
+                i++;
+            }
+        }
+        return values;
+    }
+
+    private boolean flag(String name) {
+        return args.remove(name);
+    }
+
+    private String positional(String name) throws UsageException {
+        for (int i = 0; i < args.size(); i++) {
+            if (!args.get(i).startsWith("--")) return args.remove(i);
+        }
+        throw new UsageException("Missing " + name + ".");
+    }
+
+    private void noMoreArgs() throws UsageException {
+        if (!args.isEmpty()) throw new UsageException("Unexpected arguments: " + String.join(" ", args));
+    }
+
+    private static String[] split(String s, String option) throws UsageException {
+        int eq = s.indexOf('=');
+        if (eq <= 0) throw new UsageException(option + " expects COL=VALUE, got: " + s);
+        return new String[]{s.substring(0, eq), s.substring(eq + 1)};
+    }
+
+    private static int parsePositive(String s, String option) throws UsageException {
+        try {
+            int n = Integer.parseInt(s.trim());
+            if (n > 0) return n;
+        } catch (NumberFormatException e) {
+            // ίδιο μήνυμα με το <= 0
+        }
+        throw new UsageException(option + " expects a positive number, got: " + s);
+    }
+
+    private static SnapshotExporter.Format parseFormat(String s) throws UsageException {
+        switch (s.toLowerCase(Locale.ROOT)) {
+            case "csv": return SnapshotExporter.Format.CSV;
+            case "csv.gz": case "gzip": return SnapshotExporter.Format.CSV_GZIP;
+            case "binary": case "tmb": return SnapshotExporter.Format.BINARY;
+            default: throw new UsageException("Unknown format: " + s);
+        }
+    }
+
+    // ===== output =====
+    /** stdout με μεγάλο buffer· το close() κάνει flush χωρίς να κλείσει το System.out. */
+    private static Writer stdout() {
+        return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16) {
+            @Override public void close() throws java.io.IOException {
+                flush();
+            }
+        };
+    }
+
+    private void progressRows(long rows) {
+        progress(rows + " rows");
+    }
+
+    private static void progress(String message) {
+        if (interactive) err.print("\r" + message + "   ");
+    }
+
+    private static void done(String message) {
+        if (interactive) err.print("\r");
+        err.println(message);
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+
+    private static void usage() {
+        err.println("Usage: TableCli [--config FILE] [--profile NAME] COMMAND ...\n"
+                + "  list\n"
+                + "  describe TABLE\n"
+                + "  export TABLE [FILE|-] [--gzip]\n"
+                + "  export-all DIR [--format csv|csv.gz|binary] [TABLE...]\n"
+                + "  import TABLE FILE [--load-data] [--resume]\n"
+                + "  update TABLE --set COL=VALUE... (--where COL=FILTER... | --all) [--chunk N] [--dry-run]\n"
+                + "  diff TABLE [--to-profile NAME] [--to-table TABLE] [--sql FILE|-] [--apply]\n"
+                + "Filters use the table view syntax (e.g. --where status==active, --where id=>1000); \\N is NULL.");
+    }
+}
@@ -0,0 +1,486 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Σύγκριση ενός πίνακα ανάμεσα σε δύο πλευρές (άλλος πίνακας στην ίδια βάση ή ο ίδιος σε άλλο profile,
+ * π.χ. staging/prod ή primary/restored backup) χωρίς να μεταφερθούν οι γραμμές, όπως το pt-table-sync:
+ *
+ * 1. ο source χωρίζεται σε περιοχές των chunkRows γραμμών κατά PK (seek μόνο στο index),
+ * 2. για κάθε περιοχή, και στις δύο πλευρές παράλληλα, COUNT + BIT_XOR(hash γραμμής) στον server
+ *    (ίδιο hash με τα τοπικά snapshots, TableService.rowHashSql),
+ * 3. μια περιοχή που διαφέρει σπάει σε {@value #FANOUT} μικρότερες και ξαναελέγχεται, μέχρι να έχει
+ *    έως leafRows γραμμές· τότε έρχονται (PK, hash) από τις δύο πλευρές και βγαίνουν οι γραμμές που διαφέρουν,
+ * 4. από τον source φορτώνονται ολόκληρες μόνο οι γραμμές που λείπουν ή άλλαξαν στον target.
+ *
+ * Το αποτέλεσμα είναι το ελάχιστο σύνολο INSERT/UPDATE/DELETE που κάνει τον target ίδιο με τον source:
+ * {@link #writeSql} σε script ή {@link #apply} σε transactions των batchRows. Οι πλευρές δεν διαβάζονται
+ * από κοινό snapshot: σε πίνακα που αλλάζει, μια διαφορά μπορεί να είναι απλώς μια εγγραφή που έγινε στο μεταξύ.
+ */
+public class TableDiff {
+
+    private static final int FANOUT = 16;
+    private static final int KEYS_PER_QUERY = 500;
+
+    /** Μία πλευρά της σύγκρισης: ένας πίνακας σε μια πηγή συνδέσεων. */
+    public static final class Side {
+        final String label;
+        final DB.Source source;
+        final String table;
+        /** true = η τρέχουσα βάση (οι εγγραφές ενημερώνουν counts/snapshots/read-your-writes). */
+        final boolean local;
+
+        private Side(String label, DB.Source source, String table, boolean local) {
+            this.label = label;
+            this.source = source;
+            this.table = table;
+            this.local = local;
+        }
+
+        /** Πίνακας του ενεργού profile (primary). */
+        public static Side local(String table) {
+            return new Side(DB.profile() + "." + table, DB::get, table, true);
+        }
+
+        /** Πίνακας σε άλλη βάση, π.χ. μέσω {@link DB#openPool}. */
+        public static Side remote(String label, DB.Source source, String table) {
+            return new Side(label, source, table, false);
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
+
+    public enum Kind { INSERT, UPDATE, DELETE }
+
+    /** Μία εντολή για τον target· row = η γραμμή του source (null για DELETE). */
+    public static final class Change {
+        public final Kind kind;
+        public final Object[] key;
+        public final Object[] row;
+
+        Change(Kind kind, Object[] key, Object[] row) {
+            this.kind = kind;
+            this.key = key;
+            this.row = row;
+        }
+    }
+
+    public interface Progress {
+        void update(long chunksDone, long chunksTotal, long rowsDiffering);
+    }
+
+    public static final class Result {
+        public final Side source;
+        public final Side target;
+        public final List<String> columns;
+        public final List<String> pkCols;
+        public final List<Change> changes;
+        public final long sourceRows;
+        public final long chunks;
+        public final long chunksDiffering;
+
+        Result(Side source, Side target, List<String> columns, List<String> pkCols, List<Change> changes,
+               long sourceRows, long chunks, long chunksDiffering) {
+            this.source = source;
+            this.target = target;
+            this.columns = columns;
+            this.pkCols = pkCols;
+            this.changes = changes;
+            this.sourceRows = sourceRows;
+            this.chunks = chunks;
+            this.chunksDiffering = chunksDiffering;
+        }
+
+        public long count(Kind kind) {
+            return changes.stream().filter(c -> c.kind == kind).count();
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        @Override public String toString() {
+            if (changes.isEmpty()) return target + " matches " + source + " (" + sourceRows + " rows, " + chunks + " chunks).";
+            return target + " differs from " + source + ": " + count(Kind.INSERT) + " missing, "
+                    + count(Kind.UPDATE) + " changed, " + count(Kind.DELETE) + " extra rows ("
+                    + chunksDiffering + " of " + chunks + " chunks differ).";
+        }
+    }
+
+    /** Μια περιοχή [from, to) του PK· null = ανοιχτό άκρο. */
+    private static final class Range {
+        final Object[] from;
+        final Object[] to;
+
+        Range(Object[] from, Object[] to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private final TableService service;
+    private final int threads;
+    private final int chunkRows;
+    private final int leafRows;
+    private final int batchRows;
+    private final int maxChanges;
+
+    TableDiff(TableService service, int threads, int chunkRows, int leafRows, int batchRows, int maxChanges) {
+        this.service = service;
+        this.threads = threads;
+        this.chunkRows = chunkRows;
+        this.leafRows = leafRows;
+        this.batchRows = batchRows;
+        this.maxChanges = maxChanges;
+    }
+
+    // ===== compare =====
+    /** Οι στήλες και το PK έρχονται από το schema του source (πρέπει να είναι πίνακας της τρέχουσας βάσης). */
+    public Result compare(Side source, Side target, Progress progress) throws Exception {
+        SchemaCache.TableMeta meta = service.schema().table(source.table);
+        List<String> pkCols = service.getPrimaryKeyColumns(source.table);
+        if (pkCols.isEmpty()) throw new SQLException("Compare needs a PRIMARY KEY on " + source.table + ".");
+        List<String> columns = new ArrayList<>(meta.columns.keySet());
+        checkColumns(target, columns);
+
+        // όπως στο SnapshotExporter: οι workers σε δικό τους scope, ένα cancel τους σταματάει όλους
+        CancelScope scope = new CancelScope();
+        CancelScope outer = CancelScope.current();
+        if (outer != null) outer.onCancel(scope::cancel);
+        ExecutorService sourcePool = workers("diff-source");
+        ExecutorService targetPool = workers("diff-target");
+
+        try (Metrics.Span span = Metrics.span("diff.compare")) {
+            List<Range> pending = chunks(source, pkCols);
+            int chunks = pending.size();
+            long total = chunks;
+            long done = 0;
+            long differing = 0;
+            long sourceRows = 0;
+            boolean firstRound = true;
+            List<Change> changes = new ArrayList<>();
+
+            while (!pending.isEmpty()) {
+                List<Future<long[]>> a = new ArrayList<>();
+                List<Future<long[]>> b = new ArrayList<>();
+                for (Range r : pending) {
+                    a.add(sourcePool.submit(() -> scope.run(() -> hash(source, pkCols, columns, r))));
+                    b.add(targetPool.submit(() -> scope.run(() -> hash(target, pkCols, columns, r))));
+                }
+                List<Range> next = new ArrayList<>();
+                for (int i = 0; i < pending.size(); i++) {
+                    long[] ha = get(a.get(i), scope);
+                    long[] hb = get(b.get(i), scope);
+                    Range r = pending.get(i);
+                    done++;
+                    if (firstRound) sourceRows += ha[0];
+                    if (ha[0] == hb[0] && ha[1] == hb[1]) {
+                        if (progress != null) progress.update(done, total, changes.size());
+                        continue;
+                    }
+                    if (firstRound) differing++;
+                    if (Math.max(ha[0], hb[0]) <= leafRows) {
+                        diffLeaf(source, target, pkCols, columns, r, changes, scope, sourcePool, targetPool);
+                    } else {
+                        // σπάει στην πλευρά με τις περισσότερες γραμμές (στην άλλη μπορεί να μην υπάρχει καμία)
+                        List<Range> parts = split(ha[0] >= hb[0] ? source : target, pkCols, r, Math.max(ha[0], hb[0]));
+                        next.addAll(parts);
+                        total += parts.size();
+                    }
+                    if (progress != null) progress.update(done, total, changes.size());
+                }
+                pending = next;
+                firstRound = false;
+            }
+            span.rows(sourceRows);
+            return new Result(source, target, columns, pkCols, changes, sourceRows, chunks, differing);
+        } finally {
+            sourcePool.shutdownNow();
+            targetPool.shutdownNow();
+        }
+    }
+
+    private ExecutorService workers(String name) {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static <T> T get(Future<T> f, CancelScope scope) throws Exception {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            scope.cancel();
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+    }
+
+    /** Ίδιες στήλες (με τα ίδια ονόματα) και στις δύο πλευρές, αλλιώς τα hash δεν συγκρίνονται. */
+    private static void checkColumns(Side target, List<String> columns) throws SQLException {
+        Set<String> other = new HashSet<>();
+        try (Connection con = target.source.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS"
+                     + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?"))) {
+            ps.setString(1, target.table);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) other.add(rs.getString(1));
+            }
+        }
+        if (other.isEmpty()) throw new SQLException("Table " + target + " not found.");
+        if (!other.equals(new HashSet<>(columns))) {
+            throw new SQLException("Columns of " + target + " differ: " + new TreeSet<>(other) + " vs " + new TreeSet<>(columns) + ".");
+        }
+    }
+
+    /** Τα όρια των chunks του source: το PK κάθε chunkRows-οστής γραμμής. */
+    private List<Range> chunks(Side source, List<String> pkCols) throws SQLException {
+        List<Range> ranges = new ArrayList<>();
+        try (Connection con = source.source.get()) {
+            Object[] from = null;
+            while (true) {
+                CancelScope.checkCancelled();
+                Object[] to = TableService.seekPk(con, source.table, pkCols, from, null, chunkRows);
+                ranges.add(new Range(from, to));
+                if (to == null) return ranges;
+                from = to;
+            }
+        }
+    }
+
+    /** Μια περιοχή που διαφέρει σε {@value #FANOUT} μικρότερες, με όρια από τα κλειδιά της side. */
+    private static List<Range> split(Side side, List<String> pkCols, Range r, long rows) throws SQLException {
+        long step = Math.max(1, (rows + FANOUT - 1) / FANOUT);
+        List<Range> parts = new ArrayList<>();
+        try (Connection con = side.source.get()) {
+            Object[] from = r.from;
+            while (true) {
+                Object[] to = TableService.seekPk(con, side.table, pkCols, from, r.to, step);
+                if (to == null) {
+                    parts.add(new Range(from, r.to));
+                    return parts;
+                }
+                parts.add(new Range(from, to));
+                from = to;
+            }
+        }
+    }
+
+    private static long[] hash(Side side, List<String> pkCols, List<String> columns, Range r) throws SQLException {
+        try (Metrics.Span span = Metrics.span("diff.chunkHash");
+             Connection con = side.source.get()) {
+            long[] h = TableService.rangeHash(con, side.table, pkCols, columns, r.from, r.to);
+            span.rows(h[0]);
+            return h;
+        }
+    }
+
+    // ===== leaves =====
+    /** (PK, hash) από τις δύο πλευρές και ολόκληρες από τον source μόνο οι γραμμές που λείπουν/άλλαξαν. */
+    private void diffLeaf(Side source, Side target, List<String> pkCols, List<String> columns, Range r,
+                          List<Change> changes, CancelScope scope, ExecutorService sourcePool,
+                          ExecutorService targetPool) throws Exception {
+        Future<Map<String, Object[]>> fa = sourcePool.submit(() -> scope.run(() -> keyHashes(source, pkCols, columns, r)));
+        Future<Map<String, Object[]>> fb = targetPool.submit(() -> scope.run(() -> keyHashes(target, pkCols, columns, r)));
+        Map<String, Object[]> a = get(fa, scope);
+        Map<String, Object[]> b = get(fb, scope);
+
+        List<Object[]> missing = new ArrayList<>();
+        List<Object[]> changed = new ArrayList<>();
+        for (Map.Entry<String, Object[]> e : a.entrySet()) {
+            Object[] other = b.remove(e.getKey());
+            if (other == null) missing.add(e.getValue());
+            else if (!hashOf(other).equals(hashOf(e.getValue()))) changed.add(e.getValue());
+        }
+        if (changes.size() + missing.size() + changed.size() + b.size() > maxChanges) {
+            throw new SQLException("More than " + maxChanges + " rows differ (diff.maxChanges); export and import the table instead.");
+        }
+        for (Object[] k : b.values()) changes.add(new Change(Kind.DELETE, keyPart(k), null));
+        addRows(source, pkCols, columns, missing, Kind.INSERT, changes);
+        addRows(source, pkCols, columns, changed, Kind.UPDATE, changes);
+    }
+
+    /** Κλειδί -> [PK..., hash] για όλες τις γραμμές της περιοχής. */
+    private static Map<String, Object[]> keyHashes(Side side, List<String> pkCols, List<String> columns, Range r)
+            throws SQLException {
+        String sql = "SELECT " + TableService.joinCols(pkCols) + ", " + TableService.rowHashSql(columns)
+                + " FROM " + TableService.q(side.table) + TableService.rangeWhere(pkCols, r.from, true, r.to);
+        Map<String, Object[]> rows = new HashMap<>();
+        try (Metrics.Span span = Metrics.span("diff.leaf");
+             Connection con = side.source.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            TableService.bindRange(ps, r.from, r.to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Object[] v = new Object[pkCols.size() + 1];
+                    for (int i = 0; i < v.length; i++) v[i] = rs.getObject(i + 1);
+                    rows.put(keyString(keyPart(v)), v);
+                }
+            }
+            span.rows(rows.size());
+        }
+        return rows;
+    }
+
+    private static Object[] keyPart(Object[] keyAndHash) {
+        return Arrays.copyOf(keyAndHash, keyAndHash.length - 1);
+    }
+
+    private static String hashOf(Object[] keyAndHash) {
+        return String.valueOf(keyAndHash[keyAndHash.length - 1]);
+    }
+
+    /** Οι γραμμές του source με αυτά τα PK, σε queries των {@value #KEYS_PER_QUERY} κλειδιών. */
+    private static void addRows(Side source, List<String> pkCols, List<String> columns, List<Object[]> keys,
+                                Kind kind, List<Change> changes) throws SQLException {
+        if (keys.isEmpty()) return;
+        String tuple = "(" + TableService.placeholders(pkCols.size()) + ")";
+        try (Connection con = source.source.get()) {
+            for (int from = 0; from < keys.size(); from += KEYS_PER_QUERY) {
+                List<Object[]> part = keys.subList(from, Math.min(keys.size(), from + KEYS_PER_QUERY));
+                StringBuilder sql = new StringBuilder("SELECT ").append(TableService.joinCols(columns)).append(" FROM ")
+                        .append(TableService.q(source.table)).append(" WHERE (").append(TableService.joinCols(pkCols))
+                        .append(") IN (");
+                for (int i = 0; i < part.size(); i++) sql.append(i > 0 ? ", " : "").append(tuple);
+                sql.append(")");
+                try (Metrics.Span span = Metrics.span("diff.fetchRows");
+                     PreparedStatement ps = CancelScope.track(con.prepareStatement(sql.toString()))) {
+                    int idx = 1;
+                    for (Object[] k : part) idx = TableService.bind(ps, Arrays.asList(k).subList(0, pkCols.size()), idx);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Object[] row = new Object[columns.size()];
+                            for (int c = 0; c < row.length; c++) row[c] = rs.getObject(c + 1);
+                            Object[] key = new Object[pkCols.size()];
+                            for (int i = 0; i < key.length; i++) key[i] = row[columns.indexOf(pkCols.get(i))];
+                            changes.add(new Change(kind, key, row));
+                        }
+                    }
+                    span.rows(part.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Το PK ως κλειδί του HashMap: οι δύο servers μπορεί να γυρίσουν άλλη κλάση για την ίδια τιμή
+     * (INT vs BIGINT, DECIMAL με άλλη κλίμακα).
+     */
+    private static String keyString(Object[] key) {
+        StringBuilder sb = new StringBuilder();
+        for (Object v : key) {
+            if (v instanceof Number) sb.append(new BigDecimal(v.toString()).stripTrailingZeros().toPlainString());
+            else if (v instanceof byte[] b) sb.append(HexFormat.of().formatHex(b));
+            else sb.append(v);
+            sb.append('\u0000');
+        }
+        return sb.toString();
+    }
+
+    // ===== output =====
+    /** Οι εντολές ως SQL script για τον target (DELETE, UPDATE, INSERT). Επιστρέφει πόσες γράφτηκαν. */
+    public long writeSql(Result r, Writer out) throws IOException {
+        String table = TableService.q(r.target.table);
+        out.write("-- " + r + "\n");
+        long n = 0;
+        for (Kind kind : new Kind[]{Kind.DELETE, Kind.UPDATE, Kind.INSERT}) {
+            for (Change c : r.changes) {
+                if (c.kind != kind) continue;
+                switch (kind) {
+                    case DELETE:
+                        out.write("DELETE FROM " + table + " WHERE " + pkPredicate(r.pkCols, c.key) + ";\n");
+                        break;
+                    case UPDATE:
+                        StringBuilder set = new StringBuilder();
+                        for (int i = 0; i < r.columns.size(); i++) {
+                            if (r.pkCols.contains(r.columns.get(i))) continue;
+                            set.append(set.length() > 0 ? ", " : "").append(TableService.q(r.columns.get(i)))
+                                    .append(" = ").append(literal(c.row[i]));
+                        }
+                        out.write("UPDATE " + table + " SET " + set + " WHERE " + pkPredicate(r.pkCols, c.key) + ";\n");
+                        break;
+                    default:
+                        StringBuilder values = new StringBuilder();
+                        for (Object v : c.row) values.append(values.length() > 0 ? ", " : "").append(literal(v));
+                        out.write("INSERT INTO " + table + " (" + TableService.joinCols(r.columns) + ") VALUES (" + values + ");\n");
+                }
+                n++;
+            }
+        }
+        out.flush();
+        return n;
+    }
+
+    private static String pkPredicate(List<String> pkCols, Object[] key) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pkCols.size(); i++) {
+            sb.append(i > 0 ? " AND " : "").append(TableService.q(pkCols.get(i))).append(" = ").append(literal(key[i]));
+        }
+        return sb.toString();
+    }
+
+    static String literal(Object v) {
+        if (v == null) return "NULL";
+        if (v instanceof Boolean b) return b ? "1" : "0";
+        if (v instanceof Number) return v.toString();
+        if (v instanceof byte[] b) return b.length == 0 ? "''" : "X'" + HexFormat.of().formatHex(b) + "'";
+        StringBuilder sb = new StringBuilder("'");
+        for (char ch : v.toString().toCharArray()) {
+            switch (ch) {
+                case '\'': sb.append("\\'"); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\0': sb.append("\\0"); break;
+                case '\u001A': sb.append("\\Z"); break;
+                default: sb.append(ch);
+            }
+        }
+        return sb.append('\'').toString();
+    }
+
+    /**
+     * Εφαρμόζει τις εντολές στον target σε transactions των batchRows (DELETE πρώτα, ώστε ένα INSERT
+     * να μη βρει unique key που φεύγει). Επιστρέφει affected rows.
+     */
+    public long apply(Result r, TableService.RowProgress progress) throws SQLException {
+        long affected = 0;
+        long done = 0;
+        try (Metrics.Span span = Metrics.span("diff.apply")) {
+            UnitOfWork uow = new UnitOfWork(service, r.target.source, r.target.local);
+            for (Kind kind : new Kind[]{Kind.DELETE, Kind.UPDATE, Kind.INSERT}) {
+                for (Change c : r.changes) {
+                    if (c.kind != kind) continue;
+                    CancelScope.checkCancelled();
+                    Map<String, Object> pk = new LinkedHashMap<>();
+                    for (int i = 0; i < r.pkCols.size(); i++) pk.put(r.pkCols.get(i), c.key[i]);
+                    if (kind == Kind.DELETE) {
+                        uow.delete(r.target.table, r.pkCols, pk);
+                    } else {
+                        Map<String, Object> values = new LinkedHashMap<>();
+                        for (int i = 0; i < r.columns.size(); i++) values.put(r.columns.get(i), c.row[i]);
+                        if (kind == Kind.UPDATE) uow.update(r.target.table, r.pkCols, values, pk);
+                        else uow.insert(r.target.table, values);
+                    }
+                    if (uow.size() >= batchRows) {
+                        done += uow.size();
+                        affected += uow.flush();
+                        if (progress != null) progress.rows(done);
+                    }
+                }
+            }
+            done += uow.size();
+            affected += uow.flush();
+            if (progress != null) progress.rows(done);
+            span.rows(affected);
+            return affected;
+        }
+    }
+}
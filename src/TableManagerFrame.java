@@ -1,29 +1,76 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
-import java.sql.SQLException;
 import java.util.*;
 
 public class TableManagerFrame extends JFrame {
 
-    private final TableService service = new TableService();
+    // ξαναφτιάχνεται σε αλλαγή profile (caches, snapshots και config ανήκουν στη βάση)
+    private TableService service = new TableService();
+    private final AsyncTableService async = new AsyncTableService();
 
+    private final JComboBox<String> profileCombo = new JComboBox<>(DB.profiles().toArray(new String[0]));
     private final JComboBox<String> tableCombo = new JComboBox<>();
     private final JComboBox<Integer> limitCombo = new JComboBox<>(new Integer[]{200, 500, 2000, 10000});
+    private static final int MAX_CACHED_PAGES = 20;
+    private static final String KEEP = "(unchanged)";
+    // UPDATE/DELETE μόνο αν η γραμμή είναι ακόμα όπως τη δείχνουμε (write.optimistic στο config)
+    private final boolean optimistic = Boolean.parseBoolean(DB.property("write.optimistic", "true").trim());
     private final JButton loadBtn = new JButton("Load");
+    private final JButton refreshBtn = new JButton("Refresh schema");
+    private final JToggleButton liveBtn = new JToggleButton("Live");
 
     private final JButton insertBtn = new JButton("INSERT");
     private final JButton updateBtn = new JButton("UPDATE");
     private final JButton deleteBtn = new JButton("DELETE");
     
     private final JButton exportBtn = new JButton("EXPORT CSV");
+    private final JButton importBtn = new JButton("IMPORT CSV");
+    private final JButton exportAllBtn = new JButton("EXPORT ALL...");
+    private final JButton compareBtn = new JButton("COMPARE...");
+
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JLabel poolLabel = new JLabel(" ");
+    private final JLabel countLabel = new JLabel(" ");
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JButton cancelBtn = new JButton("Cancel");
+    private final JButton diagnosticsBtn = new JButton("Diagnostics");
+    private final javax.swing.Timer statusTimer = new javax.swing.Timer(1000, e -> refreshStatus());
+
+    private final JLabel hintLabel = new JLabel(" ");
+
+    // Το JTable βάζει μόνο του το header στο column header του scroll pane· το αντικαθιστούμε
+    // με header + γραμμή φίλτρων ώστε τα φίλτρα να κάνουν scroll οριζόντια μαζί με τις στήλες.
+    private final JTable table = new JTable() {
+        @Override protected void paintComponent(java.awt.Graphics g) {
+            try (Metrics.Span span = Metrics.span("ui.paint")) {
+                super.paintComponent(g);
+            }
+        }
 
-    private final JTable table = new JTable();
-    private DefaultTableModel model;
+        @Override protected void configureEnclosingScrollPane() {
+            super.configureEnclosingScrollPane();
+            JScrollPane sp = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+            if (sp == null || filterRow == null) return;
+            JPanel header = new JPanel(new BorderLayout());
+            header.add(getTableHeader(), BorderLayout.NORTH);
+            header.add(filterRow, BorderLayout.SOUTH);
+            sp.setColumnHeaderView(header);
+        }
+    };
+    private final FilterRow filterRow = new FilterRow(table);
+    private PagedTableModel model;
+    private RowCountService.Task countTask;
+    private LiveTail live;
+    // νέες γραμμές που είδε το live tail αλλά δεν μπαίνουν στο view (φίλτρα/ταξινόμηση)
+    private int liveMissed;
+    // ο πίνακας ανοίχτηκε από τοπικό snapshot: η ώρα του (0 = από τον server)
+    private long localTakenAt;
 
     private String currentTable = null;
 
@@ -39,11 +86,33 @@ public class TableManagerFrame extends JFrame {
         setLocationRelativeTo(null);
 
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        // profiles= στο config: με ένα μόνο profile ο switcher δεν εμφανίζεται
+        if (profileCombo.getItemCount() > 1) {
+            profileCombo.setSelectedItem(DB.profile());
+            setTitle("DBA Table Manager - " + DB.profile());
+            top.add(new JLabel("Database:"));
+            top.add(profileCombo);
+            profileCombo.addActionListener(e -> switchProfile((String) profileCombo.getSelectedItem()));
+        }
         top.add(new JLabel("Table:"));
         top.add(tableCombo);
-        top.add(new JLabel("Limit:"));
+        // πλήθος γραμμών δίπλα σε κάθε πίνακα: εκτίμηση (~) μέχρι να μετρηθεί ακριβώς
+        tableCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override public java.awt.Component getListCellRendererComponent(
+                    JList<?> list, Object value, int index, boolean selected, boolean focus) {
+                super.getListCellRendererComponent(list, value, index, selected, focus);
+                RowCountService.Count c = value == null ? null : service.rowCounts().peek((String) value);
+                if (c != null) setText(value + "  (" + c + ")");
+                return this;
+            }
+        });
+        top.add(new JLabel("Page size:"));
         top.add(limitCombo);
        // top.add(loadBtn);
+        top.add(refreshBtn);
+        liveBtn.setToolTipText("Poll the current table for new/changed rows (needs an AUTO_INCREMENT"
+                + " or ON UPDATE CURRENT_TIMESTAMP column)");
+        top.add(liveBtn);
 
         top.add(Box.createHorizontalStrut(30));
         top.add(insertBtn);
@@ -51,13 +120,30 @@ public class TableManagerFrame extends JFrame {
         top.add(deleteBtn);
 
         add(top, BorderLayout.NORTH);
-        add(new JScrollPane(table), BorderLayout.CENTER);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        // οι πίνακες και η κονσόλα SQL (ακολουθεί το τρέχον profile μέσω του service)
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Tables", new JScrollPane(table));
+        tabs.addTab("SQL", new QueryConsole(() -> service, async));
+        add(tabs, BorderLayout.CENTER);
+        add(buildStatusBar(), BorderLayout.SOUTH);
 
         insertBtn.setEnabled(false);
         updateBtn.setEnabled(false);
         deleteBtn.setEnabled(false);
 
         loadBtn.addActionListener(e -> loadSelectedTable());
+        refreshBtn.addActionListener(e -> {
+            service.refreshSchema();
+            loadTables();
+        });
+        liveBtn.addActionListener(e -> {
+            if (liveBtn.isSelected()) startLive();
+            else stopLive();
+        });
+        limitCombo.addActionListener(e -> {
+            if (currentTable != null) loadSelectedTable();
+        });
         tableCombo.addActionListener(e -> {
             if (tableCombo.getSelectedItem() != null) loadSelectedTable();
         });
@@ -65,74 +151,467 @@ public class TableManagerFrame extends JFrame {
         insertBtn.addActionListener(e -> doInsert());
         updateBtn.addActionListener(e -> doUpdate());
         deleteBtn.addActionListener(e -> doDelete());
+        // διπλό κλικ σε TEXT/BLOB που ήρθε ως preview: η πλήρης τιμή με το PK
+        table.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override public void mouseClicked(java.awt.event.MouseEvent e) {
+                if (e.getClickCount() != 2) return;
+                int row = table.rowAtPoint(e.getPoint());
+                int col = table.columnAtPoint(e.getPoint());
+                if (row >= 0 && col >= 0) openLob(row, table.convertColumnIndexToModel(col));
+            }
+        });
         
         top.add(exportBtn);
         exportBtn.addActionListener(e -> doExport());
+        top.add(importBtn);
+        importBtn.addActionListener(e -> doImport());
+        top.add(exportAllBtn);
+        exportAllBtn.addActionListener(e -> doExportAll());
+        top.add(compareBtn);
+        compareBtn.addActionListener(e -> doCompare());
+
+        hintLabel.setForeground(new java.awt.Color(0xB0, 0x60, 0x00));
+        top.add(hintLabel);
+        filterRow.setOnChange(f -> loadSelectedTable());
+
+        listenToSnapshots();
+        async.setActivityListener(this::onActivity);
+        async.setProgressListener(this::onProgress);
+        cancelBtn.addActionListener(e -> async.cancelAll());
+        diagnosticsBtn.addActionListener(e -> MetricsPanel.showDialog(this));
+        startMetricsLog();
+
+        addWindowListener(new WindowAdapter() {
+            @Override public void windowClosing(WindowEvent e) {
+                statusTimer.stop();
+                stopLive();
+                if (model != null) model.dispose();
+                async.shutdown();
+                service.rowCounts().shutdown();
+                service.snapshots().shutdown();
+                DB.shutdown();
+                Metrics.stopLog();
+            }
+        });
+        statusTimer.start();
 
         SwingUtilities.invokeLater(this::loadTables);
     }
 
+    // ο έλεγχος του τοπικού snapshot βρήκε αλλαγές: ξαναφόρτωση (πάλι από το αρχείο, το ανανεωμένο)
+    private void listenToSnapshots() {
+        service.snapshots().setListener(new LocalSnapshots.Listener() {
+            @Override public void changed(String t, int groups) {
+                SwingUtilities.invokeLater(() -> {
+                    if (t.equals(currentTable) && model != null && model.getQuery().isDefault()) loadSelectedTable();
+                });
+            }
+
+            // δεν είναι σφάλμα του χρήστη: μόνο στο status bar, χωρίς dialog
+            @Override public void failed(String t, Exception e) {
+                SwingUtilities.invokeLater(() -> statusLabel.setText("Local snapshot of " + t + " failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    /** Άλλη βάση: ό,τι είναι ανοιχτό κλείνει, τα pools του παλιού profile κλείνουν και ξαναφορτώνονται οι πίνακες. */
+    private void switchProfile(String profile) {
+        if (profile == null || profile.equals(DB.profile())) return;
+        async.cancelAll();
+        liveBtn.setSelected(false);
+        stopLive();
+        if (model != null) model.dispose();
+        model = null;
+        countTask = null;
+        localTakenAt = 0;
+        currentTable = null;
+        table.setModel(new javax.swing.table.DefaultTableModel());
+        insertBtn.setEnabled(false);
+        updateBtn.setEnabled(false);
+        deleteBtn.setEnabled(false);
+        updateCountLabel();
+
+        service.rowCounts().shutdown();
+        service.snapshots().shutdown();
+        DB.switchProfile(profile);
+        service = new TableService();
+        listenToSnapshots();
+        setTitle("DBA Table Manager - " + profile);
+        loadTables();
+    }
+
+    private JPanel buildStatusBar() {
+        JPanel left = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        progressBar.setVisible(false);
+        cancelBtn.setVisible(false);
+        left.add(progressBar);
+        left.add(cancelBtn);
+
+        JPanel right = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        right.add(countLabel);
+        right.add(Box.createHorizontalStrut(12));
+        right.add(poolLabel);
+        right.add(diagnosticsBtn);
+
+        JPanel bar = new JPanel(new BorderLayout(8, 0));
+        bar.add(left, BorderLayout.WEST);
+        bar.add(statusLabel, BorderLayout.CENTER);
+        bar.add(right, BorderLayout.EAST);
+        return bar;
+    }
+
+    /** metrics.log.file στο config: περιοδικό snapshot των metrics σε αρχείο (κενό = όχι). */
+    private static void startMetricsLog() {
+        String file = DB.property("metrics.log.file", "").trim();
+        if (file.isEmpty()) return;
+        long interval = Long.parseLong(DB.property("metrics.log.intervalSeconds", "60").trim());
+        Metrics.startLog(java.nio.file.Paths.get(file), interval);
+    }
+
+    private void refreshStatus() {
+        StringBuilder sb = new StringBuilder(DB.stats().toString());
+        List<ReplicaSet.Status> replicas = DB.replicaStatus();
+        if (!replicas.isEmpty()) {
+            sb.append("  Replicas:");
+            for (ReplicaSet.Status r : replicas) sb.append(' ').append(r);
+        }
+        poolLabel.setText(sb.toString());
+    }
+
+    private void onActivity(int running) {
+        boolean busy = running > 0;
+        progressBar.setVisible(busy);
+        cancelBtn.setVisible(busy);
+        if (busy) {
+            progressBar.setIndeterminate(true);
+        } else {
+            statusLabel.setText(" ");
+        }
+    }
+
+    private void onProgress(long done, long total, String message) {
+        if (total > 0) {
+            progressBar.setIndeterminate(false);
+            progressBar.setMaximum(1000);
+            progressBar.setValue((int) Math.min(1000, done * 1000 / total));
+        } else {
+            progressBar.setIndeterminate(true);
+        }
+        if (message != null) statusLabel.setText(message);
+    }
+
     private void loadTables() {
-        try {
+        async.submit("tables", p -> {
+            p.update(0, -1, "Loading tables...");
+            List<String> tables = service.listTables();
+            service.rowCounts().loadEstimates();
+            return tables;
+        }, tables -> {
             tableCombo.removeAllItems();
-            for (String t : service.listTables()) tableCombo.addItem(t);
-        } catch (SQLException ex) {
-            showError(ex);
-        }
+            for (String t : tables) tableCombo.addItem(t);
+        }, this::showError);
     }
 
+    /** Ό,τι χρειάζεται το UI για να δείξει έναν πίνακα· φτιάχνεται εκτός EDT. */
+    private static class LoadedTable {
+        String table;
+        List<String> pkCols;
+        Set<String> autoCols;
+        Map<String, TableService.FK> fks;
+        Map<String, TableService.EnumInfo> enums;
+        long count;
+        boolean countExact;
+        TableService.TableData firstPage;
+        TableSnapshot local;
+        TableQuery query;
+        List<String> warnings = Collections.emptyList();
+    }
+
+    /**
+     * Φορτώνει στο channel "load": αν ο χρήστης διαλέξει άλλον πίνακα πριν τελειώσει,
+     * το προηγούμενο query ακυρώνεται και το αποτέλεσμά του πετιέται.
+     */
     private void loadSelectedTable() {
         String t = (String) tableCombo.getSelectedItem();
         if (t == null) return;
+        int pageSize = (Integer) limitCombo.getSelectedItem();
+
+        // τα φίλτρα διαβάζονται εδώ (EDT)· σε αλλαγή πίνακα ξεκινάμε χωρίς φίλτρα
+        boolean sameTable = t.equals(filterRow.getTableName());
+        Map<String, String> filters = sameTable ? filterRow.filterValues() : Collections.emptyMap();
+        String sortCol = sameTable ? filterRow.sortColumn() : null;
+        TableQuery.Direction dir = filterRow.direction();
+
+        setCrudEnabled(false);
+        if (countTask != null) countTask.cancel();
+        long clicked = System.nanoTime();
+        async.submit("load", p -> {
+            p.update(0, -1, "Loading " + t + "...");
+            LoadedTable lt = new LoadedTable();
+            lt.table = t;
+            lt.pkCols = service.getPrimaryKeyColumns(t);
+            lt.autoCols = service.getAutoIncrementColumns(t);
+            lt.fks = service.getForeignKeys(t);
+            lt.enums = service.getEnumColumns(t);
+
+            lt.query = new TableQuery(t, lt.pkCols, service.schema().table(t).columns);
+            for (Map.Entry<String, String> f : filters.entrySet()) lt.query.filter(f.getKey(), f.getValue());
+            if (sortCol != null) lt.query.sort(sortCol, dir);
+            if (!lt.query.isDefault()) lt.warnings = lt.query.indexWarnings(service.getIndexes(t));
+            // τοπικό αντίγραφο (αν υπάρχει): η πρώτη σελίδα και το πλήθος έρχονται από το αρχείο
+            else lt.local = service.snapshots().open(t);
+
+            lt.firstPage = lt.pkCols.isEmpty()
+                    ? service.loadPageByOffset(lt.query, 0, pageSize)
+                    : service.loadPage(lt.query, null, pageSize);
+            // Χωρίς COUNT(*) εδώ: μικρός πίνακας = η πρώτη σελίδα, αλλιώς ό,τι ξέρει το RowCountService
+            // (ακριβές cached ή εκτίμηση TABLE_ROWS) και το ακριβές έρχεται μετά από το background
+            int firstRows = lt.firstPage.rowCount();
+            if (lt.local != null) {
+                lt.count = lt.local.rows;
+                lt.countExact = true;
+            } else if (firstRows < pageSize) {
+                lt.count = firstRows;
+                lt.countExact = true;
+                if (!lt.query.isFiltered()) service.rowCounts().put(t, firstRows);
+            } else if (!lt.query.isFiltered()) {
+                RowCountService.Count c = service.rowCounts().get(t);
+                // "ακριβές" μικρότερο από όσα ήδη φέραμε είναι stale (άλλος client, import): ξαναμετράμε
+                if (c.exact && c.rows < firstRows) {
+                    service.rowCounts().invalidate(t);
+                    c = service.rowCounts().get(t);
+                }
+                lt.count = c.exact ? c.rows : Math.max(c.rows, firstRows + 1);
+                lt.countExact = c.exact;
+            } else {
+                lt.count = firstRows + 1;
+                lt.countExact = false;
+            }
+            return lt;
+        }, lt -> {
+            showTable(lt, pageSize);
+            // από την επιλογή μέχρι να είναι έτοιμο το model (χωρίς το paint, που μετράει το ui.paint)
+            Metrics.record("ui.loadTable", System.nanoTime() - clicked, lt.firstPage.rowCount());
+        }, this::showError);
+    }
 
-        try {
-            currentTable = t;
+    private void showTable(LoadedTable lt, int pageSize) {
+        try (Metrics.Span span = Metrics.span("ui.showTable")) {
+            applyLoadedTable(lt, pageSize);
+            span.rows(lt.firstPage.rowCount());
+        }
+    }
 
-            currentPkCols = service.getPrimaryKeyColumns(t);
-            currentAutoCols = service.getAutoIncrementColumns(t);
-            currentFks = service.getForeignKeys(t);
-            currentEnums = service.getEnumColumns(t);
+    private void applyLoadedTable(LoadedTable lt, int pageSize) {
+        currentTable = lt.table;
+        currentPkCols = lt.pkCols;
+        currentAutoCols = lt.autoCols;
+        currentFks = lt.fks;
+        currentEnums = lt.enums;
+
+        localTakenAt = lt.local == null ? 0 : lt.local.takenAt;
+        if (model != null) model.dispose();
+        model = new PagedTableModel(service, lt.query, lt.firstPage.columns,
+                (int) Math.min(lt.count, Integer.MAX_VALUE), pageSize, MAX_CACHED_PAGES);
+        model.setFirstPage(lt.firstPage);
+        model.setErrorHandler(this::showError);
+        if (!lt.countExact) {
+            model.setRowCount((int) Math.min(lt.count, Integer.MAX_VALUE), false);
+            startExactCount(lt.query);
+        }
+        model.addTableModelListener(e -> updateCountLabel());
+        table.setModel(model);
+        updateCountLabel();
+        filterRow.setTable(lt.table, lt.firstPage.columns);
 
-            int limit = (Integer) limitCombo.getSelectedItem();
-            TableService.TableData data = service.loadTable(t, limit);
+        hintLabel.setText(lt.warnings.isEmpty() ? " " : "⚠ " + lt.warnings.get(0));
+        hintLabel.setToolTipText(lt.warnings.isEmpty() ? null : String.join("\n", lt.warnings));
 
-            model = new DefaultTableModel(data.columns.toArray(), 0) {
-                @Override public boolean isCellEditable(int row, int col) {
-                    return false;
-                }
-            };
+        setCrudEnabled(true);
+        stopLive();
+        if (liveBtn.isSelected()) startLive();
+    }
 
-            for (Object[] r : data.rows) model.addRow(r);
-            table.setModel(model);
+    /**
+     * Live mode για τον τρέχοντα πίνακα: οι αλλαγές άλλων clients μπαίνουν στο model κατά PK,
+     * το πολύ μία φορά ανά frame. Σε αλλαγή πίνακα/φίλτρων ξεκινάει ξανά από το νέο MAX.
+     */
+    private void startLive() {
+        stopLive();
+        if (model == null || currentPkCols.isEmpty()) {
+            liveBtn.setSelected(false);
+            if (model != null) JOptionPane.showMessageDialog(this, "No PRIMARY KEY found. Live mode not supported for this table.");
+            return;
+        }
+        live = service.liveTail(currentTable, currentPkCols, batch -> {
+            if (model == null || !model.getTableName().equals(batch.table)) return;
+            liveMissed += model.mergeRows(batch.changed, batch.inserted);
+            updateCountLabel();
+        }, ex -> {
+            stopLive();
+            liveBtn.setSelected(false);
+            showError(ex);
+        });
+        live.start();
+        updateCountLabel();
+    }
 
-            insertBtn.setEnabled(true);
-            updateBtn.setEnabled(true);
-            deleteBtn.setEnabled(true);
+    private void stopLive() {
+        if (live != null) live.stop();
+        live = null;
+        liveMissed = 0;
+        updateCountLabel();
+    }
 
-        } catch (SQLException ex) {
+    /** COUNT(*) χαμηλής προτεραιότητας· όταν έρθει διορθώνει το scrollbar (αν δείχνουμε ακόμα το ίδιο query). */
+    private void startExactCount(TableQuery query) {
+        countTask = service.rowCounts().count(query, n -> SwingUtilities.invokeLater(() -> {
+            if (model == null || model.getQuery() != query) return;
+            countTask = null;
+            model.setRowCount((int) Math.min(n, Integer.MAX_VALUE), true);
+            updateCountLabel();
+            tableCombo.repaint();
+        }), ex -> SwingUtilities.invokeLater(() -> {
+            countTask = null;
+            updateCountLabel();
             showError(ex);
+        }));
+    }
+
+    private void updateCountLabel() {
+        if (model == null) {
+            countLabel.setText(" ");
+            return;
+        }
+        boolean exact = model.isRowCountExact();
+        countLabel.setText((exact ? "" : "~") + String.format("%,d", model.getRowCount()) + " rows"
+                + (exact || countTask == null ? "" : " (counting...)")
+                + (localTakenAt == 0 ? "" : String.format("  (local snapshot %tT)", localTakenAt))
+                + (live == null ? "" : "  \u25CF live")
+                + (liveMissed == 0 ? "" : " (+" + liveMissed + " new, reload to show)"));
+    }
+
+    private void setCrudEnabled(boolean enabled) {
+        insertBtn.setEnabled(enabled);
+        updateBtn.setEnabled(enabled);
+        deleteBtn.setEnabled(enabled);
+    }
+
+    /**
+     * Οι εγγραφές δεν έχουν channel: ένα επόμενο task δεν πρέπει να τις ακυρώσει.
+     * Το apply περνάει την αλλαγή στο model (αν ο χρήστης δεν έχει αλλάξει πίνακα στο μεταξύ).
+     */
+    private <T> void runWrite(String table, String message, AsyncTableService.Job<T> write,
+                              java.util.function.Consumer<T> apply) {
+        async.submit(null, p -> {
+            p.update(0, -1, message);
+            return write.run(p);
+        }, r -> {
+            if (model != null && model.getTableName().equals(table)) apply.accept(r);
+        }, this::onWriteError);
+    }
+
+    private void onWriteError(Exception ex) {
+        if (ex instanceof ConcurrencyConflictException) showConflict((ConcurrencyConflictException) ex);
+        else showError(ex);
+    }
+
+    /**
+     * Η γραμμή όπως την είδε ο χρήστης δίπλα στη γραμμή τώρα στη βάση (και στις αλλαγές του).
+     * Για μία γραμμή προσφέρει overwrite (χωρίς έλεγχο) ή reload· σε batch δεν γράφτηκε τίποτα,
+     * οπότε μόνο reload της γραμμής που άλλαξε.
+     */
+    private void showConflict(ConcurrencyConflictException c) {
+        List<String> cols = new ArrayList<>(c.original.keySet());
+        boolean update = c.attempted != null;
+        String[] header = update
+                ? new String[]{"Column", "Loaded", "Now in database", "Your change"}
+                : new String[]{"Column", "Loaded", "Now in database"};
+        Object[][] rows = new Object[cols.size()][];
+        Set<Integer> differing = new HashSet<>();
+        for (int i = 0; i < cols.size(); i++) {
+            String col = cols.get(i);
+            Object now = c.isDeleted() ? "(deleted)" : c.current.get(col);
+            if (!c.isDeleted() && !Objects.equals(c.original.get(col), now)) differing.add(i);
+            rows[i] = update
+                    ? new Object[]{col, c.original.get(col), now, c.attempted.containsKey(col) ? c.attempted.get(col) : ""}
+                    : new Object[]{col, c.original.get(col), now};
+        }
+        JTable diff = new JTable(rows, header) {
+            @Override public boolean isCellEditable(int row, int col) {
+                return false;
+            }
+        };
+        diff.setDefaultRenderer(Object.class, new javax.swing.table.DefaultTableCellRenderer() {
+            @Override public java.awt.Component getTableCellRendererComponent(
+                    JTable t, Object value, boolean selected, boolean focus, int row, int col) {
+                super.getTableCellRendererComponent(t, value == null ? "NULL" : value, selected, focus, row, col);
+                if (!selected) setBackground(differing.contains(row) ? new java.awt.Color(0xFF, 0xE4, 0xB5) : t.getBackground());
+                return this;
+            }
+        });
+        JScrollPane sp = new JScrollPane(diff);
+        sp.setPreferredSize(new java.awt.Dimension(620, Math.min(400, 40 + 18 * cols.size())));
+
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+        panel.add(new JLabel(c.getMessage()), BorderLayout.NORTH);
+        panel.add(sp, BorderLayout.CENTER);
+
+        String force = update ? "Overwrite" : "Delete anyway";
+        String reload = c.isDeleted() ? "Remove from view" : "Reload row";
+        Object[] options = c.batch || (update && c.isDeleted()) ? new Object[]{reload, "Close"} : new Object[]{force, reload, "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this, panel, "Row changed by someone else",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[options.length - 1]);
+        if (choice < 0) return;
+
+        String t = c.table;
+        List<String> pkCols = c.pkCols;
+        Map<String, Object> pk = c.pkValues();
+        Object[] key = pkCols.stream().map(pk::get).toArray();
+        if (options[choice].equals(reload)) {
+            if (model == null || !model.getTableName().equals(t)) return;
+            if (c.isDeleted()) model.removeRowByKey(key);
+            else model.replaceRow(c.current.values().toArray());
+        } else if (options[choice].equals(force)) {
+            if (update) {
+                runWrite(t, "Updating " + t + "...", p -> {
+                    service.updateRowByPk(t, pkCols, c.attempted, pk);
+                    return service.loadRowByPk(t, pkCols, pk);
+                }, row -> {
+                    if (row != null) model.replaceRow(row);
+                });
+            } else {
+                runWrite(t, "Deleting from " + t + "...", p -> {
+                    service.deleteRowByPk(t, pkCols, pk);
+                    return null;
+                }, n -> model.removeRowByKey(key));
+            }
         }
     }
 
     private void doInsert() {
         if (currentTable == null) return;
+        String t = currentTable;
 
-        Map<String, Object> values = promptForRowValues("INSERT into " + currentTable, null);
+        Map<String, Object> values = promptForRowValues("INSERT into " + t, null, false);
         if (values == null) return;
 
-        try {
-            service.insertRow(currentTable, values);
-            loadSelectedTable();
-        } catch (SQLException ex) {
-            showError(ex);
-        }
+        List<String> pkCols = currentPkCols;
+        runWrite(t, "Inserting into " + t + "...", p -> {
+            Map<String, Object> pk = service.insertRow(t, values);
+            // ξαναδιαβάζουμε μόνο τη νέα γραμμή (defaults, triggers, generated key)
+            return pk == null ? null : service.loadRowByPk(t, pkCols, pk);
+        }, row -> {
+            // χωρίς PK, ή με φίλτρο/ταξινόμηση, δεν ξέρουμε πού μπαίνει η γραμμή: reload
+            if (row == null || !model.insertRowSorted(row)) loadSelectedTable();
+        });
     }
 
     private void doUpdate() {
         if (currentTable == null) return;
 
-        int row = table.getSelectedRow();
-        if (row < 0) {
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 0) {
             JOptionPane.showMessageDialog(this, "Select a row first.");
             return;
         }
@@ -140,27 +619,46 @@ public class TableManagerFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "No PRIMARY KEY found. UPDATE not supported for this table.");
             return;
         }
+        List<Map<String, Object>> selected = selectedRowMaps(rows);
+        if (selected == null) return;
+
+        String t = currentTable;
+        List<String> pkCols = currentPkCols;
+        boolean bulk = selected.size() > 1;
+        Map<String, Object> initial = bulk ? Collections.emptyMap() : selected.get(0);
+        String title = bulk ? "UPDATE " + selected.size() + " rows of " + t : "UPDATE " + t;
 
-        Map<String, Object> currentRow = rowToMap(row);
-        Map<String, Object> newValues = promptForRowValues("UPDATE " + currentTable, currentRow);
+        Map<String, Object> newValues = promptForRowValues(title, initial, bulk);
         if (newValues == null) return;
+        if (newValues.isEmpty()) return; // bulk χωρίς αλλαγές
 
-        Map<String, Object> pkValues = new HashMap<>();
-        for (String pk : currentPkCols) pkValues.put(pk, currentRow.get(pk));
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (Map<String, Object> r : selected) keys.add(pkValuesOf(r, pkCols));
 
-        try {
-            service.updateRowByPk(currentTable, currentPkCols, newValues, pkValues);
-            loadSelectedTable();
-        } catch (SQLException ex) {
-            showError(ex);
-        }
+        runWrite(t, "Updating " + t + "...", p -> {
+            if (!bulk) {
+                if (optimistic) service.updateRowIfUnchanged(t, pkCols, newValues, selected.get(0));
+                else service.updateRowByPk(t, pkCols, newValues, keys.get(0));
+            } else {
+                // ίδιο SET για όλες τις γραμμές => ένα batch, ένα transaction
+                UnitOfWork uow = service.unitOfWork();
+                for (int i = 0; i < keys.size(); i++) {
+                    if (optimistic) uow.updateIfUnchanged(t, pkCols, newValues, selected.get(i));
+                    else uow.update(t, pkCols, newValues, keys.get(i));
+                }
+                uow.flush();
+            }
+            return service.loadRowsByPk(t, pkCols, keys).rows();
+        }, fresh -> {
+            for (Object[] r : fresh) model.replaceRow(r);
+        });
     }
 
     private void doDelete() {
         if (currentTable == null) return;
 
-        int row = table.getSelectedRow();
-        if (row < 0) {
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 0) {
             JOptionPane.showMessageDialog(this, "Select a row first.");
             return;
         }
@@ -168,20 +666,65 @@ public class TableManagerFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "No PRIMARY KEY found. DELETE not supported for this table.");
             return;
         }
+        List<Map<String, Object>> selected = selectedRowMaps(rows);
+        if (selected == null) return;
 
-        int ans = JOptionPane.showConfirmDialog(this, "Delete selected row?", "Confirm", JOptionPane.YES_NO_OPTION);
+        String question = selected.size() == 1 ? "Delete selected row?" : "Delete " + selected.size() + " selected rows?";
+        int ans = JOptionPane.showConfirmDialog(this, question, "Confirm", JOptionPane.YES_NO_OPTION);
         if (ans != JOptionPane.YES_OPTION) return;
 
-        Map<String, Object> currentRow = rowToMap(row);
-        Map<String, Object> pkValues = new HashMap<>();
-        for (String pk : currentPkCols) pkValues.put(pk, currentRow.get(pk));
+        String t = currentTable;
+        List<String> pkCols = currentPkCols;
 
-        try {
-            service.deleteRowByPk(currentTable, currentPkCols, pkValues);
-            loadSelectedTable();
-        } catch (SQLException ex) {
-            showError(ex);
+        List<Object[]> deletedKeys = new ArrayList<>();
+        for (int row : rows) deletedKeys.add(model.keyOf(model.getRow(row)));
+
+        runWrite(t, "Deleting from " + t + "...", p -> {
+            UnitOfWork uow = service.unitOfWork();
+            for (Map<String, Object> r : selected) {
+                if (optimistic) uow.deleteIfUnchanged(t, pkCols, r);
+                else uow.delete(t, pkCols, pkValuesOf(r, pkCols));
+            }
+            return uow.flush();
+        }, n -> {
+            for (Object[] key : deletedKeys) model.removeRowByKey(key);
+        });
+    }
+
+    private void openLob(int row, int col) {
+        if (model == null || !(model.getValueAt(row, col) instanceof LobPreview)) return;
+        if (currentPkCols.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No PRIMARY KEY found. Cannot load the full value.");
+            return;
+        }
+        String t = currentTable;
+        List<String> pkCols = currentPkCols;
+        Map<String, Object> original = rowToMap(row);
+        Map<String, Object> pk = pkValuesOf(original, pkCols);
+        LobViewer.showDialog(this, service, async, t, pkCols, pk, optimistic ? original : null,
+                (LobPreview) model.getValueAt(row, col),
+                () -> runWrite(t, "Reloading row...", p -> service.loadRowByPk(t, pkCols, pk), r -> {
+                    if (r != null) model.replaceRow(r);
+                }));
+    }
+
+    /** null αν κάποια επιλεγμένη γραμμή ανήκει σε σελίδα που δεν έχει φορτωθεί ακόμα. */
+    private List<Map<String, Object>> selectedRowMaps(int[] rows) {
+        List<Map<String, Object>> list = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            if (model.getRow(row) == null) {
+                JOptionPane.showMessageDialog(this, "Some selected rows are still loading. Try again in a moment.");
+                return null;
+            }
+            list.add(rowToMap(row));
         }
+        return list;
+    }
+
+    private static Map<String, Object> pkValuesOf(Map<String, Object> row, List<String> pkCols) {
+        Map<String, Object> pkValues = new HashMap<>();
+        for (String pk : pkCols) pkValues.put(pk, row.get(pk));
+        return pkValues;
     }
 
     private Map<String, Object> rowToMap(int row) {
@@ -200,31 +743,226 @@ public class TableManagerFrame extends JFrame {
     // Παράθυρο επιλογής τοποθεσίας αρχείου
     JFileChooser chooser = new JFileChooser();
     chooser.setSelectedFile(new java.io.File(currentTable + ".csv"));
+    JCheckBox gzipBox = new JCheckBox("gzip");
+    chooser.setAccessory(gzipBox);
     
     if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-        try (java.io.PrintWriter pw = new java.io.PrintWriter(chooser.getSelectedFile())) {
-            
-            // Παίρνουμε τα δεδομένα από τον πίνακα της Service
-            int limit = (Integer) limitCombo.getSelectedItem();
-            TableService.TableData data = service.loadTable(currentTable, limit);
-            
-            String csvContent = service.convertToCSV(data);
-            pw.write(csvContent);
-            
-            JOptionPane.showMessageDialog(this, "Export successful!");
-        } catch (Exception ex) {
+        boolean gzip = gzipBox.isSelected() || chooser.getSelectedFile().getName().endsWith(".gz");
+        java.io.File file = chooser.getSelectedFile();
+        if (gzip && !file.getName().endsWith(".gz")) file = new java.io.File(file.getPath() + ".gz");
+        java.nio.file.Path path = file.toPath();
+        String t = currentTable;
+
+        // Streaming από το ResultSet στο αρχείο: όλες οι γραμμές, σταθερή μνήμη
+        async.submit("export", p -> {
+            long estimate = service.schema().table(t).estimatedRows;
+            p.update(0, estimate, "Exporting " + t + "...");
+            return service.exportCsv(t, path, gzip,
+                    n -> p.update(n, Math.max(estimate, n), "Exporting " + t + ": " + n + " rows"));
+        }, n -> JOptionPane.showMessageDialog(this, "Export successful! (" + n + " rows)"), this::showError);
+    }
+}
+
+    /**
+     * Export πολλών πινάκων σε φάκελο (nightly snapshot): επιλογή πινάκων και format, μετά
+     * τρέχει στο background από κοινό consistent snapshot.
+     */
+    private void doExportAll() {
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < tableCombo.getItemCount(); i++) all.add(tableCombo.getItemAt(i));
+        if (all.isEmpty()) return;
+
+        JList<String> list = new JList<>(all.toArray(new String[0]));
+        list.setSelectionInterval(0, all.size() - 1);
+        JComboBox<SnapshotExporter.Format> formatCombo = new JComboBox<>(SnapshotExporter.Format.values());
+        formatCombo.setSelectedItem(SnapshotExporter.Format.CSV_GZIP);
+
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+        JScrollPane sp = new JScrollPane(list);
+        sp.setPreferredSize(new java.awt.Dimension(300, 300));
+        panel.add(new JLabel("Tables:"), BorderLayout.NORTH);
+        panel.add(sp, BorderLayout.CENTER);
+        JPanel fmt = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        fmt.add(new JLabel("Format:"));
+        fmt.add(formatCombo);
+        panel.add(fmt, BorderLayout.SOUTH);
+
+        if (JOptionPane.showConfirmDialog(this, panel, "Export tables", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) return;
+        List<String> tables = list.getSelectedValuesList();
+        if (tables.isEmpty()) return;
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setDialogTitle("Export directory");
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        java.nio.file.Path dir = chooser.getSelectedFile().toPath();
+        SnapshotExporter.Format format = (SnapshotExporter.Format) formatCombo.getSelectedItem();
+
+        async.submit("export-all", p -> {
+            p.update(0, -1, "Exporting " + tables.size() + " tables...");
+            return service.snapshotExporter().export(tables, dir, format, (rows, total, files, totalFiles) ->
+                    p.update(rows, total, "Exporting: " + files + "/" + totalFiles + " files, " + rows + " rows"));
+        }, r -> JOptionPane.showMessageDialog(this, "Exported " + r.rows + " rows in " + r.files + " files."
+                + (r.consistent ? "" : "\nWarning: no FLUSH TABLES WITH READ LOCK privilege;"
+                        + " tables were read from separate snapshots.")
+                + "\nSee " + r.manifest), this::showError);
+    }
+
+    /**
+     * Σύγκριση του τρέχοντος πίνακα με πίνακα της ίδιας ή άλλης βάσης (TableDiff). Αν διαφέρουν, οι εντολές
+     * που κάνουν τον target ίδιο γράφονται σε SQL script ή εφαρμόζονται στον target.
+     */
+    private void doCompare() {
+        if (currentTable == null) return;
+        String source = currentTable;
+        JComboBox<String> profiles = new JComboBox<>(DB.profiles().toArray(new String[0]));
+        profiles.setSelectedItem(DB.profile());
+        JTextField targetTable = new JTextField(source, 20);
+        JPanel panel = new JPanel(new GridLayout(0, 2, 4, 4));
+        panel.add(new JLabel("Target database:"));
+        panel.add(profiles);
+        panel.add(new JLabel("Target table:"));
+        panel.add(targetTable);
+        if (JOptionPane.showConfirmDialog(this, panel, "Compare " + source, JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) return;
+        String profile = (String) profiles.getSelectedItem();
+        String t = targetTable.getText().trim();
+        if (t.isEmpty() || profile.equals(DB.profile()) && t.equals(source)) return;
+
+        // pool προς την άλλη βάση μέχρι να κλείσει ο διάλογος του αποτελέσματος (ή να γίνει το sync)
+        ConnectionPool other = profile.equals(DB.profile()) ? null : DB.openPool(profile);
+        Runnable close = () -> {
+            if (other != null) other.close();
+        };
+        TableDiff diff = service.tableDiff();
+        TableDiff.Side target = other == null ? TableDiff.Side.local(t) : TableDiff.Side.remote(profile + "." + t, other::borrow, t);
+
+        AsyncTableService.Task<TableDiff.Result> task = async.submit("compare", p -> {
+            p.update(0, -1, "Comparing " + source + " with " + target + "...");
+            return diff.compare(TableDiff.Side.local(source), target, (chunks, total, rows) ->
+                    p.update(chunks, total, "Comparing: " + chunks + "/" + total + " chunks, " + rows + " rows differ"));
+        }, r -> {
+            if (r.isEmpty()) {
+                close.run();
+                JOptionPane.showMessageDialog(this, r.toString());
+                return;
+            }
+            Object[] options = {"Save SQL...", "Apply to " + target, "Close"};
+            int choice = JOptionPane.showOptionDialog(this, r.toString(), "Compare", JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
+            if (choice == 0) saveDiffSql(diff, r, close);
+            else if (choice == 1) applyDiff(diff, r, close);
+            else close.run();
+        }, ex -> {
+            close.run();
             showError(ex);
+        });
+        // ένα ακυρωμένο task δεν καλεί τα callbacks
+        task.future.whenComplete((r, ex) -> {
+            if (task.isCancelled()) close.run();
+        });
+    }
+
+    private void saveDiffSql(TableDiff diff, TableDiff.Result r, Runnable close) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File(r.target.table + "-sync.sql"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            close.run();
+            return;
         }
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+        close.run(); // το script βγαίνει από το αποτέλεσμα, δεν χρειάζεται σύνδεση
+        async.submit(null, p -> {
+            p.update(0, -1, "Writing " + file.getFileName() + "...");
+            try (java.io.Writer out = java.nio.file.Files.newBufferedWriter(file, java.nio.charset.StandardCharsets.UTF_8)) {
+                return diff.writeSql(r, out);
+            }
+        }, n -> statusLabel.setText(n + " statements written to " + file), this::showError);
+    }
+
+    private void applyDiff(TableDiff diff, TableDiff.Result r, Runnable close) {
+        int ans = JOptionPane.showConfirmDialog(this, "Run " + r.changes.size() + " INSERT/UPDATE/DELETE statements on "
+                + r.target + "?", "Confirm", JOptionPane.YES_NO_OPTION);
+        if (ans != JOptionPane.YES_OPTION) {
+            close.run();
+            return;
+        }
+        // χωρίς channel, όπως όλες οι εγγραφές
+        AsyncTableService.Task<Long> task = async.submit(null, p -> {
+            p.update(0, r.changes.size(), "Applying to " + r.target + "...");
+            return diff.apply(r, n -> p.update(n, r.changes.size(), "Applying: " + n + "/" + r.changes.size() + " statements"));
+        }, n -> {
+            close.run();
+            statusLabel.setText(n + " rows changed in " + r.target);
+            if (r.target.local && r.target.table.equals(currentTable)) loadSelectedTable();
+        }, ex -> {
+            close.run();
+            showError(ex);
+        });
+        task.future.whenComplete((n, ex) -> {
+            if (task.isCancelled()) close.run();
+        });
+    }
+
+    /**
+     * Import CSV στον τρέχοντα πίνακα (όχι μέσα από το model: μετά ξαναφορτώνεται η σελίδα).
+     * Αν υπάρχει .import από import που κόπηκε, ρωτάει αν θα συνεχίσει από εκεί.
+     */
+    private void doImport() {
+        if (currentTable == null) return;
+
+        JFileChooser chooser = new JFileChooser();
+        JCheckBox loadDataBox = new JCheckBox("LOAD DATA LOCAL INFILE",
+                Boolean.parseBoolean(DB.property("import.loadData", "false").trim()));
+        loadDataBox.setToolTipText("Faster; needs allowLoadLocalInfile=true and local_infile=ON on the server");
+        chooser.setAccessory(loadDataBox);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        java.nio.file.Path path = chooser.getSelectedFile().toPath();
+        String t = currentTable;
+        CsvImporter.Mode mode = loadDataBox.isSelected() ? CsvImporter.Mode.LOAD_DATA : CsvImporter.Mode.BATCH;
+
+        boolean resume = false;
+        try {
+            long done = CsvImporter.resumePoint(path, t);
+            if (done >= 0) {
+                int answer = JOptionPane.showConfirmDialog(this,
+                        "A previous import of this file stopped after " + done + " records.\nResume from there?",
+                        "Resume import", JOptionPane.YES_NO_CANCEL_OPTION);
+                if (answer == JOptionPane.CANCEL_OPTION || answer == JOptionPane.CLOSED_OPTION) return;
+                resume = answer == JOptionPane.YES_OPTION;
+            }
+        } catch (java.io.IOException ex) {
+            showError(ex);
+            return;
+        }
+
+        boolean resumeFinal = resume;
+        async.submit("import", p -> {
+            p.update(0, -1, "Importing into " + t + "...");
+            return service.csvImporter().importCsv(t, path, mode, resumeFinal, (bytes, total, imported, rejected) ->
+                    p.update(bytes, total, "Importing into " + t + ": " + imported + " rows, " + rejected + " rejected"));
+        }, r -> {
+            StringBuilder msg = new StringBuilder("Imported " + r.imported + " rows.");
+            if (r.rejected > 0) msg.append("\nRejected: ").append(r.rejected);
+            if (r.skipped > 0) msg.append("\nSkipped as duplicates: ").append(r.skipped);
+            if (r.warnings > 0) msg.append("\nWith warnings: ").append(r.warnings);
+            if (r.errorFile != null) msg.append("\nSee ").append(r.errorFile);
+            JOptionPane.showMessageDialog(this, msg.toString());
+            if (t.equals(currentTable)) loadSelectedTable();
+        }, this::showError);
     }
-}
 
     /**
      * Priority επιλογών:
      * 1) FK -> JComboBox με referenced values
      * 2) ENUM -> JComboBox με enum literals
      * 3) αλλιώς -> JTextField
+     *
+     * bulk: UPDATE πολλών γραμμών - ό,τι μένει κενό / "(unchanged)" δεν αλλάζει.
      */
-    private Map<String, Object> promptForRowValues(String title, Map<String, Object> initialValues) {
+    private Map<String, Object> promptForRowValues(String title, Map<String, Object> initialValues, boolean bulk) {
         if (model == null) return null;
 
         JPanel panel = new JPanel(new GridLayout(0, 2, 8, 8));
@@ -239,28 +977,25 @@ public class TableManagerFrame extends JFrame {
             JLabel label = new JLabel(col);
             JComponent input;
 
-            // 1) FK dropdown
+            // 1) FK picker (αναζήτηση στον server, όχι όλη η referenced στήλη)
             if (currentFks.containsKey(col)) {
-                TableService.FK fk = currentFks.get(col);
-                JComboBox<Object> combo = new JComboBox<>();
-                try {
-                    for (Object v : service.getReferenceValues(fk.pkTable, fk.pkColumn)) combo.addItem(v);
-                } catch (SQLException ex) {
-                    showError(ex);
-                    return null;
-                }
-                if (initialValues != null) combo.setSelectedItem(initialValues.get(col));
-                input = combo;
+                FkPicker picker = new FkPicker(service, async, currentFks.get(col));
+                if (bulk) picker.setKeep(KEEP);
+                else if (initialValues != null) picker.setInitialValue(initialValues.get(col));
+                input = picker;
 
             // 2) ENUM dropdown
             } else if (currentEnums.containsKey(col)) {
                 TableService.EnumInfo ei = currentEnums.get(col);
                 JComboBox<String> combo = new JComboBox<>();
 
+                if (bulk) combo.addItem(KEEP);
                 if (ei.nullable) combo.addItem("(NULL)");
                 for (String v : ei.values) combo.addItem(v);
 
-                if (initialValues != null && initialValues.get(col) != null) {
+                if (bulk) {
+                    combo.setSelectedItem(KEEP);
+                } else if (initialValues != null && initialValues.get(col) != null) {
                     combo.setSelectedItem(String.valueOf(initialValues.get(col)));
                 } else if (ei.nullable) {
                     combo.setSelectedItem("(NULL)");
@@ -274,6 +1009,11 @@ public class TableManagerFrame extends JFrame {
                 if (initialValues != null && initialValues.get(col) != null) {
                     tf.setText(String.valueOf(initialValues.get(col)));
                 }
+                // μεγάλο TEXT/BLOB: εδώ έχουμε μόνο preview, αλλάζει από τον viewer του κελιού
+                if (initialValues != null && initialValues.get(col) instanceof LobPreview) {
+                    tf.setEnabled(false);
+                    tf.setToolTipText("Double-click the cell to view or edit the full value");
+                }
                 input = tf;
             }
 
@@ -301,13 +1041,22 @@ public class TableManagerFrame extends JFrame {
 
             Object value;
 
-            if (comp instanceof JComboBox) {
+            if (comp instanceof FkPicker) {
+                FkPicker picker = (FkPicker) comp;
+                if (picker.isKeep()) continue; // bulk: δεν αλλάζει
+                if (initialValues == null && !picker.isTouched()) continue; // INSERT: δεν διαλέχτηκε
+                value = picker.getValue();
+            } else if (comp instanceof JComboBox) {
                 Object sel = ((JComboBox<?>) comp).getSelectedItem();
+                if (KEEP.equals(sel)) continue; // bulk: δεν αλλάζει
                 if (sel != null && "(NULL)".equals(sel)) value = null;
                 else value = sel;
+            } else if (initialValues != null && initialValues.get(col) instanceof LobPreview) {
+                continue; // preview, όχι η τιμή: δεν γράφεται πίσω
             } else {
                 String txt = ((JTextField) comp).getText().trim();
                 if (initialValues == null && txt.isEmpty()) continue; // INSERT: skip empty
+                if (bulk && txt.isEmpty()) continue; // bulk UPDATE: κενό = δεν αλλάζει
                 value = txt.isEmpty() ? null : txt; // UPDATE: empty -> NULL
             }
 
@@ -0,0 +1,249 @@
+import java.util.*;
+
+/**
+ * Query builder για το browsing ενός πίνακα: φίλτρα ανά στήλη και ταξινόμηση,
+ * που γίνονται παραμετροποιημένα WHERE / ORDER BY στον server.
+ *
+ * Το keyset του paging είναι πάντα (sortColumn, pk...) με την ίδια κατεύθυνση, ώστε ένα index
+ * στο sortColumn (που στο InnoDB περιέχει σιωπηρά και το PK) να καλύπτει και το ORDER BY και το seek.
+ *
+ * Σύνταξη φίλτρου (ανά στήλη):
+ * <pre>
+ *   abc        πρόθεμα για κείμενο (LIKE 'abc%'), ισότητα για αριθμούς/ημερομηνίες
+ *   =abc       ισότητα
+ *   >10 >=10 <10 <=10 !=10 <>10
+ *   *abc*      LIKE με wildcards (* ή %)
+ *   NULL !NULL IS NULL / IS NOT NULL
+ * </pre>
+ */
+public class TableQuery {
+
+    public enum Direction { ASC, DESC }
+
+    /** Ένα κομμάτι SQL μαζί με τις παραμέτρους του, με τη σειρά των ?. */
+    public static class Sql {
+        public final String text;
+        public final List<Object> params;
+
+        Sql(String text, List<Object> params) {
+            this.text = text;
+            this.params = params;
+        }
+    }
+
+    private static final Set<String> TEXT_TYPES = new HashSet<>(Arrays.asList(
+            "char", "varchar", "tinytext", "text", "mediumtext", "longtext", "enum", "set"));
+
+    public final String table;
+    public final List<String> pkCols;
+    private final Map<String, SchemaCache.ColumnInfo> columnInfo;
+    private final Map<String, String> filters = new LinkedHashMap<>();
+    private String sortColumn;
+    private Direction direction = Direction.ASC;
+
+    public TableQuery(String table, List<String> pkCols, Map<String, SchemaCache.ColumnInfo> columnInfo) {
+        this.table = table;
+        this.pkCols = pkCols;
+        this.columnInfo = columnInfo;
+    }
+
+    /** Απλό browsing κατά PK, χωρίς φίλτρα. */
+    public static TableQuery of(String table, List<String> pkCols) {
+        return new TableQuery(table, pkCols, Collections.emptyMap());
+    }
+
+    public TableQuery filter(String column, String text) {
+        if (text == null || text.isBlank()) filters.remove(column);
+        else filters.put(column, text.trim());
+        return this;
+    }
+
+    public TableQuery sort(String column, Direction direction) {
+        this.sortColumn = column;
+        this.direction = direction == null ? Direction.ASC : direction;
+        return this;
+    }
+
+    public Map<String, String> filters() {
+        return Collections.unmodifiableMap(filters);
+    }
+
+    public String sortColumn() {
+        return sortColumn;
+    }
+
+    public Direction direction() {
+        return direction;
+    }
+
+    /** true όταν η σειρά είναι η φυσική σειρά PK χωρίς φίλτρα (το model μπορεί να κάνει incremental insert). */
+    public boolean isDefault() {
+        return filters.isEmpty() && sortColumn == null && direction == Direction.ASC;
+    }
+
+    /** Με φίλτρα το πλήθος γραμμών δεν είναι το πλήθος του πίνακα. */
+    public boolean isFiltered() {
+        return !filters.isEmpty();
+    }
+
+    /** Οι στήλες του keyset, με τη σειρά του ORDER BY. */
+    public List<String> orderColumns() {
+        List<String> cols = new ArrayList<>();
+        if (sortColumn != null) cols.add(sortColumn);
+        for (String pk : pkCols) if (!cols.contains(pk)) cols.add(pk);
+        return cols;
+    }
+
+    // ===== SQL =====
+    public Sql where() {
+        StringBuilder sb = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (Map.Entry<String, String> e : filters.entrySet()) {
+            if (sb.length() > 0) sb.append(" AND ");
+            appendFilter(sb, params, e.getKey(), e.getValue());
+        }
+        return new Sql(sb.toString(), params);
+    }
+
+    public String orderBy() {
+        List<String> cols = orderColumns();
+        if (cols.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder(" ORDER BY ");
+        for (int i = 0; i < cols.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(TableService.q(cols.get(i)));
+            if (direction == Direction.DESC) sb.append(" DESC");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * WHERE (φίλτρα AND keyset-μετά-το-afterKey), ή "" αν δεν υπάρχει τίποτα.
+     * afterKey έχει τιμές για τις {@link #orderColumns()}.
+     */
+    public Sql whereAfter(Object[] afterKey) {
+        Sql f = where();
+        StringBuilder sb = new StringBuilder(f.text);
+        List<Object> params = new ArrayList<>(f.params);
+
+        if (afterKey != null) {
+            if (sb.length() > 0) sb.append(" AND ");
+            sb.append("(");
+            appendKeyset(sb, params, orderColumns(), afterKey, 0);
+            sb.append(")");
+        }
+        return new Sql(sb.length() == 0 ? "" : " WHERE " + sb, params);
+    }
+
+    /**
+     * Για ASC ο MySQL βάζει τα NULL πρώτα, για DESC τελευταία. Οι PK στήλες είναι NOT NULL,
+     * οπότε το null handling χρειάζεται μόνο για τη sort στήλη.
+     */
+    private void appendKeyset(StringBuilder sb, List<Object> params, List<String> cols, Object[] key, int i) {
+        boolean desc = direction == Direction.DESC;
+        String op = desc ? "<" : ">";
+
+        // η ουρά που αποτελείται μόνο από PK στήλες γίνεται row constructor (a,b) > (?,?)
+        if (pkCols.size() > 0 && cols.size() - i == pkCols.size() && cols.subList(i, cols.size()).equals(pkCols)) {
+            sb.append("(").append(TableService.joinCols(pkCols)).append(") ").append(op)
+              .append(" (").append(TableService.placeholders(pkCols.size())).append(")");
+            for (int k = i; k < cols.size(); k++) params.add(key[k]);
+            return;
+        }
+
+        String c = TableService.q(cols.get(i));
+        Object v = key[i];
+        boolean last = i == cols.size() - 1;
+
+        // "μετά από" το v
+        if (v == null) sb.append(desc ? "1=0" : c + " IS NOT NULL");
+        else {
+            sb.append(desc ? "(" + c + " < ? OR " + c + " IS NULL)" : c + " > ?");
+            params.add(v);
+        }
+        if (last) return;
+
+        // ή ίσο με v και μετά στις επόμενες στήλες
+        sb.append(" OR (");
+        if (v == null) sb.append(c).append(" IS NULL");
+        else {
+            sb.append(c).append(" = ?");
+            params.add(v);
+        }
+        sb.append(" AND (");
+        appendKeyset(sb, params, cols, key, i + 1);
+        sb.append("))");
+    }
+
+    private void appendFilter(StringBuilder sb, List<Object> params, String column, String text) {
+        String c = TableService.q(column);
+        String upper = text.toUpperCase(Locale.ROOT);
+
+        if (upper.equals("NULL")) {
+            sb.append(c).append(" IS NULL");
+            return;
+        }
+        if (upper.equals("!NULL")) {
+            sb.append(c).append(" IS NOT NULL");
+            return;
+        }
+
+        for (String op : new String[]{">=", "<=", "<>", "!=", ">", "<", "="}) {
+            if (text.startsWith(op)) {
+                sb.append(c).append(' ').append(op.equals("!=") ? "<>" : op).append(" ?");
+                params.add(text.substring(op.length()).trim());
+                return;
+            }
+        }
+
+        if (text.contains("*") || text.contains("%")) {
+            sb.append(c).append(" LIKE ?");
+            params.add(text.replace('*', '%'));
+            return;
+        }
+
+        if (isText(column)) {
+            // πρόθεμα: LIKE 'abc%' χρησιμοποιεί index
+            sb.append(c).append(" LIKE ?");
+            params.add(escapeLike(text) + "%");
+        } else {
+            sb.append(c).append(" = ?");
+            params.add(text);
+        }
+    }
+
+    // ===== index check =====
+    /**
+     * Προειδοποιήσεις για φίλτρα/ταξινόμηση που δεν μπορούν να χρησιμοποιήσουν index.
+     *
+     * @param indexes οι στήλες κάθε index του πίνακα, με τη σειρά τους
+     */
+    public List<String> indexWarnings(List<List<String>> indexes) {
+        Set<String> leading = new HashSet<>();
+        for (List<String> idx : indexes) if (!idx.isEmpty()) leading.add(idx.get(0));
+
+        List<String> warnings = new ArrayList<>();
+        for (Map.Entry<String, String> e : filters.entrySet()) {
+            String col = e.getKey();
+            String text = e.getValue();
+            if (text.startsWith("*") || text.startsWith("%")) {
+                warnings.add("Filter on " + col + " starts with a wildcard: full scan.");
+            } else if (!leading.contains(col)) {
+                warnings.add("No index starts with " + col + ": filter needs a full scan.");
+            }
+        }
+        if (sortColumn != null && !leading.contains(sortColumn)) {
+            warnings.add("No index starts with " + sortColumn + ": sorting needs a full scan + filesort.");
+        }
+        return warnings;
+    }
+
+    private boolean isText(String column) {
+        SchemaCache.ColumnInfo ci = columnInfo.get(column);
+        return ci == null || TEXT_TYPES.contains(ci.dataType.toLowerCase(Locale.ROOT));
+    }
+
+    static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
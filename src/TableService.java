@@ -1,16 +1,154 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.*;
 import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 public class TableService {
 
     // ===== DTOs =====
+    /**
+     * Αποτέλεσμα ενός SELECT σε columnar μορφή: ένα {@link ColumnVector} ανά στήλη με primitive
+     * arrays, null bitmap και dictionary strings, αντί για ένα Object[] με boxed τιμές ανά γραμμή.
+     *
+     * Το {@link #get} επιστρέφει την ίδια κλάση που θα έδινε το rs.getObject. Οι αλλαγές
+     * (set/insert/remove) γίνονται μόνο από το EDT, όπως και πριν στη List<Object[]>.
+     */
     public static class TableData {
         public final List<String> columns;
-        public final List<Object[]> rows;
+        private final ColumnVector[] data;
 
-        public TableData(List<String> columns, List<Object[]> rows) {
+        private TableData(List<String> columns, ColumnVector[] data) {
             this.columns = columns;
-            this.rows = rows;
+            this.data = data;
+        }
+
+        /** Κενό, με τις στήλες μόνο· οι γραμμές που μπαίνουν μετά κρατιούνται ως Object. */
+        public TableData(List<String> columns) {
+            this(columns, new ColumnVector[columns.size()]);
+            for (int c = 0; c < data.length; c++) data[c] = new ColumnVector.ObjectVector();
+        }
+
+        /** Διαβάζει όλες τις γραμμές του rs· ο τύπος κάθε στήλης βγαίνει από το ResultSetMetaData. */
+        public static TableData read(ResultSet rs) throws SQLException {
+            ResultSetMetaData md = rs.getMetaData();
+            int cc = md.getColumnCount();
+
+            List<String> cols = new ArrayList<>(cc);
+            ColumnVector[] data = new ColumnVector[cc];
+            for (int i = 1; i <= cc; i++) {
+                cols.add(md.getColumnLabel(i));
+                data[i - 1] = ColumnVector.forColumn(md, i);
+            }
+            while (rs.next()) {
+                for (int i = 1; i <= cc; i++) data[i - 1].read(rs, i);
+            }
+            for (ColumnVector v : data) v.trimToSize();
+            return new TableData(cols, data);
+        }
+
+        /** Κενό, με τον τύπο κάθε στήλης του rs· γεμίζει γραμμή-γραμμή με {@link #readRow} (streaming). */
+        static TableData forResult(ResultSet rs) throws SQLException {
+            ResultSetMetaData md = rs.getMetaData();
+            List<String> cols = new ArrayList<>(md.getColumnCount());
+            ColumnVector[] data = new ColumnVector[md.getColumnCount()];
+            for (int i = 1; i <= data.length; i++) {
+                cols.add(md.getColumnLabel(i));
+                data[i - 1] = ColumnVector.forColumn(md, i);
+            }
+            return new TableData(cols, data);
+        }
+
+        /** Η τρέχουσα γραμμή του rs στο τέλος. */
+        void readRow(ResultSet rs) throws SQLException {
+            for (int i = 1; i <= data.length; i++) data[i - 1].read(rs, i);
+        }
+
+        public int rowCount() {
+            return data.length == 0 ? 0 : data[0].size();
+        }
+
+        public boolean isEmpty() {
+            return rowCount() == 0;
+        }
+
+        public Object get(int row, int col) {
+            return data[col].get(row);
+        }
+
+        /** Η τιμή ως κείμενο για CSV (null για NULL), χωρίς boxing για τους primitive τύπους. */
+        public String text(int row, int col) {
+            return data[col].text(row);
+        }
+
+        /** Η γραμμή ως Object[] (νέος πίνακας σε κάθε κλήση). */
+        public Object[] row(int row) {
+            Object[] r = new Object[data.length];
+            for (int c = 0; c < r.length; c++) r[c] = data[c].get(row);
+            return r;
+        }
+
+        /** Όλες οι γραμμές ως Object[] - μόνο για μικρά αποτελέσματα (π.χ. γραμμές μετά από CRUD). */
+        public List<Object[]> rows() {
+            List<Object[]> list = new ArrayList<>(rowCount());
+            for (int r = 0; r < rowCount(); r++) list.add(row(r));
+            return list;
+        }
+
+        public void append(Object[] values) {
+            insert(rowCount(), values);
+        }
+
+        public void insert(int row, Object[] values) {
+            widen(values);
+            for (int c = 0; c < data.length; c++) data[c].insert(row, values[c]);
+        }
+
+        public void set(int row, Object[] values) {
+            widen(values);
+            for (int c = 0; c < data.length; c++) data[c].set(row, values[c]);
+        }
+
+        public void remove(int row) {
+            for (ColumnVector v : data) v.remove(row);
+        }
+
+        /** Οι ίδιες γραμμές χωρίς την τελευταία στήλη (ένα βοηθητικό πεδίο στο τέλος του SELECT). */
+        TableData withoutLastColumn() {
+            int n = data.length - 1;
+            return new TableData(new ArrayList<>(columns.subList(0, n)), Arrays.copyOf(data, n));
+        }
+
+        /** Κάθε τιμή (εκτός NULL) της στήλης γίνεται fn(τιμή)· η στήλη γίνεται Object[]. */
+        void mapColumn(int col, java.util.function.Function<Object, Object> fn) {
+            ColumnVector.ObjectVector o = data[col].toObjects();
+            for (int r = 0; r < o.size(); r++) if (!o.isNull(r)) o.set(r, fn.apply(o.get(r)));
+            data[col] = o;
+        }
+
+        /** Περίπου τα bytes δεδομένων που ήρθαν από τον server (για τα metrics). */
+        public long fetchedBytes() {
+            long bytes = 0;
+            for (ColumnVector v : data) bytes += v.fetchedBytes();
+            return bytes;
+        }
+
+        /** Εκτίμηση των bytes στο heap (arrays, bitmaps, dictionaries). */
+        public long footprintBytes() {
+            long bytes = 16 + ColumnVector.align(16 + 4L * data.length);
+            for (ColumnVector v : data) bytes += v.footprintBytes();
+            return bytes;
+        }
+
+        // τιμή που δεν χωράει στον εξειδικευμένο τύπο της στήλης: η στήλη γίνεται Object[]
+        private void widen(Object[] values) {
+            for (int c = 0; c < data.length; c++) {
+                if (values[c] != null && !data[c].accepts(values[c])) data[c] = data[c].toObjects();
+            }
         }
     }
 
@@ -36,154 +174,431 @@ public class TableService {
         }
     }
 
-    // ===== Metadata =====
-    public List<String> listTables() throws SQLException {
-        List<String> tables = new ArrayList<>();
-        try (Connection con = DB.get()) {
-            DatabaseMetaData md = con.getMetaData();
-            try (ResultSet rs = md.getTables(con.getCatalog(), null, "%", new String[]{"TABLE"})) {
-                while (rs.next()) tables.add(rs.getString("TABLE_NAME"));
-            }
+    /** Μια τιμή του referenced πίνακα για το FK picker: το key και μια στήλη για να τη δείχνουμε. */
+    public static class RefValue {
+        public final Object key;
+        public final Object label; // null αν ο πίνακας δεν έχει κατάλληλη στήλη
+
+        public RefValue(Object key, Object label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        @Override public String toString() {
+            return label == null ? String.valueOf(key) : key + " — " + label;
         }
-        Collections.sort(tables);
-        return tables;
+    }
+
+    private final SchemaCache schema = new SchemaCache(
+            Long.parseLong(DB.property("schema.cache.ttlSeconds", "300")) * 1000);
+    private final RowCountService rowCounts = new RowCountService(this,
+            Long.parseLong(DB.property("count.cacheSeconds", "60").trim()) * 1000);
+    private final LocalSnapshots snapshots = new LocalSnapshots(this);
+
+    // ===== Metadata (από το SchemaCache) =====
+    public SchemaCache schema() {
+        return schema;
+    }
+
+    /** Εκτιμήσεις/ακριβή πλήθη γραμμών ανά πίνακα (ενημερώνονται από τα CRUD εδώ). */
+    public RowCountService rowCounts() {
+        return rowCounts;
+    }
+
+    /** Τοπικά αντίγραφα πινάκων (snapshot.* στο config) που σερβίρουν το default query. */
+    public LocalSnapshots snapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Η εφαρμογή έγραψε στον πίνακα: το τοπικό snapshot σταματάει να σερβίρει και τα reads
+     * μένουν για λίγο στον primary ({@link DB#wrote()}), ώστε το reload να δείξει την αλλαγή.
+     */
+    void written(String table) {
+        snapshots.written(table);
+        DB.wrote();
+    }
+
+    /** Χειροκίνητο refresh μετά από DDL που έγινε έξω από την εφαρμογή. */
+    public void refreshSchema() {
+        schema.invalidate();
+    }
+
+    public List<String> listTables() throws SQLException {
+        return schema.tableNames();
     }
 
     public List<String> getPrimaryKeyColumns(String table) throws SQLException {
-        List<String> pk = new ArrayList<>();
-        try (Connection con = DB.get()) {
-            DatabaseMetaData md = con.getMetaData();
-            try (ResultSet rs = md.getPrimaryKeys(con.getCatalog(), null, table)) {
-                Map<Short, String> ordered = new TreeMap<>();
-                while (rs.next()) {
-                    ordered.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
-                }
-                pk.addAll(ordered.values());
-            }
-        }
-        return pk;
+        return Collections.unmodifiableList(schema.table(table).pkCols);
     }
 
     public Set<String> getAutoIncrementColumns(String table) throws SQLException {
-        Set<String> autoCols = new HashSet<>();
-        try (Connection con = DB.get()) {
-            DatabaseMetaData md = con.getMetaData();
-            try (ResultSet rs = md.getColumns(con.getCatalog(), null, table, "%")) {
-                while (rs.next()) {
-                    String col = rs.getString("COLUMN_NAME");
-                    String isAuto = rs.getString("IS_AUTOINCREMENT"); // YES/NO
-                    if ("YES".equalsIgnoreCase(isAuto)) autoCols.add(col);
-                }
-            }
-        }
-        return autoCols;
+        return Collections.unmodifiableSet(schema.table(table).autoIncrementCols);
     }
 
     public Map<String, FK> getForeignKeys(String table) throws SQLException {
-        Map<String, FK> map = new HashMap<>();
-        try (Connection con = DB.get()) {
-            DatabaseMetaData md = con.getMetaData();
-            try (ResultSet rs = md.getImportedKeys(con.getCatalog(), null, table)) {
-                while (rs.next()) {
-                    String fkCol = rs.getString("FKCOLUMN_NAME");
-                    String pkTable = rs.getString("PKTABLE_NAME");
-                    String pkCol = rs.getString("PKCOLUMN_NAME");
-                    map.put(fkCol, new FK(fkCol, pkTable, pkCol));
+        return Collections.unmodifiableMap(schema.table(table).fks);
+    }
+
+    // στήλες που συνήθως περιγράφουν μια γραμμή, κατά σειρά προτίμησης
+    private static final List<String> LABEL_NAMES = Arrays.asList(
+            "name", "title", "label", "description", "code", "email", "username");
+
+    /**
+     * Η στήλη που δείχνουμε δίπλα στο key στο FK picker: πρώτα με γνωστό όνομα,
+     * αλλιώς η πρώτη char/varchar στήλη. null αν δεν υπάρχει.
+     */
+    public String displayColumn(String table, String keyColumn) throws SQLException {
+        Map<String, SchemaCache.ColumnInfo> cols = schema.table(table).columns;
+        for (String n : LABEL_NAMES) {
+            for (SchemaCache.ColumnInfo ci : cols.values()) {
+                if (!ci.name.equals(keyColumn) && (ci.name.equalsIgnoreCase(n) || ci.name.toLowerCase().endsWith("_" + n))) {
+                    return ci.name;
                 }
             }
         }
-        return map;
+        for (SchemaCache.ColumnInfo ci : cols.values()) {
+            if (!ci.name.equals(keyColumn) && ("varchar".equalsIgnoreCase(ci.dataType) || "char".equalsIgnoreCase(ci.dataType))) {
+                return ci.name;
+            }
+        }
+        return null;
     }
 
-    public List<Object> getReferenceValues(String table, String column) throws SQLException {
-        List<Object> list = new ArrayList<>();
-        String sql = "SELECT `" + column + "` FROM `" + table + "` ORDER BY `" + column + "`";
-        try (Connection con = DB.get();
-             Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) list.add(rs.getObject(1));
+    /**
+     * Μια σελίδα τιμών του referenced πίνακα για το FK picker, ταξινομημένες κατά key.
+     *
+     * Το search ταιριάζει πρόθεμα στο key (ισότητα αν το key δεν είναι κείμενο) ή στη στήλη
+     * εμφάνισης, ώστε να μπορεί να χρησιμοποιηθεί index. Το paging είναι keyset (key > afterKey).
+     */
+    public List<RefValue> searchReferenceValues(FK fk, String search, Object afterKey, int limit) throws SQLException {
+        String display = displayColumn(fk.pkTable, fk.pkColumn);
+        SchemaCache.ColumnInfo keyInfo = schema.table(fk.pkTable).columns.get(fk.pkColumn);
+        boolean textKey = keyInfo == null || "varchar".equalsIgnoreCase(keyInfo.dataType) || "char".equalsIgnoreCase(keyInfo.dataType);
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(q(fk.pkColumn));
+        if (display != null) sql.append(", ").append(q(display));
+        sql.append(" FROM ").append(q(fk.pkTable));
+
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (search != null && !search.isBlank()) {
+            String prefix = TableQuery.escapeLike(search.trim()) + "%";
+            StringBuilder or = new StringBuilder("(");
+            if (textKey) {
+                or.append(q(fk.pkColumn)).append(" LIKE ?");
+                params.add(prefix);
+            } else {
+                or.append(q(fk.pkColumn)).append(" = ?");
+                params.add(search.trim());
+            }
+            if (display != null) {
+                or.append(" OR ").append(q(display)).append(" LIKE ?");
+                params.add(prefix);
+            }
+            where.add(or.append(")").toString());
+        }
+        if (afterKey != null) {
+            where.add(q(fk.pkColumn) + " > ?");
+            params.add(afterKey);
+        }
+        if (!where.isEmpty()) sql.append(" WHERE ").append(String.join(" AND ", where));
+        sql.append(" ORDER BY ").append(q(fk.pkColumn)).append(" LIMIT ?");
+        params.add(limit);
+
+        List<RefValue> list = new ArrayList<>();
+        try (Metrics.Span span = Metrics.span("query.searchRef");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql.toString()))) {
+            bind(ps, params, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(new RefValue(rs.getObject(1), display == null ? null : rs.getObject(2)));
+            }
+            span.rows(list.size());
         }
         return list;
     }
 
+    /** Μία τιμή του referenced πίνακα με την ετικέτα της (για να δείξουμε την τρέχουσα τιμή στο UPDATE). */
+    public RefValue lookupReferenceValue(FK fk, Object key) throws SQLException {
+        String display = displayColumn(fk.pkTable, fk.pkColumn);
+        if (key == null || display == null) return new RefValue(key, null);
+
+        String sql = "SELECT " + q(display) + " FROM " + q(fk.pkTable) + " WHERE " + q(fk.pkColumn) + " = ?";
+        try (Metrics.Span span = Metrics.span("query.lookupRef");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            ps.setObject(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return new RefValue(key, rs.next() ? rs.getObject(1) : null);
+            }
+        }
+    }
+
     /**
      * Επιστρέφει όλες τις ENUM στήλες του table:
      * key = columnName, value = EnumInfo(values, nullable)
      *
-     * Χρησιμοποιεί INFORMATION_SCHEMA γιατί είναι ο πιο αξιόπιστος τρόπος να πάρεις τα enum literals.
+     * Τα enum literals έρχονται από το INFORMATION_SCHEMA.COLUMNS.COLUMN_TYPE μέσω του SchemaCache.
      */
     public Map<String, EnumInfo> getEnumColumns(String table) throws SQLException {
-        Map<String, EnumInfo> enums = new HashMap<>();
+        return Collections.unmodifiableMap(schema.table(table).enums);
+    }
 
-        String sql =
-            "SELECT COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE " +
-            "FROM INFORMATION_SCHEMA.COLUMNS " +
-            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND DATA_TYPE = 'enum'";
+    // ===== Data load =====
+    public TableData loadTable(String table, int limit) throws SQLException {
+        SelectList select = selectList(table);
+        String sql = "SELECT " + select.sql + " FROM " + q(table) + " LIMIT ?";
+        try (Metrics.Span span = Metrics.span("query.loadTable");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
 
-        try (Connection con = DB.get();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setString(1, table);
+            ps.setInt(1, limit);
 
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    String col = rs.getString("COLUMN_NAME");
-                    String colType = rs.getString("COLUMN_TYPE"); // enum('A','B',...)
-                    boolean nullable = "YES".equalsIgnoreCase(rs.getString("IS_NULLABLE"));
+                return readAll(rs, span, select);
+            }
+        }
+    }
 
-                    enums.put(col, new EnumInfo(parseEnumLiterals(colType), nullable));
-                }
+    /** Ακριβές πλήθος γραμμών (χρειάζεται το PagedTableModel για το scrollbar). */
+    public long countRows(String table) throws SQLException {
+        return countRows(TableQuery.of(table, Collections.emptyList()));
+    }
+
+    /** Πλήθος γραμμών που περνάνε τα φίλτρα του query. */
+    public long countRows(TableQuery query) throws SQLException {
+        TableSnapshot local = query.isDefault() ? snapshots.serving(query.table) : null;
+        if (local != null) return local.rows;
+        TableQuery.Sql where = query.whereAfter(null);
+        String sql = "SELECT COUNT(*) FROM " + q(query.table) + where.text;
+        try (Metrics.Span span = Metrics.span("query.count");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            bind(ps, where.params, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
             }
         }
-        return enums;
     }
 
-    // ===== Data load =====
-    public TableData loadTable(String table, int limit) throws SQLException {
-        String sql = "SELECT * FROM `" + table + "` LIMIT ?";
-        try (Connection con = DB.get();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+    /**
+     * Keyset pagination: επόμενες pageSize γραμμές μετά το afterKey, ταξινομημένες κατά PK.
+     * afterKey == null σημαίνει από την αρχή. Για composite PK χρησιμοποιεί row constructor (a,b) > (?,?).
+     */
+    public TableData loadPage(String table, List<String> pkCols, Object[] afterKey, int pageSize) throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Keyset paging needs a PRIMARY KEY.");
+        return loadPage(TableQuery.of(table, pkCols), afterKey, pageSize);
+    }
 
-            ps.setInt(1, limit);
+    /**
+     * Keyset pagination πάνω σε query με φίλτρα/ταξινόμηση:
+     * WHERE filters AND (sortCol, pk) μετά το afterKey ORDER BY sortCol, pk LIMIT n.
+     * afterKey έχει τιμές για τις query.orderColumns().
+     */
+    public TableData loadPage(TableQuery query, Object[] afterKey, int pageSize) throws SQLException {
+        TableSnapshot local = query.isDefault() ? snapshots.serving(query.table) : null;
+        if (local != null) {
+            try (Metrics.Span span = Metrics.span("query.loadPage.local")) {
+                TableData data = local.page(afterKey, pageSize);
+                span.rows(data.rowCount());
+                return data;
+            }
+        }
+        TableQuery.Sql where = query.whereAfter(afterKey);
+        SelectList select = selectList(query.table);
+        String sql = "SELECT " + select.sql + " FROM " + q(query.table) + where.text + query.orderBy() + " LIMIT ?";
+
+        try (Metrics.Span span = Metrics.span("query.loadPage");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            int idx = bind(ps, where.params, 1);
+            ps.setInt(idx, pageSize);
 
             try (ResultSet rs = ps.executeQuery()) {
-                ResultSetMetaData md = rs.getMetaData();
-                int cc = md.getColumnCount();
+                return readAll(rs, span, select);
+            }
+        }
+    }
 
-                List<String> cols = new ArrayList<>();
-                for (int i = 1; i <= cc; i++) cols.add(md.getColumnLabel(i));
+    /** Για πίνακες χωρίς PK δεν υπάρχει keyset, οπότε μένει το LIMIT/OFFSET. */
+    public TableData loadPageByOffset(String table, long offset, int pageSize) throws SQLException {
+        return loadPageByOffset(TableQuery.of(table, Collections.emptyList()), offset, pageSize);
+    }
 
-                List<Object[]> rows = new ArrayList<>();
-                while (rs.next()) {
-                    Object[] r = new Object[cc];
-                    for (int i = 1; i <= cc; i++) r[i - 1] = rs.getObject(i);
-                    rows.add(r);
+    public TableData loadPageByOffset(TableQuery query, long offset, int pageSize) throws SQLException {
+        TableQuery.Sql where = query.whereAfter(null);
+        SelectList select = selectList(query.table);
+        String sql = "SELECT " + select.sql + " FROM " + q(query.table) + where.text + query.orderBy() + " LIMIT ? OFFSET ?";
+        try (Metrics.Span span = Metrics.span("query.loadPageByOffset");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            int idx = bind(ps, where.params, 1);
+            ps.setInt(idx++, pageSize);
+            ps.setLong(idx, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                return readAll(rs, span, select);
+            }
+        }
+    }
+
+    public Object[] seekKey(String table, List<String> pkCols, long offset) throws SQLException {
+        return seekKey(TableQuery.of(table, pkCols), offset);
+    }
+
+    /**
+     * Το keyset (query.orderColumns()) της γραμμής στη θέση offset, ή null αν δεν υπάρχει.
+     * Διαβάζει μόνο τις στήλες του keyset, άρα το OFFSET περπατάει το index και όχι τις γραμμές -
+     * έτσι ένα άλμα του scrollbar στη μέση του πίνακα βρίσκει από πού να ξεκινήσει το keyset.
+     */
+    public Object[] seekKey(TableQuery query, long offset) throws SQLException {
+        return seekKey(query, null, offset);
+    }
+
+    /** Το keyset της γραμμής offset θέσεις μετά το afterKey (null = από την αρχή). */
+    public Object[] seekKey(TableQuery query, Object[] afterKey, long offset) throws SQLException {
+        TableSnapshot local = query.isDefault() ? snapshots.serving(query.table) : null;
+        if (local != null) return local.seekKey(afterKey, offset);
+        List<String> keyCols = query.orderColumns();
+        TableQuery.Sql where = query.whereAfter(afterKey);
+        String sql = "SELECT " + joinCols(keyCols) + " FROM " + q(query.table) + where.text
+                + query.orderBy() + " LIMIT 1 OFFSET ?";
+        try (Metrics.Span span = Metrics.span("query.seekKey");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            int idx = bind(ps, where.params, 1);
+            ps.setLong(idx, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                Object[] key = new Object[keyCols.size()];
+                for (int i = 0; i < key.length; i++) key[i] = rs.getObject(i + 1);
+                return key;
+            }
+        }
+    }
+
+    /** Τα indexes του πίνακα (στήλες με τη σειρά τους) για τον έλεγχο full scan του TableQuery. */
+    public List<List<String>> getIndexes(String table) throws SQLException {
+        return schema.indexes(table);
+    }
+
+    /** Μία γραμμή με βάση το PK (null αν δεν υπάρχει) - για incremental refresh μετά από CRUD. */
+    public Object[] loadRowByPk(String table, List<String> pkCols, Map<String, Object> pkValues) throws SQLException {
+        TableData data = loadRowsByPk(table, pkCols, Collections.singletonList(pkValues));
+        return data.isEmpty() ? null : data.row(0);
+    }
+
+    /** Πολλές γραμμές με βάση το PK, WHERE (pk) IN ((?),(?),...) ανά 500. */
+    public TableData loadRowsByPk(String table, List<String> pkCols, List<Map<String, Object>> pkValues) throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY.");
+
+        TableData result = null;
+        SelectList select = selectList(table);
+        String tuple = "(" + placeholders(pkCols.size()) + ")";
+        try (Metrics.Span span = Metrics.span("query.loadRowsByPk");
+             Connection con = DB.get()) {
+            for (int from = 0; from < pkValues.size() || result == null; from += 500) {
+                List<Map<String, Object>> chunk = pkValues.subList(from, Math.min(pkValues.size(), from + 500));
+                StringBuilder sb = new StringBuilder("SELECT ").append(select.sql).append(" FROM ").append(q(table));
+                if (chunk.isEmpty()) {
+                    sb.append(" WHERE 1=0"); // μόνο για τα ονόματα των στηλών
+                } else {
+                    sb.append(" WHERE (").append(joinCols(pkCols)).append(") IN (");
+                    for (int i = 0; i < chunk.size(); i++) sb.append(i > 0 ? "," : "").append(tuple);
+                    sb.append(")");
+                }
+
+                try (PreparedStatement ps = CancelScope.track(con.prepareStatement(sb.toString()))) {
+                    int idx = 1;
+                    for (Map<String, Object> pk : chunk) for (String c : pkCols) ps.setObject(idx++, pk.get(c));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        TableData part = readAll(rs, span, select);
+                        if (result == null) result = part;
+                        else for (int r = 0; r < part.rowCount(); r++) result.append(part.row(r));
+                    }
                 }
-                return new TableData(cols, rows);
             }
         }
+        return result;
     }
 
-    // ===== CRUD =====
-    public void insertRow(String table, Map<String, Object> values) throws SQLException {
-        List<String> cols = new ArrayList<>(values.keySet());
-        if (cols.isEmpty()) throw new SQLException("No values to insert.");
+    /**
+     * Για το live tail: γραμμές με column >= from (column IS NOT NULL αν from == null) κατά (column, pk),
+     * μετά το afterKey αν δοθεί. Το query είναι TableQuery.of(table, pk).sort(column, ASC),
+     * οπότε το afterKey είναι το keyset (column, pk...) της τελευταίας γραμμής που διαβάστηκε.
+     */
+    public TableData loadChangedSince(TableQuery query, Object from, Object[] afterKey, int limit) throws SQLException {
+        TableQuery.Sql where = query.whereAfter(afterKey);
+        SelectList select = selectList(query.table);
+        StringBuilder sql = new StringBuilder("SELECT ").append(select.sql).append(" FROM ").append(q(query.table)).append(where.text);
+        List<Object> params = new ArrayList<>(where.params);
+        sql.append(where.text.isEmpty() ? " WHERE " : " AND ").append(q(query.sortColumn()));
+        if (from != null) {
+            sql.append(" >= ?");
+            params.add(from);
+        } else {
+            // χωρίς τιμή watermark ακόμα (άδειος πίνακας, όλα NULL): οι γραμμές με NULL δεν παρακολουθούνται
+            sql.append(" IS NOT NULL");
+        }
+        sql.append(query.orderBy()).append(" LIMIT ?");
 
-        StringBuilder sb = new StringBuilder("INSERT INTO `").append(table).append("` (");
-        for (int i = 0; i < cols.size(); i++) {
-            if (i > 0) sb.append(",");
-            sb.append("`").append(cols.get(i)).append("`");
+        try (Metrics.Span span = Metrics.span("query.liveTail");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql.toString()))) {
+            int idx = bind(ps, params, 1);
+            ps.setInt(idx, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                return readAll(rs, span, select);
+            }
         }
-        sb.append(") VALUES (");
-        for (int i = 0; i < cols.size(); i++) {
-            if (i > 0) sb.append(",");
-            sb.append("?");
+    }
+
+    /** MAX(column) (null σε άδειο πίνακα) - η αφετηρία του live tail. */
+    public Object maxValue(String table, String column) throws SQLException {
+        String sql = "SELECT MAX(" + q(column) + ") FROM " + q(table);
+        try (Metrics.Span span = Metrics.span("query.max");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql));
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getObject(1) : null;
         }
-        sb.append(")");
+    }
+
+    // ===== CRUD =====
+    /**
+     * @return οι τιμές του PK της νέας γραμμής (με το generated key για AUTO_INCREMENT),
+     *         ή null αν ο πίνακας δεν έχει PK ή δεν γίνεται να προσδιοριστεί.
+     */
+    public Map<String, Object> insertRow(String table, Map<String, Object> values) throws SQLException {
+        List<String> cols = new ArrayList<>(values.keySet());
+        if (cols.isEmpty()) throw new SQLException("No values to insert.");
 
-        try (Connection con = DB.get();
-             PreparedStatement ps = con.prepareStatement(sb.toString())) {
+        try (Metrics.Span span = Metrics.span("write.insert");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(
+                     con.prepareStatement(insertSql(table, cols), Statement.RETURN_GENERATED_KEYS))) {
             for (int i = 0; i < cols.size(); i++) ps.setObject(i + 1, values.get(cols.get(i)));
-            ps.executeUpdate();
+            int inserted = ps.executeUpdate();
+            span.rows(inserted);
+            written(table);
+            rowCounts.adjust(table, inserted);
+
+            Object generated = null;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) generated = keys.getObject(1);
+            }
+
+            List<String> pkCols = getPrimaryKeyColumns(table);
+            if (pkCols.isEmpty()) return null;
+            Set<String> autoCols = getAutoIncrementColumns(table);
+
+            Map<String, Object> pk = new LinkedHashMap<>();
+            for (String c : pkCols) {
+                if (values.get(c) != null) pk.put(c, values.get(c));
+                else if (autoCols.contains(c) && generated != null) pk.put(c, generated);
+                else return null;
+            }
+            return pk;
         }
     }
 
@@ -191,70 +606,941 @@ public class TableService {
                               Map<String, Object> newValues, Map<String, Object> pkValues) throws SQLException {
         if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY. Update not supported.");
 
-        List<String> setCols = new ArrayList<>(newValues.keySet());
-        setCols.removeAll(pkCols); // policy: δεν αλλάζουμε PK
-        if (setCols.isEmpty()) throw new SQLException("No editable columns to update.");
+        List<String> setCols = updatableColumns(pkCols, newValues);
 
-        StringBuilder sb = new StringBuilder("UPDATE `").append(table).append("` SET ");
-        for (int i = 0; i < setCols.size(); i++) {
-            if (i > 0) sb.append(", ");
-            sb.append("`").append(setCols.get(i)).append("`=?");
-        }
-        sb.append(" WHERE ");
-        for (int i = 0; i < pkCols.size(); i++) {
-            if (i > 0) sb.append(" AND ");
-            sb.append("`").append(pkCols.get(i)).append("`=?");
-        }
-
-        try (Connection con = DB.get();
-             PreparedStatement ps = con.prepareStatement(sb.toString())) {
+        try (Metrics.Span span = Metrics.span("write.update");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(updateSql(table, setCols, pkCols)))) {
             int idx = 1;
             for (String c : setCols) ps.setObject(idx++, newValues.get(c));
             for (String c : pkCols) ps.setObject(idx++, pkValues.get(c));
-            ps.executeUpdate();
+            span.rows(ps.executeUpdate());
+            written(table);
         }
     }
 
     public void deleteRowByPk(String table, List<String> pkCols, Map<String, Object> pkValues) throws SQLException {
         if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY. Delete not supported.");
 
-        StringBuilder sb = new StringBuilder("DELETE FROM `").append(table).append("` WHERE ");
-        for (int i = 0; i < pkCols.size(); i++) {
-            if (i > 0) sb.append(" AND ");
-            sb.append("`").append(pkCols.get(i)).append("`=?");
+        try (Metrics.Span span = Metrics.span("write.delete");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(deleteSql(table, pkCols)))) {
+            for (int i = 0; i < pkCols.size(); i++) ps.setObject(i + 1, pkValues.get(pkCols.get(i)));
+            int deleted = ps.executeUpdate();
+            span.rows(deleted);
+            rowCounts.adjust(table, -deleted);
+            written(table);
         }
+    }
 
-        try (Connection con = DB.get();
-             PreparedStatement ps = con.prepareStatement(sb.toString())) {
-            for (int i = 0; i < pkCols.size(); i++) ps.setObject(i + 1, pkValues.get(pkCols.get(i)));
-            ps.executeUpdate();
+    /**
+     * Bulk UPDATE όλων των γραμμών που περνάνε τα φίλτρα του query (χωρίς να τις φέρει στον client).
+     * Με PK γίνεται σε κομμάτια των chunkRows κατά PK, ένα transaction το καθένα, ώστε να μην
+     * κρατάει locks σε όλο τον πίνακα· χωρίς PK ένα μόνο UPDATE.
+     *
+     * @return γραμμές που ταίριαξαν
+     */
+    public long updateWhere(TableQuery query, Map<String, Object> values, int chunkRows, RowProgress progress)
+            throws SQLException {
+        if (query.sortColumn() != null) throw new SQLException("Bulk update walks the PRIMARY KEY; remove the sort.");
+        List<String> setCols = updatableColumns(query.pkCols, values);
+        StringBuilder set = new StringBuilder("UPDATE ").append(q(query.table)).append(" SET ");
+        for (int i = 0; i < setCols.size(); i++) set.append(i > 0 ? ", " : "").append(q(setCols.get(i))).append("=?");
+        List<Object> setParams = new ArrayList<>();
+        for (String c : setCols) setParams.add(values.get(c));
+
+        try (Metrics.Span span = Metrics.span("write.updateWhere")) {
+            written(query.table); // και το seekKey από εδώ και πέρα από τον primary
+            String upTo = "(" + joinCols(query.pkCols) + ") <= (" + placeholders(query.pkCols.size()) + ")";
+            long total = 0;
+            Object[] after = null;
+            while (true) {
+                CancelScope.checkCancelled();
+                // το τελευταίο PK του κομματιού (null: ό,τι έμεινε χωράει σε ένα, ή δεν υπάρχει PK)
+                Object[] last = query.pkCols.isEmpty() ? null : seekKey(query, after, chunkRows - 1);
+
+                TableQuery.Sql where = query.whereAfter(after);
+                StringBuilder sql = new StringBuilder(set).append(where.text);
+                if (last != null) sql.append(where.text.isEmpty() ? " WHERE " : " AND ").append(upTo);
+                try (Connection con = DB.get();
+                     PreparedStatement ps = CancelScope.track(con.prepareStatement(sql.toString()))) {
+                    int idx = bind(ps, where.params, bind(ps, setParams, 1));
+                    if (last != null) bind(ps, Arrays.asList(last), idx);
+                    total += ps.executeUpdate();
+                }
+                written(query.table);
+                if (progress != null) progress.rows(total);
+                if (last == null) break;
+                after = last;
+            }
+            span.rows(total);
+            return total;
         }
     }
+
+    // ===== Lazy LOBs =====
+    // TEXT/BLOB ως 64KB και πάνω: στο grid έρχεται μόνο η αρχή τους (τα tiny* χωράνε ούτως ή άλλως)
+    private static final Set<String> LOB_TEXT_TYPES = new HashSet<>(Arrays.asList("text", "mediumtext", "longtext"));
+    private static final Set<String> LOB_BINARY_TYPES = new HashSet<>(Arrays.asList("blob", "mediumblob", "longblob"));
+    private static final int LOB_CHUNK = 64 * 1024;
+
+    private final int lobPreview = Integer.parseInt(DB.property("lob.previewChars", "256").trim());
+
+    /** Το select list ενός πίνακα και ποιες στήλες του έρχονται ως preview (στήλη -> binary). */
+    private static final class SelectList {
+        final String sql;
+        final Map<String, Boolean> lobs;
+
+        SelectList(String sql, Map<String, Boolean> lobs) {
+            this.sql = sql;
+            this.lobs = lobs;
+        }
+    }
+
+    private static final SelectList ALL = new SelectList("*", Collections.emptyMap());
+
+    /**
+     * "*" αν ο πίνακας δεν έχει μεγάλες LOB στήλες, αλλιώς οι στήλες με τη σειρά τους και στη θέση
+     * κάθε LOB ένα {@code CONCAT(CHAR_LENGTH(c), ':', LEFT(c, n)) AS c}: η στήλη μένει μία (ίδιο
+     * σχήμα για το TableData) και ο server στέλνει n χαρακτήρες/bytes αντί για ολόκληρη την τιμή.
+     */
+    private SelectList selectList(String table) throws SQLException {
+        if (lobPreview <= 0) return ALL;
+        Map<String, Boolean> lobs = new HashMap<>();
+        StringBuilder sb = new StringBuilder();
+        for (SchemaCache.ColumnInfo c : schema.table(table).columns.values()) {
+            String type = c.dataType.toLowerCase(Locale.ROOT);
+            boolean binary = LOB_BINARY_TYPES.contains(type);
+            if (sb.length() > 0) sb.append(", ");
+            if (binary || LOB_TEXT_TYPES.contains(type)) {
+                lobs.put(c.name, binary);
+                sb.append("CONCAT(").append(binary ? "LENGTH(" : "CHAR_LENGTH(").append(q(c.name)).append("), ':', LEFT(")
+                        .append(q(c.name)).append(", ").append(lobPreview).append(")) AS ").append(q(c.name));
+            } else {
+                sb.append(q(c.name));
+            }
+        }
+        return lobs.isEmpty() ? ALL : new SelectList(sb.toString(), lobs);
+    }
+
+    /**
+     * Τα πρώτα max χαρακτήρες (max < 0 = όλη η τιμή) μιας TEXT στήλης με το PK, σε κομμάτια
+     * στο out μέσω Clob.getCharacterStream. Επιστρέφει τους χαρακτήρες, ή -1 για NULL.
+     */
+    public long readText(String table, List<String> pkCols, Map<String, Object> pkValues, String column,
+                         long max, Writer out) throws SQLException, IOException {
+        try (Metrics.Span span = Metrics.span("query.readLob");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(lobSql(table, pkCols, column, max)))) {
+            bindLob(ps, pkCols, pkValues, max);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Row not found in " + table + " (deleted?).");
+                Clob clob = rs.getClob(1);
+                if (clob == null) return -1;
+                long n = 0;
+                try (Reader in = clob.getCharacterStream()) {
+                    char[] buf = new char[LOB_CHUNK];
+                    for (int r; (r = in.read(buf)) > 0; n += r) {
+                        CancelScope.checkCancelled();
+                        out.write(buf, 0, r);
+                    }
+                } finally {
+                    clob.free();
+                }
+                out.flush();
+                span.bytes(n);
+                return n;
+            }
+        }
+    }
+
+    /** Όπως το {@link #readText} για BLOB, μέσω Blob.getBinaryStream· επιστρέφει bytes ή -1 για NULL. */
+    public long readBlob(String table, List<String> pkCols, Map<String, Object> pkValues, String column,
+                         long max, OutputStream out) throws SQLException, IOException {
+        try (Metrics.Span span = Metrics.span("query.readLob");
+             Connection con = DB.read();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(lobSql(table, pkCols, column, max)))) {
+            bindLob(ps, pkCols, pkValues, max);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Row not found in " + table + " (deleted?).");
+                Blob blob = rs.getBlob(1);
+                if (blob == null) return -1;
+                long n = 0;
+                try (InputStream in = blob.getBinaryStream()) {
+                    byte[] buf = new byte[LOB_CHUNK];
+                    for (int r; (r = in.read(buf)) > 0; n += r) {
+                        CancelScope.checkCancelled();
+                        out.write(buf, 0, r);
+                    }
+                } finally {
+                    blob.free();
+                }
+                out.flush();
+                span.bytes(n);
+                return n;
+            }
+        }
+    }
+
+    /**
+     * UPDATE μιας TEXT στήλης από Reader (length < 0 = άγνωστο μήκος). Με useServerPrepStmts ο
+     * Connector/J στέλνει το stream σε κομμάτια (COM_STMT_SEND_LONG_DATA), χωρίς να το κρατήσει όλο.
+     */
+    public void writeText(String table, List<String> pkCols, Map<String, Object> pkValues, String column,
+                          Reader in, long length) throws SQLException {
+        writeLob(table, pkCols, pkValues, column, lobUpdate(table, pkCols, column, pkValues), false, textStream(in, length));
+    }
+
+    /** UPDATE μιας BLOB στήλης από InputStream (βλ. {@link #writeText}). */
+    public void writeBlob(String table, List<String> pkCols, Map<String, Object> pkValues, String column,
+                          InputStream in, long length) throws SQLException {
+        writeLob(table, pkCols, pkValues, column, lobUpdate(table, pkCols, column, pkValues), false, binaryStream(in, length));
+    }
+
+    /**
+     * Όπως το {@link #writeText}, αλλά μόνο αν η γραμμή είναι ακόμα όπως στο original (βλ.
+     * {@link #updateRowIfUnchanged}) και η τιμή της στήλης έχει ακόμα το loadedHash ({@link #lobHash}
+     * τη στιγμή που φορτώθηκε)· αλλιώς {@link ConcurrencyConflictException}.
+     */
+    public void writeTextIfUnchanged(String table, List<String> pkCols, Map<String, Object> original, String column,
+                                     String loadedHash, Reader in, long length) throws SQLException {
+        writeLob(table, pkCols, original, column, guardedLobUpdate(table, pkCols, column, original, loadedHash), true,
+                textStream(in, length));
+    }
+
+    /** Όπως το {@link #writeTextIfUnchanged} για BLOB. */
+    public void writeBlobIfUnchanged(String table, List<String> pkCols, Map<String, Object> original, String column,
+                                     String loadedHash, InputStream in, long length) throws SQLException {
+        writeLob(table, pkCols, original, column, guardedLobUpdate(table, pkCols, column, original, loadedHash), true,
+                binaryStream(in, length));
+    }
+
+    /** MD5 της τιμής (hex, null για NULL): με αυτό ελέγχουν τα writeTextIfUnchanged/writeBlobIfUnchanged. */
+    public String lobHash(String table, List<String> pkCols, Map<String, Object> pkValues, String column)
+            throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY.");
+        String sql = "SELECT MD5(" + q(column) + ") FROM " + q(table) + " WHERE " + pkPredicate(pkCols);
+        try (Metrics.Span span = Metrics.span("query.lobHash");
+             Connection con = DB.get(); // ό,τι θα ελέγξει μετά το UPDATE στον primary
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            bindLob(ps, pkCols, pkValues, -1);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Row not found in " + table + " (deleted?).");
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static String lobSql(String table, List<String> pkCols, String column, long max) throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY.");
+        String value = max < 0 ? q(column) : "LEFT(" + q(column) + ", ?)";
+        return "SELECT " + value + " FROM " + q(table) + " WHERE " + pkPredicate(pkCols);
+    }
+
+    private static void bindLob(PreparedStatement ps, List<String> pkCols, Map<String, Object> pkValues, long max)
+            throws SQLException {
+        int idx = 1;
+        if (max >= 0) ps.setLong(idx++, max);
+        for (String c : pkCols) ps.setObject(idx++, pkValues.get(c));
+    }
+
+    private interface LobStream {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private static LobStream textStream(Reader in, long length) {
+        return ps -> {
+            if (length < 0) ps.setCharacterStream(1, in);
+            else ps.setCharacterStream(1, in, length);
+        };
+    }
+
+    private static LobStream binaryStream(InputStream in, long length) {
+        return ps -> {
+            if (length < 0) ps.setBinaryStream(1, in);
+            else ps.setBinaryStream(1, in, length);
+        };
+    }
+
+    // η τιμή της στήλης είναι πάντα η πρώτη παράμετρος (null στο Guarded, τη δένει το LobStream)
+    private static Guarded lobUpdate(String table, List<String> pkCols, String column, Map<String, Object> pkValues)
+            throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY. Update not supported.");
+        List<Object> params = new ArrayList<>();
+        params.add(null);
+        for (String c : pkCols) params.add(pkValues.get(c));
+        return new Guarded(SqlTemplates.update(table, Collections.singletonList(column), pkCols), params.toArray());
+    }
+
+    // version στήλη αν υπάρχει, αλλιώς οι στήλες του original και MD5(column) (οι LOB δεν μπαίνουν στο guardedUpdate)
+    private Guarded guardedLobUpdate(String table, List<String> pkCols, String column, Map<String, Object> original,
+                                     String loadedHash) throws SQLException {
+        Guarded g = guardedUpdate(table, pkCols, Collections.singletonMap(column, null), original);
+        if (versionColumn(table) != null) return g;
+        Object[] params = Arrays.copyOf(g.params, g.params.length + 1);
+        params[g.params.length] = loadedHash;
+        return new Guarded(g.sql + " AND MD5(" + q(column) + ") <=> ?", params);
+    }
+
+    // guarded: 0 γραμμές = conflict (η γραμμή ή η τιμή άλλαξε), αλλιώς = η γραμμή διαγράφηκε
+    private void writeLob(String table, List<String> pkCols, Map<String, Object> original, String column,
+                          Guarded g, boolean guarded, LobStream value) throws SQLException {
+        try (Metrics.Span span = Metrics.span("write.lob");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(g.sql))) {
+            value.bind(ps);
+            bind(ps, Arrays.asList(g.params).subList(1, g.params.length), 2);
+            int updated = ps.executeUpdate();
+            span.rows(updated);
+            if (updated == 0) {
+                if (guarded) throw conflict(table, pkCols, original, Collections.singletonMap(column, null), false);
+                throw new SQLException("Row not found in " + table + " (deleted?).");
+            }
+            written(table);
+        }
+    }
+
+    // ===== Τοπικά snapshots (LocalSnapshots) =====
+    /** Οι γραμμές μιας περιοχής του PK όπως στο grid, με το hash κάθε γραμμής όπως το βγάζει ο server. */
+    static final class HashedRows {
+        final TableData rows;
+        final long[] hashes;
+        private final int[] pkIndexes;
+
+        HashedRows(TableData rows, long[] hashes, int[] pkIndexes) {
+            this.rows = rows;
+            this.hashes = hashes;
+            this.pkIndexes = pkIndexes;
+        }
+
+        Object[] key(int row) {
+            Object[] key = new Object[pkIndexes.length];
+            for (int i = 0; i < key.length; i++) key[i] = rows.get(row, pkIndexes[i]);
+            return key;
+        }
+
+        /** XOR των hash των γραμμών [from, to): ίδιο με το BIT_XOR του {@link #rangeHash}. */
+        long hash(int from, int to) {
+            long h = 0;
+            for (int r = from; r < to; r++) h ^= hashes[r];
+            return h;
+        }
+
+        TableData slice(int from, int to) {
+            TableData part = new TableData(rows.columns);
+            for (int r = from; r < to; r++) part.append(rows.row(r));
+            return part;
+        }
+    }
+
+    /**
+     * Γραμμές του PK range (from, to) με ORDER BY pk, με ένα hash ανά γραμμή· από την ίδια σύνδεση
+     * (και το ίδιο consistent snapshot) με το {@link #rangeHash}. limit <= 0 = όλες.
+     */
+    HashedRows loadHashedRange(Connection con, String table, List<String> pkCols, Object[] from, boolean inclusive,
+                               Object[] to, int limit) throws SQLException {
+        SelectList select = selectList(table);
+        String sql = "SELECT " + select.sql + ", " + rowHashSql(table) + " AS `__row_hash` FROM " + q(table)
+                + rangeWhere(pkCols, from, inclusive, to) + " ORDER BY " + joinCols(pkCols) + (limit > 0 ? " LIMIT " + limit : "");
+        try (Metrics.Span span = Metrics.span("query.snapshotRange");
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            bindRange(ps, from, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                TableData data = readAll(rs, span, select);
+                int h = data.columns.size() - 1;
+                long[] hashes = new long[data.rowCount()];
+                for (int r = 0; r < hashes.length; r++) hashes[r] = ((Number) data.get(r, h)).longValue();
+                TableData rows = data.withoutLastColumn();
+                return new HashedRows(rows, hashes, pkCols.stream().mapToInt(rows.columns::indexOf).toArray());
+            }
+        }
+    }
+
+    /** {COUNT(*), BIT_XOR(hash γραμμής)} για το PK range [from, to)· τα δεδομένα δεν φεύγουν από τον server. */
+    long[] rangeHash(Connection con, String table, List<String> pkCols, Object[] from, Object[] to) throws SQLException {
+        return rangeHash(con, table, pkCols, schema.table(table).columns.keySet(), from, to);
+    }
+
+    /** Όπως το παραπάνω με δοσμένες στήλες (ο ίδιος πίνακας σε άλλον server, βλ. TableDiff). */
+    static long[] rangeHash(Connection con, String table, List<String> pkCols, Collection<String> columns,
+                            Object[] from, Object[] to) throws SQLException {
+        String sql = "SELECT COUNT(*), BIT_XOR(" + rowHashSql(columns) + ") FROM " + q(table) + rangeWhere(pkCols, from, true, to);
+        try (Metrics.Span span = Metrics.span("query.rangeHash");
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            bindRange(ps, from, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                Object xor = rs.getObject(2); // NULL σε άδειο range στη MariaDB
+                return new long[]{rs.getLong(1), xor == null ? 0 : ((Number) xor).longValue()};
+            }
+        }
+    }
+
+    /**
+     * Hash γραμμής όπως στο pt-table-checksum: MD5 όλων των στηλών (ολόκληρα τα LOB, όχι το preview)
+     * και ενός ISNULL ανά στήλη, ώστε το NULL να μη μοιάζει με το ''. Τα πρώτα 64 bit, BIGINT UNSIGNED.
+     */
+    private String rowHashSql(String table) throws SQLException {
+        return rowHashSql(schema.table(table).columns.keySet());
+    }
+
+    static String rowHashSql(Collection<String> columns) {
+        StringBuilder cols = new StringBuilder();
+        StringBuilder nulls = new StringBuilder();
+        for (String c : columns) {
+            cols.append(q(c)).append(", ");
+            nulls.append(nulls.length() > 0 ? ", " : "").append("ISNULL(").append(q(c)).append(")");
+        }
+        return "CAST(CONV(LEFT(MD5(CONCAT_WS('#', " + cols + "CONCAT(" + nulls + "))), 16), 16, 10) AS UNSIGNED)";
+    }
+
+    static String rangeWhere(List<String> pkCols, Object[] from, boolean inclusive, Object[] to) {
+        String tuple = "(" + joinCols(pkCols) + ")";
+        String params = "(" + placeholders(pkCols.size()) + ")";
+        StringBuilder sb = new StringBuilder();
+        if (from != null) sb.append(" WHERE ").append(tuple).append(inclusive ? " >= " : " > ").append(params);
+        if (to != null) sb.append(from == null ? " WHERE " : " AND ").append(tuple).append(" < ").append(params);
+        return sb.toString();
+    }
+
+    static void bindRange(PreparedStatement ps, Object[] from, Object[] to) throws SQLException {
+        int idx = 1;
+        if (from != null) idx = bind(ps, Arrays.asList(from), idx);
+        if (to != null) bind(ps, Arrays.asList(to), idx);
+    }
+
+    /**
+     * Το PK της γραμμής offset θέσεις μετά το from (inclusive) και πριν το to, ή null. Μόνο index.
+     * Για όρια περιοχών (TableDiff, ParallelLoader) σε PK που δεν είναι ένας ακέραιος.
+     */
+    static Object[] seekPk(Connection con, String table, List<String> pkCols, Object[] from, Object[] to, long offset)
+            throws SQLException {
+        String sql = "SELECT " + joinCols(pkCols) + " FROM " + q(table) + rangeWhere(pkCols, from, true, to)
+                + " ORDER BY " + joinCols(pkCols) + " LIMIT 1 OFFSET " + offset;
+        try (Metrics.Span span = Metrics.span("query.seekPk");
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+            bindRange(ps, from, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                Object[] key = new Object[pkCols.size()];
+                for (int i = 0; i < key.length; i++) key[i] = rs.getObject(i + 1);
+                return key;
+            }
+        }
+    }
+
+    // ===== Optimistic concurrency =====
+    // ακέραια στήλη με ένα από αυτά τα ονόματα = version: ελέγχεται μόνο αυτή και γίνεται +1
+    private static final Set<String> VERSION_NAMES = new HashSet<>(Arrays.asList("version", "row_version", "lock_version"));
+    private static final Set<String> INTEGER_TYPES = new HashSet<>(Arrays.asList(
+            "tinyint", "smallint", "mediumint", "int", "bigint"));
+    // δεν μπαίνουν στο WHERE: float/double δεν γυρίζουν πάντα ακριβώς ίδια, LOB/JSON είναι μεγάλα
+    // ή συγκρίνονται αλλιώς από το κείμενο που έχουμε
+    private static final Set<String> UNGUARDED_TYPES = new HashSet<>(Arrays.asList(
+            "float", "double", "real", "json", "tinyblob", "blob", "mediumblob", "longblob",
+            "tinytext", "text", "mediumtext", "longtext", "geometry", "point", "linestring", "polygon",
+            "multipoint", "multilinestring", "multipolygon", "geometrycollection"));
+
+    /** Ένα optimistic statement: SQL και οι παράμετροι με τη σειρά των ?. */
+    static final class Guarded {
+        final String sql;
+        final Object[] params;
+
+        Guarded(String sql, Object[] params) {
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    /**
+     * UPDATE που γράφει μόνο αν η γραμμή είναι ακόμα όπως στο original (τις τιμές που είδε ο χρήστης):
+     * WHERE pk AND version {@code <=>} ? αν ο πίνακας έχει version στήλη, αλλιώς ίδια σύγκριση για
+     * κάθε στήλη του original που συγκρίνεται αξιόπιστα. Δεν κρατάει κανένα lock όσο είναι ανοιχτός
+     * ο διάλογος· αν στο μεταξύ άλλαξε κάτι, 0 γραμμές και {@link ConcurrencyConflictException}.
+     *
+     * Ο Connector/J μετράει τις γραμμές που ταίριαξαν (όχι όσες άλλαξαν), οπότε ένα UPDATE με
+     * τις ίδιες τιμές δεν φαίνεται σαν conflict.
+     */
+    public void updateRowIfUnchanged(String table, List<String> pkCols,
+                                     Map<String, Object> newValues, Map<String, Object> original) throws SQLException {
+        Guarded g = guardedUpdate(table, pkCols, newValues, original);
+        try (Metrics.Span span = Metrics.span("write.update");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(g.sql))) {
+            bind(ps, Arrays.asList(g.params), 1);
+            int updated = ps.executeUpdate();
+            span.rows(updated);
+            if (updated == 0) throw conflict(table, pkCols, original, newValues, false);
+            written(table);
+        }
+    }
+
+    /** DELETE μόνο αν η γραμμή είναι ακόμα όπως στο original (βλ. {@link #updateRowIfUnchanged}). */
+    public void deleteRowIfUnchanged(String table, List<String> pkCols, Map<String, Object> original) throws SQLException {
+        Guarded g = guardedDelete(table, pkCols, original);
+        try (Metrics.Span span = Metrics.span("write.delete");
+             Connection con = DB.get();
+             PreparedStatement ps = CancelScope.track(con.prepareStatement(g.sql))) {
+            bind(ps, Arrays.asList(g.params), 1);
+            int deleted = ps.executeUpdate();
+            span.rows(deleted);
+            if (deleted == 0) throw conflict(table, pkCols, original, null, false);
+            rowCounts.adjust(table, -deleted);
+            written(table);
+        }
+    }
+
+    Guarded guardedUpdate(String table, List<String> pkCols,
+                          Map<String, Object> newValues, Map<String, Object> original) throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY. Update not supported.");
+
+        String version = versionColumn(table);
+        List<String> setCols = new ArrayList<>(newValues.keySet());
+        setCols.removeAll(pkCols);
+        setCols.remove(version); // την αλλάζει το ίδιο το UPDATE
+        if (setCols.isEmpty() && version == null) throw new SQLException("No editable columns to update.");
+        List<String> guard = version != null ? Collections.singletonList(version) : guardColumns(table, pkCols, original);
+
+        List<Object> params = new ArrayList<>();
+        for (String c : setCols) params.add(newValues.get(c));
+        for (String c : pkCols) params.add(original.get(c));
+        for (String c : guard) params.add(original.get(c));
+        return new Guarded(SqlTemplates.updateGuarded(table, setCols, pkCols, guard, version != null), params.toArray());
+    }
+
+    Guarded guardedDelete(String table, List<String> pkCols, Map<String, Object> original) throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY. Delete not supported.");
+
+        String version = versionColumn(table);
+        List<String> guard = version != null ? Collections.singletonList(version) : guardColumns(table, pkCols, original);
+        List<Object> params = new ArrayList<>();
+        for (String c : pkCols) params.add(original.get(c));
+        for (String c : guard) params.add(original.get(c));
+        return new Guarded(SqlTemplates.deleteGuarded(table, pkCols, guard), params.toArray());
+    }
+
+    /** Η ακέραια στήλη version/row_version/lock_version του πίνακα, αν υπάρχει. */
+    String versionColumn(String table) throws SQLException {
+        for (SchemaCache.ColumnInfo c : schema.table(table).columns.values()) {
+            if (VERSION_NAMES.contains(c.name.toLowerCase(Locale.ROOT))
+                    && INTEGER_TYPES.contains(c.dataType.toLowerCase(Locale.ROOT))) return c.name;
+        }
+        return null;
+    }
+
+    /** Οι στήλες του original (εκτός PK) που μπαίνουν στο WHERE. */
+    private List<String> guardColumns(String table, List<String> pkCols, Map<String, Object> original) throws SQLException {
+        Map<String, SchemaCache.ColumnInfo> columns = schema.table(table).columns;
+        List<String> guard = new ArrayList<>();
+        for (String c : original.keySet()) {
+            SchemaCache.ColumnInfo ci = columns.get(c);
+            if (ci == null || pkCols.contains(c) || UNGUARDED_TYPES.contains(ci.dataType.toLowerCase(Locale.ROOT))) continue;
+            guard.add(c);
+        }
+        return guard;
+    }
+
+    /** Φορτώνει τη γραμμή όπως είναι τώρα για τη σύγκριση στο UI. */
+    ConcurrencyConflictException conflict(String table, List<String> pkCols, Map<String, Object> original,
+                                          Map<String, Object> attempted, boolean batch) throws SQLException {
+        Map<String, Object> pk = new LinkedHashMap<>();
+        for (String c : pkCols) pk.put(c, original.get(c));
+        TableData now = loadRowsByPk(table, pkCols, Collections.singletonList(pk));
+        Map<String, Object> current = null;
+        if (!now.isEmpty()) {
+            current = new LinkedHashMap<>();
+            for (int c = 0; c < now.columns.size(); c++) current.put(now.columns.get(c), now.get(0, c));
+        }
+        return new ConcurrencyConflictException(table, pkCols, original, current, attempted, batch);
+    }
+
+    /** Unit of work για πολλές γραμμές: μαζεύει INSERT/UPDATE/DELETE και τα στέλνει με JDBC batching σε ένα transaction. */
+    public UnitOfWork unitOfWork() {
+        return new UnitOfWork(this);
+    }
+
+    /**
+     * Παράλληλο export πολλών πινάκων από κοινό snapshot (export.threads, export.chunkRows στο config).
+     * Ένας worker = μία σύνδεση, άρα κρατάμε δύο connections του pool ελεύθερες για το UI και το lock.
+     */
+    public SnapshotExporter snapshotExporter() {
+        int threads = Integer.parseInt(DB.property("export.threads", "4").trim());
+        threads = Math.max(1, Math.min(threads, DB.stats().maxSize - 2));
+        return new SnapshotExporter(this, threads, Long.parseLong(DB.property("export.chunkRows", "1000000").trim()));
+    }
+
+    /**
+     * Live mode για τον πίνακα (live.* στο config). Δεν ξεκινάει μόνο του:
+     * {@link LiveTail#start()}. Τα callbacks τρέχουν στο EDT.
+     */
+    public LiveTail liveTail(String table, List<String> pkCols,
+                             java.util.function.Consumer<LiveTail.Batch> onBatch,
+                             java.util.function.Consumer<Exception> onError) {
+        return new LiveTail(this, table, pkCols,
+                Long.parseLong(DB.property("live.pollMillis", "1000").trim()),
+                Integer.parseInt(DB.property("live.batchRows", "1000").trim()),
+                Long.parseLong(DB.property("live.lookbackSeconds", "5").trim()) * 1000,
+                Long.parseLong(DB.property("live.lookbackIds", "1000").trim()),
+                onBatch, onError);
+    }
+
+    /**
+     * Σύγκριση/sync πίνακα με άλλο πίνακα ή άλλη βάση με hashes ανά περιοχή του PK (diff.* στο config).
+     * Κάθε πλευρά έχει diff.threads workers· αν είναι και οι δύο σε αυτό το pool, μένουν δύο συνδέσεις για το UI.
+     */
+    public TableDiff tableDiff() {
+        int threads = Integer.parseInt(DB.property("diff.threads", "4").trim());
+        threads = Math.max(1, Math.min(threads, (DB.stats().maxSize - 2) / 2));
+        return new TableDiff(this, threads,
+                Integer.parseInt(DB.property("diff.chunkRows", "100000").trim()),
+                Integer.parseInt(DB.property("diff.leafRows", "1000").trim()),
+                Integer.parseInt(DB.property("diff.batchRows", "1000").trim()),
+                Integer.parseInt(DB.property("diff.maxChanges", "1000000").trim()));
+    }
+
+    /**
+     * Φόρτωμα μεγάλου πίνακα κατά περιοχές του PK από πολλές συνδέσεις (load.* στο config). Όπως στο
+     * export, οι workers δεν παίρνουν ποτέ όλο το pool.
+     */
+    public ParallelLoader parallelLoader() {
+        int threads = Integer.parseInt(DB.property("load.threads", "4").trim());
+        threads = Math.max(1, Math.min(threads, DB.stats().maxSize - 2));
+        return new ParallelLoader(this, threads,
+                Long.parseLong(DB.property("load.minRows", "1000000").trim()),
+                Long.parseLong(DB.property("load.rangeRows", "250000").trim()),
+                Integer.parseInt(DB.property("load.batchRows", "5000").trim()),
+                Integer.parseInt(DB.property("load.queueBatches", "4").trim()));
+    }
+
+    /** Streaming import CSV με έλεγχο enum/FK, chunked transactions και resume (import.chunkRows στο config). */
+    public CsvImporter csvImporter() {
+        return new CsvImporter(this, Integer.parseInt(DB.property("import.chunkRows", "5000").trim()));
+    }
+
+    // ===== Ad-hoc SQL (QueryConsole) =====
+    private static final Set<String> READ_STATEMENTS = new HashSet<>(Arrays.asList(
+            "select", "with", "show", "explain", "describe", "desc", "table", "values"));
+    private static final Set<String> DDL_STATEMENTS = new HashSet<>(Arrays.asList(
+            "create", "alter", "drop", "rename", "truncate"));
+    // strings, quoted identifiers και σχόλια, εκτός από τα /*! ... */ που ο MySQL εκτελεί
+    private static final Pattern SQL_NOISE = Pattern.compile(
+            "'(?:[^'\\\\]++|\\\\.|'')*+'|\"(?:[^\"\\\\]++|\\\\.|\"\")*+\"|`(?:[^`]++|``)*+`"
+                    + "|/\\*(?!!).*?\\*/|--(?=\\s|$)[^\\n]*|#[^\\n]*", Pattern.DOTALL);
+    // κάτι από αυτά σε "read" statement: WITH ... UPDATE, SELECT ... FOR UPDATE / FOR SHARE / LOCK IN SHARE MODE /
+    // INTO OUTFILE, και συναρτήσεις με side effects (named locks, sleep, sequences της MariaDB)
+    private static final Pattern WRITE_WORDS = Pattern.compile(
+            "\\b(insert|update|delete|replace|into|lock|for\\s+(update|share))\\b"
+                    + "|\\b(get_lock|release_lock|release_all_locks|sleep|benchmark|nextval|setval)\\s*\\(",
+            Pattern.CASE_INSENSITIVE);
+
+    /** Δέχεται τις γραμμές ενός query σε κομμάτια, από το thread που τις διαβάζει. */
+    public interface ResultSink {
+        void columns(List<String> columns);
+
+        void rows(TableData batch);
+    }
+
+    /** Τι έκανε ένα statement της κονσόλας: γραμμές (ίσως κομμένες στο maxRows) ή update count. */
+    public static final class SqlResult {
+        public final boolean query;
+        public final long rows;
+        public final boolean truncated;
+        public final long updateCount;
+
+        SqlResult(boolean query, long rows, boolean truncated, long updateCount) {
+            this.query = query;
+            this.rows = rows;
+            this.truncated = truncated;
+            this.updateCount = updateCount;
+        }
+    }
+
+    /**
+     * Ένα statement από την κονσόλα. Το ResultSet έρχεται ως stream (ο driver δεν το φορτώνει όλο) και
+     * οι γραμμές πάνε στο sink ανά batchRows ή κάθε 100 ms, ώστε οι πρώτες να φαίνονται αμέσως. Στις
+     * maxRows γραμμές το query ακυρώνεται στον server. Σε replica (DB.read) πάνε μόνο όσα είναι σίγουρα
+     * reads ({@link #readOnly}), όλα τα υπόλοιπα στον primary.
+     */
+    public SqlResult runSql(String sql, int maxRows, int batchRows, ResultSink sink) throws SQLException {
+        String verb = firstWord(sql);
+        boolean read = readOnly(sql);
+        try (Metrics.Span span = Metrics.span("console.sql");
+             Connection con = read ? DB.read() : DB.get();
+             Statement st = CancelScope.track(con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))) {
+            st.setFetchSize(Integer.MIN_VALUE);
+            if (!st.execute(sql)) {
+                long n = st.getLargeUpdateCount();
+                if (!read) DB.wrote();
+                if (DDL_STATEMENTS.contains(verb)) schema.invalidate();
+                span.rows(n);
+                return new SqlResult(false, 0, false, n);
+            }
+
+            ResultSet rs = st.getResultSet();
+            long n = 0;
+            boolean truncated = false;
+            try {
+                TableData batch = TableData.forResult(rs);
+                sink.columns(batch.columns);
+                long flushed = System.nanoTime();
+                while (rs.next()) {
+                    if (n == maxRows) {
+                        // αλλιώς το close() του streaming ResultSet θα διάβαζε όλες τις υπόλοιπες
+                        truncated = true;
+                        st.cancel();
+                        break;
+                    }
+                    batch.readRow(rs);
+                    n++;
+                    if (batch.rowCount() >= batchRows || System.nanoTime() - flushed > 100_000_000L) {
+                        sink.rows(batch);
+                        batch = TableData.forResult(rs);
+                        flushed = System.nanoTime();
+                    }
+                }
+                if (!batch.isEmpty()) sink.rows(batch);
+            } finally {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    if (!truncated) throw e; // μετά το cancel: "Query execution was interrupted"
+                }
+            }
+            span.rows(n);
+            return new SqlResult(true, n, truncated, -1);
+        }
+    }
+
+    /**
+     * Το plan του query ως δέντρο: EXPLAIN FORMAT=TREE, ή EXPLAIN ANALYZE (εκτελεί το query, άρα μόνο
+     * για SELECT) με πραγματικούς χρόνους και γραμμές. Σε server χωρίς FORMAT=TREE (MySQL πριν την 8.0.16,
+     * MariaDB) το κλασικό EXPLAIN ως πίνακας.
+     */
+    public ExplainPlan explain(String sql, boolean analyze) throws SQLException {
+        String verb = firstWord(sql);
+        if (analyze && (!verb.equals("select") && !verb.equals("with") && !verb.equals("table") || !readOnly(sql))) {
+            throw new SQLException("EXPLAIN ANALYZE runs the statement; only SELECT is allowed here.");
+        }
+        try (Metrics.Span span = Metrics.span(analyze ? "console.explainAnalyze" : "console.explain");
+             Connection con = DB.read();
+             Statement st = CancelScope.track(con.createStatement())) {
+            try (ResultSet rs = st.executeQuery((analyze ? "EXPLAIN ANALYZE " : "EXPLAIN FORMAT=TREE ") + sql)) {
+                StringBuilder text = new StringBuilder();
+                while (rs.next()) text.append(rs.getString(1)).append('\n');
+                return ExplainPlan.parse(text.toString());
+            } catch (SQLException e) {
+                if (e.getErrorCode() != 1064 && e.getErrorCode() != 1235) throw e; // syntax / not supported
+            }
+            try (ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+                return ExplainPlan.table(TableData.read(rs));
+            }
+        }
+    }
+
+    /**
+     * Statement που σίγουρα δεν γράφει: read verb και καμία λέξη εγγραφής/κλειδώματος έξω από strings
+     * και σχόλια. Στην αμφιβολία (π.χ. στήλη με όνομα update χωρίς backticks) false, δηλαδή primary.
+     * Stored functions που γράφουν δεν φαίνονται από το κείμενο· γι' αυτά τα replicas πρέπει να είναι
+     * super_read_only.
+     */
+    static boolean readOnly(String sql) {
+        return READ_STATEMENTS.contains(firstWord(sql))
+                && !WRITE_WORDS.matcher(SQL_NOISE.matcher(sql).replaceAll(" ")).find();
+    }
+
+    // η πρώτη λέξη του statement, μετά από κενά, σχόλια και παρενθέσεις
+    static String firstWord(String sql) {
+        String s = sql.replaceAll("(?s)^(\\s|/\\*.*?\\*/|--[^\n]*\n?|#[^\n]*\n?|\\()*", "");
+        int end = 0;
+        while (end < s.length() && Character.isLetter(s.charAt(end))) end++;
+        return s.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    // ===== SQL builders (κοινά για single-row και batch) =====
+    static List<String> updatableColumns(List<String> pkCols, Map<String, Object> newValues) throws SQLException {
+        List<String> setCols = new ArrayList<>(newValues.keySet());
+        setCols.removeAll(pkCols); // policy: δεν αλλάζουμε PK
+        if (setCols.isEmpty()) throw new SQLException("No editable columns to update.");
+        return setCols;
+    }
+
+    // Το SQL των CRUD έρχεται από το SqlTemplates: ίδιες στήλες = ίδιο String, χωρίς StringBuilder
+    static String insertSql(String table, List<String> cols) {
+        return SqlTemplates.insert(table, cols);
+    }
+
+    static String updateSql(String table, List<String> setCols, List<String> pkCols) {
+        return SqlTemplates.update(table, setCols, pkCols);
+    }
+
+    static String deleteSql(String table, List<String> pkCols) {
+        return SqlTemplates.delete(table, pkCols);
+    }
+
+    static String pkPredicate(List<String> pkCols) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pkCols.size(); i++) {
+            if (i > 0) sb.append(" AND ");
+            sb.append(q(pkCols.get(i))).append("=?");
+        }
+        return sb.toString();
+    }
     
     // Export
 
 public String convertToCSV(TableData data) {
-    StringBuilder sb = new StringBuilder();
-    
-    // Προσθήκη των επικεφαλίδων (Headers)
-    sb.append(String.join(",", data.columns)).append("\n");
-    
-    // Προσθήκη των δεδομένων
-    for (Object[] row : data.rows) {
-        for (int i = 0; i < row.length; i++) {
-            String val = (row[i] == null) ? "" : row[i].toString();
-            // Αν η τιμή έχει κόμμα, την βάζουμε σε εισαγωγικά για να μη χαλάσει το CSV
-            if (val.contains(",")) val = "\"" + val + "\"";
-            sb.append(val);
-            if (i < row.length - 1) sb.append(",");
-        }
-        sb.append("\n");
-    }
-    return sb.toString();
+    StringWriter sw = new StringWriter();
+    CsvWriter csv = new CsvWriter(sw);
+    try {
+        // Προσθήκη των επικεφαλίδων (Headers)
+        csv.writeHeader(data.columns);
+
+        // Προσθήκη των δεδομένων (RFC 4180 quoting: κόμμα, εισαγωγικά, αλλαγές γραμμής)
+        for (int r = 0; r < data.rowCount(); r++) csv.writeRow(data, r);
+    } catch (IOException e) {
+        throw new UncheckedIOException(e); // δεν συμβαίνει σε StringWriter
+    }
+    return sw.toString();
 }
 
+    public interface RowProgress {
+        void rows(long done);
+    }
+
+    /**
+     * Streaming export: forward-only ResultSet με fetchSize=Integer.MIN_VALUE (ο MySQL driver
+     * στέλνει γραμμή-γραμμή αντί να τα φορτώσει όλα) και κάθε γραμμή πάει κατευθείαν στο αρχείο.
+     * Η μνήμη μένει σταθερή όσο μεγάλος κι αν είναι ο πίνακας, χωρίς όριο γραμμών. Μεγάλοι πίνακες
+     * με PK διαβάζονται από πολλές συνδέσεις μαζί ({@link ParallelLoader}) και γράφονται με τη σειρά του PK.
+     *
+     * Γράφει πρώτα σε .part και το μετονομάζει μόνο αν ολοκληρωθεί, ώστε ένα cancel/σφάλμα
+     * να μην αφήσει μισό αρχείο με το τελικό όνομα.
+     */
+    public long exportCsv(String table, Path file, boolean gzip, RowProgress progress)
+            throws SQLException, IOException {
+        Path part = file.resolveSibling(file.getFileName() + ".part");
+        long rows;
+        try (OutputStream fileOut = Files.newOutputStream(part);
+             OutputStream raw = gzip ? new GZIPOutputStream(fileOut, 1 << 16) : fileOut;
+             Writer w = new BufferedWriter(
+                     new OutputStreamWriter(raw, StandardCharsets.UTF_8), 1 << 16)) {
+            rows = exportCsv(table, w, progress);
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+        return rows;
+    }
+
+    public long exportCsv(String table, Writer out, RowProgress progress) throws SQLException, IOException {
+        ParallelLoader loader = parallelLoader();
+        if (loader.applies(table)) {
+            // μεγάλος πίνακας με PK: περιοχές από πολλές συνδέσεις, γραμμένες με τη σειρά του PK
+            CsvWriter csv = new CsvWriter(out);
+            long[] done = {0};
+            long n = loader.load(table, new ParallelLoader.Sink() {
+                @Override public void columns(List<String> columns) throws IOException {
+                    csv.writeHeader(columns);
+                }
+
+                @Override public void rows(TableData batch) throws IOException {
+                    for (int r = 0; r < batch.rowCount(); r++) csv.writeRow(batch, r);
+                    done[0] += batch.rowCount();
+                    if (progress != null) progress.rows(done[0]);
+                }
+            });
+            out.flush();
+            return n;
+        }
+        try (Metrics.Span span = Metrics.span("export.csv");
+             Connection con = DB.read();
+             Statement st = CancelScope.track(con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))) {
+            st.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = st.executeQuery("SELECT * FROM " + q(table))) {
+                long n = writeCsv(rs, out, true, progress);
+                span.rows(n);
+                return n;
+            }
+        }
+    }
+
+    /** Όλο το ResultSet ως CSV (με ή χωρίς header)· κοινό για το export ενός και πολλών πινάκων. */
+    static long writeCsv(ResultSet rs, Writer out, boolean header, RowProgress progress) throws SQLException, IOException {
+        ResultSetMetaData md = rs.getMetaData();
+        int cc = md.getColumnCount();
+
+        CsvWriter csv = new CsvWriter(out);
+        if (header) {
+            List<String> cols = new ArrayList<>(cc);
+            for (int i = 1; i <= cc; i++) cols.add(md.getColumnLabel(i));
+            csv.writeHeader(cols);
+        }
+
+        // ένας πίνακας ξαναχρησιμοποιείται για όλες τις γραμμές
+        Object[] row = new Object[cc];
+        long n = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= cc; i++) row[i - 1] = rs.getObject(i);
+            csv.writeRow(row);
+            if (++n % 10_000 == 0) {
+                CancelScope.checkCancelled();
+                if (progress != null) progress.rows(n);
+            }
+        }
+        out.flush();
+        if (progress != null) progress.rows(n);
+        return n;
+    }
+
     // ===== helpers =====
-    private List<String> parseEnumLiterals(String columnType) {
+    private TableData readAll(ResultSet rs, Metrics.Span span) throws SQLException {
+        TableData data = TableData.read(rs);
+        span.rows(data.rowCount()).bytes(data.fetchedBytes());
+        return data;
+    }
+
+    /** Όπως το readAll· οι LOB στήλες του select γίνονται String/byte[] ή {@link LobPreview}. */
+    private TableData readAll(ResultSet rs, Metrics.Span span, SelectList select) throws SQLException {
+        TableData data = readAll(rs, span);
+        for (int c = 0; c < data.columns.size() && !select.lobs.isEmpty(); c++) {
+            String col = data.columns.get(c);
+            Boolean binary = select.lobs.get(col);
+            if (binary != null) data.mapColumn(c, v -> LobPreview.parse(col, binary, v));
+        }
+        return data;
+    }
+
+    static int bind(PreparedStatement ps, List<Object> params, int from) throws SQLException {
+        int idx = from;
+        for (Object p : params) ps.setObject(idx++, p);
+        return idx;
+    }
+
+    static String q(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    static String joinCols(List<String> cols) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cols.size(); i++) {
+            if (i > 0) sb.append(",");
+            sb.append(q(cols.get(i)));
+        }
+        return sb.toString();
+    }
+
+    static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(",");
+            sb.append("?");
+        }
+        return sb.toString();
+    }
+
+    static List<String> parseEnumLiterals(String columnType) {
         // columnType: enum('A','B','C')  (MySQL returns with quotes)
         // Θα κάνουμε ασφαλές parse χωρίς regex “κόλπα”.
         int start = columnType.indexOf('(');
@@ -0,0 +1,417 @@
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Τοπικό αντίγραφο ενός πίνακα σε αρχείο (βλ. {@link LocalSnapshots}), columnar ανά row group:
+ *
+ * <pre>
+ *   "TMS1"
+ *   ανά group (μία περιοχή του PK):  ανά στήλη: int[rows+1] offsets | οι τιμές
+ *   footer:  takenAt | table | fingerprint | στήλες | θέσεις του PK στις στήλες
+ *            ανά group: θέση, μήκος, γραμμές, hash, offset κάθε στήλης, κλειδί αρχής
+ *   long θέση του footer | "TMS1"
+ * </pre>
+ *
+ * Κάθε τιμή είναι byte tag + payload, ώστε να γυρίζει η ίδια κλάση με το rs.getObject (και το
+ * {@link LobPreview})· NULL = μήκος 0. Τα groups γίνονται mmap στο open και μια σελίδα
+ * αποκωδικοποιεί μόνο τις δικές της γραμμές. Το group i καλύπτει τα κλειδιά
+ * [startKey(i), startKey(i+1)): έτσι ελέγχεται και ξαναφέρνεται ανεξάρτητα από τα άλλα.
+ */
+final class TableSnapshot {
+
+    private static final byte[] MAGIC = {'T', 'M', 'S', '1'};
+
+    private static final byte T_INT = 1;
+    private static final byte T_LONG = 2;
+    private static final byte T_SHORT = 3;
+    private static final byte T_BYTE = 4;
+    private static final byte T_BOOL = 5;
+    private static final byte T_FLOAT = 6;
+    private static final byte T_DOUBLE = 7;
+    private static final byte T_DECIMAL = 8;
+    private static final byte T_BIGINT = 9;
+    private static final byte T_STRING = 10;
+    private static final byte T_BYTES = 11;
+    private static final byte T_SQL_DATE = 12;
+    private static final byte T_SQL_TIME = 13;
+    private static final byte T_TIMESTAMP = 14;
+    private static final byte T_DATETIME = 15;
+    private static final byte T_DATE = 16;
+    private static final byte T_TIME = 17;
+    private static final byte T_LOB_TEXT = 18;
+    private static final byte T_LOB_BYTES = 19;
+
+    /** Ένα row group: οι γραμμές μιας περιοχής του PK. */
+    static final class Group {
+        final long position;
+        final long length;
+        final int rows;
+        /** XOR των hash των γραμμών, όπως τα υπολογίζει ο server (TableService.rowHashSql). */
+        final long hash;
+        final int[] columnOffsets;
+        /** Το κάτω όριο (inclusive) της περιοχής· null για το πρώτο group. */
+        final Object[] startKey;
+        long firstRow;
+        ByteBuffer buffer;
+
+        Group(long position, long length, int rows, long hash, int[] columnOffsets, Object[] startKey) {
+            this.position = position;
+            this.length = length;
+            this.rows = rows;
+            this.hash = hash;
+            this.columnOffsets = columnOffsets;
+            this.startKey = startKey;
+        }
+    }
+
+    final Path file;
+    /** Ώρα του server όταν ξεκίνησε το transaction από το οποίο διαβάστηκαν τα δεδομένα (ms). */
+    final long takenAt;
+    final String table;
+    final String fingerprint;
+    final List<String> columns;
+    final int[] pkIndexes;
+    final List<Group> groups;
+    final long rows;
+
+    private TableSnapshot(Path file, long takenAt, String table, String fingerprint, List<String> columns,
+                          int[] pkIndexes, List<Group> groups) {
+        this.file = file;
+        this.takenAt = takenAt;
+        this.table = table;
+        this.fingerprint = fingerprint;
+        this.columns = columns;
+        this.pkIndexes = pkIndexes;
+        this.groups = groups;
+        long n = 0;
+        for (Group g : groups) {
+            g.firstRow = n;
+            n += g.rows;
+        }
+        this.rows = n;
+    }
+
+    /** Διαβάζει το footer και κάνει mmap κάθε group· τα δεδομένα δεν διαβάζονται εδώ. */
+    static TableSnapshot open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 16) throw new IOException("Truncated snapshot " + file);
+            ByteBuffer tail = ByteBuffer.allocate(12);
+            ch.read(tail, size - 12);
+            tail.flip();
+            long footer = tail.getLong();
+            byte[] magic = new byte[4];
+            tail.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || footer < 4 || footer > size - 12) throw new IOException("Not a snapshot file: " + file);
+
+            ByteBuffer fb = ByteBuffer.allocate((int) (size - 12 - footer));
+            ch.read(fb, footer);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(fb.array()));
+            long takenAt = in.readLong();
+            String table = in.readUTF();
+            String fingerprint = in.readUTF();
+            List<String> columns = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) columns.add(in.readUTF());
+            int[] pkIndexes = new int[in.readInt()];
+            for (int i = 0; i < pkIndexes.length; i++) pkIndexes[i] = in.readInt();
+
+            List<Group> groups = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                long position = in.readLong();
+                long length = in.readLong();
+                int rows = in.readInt();
+                long hash = in.readLong();
+                int[] offsets = new int[columns.size()];
+                for (int c = 0; c < offsets.length; c++) offsets[c] = in.readInt();
+                Object[] startKey = readKey(in, columns, pkIndexes);
+                Group g = new Group(position, length, rows, hash, offsets, startKey);
+                // το mapping μένει έγκυρο και αφού κλείσει το channel
+                g.buffer = ch.map(FileChannel.MapMode.READ_ONLY, position, length);
+                groups.add(g);
+            }
+            return new TableSnapshot(file, takenAt, table, fingerprint, columns, pkIndexes, groups);
+        }
+    }
+
+    // ===== ανάγνωση =====
+    /** Έως n γραμμές μετά το afterKey (null = από την αρχή), όπως το TableService.loadPage. */
+    TableService.TableData page(Object[] afterKey, int n) {
+        TableService.TableData data = new TableService.TableData(columns);
+        long from = position(afterKey);
+        long to = Math.min(rows, from + n);
+        for (long r = from; r < to; r++) data.append(row(r));
+        return data;
+    }
+
+    /** Το κλειδί της γραμμής offset θέσεις μετά το afterKey, ή null. */
+    Object[] seekKey(Object[] afterKey, long offset) {
+        long idx = position(afterKey) + offset;
+        return idx < rows ? key(idx) : null;
+    }
+
+    /** Η θέση της πρώτης γραμμής με κλειδί μεγαλύτερο από το afterKey (binary search). */
+    long position(Object[] afterKey) {
+        if (afterKey == null) return 0;
+        long lo = 0, hi = rows;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (compareKeys(key(mid), afterKey) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    Object[] row(long index) {
+        Group g = groupOf(index);
+        int r = (int) (index - g.firstRow);
+        Object[] row = new Object[columns.size()];
+        for (int c = 0; c < row.length; c++) row[c] = value(g, c, r);
+        return row;
+    }
+
+    Object[] key(long index) {
+        Group g = groupOf(index);
+        int r = (int) (index - g.firstRow);
+        Object[] key = new Object[pkIndexes.length];
+        for (int i = 0; i < key.length; i++) key[i] = value(g, pkIndexes[i], r);
+        return key;
+    }
+
+    private Group groupOf(long index) {
+        int lo = 0, hi = groups.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (groups.get(mid).firstRow <= index) lo = mid;
+            else hi = mid - 1;
+        }
+        return groups.get(lo);
+    }
+
+    private Object value(Group g, int col, int row) {
+        ByteBuffer b = g.buffer;
+        int base = g.columnOffsets[col];
+        int data = base + 4 * (g.rows + 1);
+        int start = b.getInt(base + 4 * row);
+        int end = b.getInt(base + 4 * (row + 1));
+        return end == start ? null : decode(b, data + start, end - start, columns.get(col));
+    }
+
+    /** Σύγκριση κλειδιών με τη σειρά του ORDER BY pk (ο LocalSnapshots δέχεται μόνο αριθμητικά/χρονικά PK). */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareKeys(Object[] a, Object[] b) {
+        for (int i = 0; i < a.length; i++) {
+            Object x = a[i], y = b[i];
+            int c;
+            if (x == null || y == null) c = x == null ? (y == null ? 0 : -1) : 1;
+            else if (x.getClass() == y.getClass() && x instanceof Comparable) c = ((Comparable) x).compareTo(y);
+            else if (x instanceof Number && y instanceof Number) c = new BigDecimal(x.toString()).compareTo(new BigDecimal(y.toString()));
+            else c = x.toString().compareTo(y.toString());
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    // ===== εγγραφή =====
+    /** Γράφει ένα νέο αρχείο group-group· το {@link #finish} γράφει το footer. */
+    static final class Writer implements Closeable {
+        private final FileChannel out;
+        private final long takenAt;
+        private final String table;
+        private final String fingerprint;
+        private final List<String> columns;
+        private final int[] pkIndexes;
+        private final List<Group> groups = new ArrayList<>();
+
+        Writer(Path file, long takenAt, String table, String fingerprint, List<String> columns, int[] pkIndexes)
+                throws IOException {
+            this.out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.takenAt = takenAt;
+            this.table = table;
+            this.fingerprint = fingerprint;
+            this.columns = columns;
+            this.pkIndexes = pkIndexes;
+            writeFully(ByteBuffer.wrap(MAGIC));
+        }
+
+        /** Νέο group από γραμμές με τις στήλες του snapshot, με τη σειρά του PK. */
+        void addGroup(TableService.TableData rows, long hash, Object[] startKey) throws IOException {
+            int n = rows.rowCount();
+            int[] offsets = new int[columns.size()];
+            ByteArrayOutputStream group = new ByteArrayOutputStream(64 + n * columns.size() * 12);
+            DataOutputStream gout = new DataOutputStream(group);
+            ByteArrayOutputStream values = new ByteArrayOutputStream();
+            DataOutputStream vout = new DataOutputStream(values);
+            for (int c = 0; c < offsets.length; c++) {
+                offsets[c] = gout.size();
+                values.reset();
+                int[] ends = new int[n];
+                for (int r = 0; r < n; r++) {
+                    Object v = rows.get(r, c);
+                    if (v != null) encode(vout, v);
+                    ends[r] = values.size();
+                }
+                gout.writeInt(0);
+                for (int e : ends) gout.writeInt(e);
+                values.writeTo(gout);
+            }
+            long position = out.position();
+            writeFully(ByteBuffer.wrap(group.toByteArray()));
+            groups.add(new Group(position, out.position() - position, n, hash, offsets, startKey));
+        }
+
+        /** Αντιγράφει αυτούσιο ένα group (που δεν άλλαξε) από παλιό snapshot. */
+        void copyGroup(Group g) throws IOException {
+            long position = out.position();
+            writeFully(g.buffer.duplicate().clear());
+            groups.add(new Group(position, g.length, g.rows, g.hash, g.columnOffsets, g.startKey));
+        }
+
+        long rows() {
+            long n = 0;
+            for (Group g : groups) n += g.rows;
+            return n;
+        }
+
+        void finish() throws IOException {
+            ByteArrayOutputStream footer = new ByteArrayOutputStream();
+            DataOutputStream f = new DataOutputStream(footer);
+            f.writeLong(takenAt);
+            f.writeUTF(table);
+            f.writeUTF(fingerprint);
+            f.writeInt(columns.size());
+            for (String c : columns) f.writeUTF(c);
+            f.writeInt(pkIndexes.length);
+            for (int i : pkIndexes) f.writeInt(i);
+            f.writeInt(groups.size());
+            for (Group g : groups) {
+                f.writeLong(g.position);
+                f.writeLong(g.length);
+                f.writeInt(g.rows);
+                f.writeLong(g.hash);
+                for (int o : g.columnOffsets) f.writeInt(o);
+                writeKey(f, g.startKey);
+            }
+            long position = out.position();
+            f.writeLong(position);
+            f.write(MAGIC);
+            writeFully(ByteBuffer.wrap(footer.toByteArray()));
+            out.force(true);
+        }
+
+        private void writeFully(ByteBuffer b) throws IOException {
+            while (b.hasRemaining()) out.write(b);
+        }
+
+        @Override public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // ===== τιμές =====
+    private static void writeKey(DataOutputStream out, Object[] key) throws IOException {
+        if (key == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(key.length);
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        for (Object v : key) {
+            buf.reset();
+            if (v != null) encode(new DataOutputStream(buf), v);
+            out.writeInt(buf.size());
+            buf.writeTo(out);
+        }
+    }
+
+    private static Object[] readKey(DataInputStream in, List<String> columns, int[] pkIndexes) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        Object[] key = new Object[n];
+        for (int i = 0; i < n; i++) {
+            byte[] b = new byte[in.readInt()];
+            in.readFully(b);
+            key[i] = b.length == 0 ? null : decode(ByteBuffer.wrap(b), 0, b.length, columns.get(pkIndexes[i]));
+        }
+        return key;
+    }
+
+    static void encode(DataOutputStream out, Object v) throws IOException {
+        if (v instanceof Integer i) { out.writeByte(T_INT); out.writeInt(i); }
+        else if (v instanceof Long l) { out.writeByte(T_LONG); out.writeLong(l); }
+        else if (v instanceof Short s) { out.writeByte(T_SHORT); out.writeShort(s); }
+        else if (v instanceof Byte b) { out.writeByte(T_BYTE); out.writeByte(b); }
+        else if (v instanceof Boolean b) { out.writeByte(T_BOOL); out.writeBoolean(b); }
+        else if (v instanceof Float f) { out.writeByte(T_FLOAT); out.writeFloat(f); }
+        else if (v instanceof Double d) { out.writeByte(T_DOUBLE); out.writeDouble(d); }
+        else if (v instanceof BigDecimal d) { out.writeByte(T_DECIMAL); out.write(d.toString().getBytes(StandardCharsets.UTF_8)); }
+        else if (v instanceof BigInteger i) { out.writeByte(T_BIGINT); out.write(i.toString().getBytes(StandardCharsets.UTF_8)); }
+        else if (v instanceof byte[] b) { out.writeByte(T_BYTES); out.write(b); }
+        else if (v instanceof java.sql.Date d) { out.writeByte(T_SQL_DATE); out.writeLong(d.toLocalDate().toEpochDay()); }
+        else if (v instanceof java.sql.Time t) { out.writeByte(T_SQL_TIME); out.writeLong(t.toLocalTime().toNanoOfDay()); }
+        else if (v instanceof java.sql.Timestamp t) { out.writeByte(T_TIMESTAMP); writeDateTime(out, t.toLocalDateTime()); }
+        else if (v instanceof LocalDateTime t) { out.writeByte(T_DATETIME); writeDateTime(out, t); }
+        else if (v instanceof LocalDate d) { out.writeByte(T_DATE); out.writeLong(d.toEpochDay()); }
+        else if (v instanceof LocalTime t) { out.writeByte(T_TIME); out.writeLong(t.toNanoOfDay()); }
+        else if (v instanceof LobPreview p) {
+            out.writeByte(p.binary ? T_LOB_BYTES : T_LOB_TEXT);
+            out.writeLong(p.length);
+            out.write(p.binary ? p.bytes() : p.text().getBytes(StandardCharsets.UTF_8));
+        } else { out.writeByte(T_STRING); out.write(v.toString().getBytes(StandardCharsets.UTF_8)); }
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime t) throws IOException {
+        out.writeLong(t.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(t.getNano());
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer b, int pos) {
+        return LocalDateTime.ofEpochSecond(b.getLong(pos), b.getInt(pos + 8), ZoneOffset.UTC);
+    }
+
+    static Object decode(ByteBuffer b, int pos, int len, String column) {
+        int p = pos + 1;
+        switch (b.get(pos)) {
+            case T_INT: return b.getInt(p);
+            case T_LONG: return b.getLong(p);
+            case T_SHORT: return b.getShort(p);
+            case T_BYTE: return b.get(p);
+            case T_BOOL: return b.get(p) != 0;
+            case T_FLOAT: return b.getFloat(p);
+            case T_DOUBLE: return b.getDouble(p);
+            case T_DECIMAL: return new BigDecimal(utf8(b, p, len - 1));
+            case T_BIGINT: return new BigInteger(utf8(b, p, len - 1));
+            case T_BYTES: return bytes(b, p, len - 1);
+            case T_SQL_DATE: return java.sql.Date.valueOf(LocalDate.ofEpochDay(b.getLong(p)));
+            case T_SQL_TIME: return java.sql.Time.valueOf(LocalTime.ofNanoOfDay(b.getLong(p)));
+            case T_TIMESTAMP: return java.sql.Timestamp.valueOf(readDateTime(b, p));
+            case T_DATETIME: return readDateTime(b, p);
+            case T_DATE: return LocalDate.ofEpochDay(b.getLong(p));
+            case T_TIME: return LocalTime.ofNanoOfDay(b.getLong(p));
+            case T_LOB_TEXT: return new LobPreview(column, false, b.getLong(p), utf8(b, p + 8, len - 9));
+            case T_LOB_BYTES: return new LobPreview(column, true, b.getLong(p), bytes(b, p + 8, len - 9));
+            default: return utf8(b, p, len - 1);
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer b, int pos, int len) {
+        byte[] out = new byte[len];
+        b.get(pos, out);
+        return out;
+    }
+
+    private static String utf8(ByteBuffer b, int pos, int len) {
+        return new String(bytes(b, pos, len), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,205 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Μαζεύει INSERT/UPDATE/DELETE για πολλές γραμμές και τα στέλνει στο {@link #flush()}
+ * σε ένα transaction με addBatch/executeBatch.
+ *
+ * Διαδοχικές εντολές με το ίδιο SQL μπαίνουν στο ίδιο batch (και με rewriteBatchedStatements
+ * ο driver τις στέλνει ως ένα multi-row statement). Η σειρά των εντολών κρατιέται: όταν
+ * αλλάζει το SQL κλείνει το τρέχον batch και ανοίγει καινούριο.
+ *
+ * Τα optimistic updateIfUnchanged/deleteIfUnchanged ελέγχουν το πλήθος γραμμών κάθε εντολής
+ * του batch: μία με 0 = conflict, rollback όλου του transaction και
+ * {@link ConcurrencyConflictException} για την πρώτη τέτοια γραμμή.
+ */
+public class UnitOfWork {
+
+    private static final int MAX_BATCH = 1000;
+
+    private static class Op {
+        final String sql;
+        final Object[] params;
+        // μόνο για optimistic εντολές: ό,τι χρειάζεται η ConcurrencyConflictException
+        String table;
+        List<String> pkCols;
+        Map<String, Object> original;
+        Map<String, Object> attempted;
+
+        Op(String sql, Object[] params) {
+            this.sql = sql;
+            this.params = params;
+        }
+
+        Op guarded(String table, List<String> pkCols, Map<String, Object> original, Map<String, Object> attempted) {
+            this.table = table;
+            this.pkCols = pkCols;
+            this.original = original;
+            this.attempted = attempted;
+            return this;
+        }
+    }
+
+    private final List<Op> ops = new ArrayList<>();
+    // πίνακες με INSERT/DELETE: το πλήθος γραμμών τους γίνεται stale στο flush
+    private final Set<String> resized = new HashSet<>();
+    // όλοι οι πίνακες που αλλάζουν (για τα τοπικά snapshots)
+    private final Set<String> written = new HashSet<>();
+    private final TableService service;
+    private final RowCountService rowCounts;
+    private final DB.Source target;
+    // false: ο target είναι άλλη βάση, οπότε counts/snapshots της τρέχουσας δεν αλλάζουν
+    private final boolean local;
+
+    UnitOfWork(TableService service) {
+        this(service, DB::get, true);
+    }
+
+    /** Εντολές προς άλλη βάση (π.χ. το sync του TableDiff σε άλλο profile). */
+    UnitOfWork(TableService service, DB.Source target, boolean local) {
+        this.service = service;
+        this.rowCounts = service.rowCounts();
+        this.target = target;
+        this.local = local;
+    }
+
+    public UnitOfWork insert(String table, Map<String, Object> values) throws SQLException {
+        List<String> cols = new ArrayList<>(values.keySet());
+        if (cols.isEmpty()) throw new SQLException("No values to insert.");
+
+        Object[] params = new Object[cols.size()];
+        for (int i = 0; i < params.length; i++) params[i] = values.get(cols.get(i));
+        ops.add(new Op(TableService.insertSql(table, cols), params));
+        written.add(table);
+        resized.add(table);
+        return this;
+    }
+
+    public UnitOfWork update(String table, List<String> pkCols,
+                             Map<String, Object> newValues, Map<String, Object> pkValues) throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY. Update not supported.");
+
+        List<String> setCols = TableService.updatableColumns(pkCols, newValues);
+        Object[] params = new Object[setCols.size() + pkCols.size()];
+        int idx = 0;
+        for (String c : setCols) params[idx++] = newValues.get(c);
+        for (String c : pkCols) params[idx++] = pkValues.get(c);
+        ops.add(new Op(TableService.updateSql(table, setCols, pkCols), params));
+        written.add(table);
+        return this;
+    }
+
+    public UnitOfWork delete(String table, List<String> pkCols, Map<String, Object> pkValues) throws SQLException {
+        if (pkCols.isEmpty()) throw new SQLException("Table has no PRIMARY KEY. Delete not supported.");
+
+        Object[] params = new Object[pkCols.size()];
+        for (int i = 0; i < params.length; i++) params[i] = pkValues.get(pkCols.get(i));
+        ops.add(new Op(TableService.deleteSql(table, pkCols), params));
+        written.add(table);
+        resized.add(table);
+        return this;
+    }
+
+    /** UPDATE μόνο αν η γραμμή είναι ακόμα όπως στο original (βλ. TableService.updateRowIfUnchanged). */
+    public UnitOfWork updateIfUnchanged(String table, List<String> pkCols,
+                                        Map<String, Object> newValues, Map<String, Object> original) throws SQLException {
+        TableService.Guarded g = service.guardedUpdate(table, pkCols, newValues, original);
+        ops.add(new Op(g.sql, g.params).guarded(table, pkCols, original, newValues));
+        written.add(table);
+        return this;
+    }
+
+    public UnitOfWork deleteIfUnchanged(String table, List<String> pkCols, Map<String, Object> original) throws SQLException {
+        TableService.Guarded g = service.guardedDelete(table, pkCols, original);
+        ops.add(new Op(g.sql, g.params).guarded(table, pkCols, original, null));
+        written.add(table);
+        resized.add(table);
+        return this;
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    public boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    /**
+     * Εκτελεί όλες τις εντολές σε ένα transaction. Σε οποιοδήποτε σφάλμα γίνεται rollback
+     * και δεν εφαρμόζεται τίποτα.
+     *
+     * @return affected rows (οι εντολές που ο driver ξαναέγραψε σε multi-row μετράνε ως 1 η καθεμία)
+     */
+    public long flush() throws SQLException {
+        if (ops.isEmpty()) return 0;
+
+        try (Metrics.Span span = Metrics.span("write.batch");
+             Connection con = target.get()) {
+            con.setAutoCommit(false);
+            try {
+                long affected = 0;
+                Op conflict = null;
+                int i = 0;
+                while (i < ops.size() && conflict == null) {
+                    String sql = ops.get(i).sql;
+                    try (PreparedStatement ps = CancelScope.track(con.prepareStatement(sql))) {
+                        int inBatch = 0;
+                        while (i < ops.size() && ops.get(i).sql.equals(sql) && conflict == null) {
+                            Object[] params = ops.get(i).params;
+                            for (int p = 0; p < params.length; p++) ps.setObject(p + 1, params[p]);
+                            ps.addBatch();
+                            i++;
+                            if (++inBatch == MAX_BATCH) {
+                                int[] counts = ps.executeBatch();
+                                affected += sum(counts);
+                                conflict = firstConflict(counts, i - inBatch);
+                                inBatch = 0;
+                            }
+                        }
+                        if (inBatch > 0 && conflict == null) {
+                            int[] counts = ps.executeBatch();
+                            affected += sum(counts);
+                            conflict = firstConflict(counts, i - inBatch);
+                        }
+                    }
+                }
+                if (conflict != null) {
+                    con.rollback();
+                    throw service.conflict(conflict.table, conflict.pkCols, conflict.original, conflict.attempted, true);
+                }
+                con.commit();
+                ops.clear();
+                if (local) {
+                    for (String t : resized) rowCounts.invalidate(t);
+                    for (String t : written) service.written(t);
+                }
+                resized.clear();
+                written.clear();
+                span.rows(affected);
+                return affected;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /** Η πρώτη optimistic εντολή του batch (που ξεκινάει στο ops[from]) που δεν βρήκε τη γραμμή της. */
+    private Op firstConflict(int[] counts, int from) {
+        for (int k = 0; k < counts.length; k++) {
+            Op op = ops.get(from + k);
+            if (op.original != null && counts[k] == 0) return op;
+        }
+        return null;
+    }
+
+    private static long sum(int[] counts) {
+        long n = 0;
+        for (int c : counts) n += c == Statement.SUCCESS_NO_INFO ? 1 : Math.max(c, 0);
+        return n;
+    }
+}